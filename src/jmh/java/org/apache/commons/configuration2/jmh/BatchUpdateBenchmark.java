@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.XMLConfiguration;
+import org.apache.commons.configuration2.tree.ModelBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks comparing a batch of updates with the same updates executed by
+ * single calls of {@code setProperty()}. An {@code XMLConfiguration} is used,
+ * so that the node model has to maintain references for its nodes. Each
+ * invocation changes the values of a number of keys distributed over the
+ * whole configuration.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchUpdateBenchmark
+{
+    /** The width of the test configuration. */
+    @Param({ "10", "100" })
+    public int width;
+
+    /** The configuration to be updated. */
+    private XMLConfiguration config;
+
+    /** The keys to be updated. */
+    private String[] keys;
+
+    /** A batch with the updates of a single invocation. */
+    private ModelBatch batch;
+
+    @Setup
+    public void setUp()
+    {
+        config = BenchmarkConfigurations.createXMLConfiguration(width, false);
+        keys = BenchmarkConfigurations.hierarchicalKeys("string", width);
+        batch = new ModelBatch();
+        for (String key : keys)
+        {
+            batch.setProperty(key, "updated");
+        }
+    }
+
+    @Benchmark
+    public void setPropertySequential()
+    {
+        for (String key : keys)
+        {
+            config.setProperty(key, "updated");
+        }
+    }
+
+    @Benchmark
+    public void setPropertyBatch()
+    {
+        config.executeBatch(batch);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.XMLConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.configuration2.io.FileHandler;
+
+/**
+ * A helper class for creating the test configurations used by the
+ * benchmarks. All configurations created here follow the same naming scheme,
+ * so that the different benchmark suites can query comparable keys. The
+ * values either are plain literals or contain variables which have to be
+ * resolved by interpolation.
+ *
+ * @version $Id$
+ */
+final class BenchmarkConfigurations
+{
+    /** The number of keys queried by a single benchmark invocation. */
+    static final int PROBE_COUNT = 16;
+
+    /** The number of values stored for list properties. */
+    private static final int LIST_SIZE = 4;
+
+    /**
+     * Private constructor so that no instances can be created.
+     */
+    private BenchmarkConfigurations()
+    {
+    }
+
+    /**
+     * Creates a flat {@code BaseConfiguration} with the given number of
+     * entries. For each index <em>i</em> the configuration contains the keys
+     * {@code string.i}, {@code int.i}, and {@code list.i}. Variables refer to
+     * the keys {@code base.b{i}} and {@code base.i{i}}, which exist in flat
+     * and hierarchical configurations alike.
+     *
+     * @param size the number of entries
+     * @param variables a flag whether values should contain variables
+     * @return the new configuration
+     */
+    static BaseConfiguration createFlatConfiguration(int size,
+            boolean variables)
+    {
+        BaseConfiguration config = new BaseConfiguration();
+        for (int i = 0; i < size; i++)
+        {
+            config.addProperty("base.b" + i, "base" + i);
+            config.addProperty("base.i" + i, String.valueOf(i));
+            config.addProperty("string." + i, stringValue(i, variables));
+            config.addProperty("int." + i, intValue(i, variables));
+            config.addProperty("list." + i,
+                    Arrays.asList(listValues(i, variables)));
+        }
+        return config;
+    }
+
+    /**
+     * Creates an {@code XMLConfiguration} with the given number of sections.
+     * Each section has the same number of entries, an attribute and a list.
+     * The element names follow the pattern {@code section{i}.string{j}},
+     * {@code section{i}.int{j}}, {@code section{i}[@id]}, and
+     * {@code section{i}.list.item}.
+     *
+     * @param width the number of sections and entries per section
+     * @param variables a flag whether values should contain variables
+     * @return the new configuration
+     */
+    static XMLConfiguration createXMLConfiguration(int width,
+            boolean variables)
+    {
+        StringBuilder buf = new StringBuilder();
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        buf.append("<config><base>");
+        for (int i = 0; i < width; i++)
+        {
+            appendElement(buf, "b" + i, "base" + i);
+            appendElement(buf, "i" + i, String.valueOf(i));
+        }
+        buf.append("</base>");
+        for (int i = 0; i < width; i++)
+        {
+            buf.append("<section").append(i).append(" id=\"")
+                    .append(stringValue(i, variables)).append("\">");
+            for (int j = 0; j < width; j++)
+            {
+                appendElement(buf, "string" + j, stringValue(j, variables));
+                appendElement(buf, "int" + j, intValue(j, variables));
+            }
+            buf.append("<list>");
+            for (String item : listValues(i, variables))
+            {
+                appendElement(buf, "item", item);
+            }
+            buf.append("</list>");
+            buf.append("</section").append(i).append('>');
+        }
+        buf.append("</config>");
+
+        XMLConfiguration config = new XMLConfiguration();
+        try
+        {
+            new FileHandler(config).load(new StringReader(buf.toString()));
+        }
+        catch (ConfigurationException cex)
+        {
+            throw new IllegalStateException(cex);
+        }
+        return config;
+    }
+
+    /**
+     * Returns an array with keys to be queried from a flat configuration.
+     * The keys are distributed over the whole key space.
+     *
+     * @param prefix the prefix of the keys (e.g. {@code string})
+     * @param size the number of entries in the configuration
+     * @return the array with keys
+     */
+    static String[] flatKeys(String prefix, int size)
+    {
+        String[] keys = new String[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++)
+        {
+            keys[i] = prefix + "." + probeIndex(i, size);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns an array with keys to be queried from a hierarchical
+     * configuration created by
+     * {@link #createXMLConfiguration(int, boolean)}.
+     *
+     * @param prefix the prefix of the leaf element (e.g. {@code string})
+     * @param width the width of the configuration
+     * @return the array with keys
+     */
+    static String[] hierarchicalKeys(String prefix, int width)
+    {
+        String[] keys = new String[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++)
+        {
+            int idx = probeIndex(i, width * width);
+            keys[i] = "section" + (idx / width) + "." + prefix + (idx % width);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the index of the probe key with the given number.
+     *
+     * @param probe the number of the probe
+     * @param size the size of the key space
+     * @return the index of this key
+     */
+    static int probeIndex(int probe, int size)
+    {
+        return (int) ((long) probe * (size - 1) / (PROBE_COUNT - 1));
+    }
+
+    /**
+     * Returns the string value for the given index.
+     *
+     * @param i the index
+     * @param variables the variables flag
+     * @return the value
+     */
+    private static String stringValue(int i, boolean variables)
+    {
+        return variables ? "${base.b" + i + "}-value" : "value" + i;
+    }
+
+    /**
+     * Returns the numeric value for the given index.
+     *
+     * @param i the index
+     * @param variables the variables flag
+     * @return the value
+     */
+    private static String intValue(int i, boolean variables)
+    {
+        return variables ? "${base.i" + i + "}" : String.valueOf(i);
+    }
+
+    /**
+     * Returns the values of a list property for the given index.
+     *
+     * @param i the index
+     * @param variables the variables flag
+     * @return the list values
+     */
+    private static String[] listValues(int i, boolean variables)
+    {
+        String[] values = new String[LIST_SIZE];
+        for (int j = 0; j < LIST_SIZE; j++)
+        {
+            values[j] = stringValue(i, variables) + j;
+        }
+        return values;
+    }
+
+    /**
+     * Appends a simple element to the given buffer.
+     *
+     * @param buf the buffer
+     * @param name the element name
+     * @param value the element content
+     */
+    private static void appendElement(StringBuilder buf, String name,
+            String value)
+    {
+        buf.append('<').append(name).append('>').append(value).append("</")
+                .append(name).append('>');
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.CombinedConfiguration;
+import org.apache.commons.configuration2.XMLConfiguration;
+import org.apache.commons.configuration2.sync.ReadWriteSynchronizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for a {@code CombinedConfiguration} with a varying number of
+ * child configurations. Besides plain reads, the costs of a read after a
+ * child configuration has been changed (which causes the combined node
+ * structure to be reconstructed) and the lookup of the source of a key are
+ * measured. The reconstruction can be done either synchronously or in
+ * background, and nodes can be combined sequentially or in parallel. A
+ * {@code ReadWriteSynchronizer} is used in all modes, as background
+ * reconstructions require it.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombinedConfigurationBenchmark
+{
+    /** The width of the child configurations. */
+    private static final int CHILD_WIDTH = 10;
+
+    /** The number of child configurations. */
+    @Param({ "1", "10", "40" })
+    public int children;
+
+    /** A flag whether the values contain variables. */
+    @Param({ "false", "true" })
+    public boolean variables;
+
+    /** A flag whether the node structure is reconstructed in background. */
+    @Param({ "false", "true" })
+    public boolean backgroundRebuild;
+
+    /** A flag whether nodes are combined in parallel. */
+    @Param({ "false", "true" })
+    public boolean parallelCombination;
+
+    /** The executor for background reconstructions. */
+    private ExecutorService executor;
+
+    /** The combined configuration to be queried. */
+    private CombinedConfiguration config;
+
+    /** The first child configuration which is changed by some benchmarks. */
+    private XMLConfiguration firstChild;
+
+    /** The last child configuration which is changed by some benchmarks. */
+    private XMLConfiguration lastChild;
+
+    /** The keys contained in all child configurations. */
+    private String[] sharedKeys;
+
+    /** The keys only contained in the last child configuration. */
+    private String[] lastChildKeys;
+
+    /** A counter for generating new property values. */
+    private int counter;
+
+    @Setup
+    public void setUp()
+    {
+        config = new CombinedConfiguration();
+        config.setSynchronizer(new ReadWriteSynchronizer());
+        config.setNodeCombiner(config.getNodeCombiner(), parallelCombination);
+        for (int i = 0; i < children; i++)
+        {
+            lastChild = BenchmarkConfigurations.createXMLConfiguration(
+                    CHILD_WIDTH, variables);
+            lastChild.addProperty("child" + i + ".value", "v" + i);
+            config.addConfiguration(lastChild, "child" + i);
+            if (i == 0)
+            {
+                firstChild = lastChild;
+            }
+        }
+        sharedKeys =
+                BenchmarkConfigurations.hierarchicalKeys("string", CHILD_WIDTH);
+        lastChildKeys = new String[BenchmarkConfigurations.PROBE_COUNT];
+        for (int i = 0; i < lastChildKeys.length; i++)
+        {
+            lastChildKeys[i] = "child" + (children - 1) + ".value";
+        }
+        if (backgroundRebuild)
+        {
+            executor = Executors.newSingleThreadExecutor();
+            config.setRebuildExecutor(executor);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getSharedKey(Blackhole bh)
+    {
+        for (String key : sharedKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getLastChildKey(Blackhole bh)
+    {
+        for (String key : lastChildKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getSourceOfLastChildKey(Blackhole bh)
+    {
+        for (String key : lastChildKeys)
+        {
+            bh.consume(config.getSource(key));
+        }
+    }
+
+    @Benchmark
+    public Object readAfterChildChange()
+    {
+        lastChild.setProperty("changed", ++counter);
+        return config.getProperty(sharedKeys[0]);
+    }
+
+    @Benchmark
+    public Object readAfterFirstChildChange()
+    {
+        firstChild.setProperty("changed", ++counter);
+        return config.getProperty(sharedKeys[0]);
+    }
+}
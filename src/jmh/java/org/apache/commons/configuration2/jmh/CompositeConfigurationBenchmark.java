@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.CompositeConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the read operations of a {@code CompositeConfiguration}
+ * with multiple layers. The keys queried are defined by the last layer, so
+ * that a lookup without the key index has to check all layers.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompositeConfigurationBenchmark
+{
+    /** The number of entries in the last layer. */
+    private static final int SIZE = 1000;
+
+    /** The number of layers in front of the last one. */
+    @Param({ "1", "16" })
+    public int layers;
+
+    /** A flag whether the key index is enabled. */
+    @Param({ "false", "true" })
+    public boolean keyIndex;
+
+    /** The configuration to be queried. */
+    private CompositeConfiguration config;
+
+    /** The keys of string properties. */
+    private String[] stringKeys;
+
+    /** The keys of list properties. */
+    private String[] listKeys;
+
+    @Setup
+    public void setUp()
+    {
+        config = new CompositeConfiguration();
+        for (int i = 0; i < layers; i++)
+        {
+            BaseConfiguration layer = new BaseConfiguration();
+            layer.addProperty("layer" + i + ".name", "layer" + i);
+            config.addConfiguration(layer);
+        }
+        config.addConfiguration(BenchmarkConfigurations.createFlatConfiguration(
+                SIZE, false));
+        config.setKeyIndexEnabled(keyIndex);
+        stringKeys = BenchmarkConfigurations.flatKeys("string", SIZE);
+        listKeys = BenchmarkConfigurations.flatKeys("list", SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getString(Blackhole bh)
+    {
+        for (String key : stringKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getList(Blackhole bh)
+    {
+        for (String key : listKeys)
+        {
+            bh.consume(config.getList(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void containsKey(Blackhole bh)
+    {
+        for (String key : stringKeys)
+        {
+            bh.consume(config.containsKey(key));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.AbstractConfiguration;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.XMLConfiguration;
+import org.apache.commons.configuration2.sync.ReadWriteSynchronizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for concurrent access to a thread-safe configuration. The
+ * configuration is protected by a {@code ReadWriteSynchronizer}. There is a
+ * group with readers only and a group in which a writer constantly updates a
+ * property while the readers are active. The type <em>lockFree</em> is a
+ * hierarchical configuration with lock-free reads enabled; the type
+ * <em>copyOnWrite</em> is a flat configuration in copy-on-write mode.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ContendedReadBenchmark
+{
+    /** Constant for the number of entries in a flat configuration. */
+    private static final int FLAT_SIZE = 1000;
+
+    /** Constant for the width of a hierarchical configuration. */
+    private static final int HIERARCHICAL_WIDTH = 30;
+
+    /** The type of the configuration to be tested. */
+    @Param({ "flat", "copyOnWrite", "hierarchical", "lockFree" })
+    public String type;
+
+    /** The configuration to be queried. */
+    private AbstractConfiguration config;
+
+    /** The keys to be queried. */
+    private String[] keys;
+
+    /** A counter for generating new property values. */
+    private int counter;
+
+    @Setup
+    public void setUp()
+    {
+        if ("flat".equals(type) || "copyOnWrite".equals(type))
+        {
+            BaseConfiguration flatConfig =
+                    BenchmarkConfigurations.createFlatConfiguration(FLAT_SIZE,
+                            false);
+            flatConfig.setCopyOnWrite("copyOnWrite".equals(type));
+            config = flatConfig;
+            keys = BenchmarkConfigurations.flatKeys("string", FLAT_SIZE);
+        }
+        else
+        {
+            XMLConfiguration xmlConfig =
+                    BenchmarkConfigurations.createXMLConfiguration(
+                            HIERARCHICAL_WIDTH, false);
+            xmlConfig.setLockFreeReads("lockFree".equals(type));
+            config = xmlConfig;
+            keys = BenchmarkConfigurations.hierarchicalKeys("string",
+                    HIERARCHICAL_WIDTH);
+        }
+        config.setSynchronizer(new ReadWriteSynchronizer());
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void readOnlyReader(Blackhole bh)
+    {
+        readKeys(bh);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void readWriteReader(Blackhole bh)
+    {
+        readKeys(bh);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWriteWriter()
+    {
+        config.setProperty("writer.value", ++counter);
+    }
+
+    /**
+     * Queries all test keys from the configuration.
+     *
+     * @param bh the black hole
+     */
+    private void readKeys(Blackhole bh)
+    {
+        for (String key : keys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+}
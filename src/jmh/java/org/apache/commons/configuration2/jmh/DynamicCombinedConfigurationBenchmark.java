@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.DynamicCombinedConfiguration;
+import org.apache.commons.configuration2.interpol.Lookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the read operations of a {@code DynamicCombinedConfiguration}
+ * whose key pattern resolves to a tenant ID. The key is either evaluated for
+ * each operation or bound to the benchmark thread.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicCombinedConfigurationBenchmark
+{
+    /** The width of the child configuration. */
+    private static final int CHILD_WIDTH = 10;
+
+    /** A flag whether the key is bound to the benchmark thread. */
+    @Param({ "false", "true" })
+    public boolean bindKey;
+
+    /** The configuration to be queried. */
+    private DynamicCombinedConfiguration config;
+
+    /** The keys to be queried. */
+    private String[] keys;
+
+    @Setup
+    public void setUp()
+    {
+        config = new DynamicCombinedConfiguration();
+        config.getInterpolator().registerLookup("tenant", new Lookup()
+        {
+            @Override
+            public Object lookup(String variable)
+            {
+                return "tenant1";
+            }
+        });
+        config.setKeyPattern("${tenant:id}");
+        config.addConfiguration(BenchmarkConfigurations.createXMLConfiguration(
+                CHILD_WIDTH, false));
+        keys = BenchmarkConfigurations.hierarchicalKeys("string", CHILD_WIDTH);
+        if (bindKey)
+        {
+            config.bindCurrentKey();
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        config.unbindKey();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getString(Blackhole bh)
+    {
+        for (String key : keys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the read operations of a flat {@code BaseConfiguration}.
+ * Each invocation queries {@link BenchmarkConfigurations#PROBE_COUNT} keys
+ * spread over the whole configuration.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlatConfigurationBenchmark
+{
+    /** The number of entries in the configuration. */
+    @Param({ "100", "10000" })
+    public int size;
+
+    /** A flag whether the values contain variables. */
+    @Param({ "false", "true" })
+    public boolean variables;
+
+    /** A flag whether interpolated values are cached. */
+    @Param({ "false", "true" })
+    public boolean cacheInterpolation;
+
+    /** A flag whether converted values are cached. */
+    @Param({ "false", "true" })
+    public boolean cacheConversion;
+
+    /** The configuration to be queried. */
+    private BaseConfiguration config;
+
+    /** The keys of string properties. */
+    private String[] stringKeys;
+
+    /** The keys of numeric properties. */
+    private String[] intKeys;
+
+    /** The keys of list properties. */
+    private String[] listKeys;
+
+    @Setup
+    public void setUp()
+    {
+        config = BenchmarkConfigurations.createFlatConfiguration(size,
+                variables);
+        config.setCacheInterpolatedValues(cacheInterpolation);
+        config.setCacheConvertedValues(cacheConversion);
+        stringKeys = BenchmarkConfigurations.flatKeys("string", size);
+        intKeys = BenchmarkConfigurations.flatKeys("int", size);
+        listKeys = BenchmarkConfigurations.flatKeys("list", size);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getString(Blackhole bh)
+    {
+        for (String key : stringKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getInt(Blackhole bh)
+    {
+        for (String key : intKeys)
+        {
+            bh.consume(config.getInt(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getIntWithDefault(Blackhole bh)
+    {
+        for (String key : intKeys)
+        {
+            bh.consume(config.getInt(key, 0));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getList(Blackhole bh)
+    {
+        for (String key : listKeys)
+        {
+            bh.consume(config.getList(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void containsKey(Blackhole bh)
+    {
+        for (String key : stringKeys)
+        {
+            bh.consume(config.containsKey(key));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.XMLConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for key queries on an {@code XMLConfiguration}. This measures
+ * the expression engine and the navigation through the node tree for simple
+ * paths, attributes, and indexed keys.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchicalConfigurationBenchmark
+{
+    /** The number of sections and the number of entries per section. */
+    @Param({ "10", "100" })
+    public int width;
+
+    /** A flag whether the values contain variables. */
+    @Param({ "false", "true" })
+    public boolean variables;
+
+    /** A flag whether the snapshot mode of the configuration is enabled. */
+    @Param({ "false", "true" })
+    public boolean snapshot;
+
+    /** The configuration to be queried. */
+    private XMLConfiguration config;
+
+    /** The keys of string properties. */
+    private String[] stringKeys;
+
+    /** The keys of numeric properties. */
+    private String[] intKeys;
+
+    /** The keys of attributes. */
+    private String[] attributeKeys;
+
+    /** The keys of list elements with an index. */
+    private String[] indexedKeys;
+
+    @Setup
+    public void setUp()
+    {
+        config = BenchmarkConfigurations.createXMLConfiguration(width,
+                variables);
+        config.setSnapshotMode(snapshot);
+        stringKeys = BenchmarkConfigurations.hierarchicalKeys("string", width);
+        intKeys = BenchmarkConfigurations.hierarchicalKeys("int", width);
+        attributeKeys = new String[BenchmarkConfigurations.PROBE_COUNT];
+        indexedKeys = new String[BenchmarkConfigurations.PROBE_COUNT];
+        for (int i = 0; i < BenchmarkConfigurations.PROBE_COUNT; i++)
+        {
+            int section = BenchmarkConfigurations.probeIndex(i, width);
+            attributeKeys[i] = "section" + section + "[@id]";
+            indexedKeys[i] = "section" + section + ".list.item(" + (i % 4)
+                    + ")";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getString(Blackhole bh)
+    {
+        for (String key : stringKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getInt(Blackhole bh)
+    {
+        for (String key : intKeys)
+        {
+            bh.consume(config.getInt(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getAttribute(Blackhole bh)
+    {
+        for (String key : attributeKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void getIndexed(Blackhole bh)
+    {
+        for (String key : indexedKeys)
+        {
+            bh.consume(config.getString(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkConfigurations.PROBE_COUNT)
+    public void containsKey(Blackhole bh)
+    {
+        for (String key : stringKeys)
+        {
+            bh.consume(config.containsKey(key));
+        }
+    }
+}
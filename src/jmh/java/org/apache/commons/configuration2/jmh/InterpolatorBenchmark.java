@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
+import org.apache.commons.configuration2.interpol.Lookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@code ConfigurationInterpolator.interpolate()} with
+ * different kinds of values: literals without variables, a single variable,
+ * multiple variables embedded in text, nested variables, and variables with
+ * a prefix.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterpolatorBenchmark
+{
+    /** The value to be interpolated. */
+    @Param({ "a plain literal value", "${host}",
+            "http://${host}:${port}/${path}/index.html", "${url}",
+            "${sys:java.version} on ${host}" })
+    public String value;
+
+    /** The interpolator to be tested. */
+    private ConfigurationInterpolator interpolator;
+
+    @Setup
+    public void setUp()
+    {
+        final Map<String, String> variables = new HashMap<>();
+        variables.put("host", "localhost");
+        variables.put("port", "8080");
+        variables.put("path", "app");
+        variables.put("url", "http://${host}:${port}/${path}");
+
+        interpolator = new ConfigurationInterpolator();
+        interpolator.registerLookups(
+                ConfigurationInterpolator.getDefaultPrefixLookups());
+        interpolator.addDefaultLookup(new Lookup()
+        {
+            @Override
+            public Object lookup(String variable)
+            {
+                return variables.get(variable);
+            }
+        });
+    }
+
+    @Benchmark
+    public Object interpolate()
+    {
+        return interpolator.interpolate(value);
+    }
+}
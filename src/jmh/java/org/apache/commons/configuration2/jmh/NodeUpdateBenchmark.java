@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
+import org.apache.commons.configuration2.tree.ModelBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for updates of a hierarchical configuration whose root node has
+ * many children. Each invocation adds a property below the root node and
+ * removes it again, so that the size of the configuration stays constant.
+ * The same update can be executed as a batch.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NodeUpdateBenchmark
+{
+    /** The number of children of the root node. */
+    @Param({ "100", "10000" })
+    public int width;
+
+    /** The configuration to be updated. */
+    private BaseHierarchicalConfiguration config;
+
+    /** A batch with the operations of a single invocation. */
+    private ModelBatch batch;
+
+    @Setup
+    public void setUp()
+    {
+        config = new BaseHierarchicalConfiguration();
+        for (int i = 0; i < width; i++)
+        {
+            config.addProperty("child" + i, i);
+        }
+        batch = new ModelBatch()
+                .addProperty("new", Collections.singleton("value"))
+                .clearProperty("new");
+    }
+
+    @Benchmark
+    public void addAndClearProperty()
+    {
+        config.addProperty("new", "value");
+        config.clearProperty("new");
+    }
+
+    @Benchmark
+    public void addAndClearPropertyBatch()
+    {
+        config.executeBatch(batch);
+    }
+}
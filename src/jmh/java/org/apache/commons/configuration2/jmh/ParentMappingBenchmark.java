@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for operations on large hierarchical configurations which depend
+ * on the mapping from nodes to their parents: setting a new root node (as
+ * done when loading a configuration) and updating a property deep in the
+ * hierarchy.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParentMappingBenchmark
+{
+    /** The number of children of each inner node. */
+    private static final int WIDTH = 50;
+
+    /** The depth of the node hierarchy. */
+    @Param({ "2", "3" })
+    public int depth;
+
+    /** The root node of the test hierarchy. */
+    private ImmutableNode root;
+
+    /** The configuration to be updated. */
+    private BaseHierarchicalConfiguration config;
+
+    /** The key of the property to be updated. */
+    private String updateKey;
+
+    /** A counter for generating new values. */
+    private int counter;
+
+    @Setup
+    public void setUp()
+    {
+        root = createTree(depth);
+        config = new BaseHierarchicalConfiguration();
+        config.getNodeModel().setRootNode(root);
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < depth; i++)
+        {
+            if (buf.length() > 0)
+            {
+                buf.append('.');
+            }
+            buf.append("node").append('(').append(i % WIDTH).append(')');
+        }
+        updateKey = buf.toString();
+    }
+
+    @Benchmark
+    public Object setRootNode()
+    {
+        BaseHierarchicalConfiguration c = new BaseHierarchicalConfiguration();
+        c.getNodeModel().setRootNode(root);
+        c.addProperty("loaded", Boolean.TRUE);
+        return c;
+    }
+
+    @Benchmark
+    public void setDeepProperty()
+    {
+        config.setProperty(updateKey, counter++);
+    }
+
+    /**
+     * Creates a node hierarchy of the given depth.
+     *
+     * @param level the depth of the hierarchy
+     * @return the root node of the hierarchy
+     */
+    private static ImmutableNode createTree(int level)
+    {
+        ImmutableNode.Builder builder = new ImmutableNode.Builder(WIDTH);
+        for (int i = 0; i < WIDTH; i++)
+        {
+            builder.addChild((level > 1) ? new ImmutableNode.Builder()
+                    .name("node").addChildren(createTree(level - 1)
+                            .getChildren()).create() : new ImmutableNode.Builder()
+                    .name("node").value(i).create());
+        }
+        return builder.create();
+    }
+}
@@ -23,23 +23,31 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.configuration2.convert.ConversionHandler;
 import org.apache.commons.configuration2.convert.DefaultConversionHandler;
 import org.apache.commons.configuration2.convert.DisabledListDelimiterHandler;
 import org.apache.commons.configuration2.convert.ListDelimiterHandler;
+import org.apache.commons.configuration2.convert.PrimitiveConversionHandler;
 import org.apache.commons.configuration2.event.BaseEventSource;
 import org.apache.commons.configuration2.event.ConfigurationErrorEvent;
 import org.apache.commons.configuration2.event.ConfigurationEvent;
 import org.apache.commons.configuration2.event.EventListener;
+import org.apache.commons.configuration2.event.EventType;
 import org.apache.commons.configuration2.ex.ConversionException;
 import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
+import org.apache.commons.configuration2.interpol.DefaultLookups;
 import org.apache.commons.configuration2.interpol.InterpolatorSpecification;
 import org.apache.commons.configuration2.interpol.Lookup;
 import org.apache.commons.configuration2.io.ConfigurationLogger;
@@ -63,7 +71,12 @@ import org.apache.commons.lang3.ObjectUtils;
  * method.</li>
  * <li>Support for variable interpolation. Property values containing special
  * variable tokens (like <code>${var}</code>) will be replaced by their
- * corresponding values.</li>
+ * corresponding values. Optionally, the results of interpolation can be
+ * cached; refer to {@link #setCacheInterpolatedValues(boolean)}.</li>
+ * <li>Optional caching of converted values. If enabled, the results of
+ * data type conversions performed by the typed getter methods are stored, so
+ * that strings do not have to be parsed again on each access; refer to
+ * {@link #setCacheConvertedValues(boolean)}.</li>
  * <li>Optional support for string lists. The values of properties to be added to this
  * configuration are checked whether they contain a list delimiter character. If
  * this is the case and if list splitting is enabled, the string is split and
@@ -101,6 +114,25 @@ import org.apache.commons.lang3.ObjectUtils;
  */
 public abstract class AbstractConfiguration extends BaseEventSource implements Configuration
 {
+    /**
+     * A set with the default prefixes of variables whose values can change at
+     * any time. Interpolation results depending on such variables are not
+     * cached. The set contains the prefixes for system properties and
+     * environment variables.
+     *
+     * @since 2.3
+     */
+    public static final Set<String> DEFAULT_VOLATILE_INTERPOLATION_PREFIXES =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+                    DefaultLookups.SYSTEM_PROPERTIES.getPrefix(),
+                    DefaultLookups.ENVIRONMENT.getPrefix())));
+
+    /** Constant for the maximum number of cached interpolation results. */
+    private static final int INTERPOLATION_CACHE_SIZE = 1024;
+
+    /** Constant for the maximum number of cached conversion results. */
+    private static final int CONVERSION_CACHE_SIZE = 1024;
+
     /** The list delimiter handler. */
     private ListDelimiterHandler listDelimiterHandler;
 
@@ -116,6 +148,27 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
     /** Stores a reference to the object that handles variable interpolation. */
     private AtomicReference<ConfigurationInterpolator> interpolator;
 
+    /**
+     * Stores the cache for interpolated values. The reference is <b>null</b>
+     * if caching is disabled.
+     */
+    private AtomicReference<InterpolationCache> interpolationCache;
+
+    /** The prefixes of variables whose values are not cached. */
+    private volatile Set<String> volatileInterpolationPrefixes;
+
+    /**
+     * A special interpolator passed to the conversion handler which makes use
+     * of the cache for interpolated values. It is created on demand.
+     */
+    private volatile ConfigurationInterpolator cachingInterpolator;
+
+    /**
+     * Stores the cache for converted values. The reference is <b>null</b> if
+     * caching is disabled.
+     */
+    private AtomicReference<ConversionCache> conversionCache;
+
     /** The object responsible for synchronization. */
     private volatile Synchronizer synchronizer;
 
@@ -131,6 +184,9 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
     public AbstractConfiguration()
     {
         interpolator = new AtomicReference<>();
+        interpolationCache = new AtomicReference<>();
+        conversionCache = new AtomicReference<>();
+        volatileInterpolationPrefixes = DEFAULT_VOLATILE_INTERPOLATION_PREFIXES;
         initLogger(null);
         installDefaultInterpolator();
         listDelimiterHandler = DisabledListDelimiterHandler.INSTANCE;
@@ -218,6 +274,7 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
                     "ConversionHandler must not be null!");
         }
         this.conversionHandler = conversionHandler;
+        invalidateConversionCache();
     }
 
     /**
@@ -271,6 +328,7 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
     public final void setInterpolator(ConfigurationInterpolator ci)
     {
         interpolator.set(ci);
+        invalidateInterpolationCache();
     }
 
     /**
@@ -323,6 +381,7 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
             ciNew.registerLookups(lookups);
             success = interpolator.compareAndSet(ciOld, ciNew);
         } while (!success);
+        invalidateInterpolationCache();
     }
 
     /**
@@ -363,6 +422,7 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
             ciNew.addDefaultLookup(confLookup);
             success = interpolator.compareAndSet(ciOld, ciNew);
         } while (!success);
+        invalidateInterpolationCache();
     }
 
     /**
@@ -387,6 +447,119 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
             ciNew.setParentInterpolator(parent);
             success = interpolator.compareAndSet(ciOld, ciNew);
         } while (!success);
+        invalidateInterpolationCache();
+    }
+
+    /**
+     * Returns a flag whether the results of interpolation are cached.
+     *
+     * @return a flag whether interpolated values are cached
+     * @since 2.3
+     */
+    public boolean isCacheInterpolatedValues()
+    {
+        return interpolationCache.get() != null;
+    }
+
+    /**
+     * Enables or disables caching of interpolated values. Per default, each
+     * access to a property value containing variables causes these variables
+     * to be resolved again. If caching is enabled, the results of
+     * interpolation are stored, so that subsequent reads of the same values
+     * do not need to resolve variables. The cache is cleared automatically
+     * whenever this configuration fires a change event (i.e. on all
+     * manipulations done via the {@code Configuration} interface) or when its
+     * {@code ConfigurationInterpolator} is replaced. Results which depend on
+     * variables with one of the volatile prefixes (see
+     * {@link #setVolatileInterpolationPrefixes(Collection)}) are never
+     * cached. Note that the cache cannot detect changes of data outside of
+     * this configuration which may be referenced by variables, for instance
+     * properties of other configurations queried by a parent interpolator or
+     * {@code Lookup} objects registered later at the
+     * {@code ConfigurationInterpolator}.
+     *
+     * @param cacheInterpolatedValues the flag whether interpolated values are
+     *        cached
+     * @since 2.3
+     */
+    public void setCacheInterpolatedValues(boolean cacheInterpolatedValues)
+    {
+        if (cacheInterpolatedValues && cachingInterpolator == null)
+        {
+            cachingInterpolator = new CachingInterpolator();
+        }
+        interpolationCache.set(cacheInterpolatedValues ? new InterpolationCache(
+                getVolatileInterpolationPrefixes()) : null);
+    }
+
+    /**
+     * Returns a flag whether the results of data type conversions are cached.
+     *
+     * @return a flag whether converted values are cached
+     * @since 2.3
+     */
+    public boolean isCacheConvertedValues()
+    {
+        return conversionCache.get() != null;
+    }
+
+    /**
+     * Enables or disables caching of converted values. Per default, each call
+     * of a typed getter method (e.g. {@code getInt()} or
+     * {@code getBoolean()}) passes the raw property value to the
+     * {@code ConversionHandler}; so string values have to be parsed again on
+     * each access. If caching is enabled, the converted values are stored per
+     * property key and target class. A cached value is only used if the raw
+     * value of the property is still equal to the one it was created from;
+     * in addition, the cache is cleared whenever this configuration fires a
+     * change event or a new {@code ConversionHandler} is set. Only values of
+     * immutable target types are cached: primitive types and their wrappers,
+     * {@code BigInteger}, {@code BigDecimal}, {@code Locale}, and enumerations.
+     * Raw values containing variables are not cached because their
+     * interpolated values may change.
+     *
+     * @param cacheConvertedValues the flag whether converted values are
+     *        cached
+     * @since 2.3
+     */
+    public void setCacheConvertedValues(boolean cacheConvertedValues)
+    {
+        conversionCache.set(cacheConvertedValues ? new ConversionCache()
+                : null);
+    }
+
+    /**
+     * Returns an unmodifiable set with the prefixes of variables whose values
+     * can change at any time. The results of an interpolation which involves
+     * variables with such prefixes are not cached.
+     *
+     * @return the set with volatile variable prefixes
+     * @since 2.3
+     */
+    public Set<String> getVolatileInterpolationPrefixes()
+    {
+        return volatileInterpolationPrefixes;
+    }
+
+    /**
+     * Sets the prefixes of variables whose values can change at any time. If
+     * caching of interpolated values is enabled, an interpolation result is
+     * only cached if none of these prefixes has been encountered while
+     * resolving variables. Per default, the set defined by
+     * {@link #DEFAULT_VOLATILE_INTERPOLATION_PREFIXES} is used. Passing in
+     * <b>null</b> resets the default set.
+     *
+     * @param prefixes a collection with the volatile prefixes (may be
+     *        <b>null</b>)
+     * @since 2.3
+     */
+    public void setVolatileInterpolationPrefixes(Collection<String> prefixes)
+    {
+        volatileInterpolationPrefixes =
+                (prefixes != null) ? Collections
+                        .unmodifiableSet(new HashSet<>(prefixes))
+                        : DEFAULT_VOLATILE_INTERPOLATION_PREFIXES;
+        invalidateInterpolationCache();
     }
 
     /**
@@ -415,8 +588,9 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
 
     /**
      * Creates a clone of the {@code ConfigurationInterpolator} used by this
-     * instance. This method can be called by {@code clone()} implementations of
-     * derived classes. Normally, the {@code ConfigurationInterpolator} of a
+     * instance. The clone also gets its own caches for interpolated and
+     * converted values (if caching is enabled). This method can be called by {@code clone()}
+     * implementations of derived classes. Normally, the {@code ConfigurationInterpolator} of a
      * configuration instance must not be shared with other instances because it
      * contains a specific {@code Lookup} object pointing to the owning
      * configuration. This has to be taken into account when cloning a
@@ -435,6 +609,11 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
     protected void cloneInterpolator(AbstractConfiguration orgConfig)
     {
         interpolator = new AtomicReference<>();
+        interpolationCache = new AtomicReference<>();
+        cachingInterpolator = null;
+        setCacheInterpolatedValues(orgConfig.isCacheInterpolatedValues());
+        conversionCache = new AtomicReference<>();
+        setCacheConvertedValues(orgConfig.isCacheConvertedValues());
         ConfigurationInterpolator orgInterpolator = orgConfig.getInterpolator();
         List<Lookup> defaultLookups = orgInterpolator.getDefaultLookups();
         Lookup lookup = findConfigurationLookup(orgInterpolator, orgConfig);
@@ -767,7 +946,75 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
     protected Object interpolate(Object value)
     {
         ConfigurationInterpolator ci = getInterpolator();
-        return (ci != null) ? ci.interpolate(value) : value;
+        if (ci == null)
+        {
+            return value;
+        }
+
+        InterpolationCache cache = interpolationCache.get();
+        return (cache != null && InterpolationCache.isCacheable(value)) ? cache
+                .interpolate(ci, (String) value) : ci.interpolate(value);
+    }
+
+    /**
+     * {@inheritDoc} This implementation clears the caches for interpolated
+     * and converted values after a change of this configuration before the
+     * event is delivered to the registered listeners.
+     */
+    @Override
+    protected <T extends ConfigurationEvent> void fireEvent(EventType<T> type,
+            String propName, Object propValue, boolean before)
+    {
+        if (!before)
+        {
+            invalidateInterpolationCache();
+            invalidateConversionCache();
+        }
+        super.fireEvent(type, propName, propValue, before);
+    }
+
+    /**
+     * Returns the {@code ConfigurationInterpolator} to be passed to the
+     * {@code ConversionHandler}. If caching of interpolated values has been
+     * enabled, this is a special object which delegates to
+     * {@link #interpolate(Object)}; so the cache is used for values obtained
+     * via the typed getter methods, too.
+     *
+     * @return the {@code ConfigurationInterpolator} for conversions
+     */
+    private ConfigurationInterpolator getConversionInterpolator()
+    {
+        ConfigurationInterpolator ci = cachingInterpolator;
+        return (ci != null) ? ci : getInterpolator();
+    }
+
+    /**
+     * Clears the cache for interpolated values if caching is enabled. The
+     * cache is replaced by a new, empty one. So a thread which is just
+     * interpolating a value based on outdated data cannot store its result in
+     * the new cache.
+     */
+    private void invalidateInterpolationCache()
+    {
+        InterpolationCache cache = interpolationCache.get();
+        if (cache != null)
+        {
+            interpolationCache.compareAndSet(cache, new InterpolationCache(
+                    getVolatileInterpolationPrefixes()));
+        }
+    }
+
+    /**
+     * Clears the cache for converted values if caching is enabled. As for the
+     * cache of interpolated values, a new, empty cache is installed.
+     */
+    private void invalidateConversionCache()
+    {
+        ConversionCache cache = conversionCache.get();
+        if (cache != null)
+        {
+            conversionCache.compareAndSet(cache, new ConversionCache());
+        }
     }
 
     @Override
@@ -1175,10 +1422,32 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
         return checkNonNullValue(key, b).booleanValue();
     }
 
+    /**
+     * {@inheritDoc} If the current {@code ConversionHandler} implements the
+     * {@link PrimitiveConversionHandler} interface, the conversion is done
+     * without creating wrapper objects. If converted values are cached, the
+     * cache is used instead.
+     */
     @Override
     public boolean getBoolean(String key, boolean defaultValue)
     {
-        return getBoolean(key, Boolean.valueOf(defaultValue)).booleanValue();
+        PrimitiveConversionHandler handler = getPrimitiveConversionHandler();
+        if (handler == null)
+        {
+            return getBoolean(key, Boolean.valueOf(defaultValue))
+                    .booleanValue();
+        }
+
+        Object value = getProperty(key);
+        try
+        {
+            return handler.toBoolean(value, defaultValue,
+                    getConversionInterpolator());
+        }
+        catch (ConversionException cex)
+        {
+            throw conversionException(Boolean.class, key, value);
+        }
     }
 
     /**
@@ -1224,10 +1493,31 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
         return checkNonNullValue(key, d).doubleValue();
     }
 
+    /**
+     * {@inheritDoc} If the current {@code ConversionHandler} implements the
+     * {@link PrimitiveConversionHandler} interface, the conversion is done
+     * without creating wrapper objects. If converted values are cached, the
+     * cache is used instead.
+     */
     @Override
     public double getDouble(String key, double defaultValue)
     {
-        return getDouble(key, Double.valueOf(defaultValue)).doubleValue();
+        PrimitiveConversionHandler handler = getPrimitiveConversionHandler();
+        if (handler == null)
+        {
+            return getDouble(key, Double.valueOf(defaultValue)).doubleValue();
+        }
+
+        Object value = getProperty(key);
+        try
+        {
+            return handler.toDouble(value, defaultValue,
+                    getConversionInterpolator());
+        }
+        catch (ConversionException cex)
+        {
+            throw conversionException(Double.class, key, value);
+        }
     }
 
     @Override
@@ -1262,10 +1552,31 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
         return checkNonNullValue(key, i).intValue();
     }
 
+    /**
+     * {@inheritDoc} If the current {@code ConversionHandler} implements the
+     * {@link PrimitiveConversionHandler} interface, the conversion is done
+     * without creating wrapper objects. If converted values are cached, the
+     * cache is used instead.
+     */
     @Override
     public int getInt(String key, int defaultValue)
     {
-        return getInteger(key, Integer.valueOf(defaultValue)).intValue();
+        PrimitiveConversionHandler handler = getPrimitiveConversionHandler();
+        if (handler == null)
+        {
+            return getInteger(key, Integer.valueOf(defaultValue)).intValue();
+        }
+
+        Object value = getProperty(key);
+        try
+        {
+            return handler.toInt(value, defaultValue,
+                    getConversionInterpolator());
+        }
+        catch (ConversionException cex)
+        {
+            throw conversionException(Integer.class, key, value);
+        }
     }
 
     @Override
@@ -1281,10 +1592,31 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
         return checkNonNullValue(key, l).longValue();
     }
 
+    /**
+     * {@inheritDoc} If the current {@code ConversionHandler} implements the
+     * {@link PrimitiveConversionHandler} interface, the conversion is done
+     * without creating wrapper objects. If converted values are cached, the
+     * cache is used instead.
+     */
     @Override
     public long getLong(String key, long defaultValue)
     {
-        return getLong(key, Long.valueOf(defaultValue)).longValue();
+        PrimitiveConversionHandler handler = getPrimitiveConversionHandler();
+        if (handler == null)
+        {
+            return getLong(key, Long.valueOf(defaultValue)).longValue();
+        }
+
+        Object value = getProperty(key);
+        try
+        {
+            return handler.toLong(value, defaultValue,
+                    getConversionInterpolator());
+        }
+        catch (ConversionException cex)
+        {
+            throw conversionException(Long.class, key, value);
+        }
     }
 
     @Override
@@ -1564,7 +1896,7 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
 
         Collection<T> targetCol =
                 (target != null) ? target : new ArrayList<T>();
-        getConversionHandler().toCollection(src, cls, getInterpolator(),
+        getConversionHandler().toCollection(src, cls, getConversionInterpolator(),
                 targetCol);
         return targetCol;
     }
@@ -1756,23 +2088,67 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
      */
     private <T> T getAndConvertProperty(Class<T> cls, String key, T defaultValue)
     {
+        ConversionCache cache = conversionCache.get();
         Object value = getProperty(key);
         try
         {
+            if (cache != null && ConversionCache.isCacheable(cls, value))
+            {
+                return ObjectUtils.defaultIfNull(
+                        cache.convert(getConversionHandler(),
+                                getConversionInterpolator(), cls, key, value),
+                        defaultValue);
+            }
             return ObjectUtils.defaultIfNull(
-                    getConversionHandler().to(value, cls, getInterpolator()),
+                    getConversionHandler().to(value, cls, getConversionInterpolator()),
                     defaultValue);
         }
         catch (ConversionException cex)
         {
             // improve error message
-            throw new ConversionException(
-                    String.format(
-                            "Key '%s' cannot be converted to class %s. Value is: '%s'.",
-                            key, cls.getName(), String.valueOf(value)));
+            throw conversionException(cls, key, value);
         }
     }
 
+    /**
+     * Creates an exception for a failed conversion of a property value. The
+     * message of the exception contains the key and the value of the
+     * property.
+     *
+     * @param cls the target class of the conversion
+     * @param key the key of the property
+     * @param value the value which could not be converted
+     * @return the exception
+     */
+    private static ConversionException conversionException(Class<?> cls,
+            String key, Object value)
+    {
+        return new ConversionException(String.format(
+                "Key '%s' cannot be converted to class %s. Value is: '%s'.",
+                key, cls.getName(), String.valueOf(value)));
+    }
+
+    /**
+     * Returns the current {@code ConversionHandler} as
+     * {@code PrimitiveConversionHandler} if it supports this interface.
+     * Otherwise, result is <b>null</b>. Result is <b>null</b>, too, if
+     * converted values are cached; then the getters for primitive types have
+     * to use the conversion to wrapper types which consults the cache.
+     *
+     * @return the {@code PrimitiveConversionHandler} or <b>null</b>
+     */
+    private PrimitiveConversionHandler getPrimitiveConversionHandler()
+    {
+        if (conversionCache.get() != null)
+        {
+            return null;
+        }
+        ConversionHandler handler = getConversionHandler();
+        return (handler instanceof PrimitiveConversionHandler)
+                ? (PrimitiveConversionHandler) handler
+                : null;
+    }
+
     /**
      * Helper method for obtaining a property value with a type conversion.
      *
@@ -1824,7 +2200,7 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
     {
         checkDefaultValueArray(cls, defaultValue);
         return ObjectUtils.defaultIfNull(getConversionHandler().toArray(
-                getProperty(key), cls, getInterpolator()), defaultValue);
+                getProperty(key), cls, getConversionInterpolator()), defaultValue);
     }
 
     /**
@@ -1911,4 +2287,307 @@ public abstract class AbstractConfiguration extends BaseEventSource implements C
         throw new NoSuchElementException(String.format(
                 "Key '%s' does not map to an existing object!", key));
     }
+
+    /**
+     * Adds an entry to one of the internal caches. If the cache has reached
+     * the given maximum size, it is cleared first. This way, lookups in the
+     * cache never have to be synchronized.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @param cache the map serving as cache
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @param maxSize the maximum number of entries
+     */
+    private static <K, V> void storeCacheEntry(ConcurrentMap<K, V> cache,
+            K key, V value, int maxSize)
+    {
+        if (cache.size() >= maxSize)
+        {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * A specialized {@code ConfigurationInterpolator} which is passed to the
+     * {@code ConversionHandler} if caching of interpolated values is enabled.
+     * It delegates interpolation to the owning configuration, so that the
+     * cache is taken into account. Variables are resolved by the current
+     * {@code ConfigurationInterpolator} of the configuration.
+     */
+    private class CachingInterpolator extends ConfigurationInterpolator
+    {
+        @Override
+        public Object interpolate(Object value)
+        {
+            return AbstractConfiguration.this.interpolate(value);
+        }
+
+        @Override
+        public Object resolve(String var)
+        {
+            ConfigurationInterpolator ci = getInterpolator();
+            return (ci != null) ? ci.resolve(var) : null;
+        }
+    }
+
+    /**
+     * An internally used helper class for caching the results of
+     * interpolation. An instance stores the interpolated values for raw
+     * string values containing variables. Results depending on variables with
+     * a volatile prefix are not stored. The number of entries is limited; if
+     * the limit is reached, the cache is cleared.
+     */
+    private static class InterpolationCache
+    {
+        /** The start token of a variable. */
+        private static final String VAR_START = "${";
+
+        /** The map with the cached results. */
+        private final ConcurrentMap<String, Object> results;
+
+        /** The volatile prefixes. */
+        private final Set<String> volatilePrefixes;
+
+        /**
+         * Creates a new instance of {@code InterpolationCache} with the
+         * volatile prefixes to take into account.
+         *
+         * @param prefixes the set with volatile prefixes
+         */
+        public InterpolationCache(Set<String> prefixes)
+        {
+            results = new ConcurrentHashMap<>();
+            volatilePrefixes = prefixes;
+        }
+
+        /**
+         * Checks whether the given value can be handled by the cache. This is
+         * the case for strings containing variables.
+         *
+         * @param value the value to be interpolated
+         * @return a flag whether the value's result can be cached
+         */
+        public static boolean isCacheable(Object value)
+        {
+            return value instanceof String
+                    && ((String) value).contains(VAR_START);
+        }
+
+        /**
+         * Returns the interpolated value for the given string. The result is
+         * obtained from the cache if possible. Otherwise, interpolation is
+         * performed using the passed in {@code ConfigurationInterpolator},
+         * and the result is cached if it does not depend on volatile data.
+         *
+         * @param ci the {@code ConfigurationInterpolator}
+         * @param value the string to be interpolated
+         * @return the interpolated value
+         */
+        public Object interpolate(ConfigurationInterpolator ci, String value)
+        {
+            Object result = results.get(value);
+            if (result == null)
+            {
+                Set<String> usedPrefixes = new HashSet<>();
+                result = ci.interpolate(value, usedPrefixes);
+                if (result != null
+                        && Collections.disjoint(usedPrefixes, volatilePrefixes))
+                {
+                    storeCacheEntry(results, value, result,
+                            INTERPOLATION_CACHE_SIZE);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * An internally used helper class for caching the results of data type
+     * conversions. Results are stored per property key and target class
+     * together with the raw value they have been created from. A cached
+     * result is only returned if the raw value passed in is equal to the one
+     * stored. The number of entries is limited; if the limit is reached, the
+     * cache is cleared.
+     */
+    private static class ConversionCache
+    {
+        /** The start token of a variable. */
+        private static final String VAR_START = "${";
+
+        /** A set with the target classes whose values can be cached. */
+        private static final Set<Class<?>> CACHEABLE_CLASSES =
+                new HashSet<Class<?>>(Arrays.asList(Boolean.class,
+                        Character.class, Byte.class, Short.class,
+                        Integer.class, Long.class, Float.class, Double.class,
+                        BigInteger.class, BigDecimal.class, Locale.class));
+
+        /** The map with the cached results. */
+        private final ConcurrentMap<ConversionKey, ConversionResult> results;
+
+        /**
+         * Creates a new instance of {@code ConversionCache}.
+         */
+        public ConversionCache()
+        {
+            results = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Checks whether the conversion of the given value to the given
+         * target class can be cached. This is the case for immutable target
+         * types and for raw values which are either strings without variables
+         * or objects of simple types.
+         *
+         * @param cls the target class
+         * @param value the raw value
+         * @return a flag whether the result of this conversion can be cached
+         */
+        public static boolean isCacheable(Class<?> cls, Object value)
+        {
+            if (!(cls.isPrimitive() || cls.isEnum() || CACHEABLE_CLASSES
+                    .contains(cls)))
+            {
+                return false;
+            }
+            if (value instanceof String)
+            {
+                return !((String) value).contains(VAR_START);
+            }
+            return value instanceof Number || value instanceof Boolean
+                    || value instanceof Character;
+        }
+
+        /**
+         * Converts the given value to the given target class. The result is
+         * obtained from the cache if possible. Otherwise, the conversion is
+         * done by the passed in {@code ConversionHandler}, and the result is
+         * stored in the cache.
+         *
+         * @param <T> the target type of the conversion
+         * @param handler the {@code ConversionHandler}
+         * @param ci the {@code ConfigurationInterpolator}
+         * @param cls the target class
+         * @param key the property key
+         * @param value the raw value of this property
+         * @return the converted value
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T convert(ConversionHandler handler,
+                ConfigurationInterpolator ci, Class<T> cls, String key,
+                Object value)
+        {
+            ConversionKey cacheKey = new ConversionKey(key, cls);
+            ConversionResult cached = results.get(cacheKey);
+            if (cached != null && cached.getValue().equals(value))
+            {
+                return (T) cached.getResult();
+            }
+
+            T result = handler.to(value, cls, ci);
+            if (result != null)
+            {
+                storeCacheEntry(results, cacheKey,
+                        new ConversionResult(value, result),
+                        CONVERSION_CACHE_SIZE);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A simple data class used as key of the cache for converted values. It
+     * combines a property key with a target class.
+     */
+    private static class ConversionKey
+    {
+        /** The property key. */
+        private final String key;
+
+        /** The target class. */
+        private final Class<?> targetClass;
+
+        /**
+         * Creates a new instance of {@code ConversionKey}.
+         *
+         * @param propertyKey the property key
+         * @param cls the target class
+         */
+        public ConversionKey(String propertyKey, Class<?> cls)
+        {
+            key = propertyKey;
+            targetClass = cls;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * ((key != null) ? key.hashCode() : 0)
+                    + targetClass.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof ConversionKey))
+            {
+                return false;
+            }
+
+            ConversionKey c = (ConversionKey) obj;
+            return targetClass.equals(c.targetClass)
+                    && ((key != null) ? key.equals(c.key) : c.key == null);
+        }
+    }
+
+    /**
+     * A simple data class storing the result of a conversion together with
+     * the raw value it has been created from.
+     */
+    private static class ConversionResult
+    {
+        /** The raw value. */
+        private final Object value;
+
+        /** The converted value. */
+        private final Object result;
+
+        /**
+         * Creates a new instance of {@code ConversionResult}.
+         *
+         * @param rawValue the raw value
+         * @param convertedValue the converted value
+         */
+        public ConversionResult(Object rawValue, Object convertedValue)
+        {
+            value = rawValue;
+            result = convertedValue;
+        }
+
+        /**
+         * Returns the raw value.
+         *
+         * @return the raw value
+         */
+        public Object getValue()
+        {
+            return value;
+        }
+
+        /**
+         * Returns the converted value.
+         *
+         * @return the converted value
+         */
+        public Object getResult()
+        {
+            return result;
+        }
+    }
 }
@@ -488,13 +488,16 @@ public abstract class AbstractHierarchicalConfiguration<T> extends AbstractConfi
      * {@inheritDoc} This implementation executes a query for the given key and
      * constructs a {@code NodeUpdateData} object based on the results. It
      * determines which nodes need to be changed and whether new ones need to be
-     * added or existing ones need to be removed.
+     * added or existing ones need to be removed. The query is evaluated on
+     * the passed in node structure, so that the data of an update which is
+     * currently in progress is taken into account.
      */
     @Override
     public NodeUpdateData<T> resolveUpdateKey(T root, String key,
             Object newValue, NodeHandler<T> handler)
     {
-        Iterator<QueryResult<T>> itNodes = fetchNodeList(key).iterator();
+        Iterator<QueryResult<T>> itNodes =
+                resolveKey(root, key, handler).iterator();
         Iterator<?> itValues = getListDelimiterHandler().parse(newValue).iterator();
         Map<QueryResult<T>, Object> changedValues =
                 new HashMap<>();
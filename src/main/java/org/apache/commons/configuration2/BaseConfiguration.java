@@ -19,6 +19,7 @@ package org.apache.commons.configuration2;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -35,6 +36,15 @@ import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
  * to use the same key many times concatenating the value strings
  * instead of overwriting them.
  *
+ * <p>
+ * Optionally, the properties can be stored in a copy-on-write manner (see
+ * {@link #setCopyOnWrite(boolean)}). Then each update operation replaces the
+ * internal map with a modified copy, and read operations do not need to
+ * acquire a lock from the {@code Synchronizer}. This is useful for
+ * configurations which are read frequently by multiple threads, but are
+ * rarely changed.
+ * </p>
+ *
  * @author <a href="mailto:stefano@apache.org">Stefano Mazzocchi</a>
  * @author <a href="mailto:jon@latchkey.com">Jon S. Stevens</a>
  * @author <a href="mailto:daveb@miceda-data">Dave Bryson</a>
@@ -52,7 +62,76 @@ import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 public class BaseConfiguration extends AbstractConfiguration implements Cloneable
 {
     /** stores the configuration key-value pairs */
-    private Map<String, Object> store = new LinkedHashMap<>();
+    private volatile Map<String, Object> store = new LinkedHashMap<>();
+
+    /** A flag whether the store is updated in a copy-on-write manner. */
+    private volatile boolean copyOnWrite;
+
+    /**
+     * Returns a flag whether the properties of this configuration are
+     * stored in a copy-on-write manner.
+     *
+     * @return the copy-on-write flag
+     * @since 2.3
+     */
+    public boolean isCopyOnWrite()
+    {
+        return copyOnWrite;
+    }
+
+    /**
+     * Sets a flag whether the properties of this configuration are stored in
+     * a copy-on-write manner. If this flag is set, the map with the properties
+     * is never modified after it has been published; rather, each update
+     * operation creates a modified copy which then replaces the current map.
+     * (This includes the lists used for properties with multiple values.)
+     * Therefore, read operations do not acquire a lock from the
+     * {@code Synchronizer}; they always see a consistent state of the
+     * configuration (a property being overwritten by {@code setProperty()}
+     * has either its old or its new value), and {@code getKeys()} iterates over the keys present at
+     * the time it was called, in insertion order. Update operations are
+     * synchronized as usual, but become more expensive because the whole map
+     * is copied. So this mode is suitable for configurations which are read
+     * frequently by multiple threads, but are rarely changed. Note that a
+     * reader may observe partial results of an update which consists of
+     * multiple steps, e.g. {@code copy()}; also, a read lock obtained via the
+     * {@code lock()} method does not block writers in this mode. Like the
+     * {@code Synchronizer}, this property has to be set when initializing the
+     * configuration before it is accessed concurrently.
+     *
+     * @param copyOnWrite the copy-on-write flag
+     * @since 2.3
+     */
+    public void setCopyOnWrite(boolean copyOnWrite)
+    {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    /**
+     * {@inheritDoc} This implementation does not call the {@code Synchronizer}
+     * if copy-on-write mode is enabled.
+     */
+    @Override
+    protected void beginRead(boolean optimize)
+    {
+        if (!isCopyOnWrite())
+        {
+            super.beginRead(optimize);
+        }
+    }
+
+    /**
+     * {@inheritDoc} This implementation does not call the {@code Synchronizer}
+     * if copy-on-write mode is enabled.
+     */
+    @Override
+    protected void endRead()
+    {
+        if (!isCopyOnWrite())
+        {
+            super.endRead();
+        }
+    }
 
     /**
      * Adds a key/value pair to the map.  This routine does no magic morphing.
@@ -64,8 +143,15 @@ public class BaseConfiguration extends AbstractConfiguration implements Cloneabl
     @Override
     protected void addPropertyDirect(String key, Object value)
     {
-        Object previousValue = getPropertyInternal(key);
+        if (isCopyOnWrite())
+        {
+            Map<String, Object> target = copyStore();
+            addValues(target, key, Collections.singleton(value));
+            store = target;
+            return;
+        }
 
+        Object previousValue = getPropertyInternal(key);
         if (previousValue == null)
         {
             store.put(key, value);
@@ -80,15 +166,63 @@ public class BaseConfiguration extends AbstractConfiguration implements Cloneabl
         }
         else
         {
-            // the previous value is replaced by a list containing the previous value and the new value
+            // the previous value is replaced by a list containing the previous value(s) and the new value
             List<Object> list = new ArrayList<>();
-            list.add(previousValue);
+            if (previousValue instanceof List)
+            {
+                list.addAll((List<?>) previousValue);
+            }
+            else
+            {
+                list.add(previousValue);
+            }
             list.add(value);
 
             store.put(key, list);
         }
     }
 
+    /**
+     * {@inheritDoc} In copy-on-write mode, this implementation adds all values
+     * to a single copy of the internal map, so that it is copied only once.
+     */
+    @Override
+    protected void addPropertyInternal(String key, Object value)
+    {
+        if (isCopyOnWrite())
+        {
+            Map<String, Object> target = copyStore();
+            addValues(target, key, getListDelimiterHandler().parse(value));
+            store = target;
+        }
+        else
+        {
+            super.addPropertyInternal(key, value);
+        }
+    }
+
+    /**
+     * {@inheritDoc} In copy-on-write mode, this implementation removes the
+     * old values and adds the new ones in a single copy of the internal map,
+     * which then replaces the current map. So readers never see the property
+     * as missing while it is overwritten.
+     */
+    @Override
+    protected void setPropertyInternal(String key, Object value)
+    {
+        if (isCopyOnWrite())
+        {
+            Map<String, Object> target = copyStore();
+            target.remove(key);
+            addValues(target, key, getListDelimiterHandler().parse(value));
+            store = target;
+        }
+        else
+        {
+            super.setPropertyInternal(key, value);
+        }
+    }
+
     /**
      * Read property from underlying map.
      *
@@ -136,13 +270,32 @@ public class BaseConfiguration extends AbstractConfiguration implements Cloneabl
     @Override
     protected void clearPropertyDirect(String key)
     {
-        store.remove(key);
+        if (isCopyOnWrite())
+        {
+            if (store.containsKey(key))
+            {
+                Map<String, Object> target = copyStore();
+                target.remove(key);
+                store = target;
+            }
+        }
+        else
+        {
+            store.remove(key);
+        }
     }
 
     @Override
     protected void clearInternal()
     {
-        store.clear();
+        if (isCopyOnWrite())
+        {
+            store = new LinkedHashMap<>();
+        }
+        else
+        {
+            store.clear();
+        }
     }
 
     /**
@@ -164,7 +317,8 @@ public class BaseConfiguration extends AbstractConfiguration implements Cloneabl
     @Override
     protected Iterator<String> getKeysInternal()
     {
-        return store.keySet().iterator();
+        return isCopyOnWrite() ? Collections.unmodifiableSet(store.keySet())
+                .iterator() : store.keySet().iterator();
     }
 
     /**
@@ -193,6 +347,55 @@ public class BaseConfiguration extends AbstractConfiguration implements Cloneabl
         }
     }
 
+    /**
+     * Creates a copy of the internal map with the data of this configuration.
+     * This method is used in copy-on-write mode.
+     *
+     * @return the copy of the map
+     */
+    private Map<String, Object> copyStore()
+    {
+        return new LinkedHashMap<>(store);
+    }
+
+    /**
+     * Adds values to a property stored in a copy of the internal map. This
+     * method is used in copy-on-write mode. Lists contained in the map may
+     * be shared with the published map; so they are never modified, but
+     * replaced by a new list.
+     *
+     * @param target the copy of the map
+     * @param key the key of the property
+     * @param values the values to be added
+     */
+    private static void addValues(Map<String, Object> target, String key,
+            Iterable<?> values)
+    {
+        Object previousValue = target.get(key);
+        List<Object> list = new ArrayList<>();
+        if (previousValue instanceof List)
+        {
+            list.addAll((List<?>) previousValue);
+        }
+        else if (previousValue != null)
+        {
+            list.add(previousValue);
+        }
+        for (Object value : values)
+        {
+            list.add(value);
+        }
+
+        if (list.size() > 1)
+        {
+            target.put(key, list);
+        }
+        else if (!list.isEmpty() && !(previousValue instanceof List))
+        {
+            target.put(key, list.get(0));
+        }
+    }
+
     /**
      * Clones the internal map with the data of this configuration.
      *
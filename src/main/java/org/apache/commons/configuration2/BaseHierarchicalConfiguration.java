@@ -22,18 +22,24 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.configuration2.event.ConfigurationEvent;
 import org.apache.commons.configuration2.event.EventListener;
 import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
 import org.apache.commons.configuration2.tree.ConfigurationNodeVisitorAdapter;
+import org.apache.commons.configuration2.tree.ExpressionEngine;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.commons.configuration2.tree.InMemoryNodeModel;
 import org.apache.commons.configuration2.tree.InMemoryNodeModelSupport;
+import org.apache.commons.configuration2.tree.ModelBatch;
 import org.apache.commons.configuration2.tree.NodeHandler;
 import org.apache.commons.configuration2.tree.NodeModel;
 import org.apache.commons.configuration2.tree.NodeSelector;
@@ -48,15 +54,43 @@ import org.apache.commons.lang3.ObjectUtils;
  * A specialized hierarchical configuration implementation that is based on a
  * structure of {@link ImmutableNode} objects.
  * </p>
+ * <p>
+ * Per default, each query for a property is resolved by the expression engine
+ * by navigating through the node structure. For configurations which are
+ * mainly read, this can be changed by enabling the <em>snapshot mode</em>
+ * using the {@link #setSnapshotMode(boolean)} method. Because
+ * {@code ImmutableNode} objects cannot be changed, the identity of the root
+ * node determines the whole content of this configuration. In snapshot mode,
+ * on first access a flat map with all keys and their values is created for
+ * the current root node; the methods {@code getProperty()},
+ * {@code containsKey()}, {@code getKeys()}, and {@code size()} are then
+ * served from this map. The map is discarded automatically as soon as a
+ * manipulation of the node model replaces the root node.
+ * </p>
  *
  * @version $Id$
  */
 public class BaseHierarchicalConfiguration extends AbstractHierarchicalConfiguration<ImmutableNode>
     implements Cloneable, InMemoryNodeModelSupport
 {
+    /**
+     * Constant for the maximum number of keys not defined in this
+     * configuration whose query results are stored in a snapshot.
+     */
+    private static final int MAX_ADDITIONAL_SNAPSHOT_KEYS = 1024;
+
     /** A listener for reacting on changes caused by sub configurations. */
     private final EventListener<ConfigurationEvent> changeListener;
 
+    /** The current snapshot of the properties of this configuration. */
+    private volatile PropertySnapshot snapshot;
+
+    /** A flag whether the snapshot mode is enabled. */
+    private volatile boolean snapshotMode;
+
+    /** A flag whether read operations bypass the synchronizer. */
+    private volatile boolean lockFreeReads;
+
     /**
      * Creates a new instance of {@code BaseHierarchicalConfiguration}.
      */
@@ -101,6 +135,221 @@ public class BaseHierarchicalConfiguration extends AbstractHierarchicalConfigura
         return (InMemoryNodeModel) super.getNodeModel();
     }
 
+    /**
+     * Returns a flag whether the snapshot mode is enabled for this
+     * configuration.
+     *
+     * @return the snapshot mode flag
+     * @since 2.3
+     */
+    public boolean isSnapshotMode()
+    {
+        return snapshotMode;
+    }
+
+    /**
+     * Enables or disables the snapshot mode. If enabled, read access to
+     * properties is served from a flat map that is created once for the
+     * current root node of this configuration. This is beneficial for
+     * configurations which are queried frequently, but changed rarely: Every
+     * change of the configuration causes the map to be rebuilt on the next
+     * read access. Per default, this mode is disabled.
+     *
+     * @param snapshotMode the snapshot mode flag
+     * @since 2.3
+     */
+    public void setSnapshotMode(boolean snapshotMode)
+    {
+        this.snapshotMode = snapshotMode;
+        snapshot = null;
+    }
+
+    /**
+     * Returns a flag whether read operations on this configuration are
+     * executed without acquiring a lock from the {@code Synchronizer}.
+     *
+     * @return the lock-free reads flag
+     * @since 2.3
+     */
+    public boolean isLockFreeReads()
+    {
+        return lockFreeReads;
+    }
+
+    /**
+     * Sets a flag whether read operations on this configuration are executed
+     * without acquiring a lock from the {@code Synchronizer}. If this flag is
+     * set, all read operations directly access the current node structure of
+     * the node model which cannot be modified concurrently. Each single read
+     * operation sees a consistent state of the configuration; however, a
+     * reader may observe partial results of an update which consists of
+     * multiple steps, e.g. {@code copy()}. Also, a read lock obtained via the
+     * {@code lock()} method does not block writers in this mode. Update
+     * operations are not affected by this flag; they are synchronized as
+     * usual. Like the {@code Synchronizer}, this property has to be set when
+     * initializing the configuration before it is accessed concurrently.
+     *
+     * @param lockFreeReads the lock-free reads flag
+     * @since 2.3
+     */
+    public void setLockFreeReads(boolean lockFreeReads)
+    {
+        this.lockFreeReads = lockFreeReads;
+    }
+
+    /**
+     * Executes all update operations contained in the given batch. The
+     * operations are applied in order, but the node model of this
+     * configuration is changed in a single step; so readers (especially in
+     * lock-free reads mode) never see a partially applied batch. Each
+     * operation is still executed in its own transaction, but the internal
+     * data structures of the node model are not copied for each of them; so
+     * this is more efficient than calling the single update methods if a
+     * large number of changes is to be applied. Note that the operations have
+     * the semantics of the corresponding methods of the {@code NodeModel}
+     * interface; e.g. the values passed to an add property operation are not
+     * split by the {@code ListDelimiterHandler}. Rather than an event for
+     * each operation, a single event of type
+     * {@link ConfigurationEvent#BATCH_UPDATE} is fired whose value is the
+     * batch.
+     *
+     * @param batch the batch to be executed (must not be <b>null</b>)
+     * @throws IllegalArgumentException if the batch is <b>null</b>
+     * @since 2.3
+     */
+    public void executeBatch(ModelBatch batch)
+    {
+        if (batch == null)
+        {
+            throw new IllegalArgumentException("Batch must not be null!");
+        }
+        if (batch.isEmpty())
+        {
+            return;
+        }
+
+        beginWrite(false);
+        try
+        {
+            fireEvent(ConfigurationEvent.BATCH_UPDATE, null, batch, true);
+            executeBatchInternal(batch);
+            fireEvent(ConfigurationEvent.BATCH_UPDATE, null, batch, false);
+        }
+        finally
+        {
+            endWrite();
+        }
+    }
+
+    /**
+     * Actually executes a batch of update operations. This method is called
+     * by {@code executeBatch()} with the write lock held. If the node model
+     * of this configuration supports batches, the batch is passed to it.
+     * Otherwise, the operations are applied one by one.
+     *
+     * @param batch the batch to be executed
+     * @since 2.3
+     */
+    protected void executeBatchInternal(ModelBatch batch)
+    {
+        NodeModel<ImmutableNode> model = getModel();
+        if (model instanceof InMemoryNodeModel)
+        {
+            ((InMemoryNodeModel) model).executeBatch(batch, this);
+        }
+        else if (model instanceof TrackedNodeModel)
+        {
+            ((TrackedNodeModel) model).executeBatch(batch, this);
+        }
+        else
+        {
+            batch.applyTo(model, this);
+        }
+    }
+
+    /**
+     * {@inheritDoc} This implementation does not call the {@code Synchronizer}
+     * if lock-free reads are enabled.
+     */
+    @Override
+    protected void beginRead(boolean optimize)
+    {
+        if (!isLockFreeReads())
+        {
+            super.beginRead(optimize);
+        }
+    }
+
+    /**
+     * {@inheritDoc} This implementation does not call the {@code Synchronizer}
+     * if lock-free reads are enabled.
+     */
+    @Override
+    protected void endRead()
+    {
+        if (!isLockFreeReads())
+        {
+            super.endRead();
+        }
+    }
+
+    /**
+     * {@inheritDoc} If the snapshot mode is enabled, the value is obtained
+     * from the current snapshot.
+     */
+    @Override
+    protected Object getPropertyInternal(String key)
+    {
+        if (!isSnapshotMode())
+        {
+            return super.getPropertyInternal(key);
+        }
+
+        PropertySnapshot currentSnapshot = fetchSnapshot();
+        Object value = currentSnapshot.getValue(key);
+        if (value == null)
+        {
+            value = super.getPropertyInternal(key);
+            currentSnapshot.storeAdditionalValue(key, value);
+        }
+        return PropertySnapshot.exportValue(value);
+    }
+
+    /**
+     * {@inheritDoc} If the snapshot mode is enabled, the keys are obtained
+     * from the current snapshot.
+     */
+    @Override
+    protected Iterator<String> getKeysInternal()
+    {
+        return isSnapshotMode() ? fetchSnapshot().getKeys().iterator()
+                : super.getKeysInternal();
+    }
+
+    /**
+     * {@inheritDoc} If the snapshot mode is enabled, the size is obtained from
+     * the current snapshot.
+     */
+    @Override
+    protected int sizeInternal()
+    {
+        return isSnapshotMode() ? fetchSnapshot().getKeys().size() : super
+                .sizeInternal();
+    }
+
+    /**
+     * {@inheritDoc} The copy has its own snapshot; it is created when it is
+     * accessed for the first time.
+     */
+    @Override
+    public Object clone()
+    {
+        BaseHierarchicalConfiguration copy =
+                (BaseHierarchicalConfiguration) super.clone();
+        copy.snapshot = null;
+        return copy;
+    }
+
     /**
      * Creates a new {@code Configuration} object containing all keys
      * that start with the specified prefix. This implementation will return a
@@ -669,6 +918,55 @@ public class BaseHierarchicalConfiguration extends AbstractHierarchicalConfigura
         return new InMemoryNodeModel(getModel().getNodeHandler().getRootNode());
     }
 
+    /**
+     * Returns the snapshot for the current root node of this configuration.
+     * If no snapshot exists yet or if it was created for another root node or
+     * another expression engine, a new one is created. This method is called
+     * by read operations which are protected by the {@code Synchronizer};
+     * if multiple readers detect an outdated snapshot concurrently, each of
+     * them creates an equivalent new one.
+     *
+     * @return the current {@code PropertySnapshot}
+     */
+    private PropertySnapshot fetchSnapshot()
+    {
+        ImmutableNode root = getModel().getNodeHandler().getRootNode();
+        ExpressionEngine engine = getExpressionEngine();
+        PropertySnapshot currentSnapshot = snapshot;
+        if (currentSnapshot == null || !currentSnapshot.isValid(root, engine))
+        {
+            currentSnapshot = createSnapshot(root, engine);
+            snapshot = currentSnapshot;
+        }
+        return currentSnapshot;
+    }
+
+    /**
+     * Creates a new snapshot for the given root node. All defined keys are
+     * determined, and their values are queried in the usual way.
+     *
+     * @param root the current root node
+     * @param engine the current expression engine
+     * @return the new {@code PropertySnapshot}
+     */
+    private PropertySnapshot createSnapshot(ImmutableNode root,
+            ExpressionEngine engine)
+    {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Iterator<String> it = super.getKeysInternal(); it.hasNext();)
+        {
+            keys.add(it.next());
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for (String key : keys)
+        {
+            values.put(key,
+                    PropertySnapshot.importValue(super.getPropertyInternal(key)));
+        }
+        return new PropertySnapshot(root, engine, keys, values);
+    }
+
     /**
      * Creates a list with immutable configurations from the given input list.
      *
@@ -717,6 +1015,143 @@ public class BaseHierarchicalConfiguration extends AbstractHierarchicalConfigura
         return c.getNodeModel().getNodeHandler().getRootNode();
     }
 
+    /**
+     * An internally used helper class storing the flattened content of a
+     * configuration for a specific root node. Instances are created by the
+     * snapshot mode. The values of all keys defined in the configuration are
+     * determined when the snapshot is created. Other keys (e.g. keys with
+     * indices or keys which are not defined) are resolved on demand; their
+     * results are stored, too, up to a certain limit.
+     */
+    private static class PropertySnapshot
+    {
+        /** Constant for an object representing an undefined property. */
+        private static final Object NO_VALUE = new Object();
+
+        /** The root node this snapshot was created for. */
+        private final ImmutableNode rootNode;
+
+        /** The expression engine used for resolving keys. */
+        private final ExpressionEngine expressionEngine;
+
+        /** The set with the defined keys. */
+        private final Set<String> keys;
+
+        /** The map with the values of the defined keys. */
+        private final Map<String, Object> values;
+
+        /** A map with the results of additional keys. */
+        private final ConcurrentMap<String, Object> additionalValues;
+
+        /**
+         * Creates a new instance of {@code PropertySnapshot}.
+         *
+         * @param root the root node
+         * @param engine the expression engine
+         * @param definedKeys the set with the defined keys
+         * @param definedValues the map with the values of the defined keys
+         */
+        public PropertySnapshot(ImmutableNode root, ExpressionEngine engine,
+                Set<String> definedKeys, Map<String, Object> definedValues)
+        {
+            rootNode = root;
+            expressionEngine = engine;
+            keys = Collections.unmodifiableSet(definedKeys);
+            values = definedValues;
+            additionalValues = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Checks whether this snapshot can still be used for the given root
+         * node and expression engine.
+         *
+         * @param root the current root node
+         * @param engine the current expression engine
+         * @return a flag whether this snapshot is valid
+         */
+        public boolean isValid(ImmutableNode root, ExpressionEngine engine)
+        {
+            return rootNode == root && expressionEngine == engine;
+        }
+
+        /**
+         * Returns an unmodifiable set with the keys defined in this snapshot.
+         *
+         * @return the defined keys
+         */
+        public Set<String> getKeys()
+        {
+            return keys;
+        }
+
+        /**
+         * Returns the value stored for the given key. Result is <b>null</b>
+         * if this key has not yet been resolved. If the key was resolved, but
+         * has no value, the special {@code NO_VALUE} object is returned.
+         *
+         * @param key the key
+         * @return the value stored for this key
+         */
+        public Object getValue(String key)
+        {
+            Object value = values.get(key);
+            return (value != null) ? value : additionalValues.get(key);
+        }
+
+        /**
+         * Stores the result of a key which is not defined in this snapshot.
+         * This is done only if the limit for such keys is not yet reached.
+         *
+         * @param key the key
+         * @param value the value of this key (may be <b>null</b>)
+         */
+        public void storeAdditionalValue(String key, Object value)
+        {
+            if (key != null
+                    && additionalValues.size() < MAX_ADDITIONAL_SNAPSHOT_KEYS)
+            {
+                additionalValues.put(key, importValue(value));
+            }
+        }
+
+        /**
+         * Converts a property value so that it can be stored in a snapshot.
+         * Lists are made unmodifiable, and <b>null</b> values are replaced by
+         * the {@code NO_VALUE} object.
+         *
+         * @param value the value
+         * @return the value to be stored
+         */
+        public static Object importValue(Object value)
+        {
+            if (value == null)
+            {
+                return NO_VALUE;
+            }
+            return (value instanceof List) ? Collections
+                    .unmodifiableList((List<?>) value) : value;
+        }
+
+        /**
+         * Converts a value stored in a snapshot so that it can be returned to
+         * a caller. This is the inverse operation of {@code importValue()}.
+         * Lists are copied, so that the caller can modify them without
+         * affecting the snapshot.
+         *
+         * @param value the stored value
+         * @return the value to be returned
+         */
+        public static Object exportValue(Object value)
+        {
+            if (value == NO_VALUE)
+            {
+                return null;
+            }
+            return (value instanceof List) ? new ArrayList<>((List<?>) value)
+                    : value;
+        }
+    }
+
     /**
      * A specialized visitor base class that can be used for storing the tree of
      * configuration nodes. The basic idea is that each node can be associated
@@ -20,12 +20,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.commons.configuration2.event.ConfigurationEvent;
 import org.apache.commons.configuration2.event.EventListener;
@@ -33,11 +37,15 @@ import org.apache.commons.configuration2.event.EventSource;
 import org.apache.commons.configuration2.event.EventType;
 import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 import org.apache.commons.configuration2.sync.LockMode;
+import org.apache.commons.configuration2.sync.NoOpSynchronizer;
+import org.apache.commons.configuration2.sync.ReadWriteSynchronizer;
+import org.apache.commons.configuration2.tree.ConfigurationNodeVisitorAdapter;
 import org.apache.commons.configuration2.tree.DefaultConfigurationKey;
 import org.apache.commons.configuration2.tree.DefaultExpressionEngine;
 import org.apache.commons.configuration2.tree.ExpressionEngine;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.commons.configuration2.tree.NodeCombiner;
+import org.apache.commons.configuration2.tree.NodeHandler;
 import org.apache.commons.configuration2.tree.NodeTreeWalker;
 import org.apache.commons.configuration2.tree.QueryResult;
 import org.apache.commons.configuration2.tree.TreeUtils;
@@ -73,6 +81,31 @@ import org.apache.commons.configuration2.tree.UnionCombiner;
  * {@code NodeCombiner}, this may be a complex operation.
  * </p>
  * <p>
+ * The re-construction is done incrementally: the node structure of each child
+ * configuration and the intermediate results of the combination are kept. If
+ * a change event is received from a child configuration, only the node
+ * structure of this child is created anew, and the combination is repeated
+ * starting with this child; the results for the preceding children are
+ * reused. So changes of child configurations which have been added at the end
+ * are cheaper than changes of the first ones. Changes of child configurations
+ * which are not reported by events are only detected after an explicit call
+ * of the {@code invalidate()} method; this causes a full re-construction.
+ * </p>
+ * <p>
+ * Per default, the re-construction is done synchronously by the first thread
+ * accessing the configuration after an invalidation; all other readers have to
+ * wait until it is complete. Alternatively, an {@code Executor} can be set
+ * using the {@link #setRebuildExecutor(Executor)} method. Then the
+ * re-construction is performed by a task passed to this executor. In the
+ * meantime, read operations are served from the previous node structure; the
+ * new one is published atomically when it is complete. So readers never have
+ * to wait for a re-construction, at the price of seeing outdated data for a
+ * short time. As the task accesses the state of this configuration from
+ * another thread, this mode requires a thread-safe {@code Synchronizer}, e.g.
+ * a {@link ReadWriteSynchronizer}; it is not available with the default
+ * {@link NoOpSynchronizer}.
+ * </p>
+ * <p>
  * Because of the way a {@code CombinedConfiguration} is working it has more or
  * less view character: it provides a logic view on the configurations it
  * contains. In this constellation not all methods defined for hierarchical
@@ -207,6 +240,9 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
     /** Stores the combiner. */
     private NodeCombiner nodeCombiner;
 
+    /** A flag whether nodes are combined in parallel. */
+    private boolean parallelNodeCombination;
+
     /** Stores a list with the contained configurations. */
     private List<ConfigData> configurations;
 
@@ -222,6 +258,31 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
     /** A flag whether this configuration is up-to-date. */
     private boolean upToDate;
 
+    /**
+     * The executor for background re-constructions. This field is volatile,
+     * so that the event listener can check it without obtaining a lock.
+     */
+    private volatile Executor rebuildExecutor;
+
+    /**
+     * A counter for invalidations. It is used to find out whether a background
+     * re-construction is based on the current state.
+     */
+    private int invalidationCount;
+
+    /** A flag whether a background re-construction is pending. */
+    private boolean rebuildPending;
+
+    /** A flag whether a combined node structure has already been created. */
+    private boolean rootConstructed;
+
+    /**
+     * An index which maps the nodes of the child configurations to the
+     * configurations they belong to. It is created on demand and discarded
+     * when the combined node structure is re-constructed.
+     */
+    private volatile Map<ImmutableNode, Collection<Configuration>> sourceIndex;
+
     /**
      * Creates a new instance of {@code CombinedConfiguration} and
      * initializes the combiner to be used.
@@ -270,11 +331,31 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
      * structure is to be constructed. It must not be <b>null</b>, otherwise an
      * {@code IllegalArgumentException} exception is thrown. Changing the
      * node combiner causes an invalidation of this combined configuration, so
-     * that the new combiner immediately takes effect.
+     * that the new combiner immediately takes effect. The combination is done
+     * sequentially.
      *
      * @param nodeCombiner the node combiner
      */
     public void setNodeCombiner(NodeCombiner nodeCombiner)
+    {
+        setNodeCombiner(nodeCombiner, false);
+    }
+
+    /**
+     * Sets the node combiner and determines whether the combination is done
+     * in parallel. This method works like
+     * {@link #setNodeCombiner(NodeCombiner)}. If the {@code parallel} flag is
+     * <b>true</b>, the node combiner is invoked using its
+     * {@code combineInParallel()} method; so large subtrees of the child
+     * configurations are combined by multiple threads. This may speed up the
+     * construction of the combined node structure for child configurations
+     * with many nodes.
+     *
+     * @param nodeCombiner the node combiner
+     * @param parallel a flag whether nodes are combined in parallel
+     * @since 2.3
+     */
+    public void setNodeCombiner(NodeCombiner nodeCombiner, boolean parallel)
     {
         if (nodeCombiner == null)
         {
@@ -286,7 +367,8 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         try
         {
             this.nodeCombiner = nodeCombiner;
-            invalidateInternal();
+            parallelNodeCombination = parallel;
+            invalidateCombinedNodes(0);
         }
         finally
         {
@@ -294,6 +376,108 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         }
     }
 
+    /**
+     * Returns a flag whether the combined node structure is constructed by
+     * combining the nodes of the child configurations in parallel.
+     *
+     * @return a flag whether nodes are combined in parallel
+     * @since 2.3
+     */
+    public boolean isParallelNodeCombination()
+    {
+        beginRead(true);
+        try
+        {
+            return parallelNodeCombination;
+        }
+        finally
+        {
+            endRead();
+        }
+    }
+
+    /**
+     * Returns the {@code Executor} used for re-constructing the combined node
+     * structure in background. Result is <b>null</b> if the re-construction is
+     * done synchronously.
+     *
+     * @return the executor for background re-constructions
+     * @since 2.3
+     */
+    public Executor getRebuildExecutor()
+    {
+        beginRead(true);
+        try
+        {
+            return rebuildExecutor;
+        }
+        finally
+        {
+            endRead();
+        }
+    }
+
+    /**
+     * Sets the {@code Executor} used for re-constructing the combined node
+     * structure in background. If an executor is set, an invalidation of this
+     * configuration causes a task to be passed to this executor which creates
+     * the new node structure. Until this task completes, read operations see
+     * the previous node structure. (Only if no node structure has been created
+     * so far, readers have to wait for the construction.) Passing <b>null</b>
+     * switches back to the default mode in which the node structure is
+     * re-constructed synchronously on first access. Because the task runs in
+     * another thread, a thread-safe {@code Synchronizer} must have been set
+     * before an executor can be set. (If the {@code Synchronizer} is later
+     * replaced by a {@link NoOpSynchronizer}, the re-construction is done
+     * synchronously again.)
+     *
+     * @param executor the executor for background re-constructions (may be
+     *        <b>null</b>)
+     * @throws IllegalStateException if an executor is passed, but this
+     *         configuration uses a {@link NoOpSynchronizer}
+     * @since 2.3
+     */
+    public void setRebuildExecutor(Executor executor)
+    {
+        if (executor != null
+                && getSynchronizer() instanceof NoOpSynchronizer)
+        {
+            throw new IllegalStateException(
+                    "Background re-construction requires a thread-safe "
+                            + "Synchronizer!");
+        }
+        beginWrite(true);
+        try
+        {
+            rebuildExecutor = executor;
+        }
+        finally
+        {
+            endWrite();
+        }
+    }
+
+    /**
+     * {@inheritDoc} Lock-free reads are not supported by a combined
+     * configuration. Its combined node structure is constructed on demand
+     * under the protection of the {@code Synchronizer}, and it also manages
+     * the collection of its child configurations. So this implementation
+     * throws an exception if an attempt is made to enable this mode.
+     *
+     * @throws UnsupportedOperationException if the flag is set to <b>true</b>
+     * @since 2.3
+     */
+    @Override
+    public void setLockFreeReads(boolean lockFreeReads)
+    {
+        if (lockFreeReads)
+        {
+            throw new UnsupportedOperationException(
+                    "Lock-free reads are not supported by CombinedConfiguration!");
+        }
+        super.setLockFreeReads(lockFreeReads);
+    }
+
     /**
      * Returns the {@code ExpressionEngine} for converting flat child
      * configurations to hierarchical ones.
@@ -336,6 +520,8 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         try
         {
             this.conversionExpressionEngine = conversionExpressionEngine;
+            // the new engine takes effect on the next full re-construction
+            resetChildData();
         }
         finally
         {
@@ -392,7 +578,7 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
                 namedConfigurations.put(name, config);
             }
 
-            invalidateInternal();
+            invalidateCombinedNodes(configurations.size() - 1);
         }
         finally
         {
@@ -570,7 +756,7 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
             namedConfigurations.remove(cd.getName());
         }
         unregisterListenerAt(cd.getConfiguration());
-        invalidateInternal();
+        invalidateCombinedNodes(index);
         return cd.getConfiguration();
     }
 
@@ -636,7 +822,12 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
     /**
      * Event listener call back for configuration update events. This method is
      * called whenever one of the contained configurations was modified. It
-     * invalidates this combined configuration.
+     * invalidates this combined configuration. Only the data of the child
+     * configuration which is the source of the event is discarded; if the
+     * source cannot be determined, the whole node structure is re-constructed.
+     * If a background re-construction is enabled, the data of the source
+     * configuration is discarded again after the update, so that the
+     * re-construction sees the new state.
      *
      * @param event the update event
      */
@@ -645,7 +836,32 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
     {
         if (event.isBeforeUpdate())
         {
-            invalidate();
+            beginWrite(true);
+            try
+            {
+                invalidateSource(event.getSource());
+            }
+            finally
+            {
+                endWrite();
+            }
+        }
+        else if (rebuildExecutor != null)
+        {
+            beginWrite(true);
+            try
+            {
+                if (isBackgroundRebuild())
+                {
+                    discardSourceData(event.getSource());
+                    upToDate = false;
+                    requestRebuild();
+                }
+            }
+            finally
+            {
+                endWrite();
+            }
         }
     }
 
@@ -677,6 +893,7 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         {
             CombinedConfiguration copy = (CombinedConfiguration) super.clone();
             copy.initChildCollections();
+            copy.initRebuildState();
             for (ConfigData cd : configurations)
             {
                 copy.addConfiguration(ConfigurationUtils.cloneConfiguration(cd
@@ -764,7 +981,7 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
 
             for (QueryResult<ImmutableNode> result : results)
             {
-                Set<Configuration> resultSources =
+                Collection<Configuration> resultSources =
                         findSourceConfigurations(result.getNode());
                 if (resultSources.isEmpty())
                 {
@@ -787,7 +1004,8 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
 
     /**
      * {@inheritDoc} This implementation checks whether a combined root node
-     * is available. If not, it is constructed by requesting a write lock.
+     * is available. If not, it is constructed by requesting a write lock. If a
+     * background re-construction is pending, the current root node is used.
      */
     @Override
     protected void beginRead(boolean optimize)
@@ -803,7 +1021,7 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         do
         {
             super.beginRead(false);
-            if (isUpToDate())
+            if (isUpToDate() || rebuildPending)
             {
                 lockObtained = true;
             }
@@ -837,7 +1055,9 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
             {
                 getSubConfigurationParentModel().replaceRoot(
                         constructCombinedNode(), this);
+                sourceIndex = null;
                 upToDate = true;
+                rootConstructed = true;
             }
         }
         catch (RuntimeException rex)
@@ -861,14 +1081,159 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
 
     /**
      * Marks this configuration as invalid. This means that the next access
-     * re-creates the root node. An invalidate event is also fired. Note:
-     * This implementation expects that an exclusive (write) lock is held on
-     * this instance.
+     * re-creates the root node. The data of all child configurations is
+     * discarded, so that a full re-construction is performed. An invalidate
+     * event is also fired. Note: This implementation expects that an
+     * exclusive (write) lock is held on this instance.
      */
     private void invalidateInternal()
+    {
+        resetChildData();
+        markInvalid();
+    }
+
+    /**
+     * Marks this configuration as invalid and discards the combined nodes of
+     * the child configurations starting with the given index. The combined
+     * nodes of the preceding children are reused on the next
+     * re-construction. Note: This implementation expects that an exclusive
+     * (write) lock is held on this instance.
+     *
+     * @param index the index of the first child whose combined node is
+     *        discarded
+     */
+    private void invalidateCombinedNodes(int index)
+    {
+        resetCombinedNodes(index);
+        markInvalid();
+    }
+
+    /**
+     * Discards the combined nodes of the child configurations starting with
+     * the given index.
+     *
+     * @param index the index of the first child whose combined node is
+     *        discarded
+     */
+    private void resetCombinedNodes(int index)
+    {
+        for (int i = index; i < configurations.size(); i++)
+        {
+            configurations.get(i).resetCombinedNode();
+        }
+    }
+
+    /**
+     * Invalidates this configuration because of a change of the given child
+     * configuration. The node structure of this child is discarded, and the
+     * combination is repeated starting with this child. If the object passed
+     * in is not one of the child configurations, a full invalidation is
+     * performed. Note: This implementation expects that an exclusive (write)
+     * lock is held on this instance.
+     *
+     * @param source the child configuration which has been changed
+     */
+    private void invalidateSource(Object source)
+    {
+        discardSourceData(source);
+        markInvalid();
+    }
+
+    /**
+     * Discards the data of the given child configuration and the combined
+     * nodes starting with this child. If the object passed in is not one of
+     * the child configurations, all data is discarded.
+     *
+     * @param source the child configuration which has been changed
+     */
+    private void discardSourceData(Object source)
+    {
+        int firstIndex = -1;
+        for (int i = 0; i < configurations.size(); i++)
+        {
+            ConfigData cd = configurations.get(i);
+            if (cd.getConfiguration() == source)
+            {
+                cd.resetTransformedRoot();
+                if (firstIndex < 0)
+                {
+                    firstIndex = i;
+                }
+            }
+        }
+
+        if (firstIndex < 0)
+        {
+            resetChildData();
+        }
+        else
+        {
+            resetCombinedNodes(firstIndex);
+        }
+    }
+
+    /**
+     * Discards all data stored for the child configurations. So all node
+     * structures have to be created anew on the next re-construction.
+     */
+    private void resetChildData()
+    {
+        for (ConfigData cd : configurations)
+        {
+            cd.resetTransformedRoot();
+            cd.resetCombinedNode();
+        }
+    }
+
+    /**
+     * Marks this configuration as invalid and fires an invalidate event.
+     */
+    private void markInvalid()
     {
         upToDate = false;
         fireEvent(COMBINED_INVALIDATE, null, null, false);
+        requestRebuild();
+    }
+
+    /**
+     * Records an invalidation and schedules a background re-construction if
+     * this mode is enabled. If a re-construction is already pending, it
+     * detects the invalidation and repeats its work. If there is no node
+     * structure yet, no task is scheduled; then the first reader has to create
+     * it. Note: This implementation expects that an exclusive (write) lock is
+     * held on this instance.
+     */
+    private void requestRebuild()
+    {
+        invalidationCount++;
+        if (isBackgroundRebuild() && rootConstructed && !rebuildPending)
+        {
+            rebuildPending = true;
+            try
+            {
+                rebuildExecutor.execute(new RebuildTask());
+            }
+            catch (RejectedExecutionException rex)
+            {
+                rebuildPending = false;
+                getLogger().warn(
+                        "Background re-construction rejected; "
+                                + "falling back to synchronous mode.", rex);
+            }
+        }
+    }
+
+    /**
+     * Returns a flag whether the combined node structure is re-constructed in
+     * background. This requires an executor and a thread-safe
+     * {@code Synchronizer}.
+     *
+     * @return a flag whether background re-constructions are enabled
+     */
+    private boolean isBackgroundRebuild()
+    {
+        return rebuildExecutor != null
+                && !(getSynchronizer() instanceof NoOpSynchronizer);
     }
 
     /**
@@ -881,6 +1246,19 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         namedConfigurations = new HashMap<>();
     }
 
+    /**
+     * Initializes the fields storing the state of re-constructions of the
+     * combined node structure. This is needed for a clone, which must not
+     * take over a background re-construction pending for the original.
+     */
+    private void initRebuildState()
+    {
+        invalidationCount = 0;
+        rebuildPending = false;
+        rootConstructed = false;
+        sourceIndex = null;
+    }
+
     /**
      * Creates the root node of this combined configuration.
      *
@@ -899,12 +1277,19 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
 
         else
         {
-            Iterator<ConfigData> it = configurations.iterator();
-            ImmutableNode node = it.next().getTransformedRoot();
-            while (it.hasNext())
+            ImmutableNode node = null;
+            for (ConfigData cd : configurations)
             {
-                node = nodeCombiner.combine(node,
-                        it.next().getTransformedRoot());
+                ImmutableNode combined = cd.getCombinedNode();
+                if (combined == null)
+                {
+                    ImmutableNode root = cd.getTransformedRoot();
+                    combined =
+                            (node == null) ? root : combineNodes(nodeCombiner,
+                                    parallelNodeCombination, node, root);
+                    cd.setCombinedNode(combined);
+                }
+                node = combined;
             }
             if (getLogger().isDebugEnabled())
             {
@@ -917,31 +1302,83 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         }
     }
 
+    /**
+     * Combines two nodes using the given combiner, either sequentially or in
+     * parallel.
+     *
+     * @param combiner the node combiner
+     * @param parallel a flag whether nodes are combined in parallel
+     * @param node1 the first node
+     * @param node2 the second node
+     * @return the combined node
+     */
+    private static ImmutableNode combineNodes(NodeCombiner combiner,
+            boolean parallel, ImmutableNode node1, ImmutableNode node2)
+    {
+        return parallel ? combiner.combineInParallel(node1, node2) : combiner
+                .combine(node1, node2);
+    }
+
     /**
      * Determines the configurations to which the specified node belongs. This
-     * is done by inspecting the nodes structures of all child configurations.
+     * is done by a lookup in the source index, which is created on first
+     * access after a re-construction of the combined node structure.
      *
      * @param node the node
-     * @return a set with the owning configurations
+     * @return a collection with the owning configurations
      */
-    private Set<Configuration> findSourceConfigurations(ImmutableNode node)
+    private Collection<Configuration> findSourceConfigurations(
+            ImmutableNode node)
     {
-        Set<Configuration> result = new HashSet<>();
-        FindNodeVisitor<ImmutableNode> visitor =
-                new FindNodeVisitor<>(node);
+        Map<ImmutableNode, Collection<Configuration>> index = sourceIndex;
+        if (index == null)
+        {
+            index = createSourceIndex();
+            sourceIndex = index;
+        }
 
+        Collection<Configuration> result = index.get(node);
+        return (result != null) ? result : Collections
+                .<Configuration> emptySet();
+    }
+
+    /**
+     * Creates the index which maps the nodes of all child configurations to
+     * the configurations they belong to. Nodes are compared by identity. The
+     * node structures of all child configurations are visited once.
+     *
+     * @return the source index
+     */
+    private Map<ImmutableNode, Collection<Configuration>> createSourceIndex()
+    {
+        final Map<ImmutableNode, Collection<Configuration>> index =
+                new IdentityHashMap<>();
         for (ConfigData cd : configurations)
         {
-            NodeTreeWalker.INSTANCE.walkBFS(cd.getRootNode(), visitor,
-                    getModel().getNodeHandler());
-            if (visitor.isFound())
-            {
-                result.add(cd.getConfiguration());
-                visitor.reset();
-            }
+            final Configuration source = cd.getConfiguration();
+            NodeTreeWalker.INSTANCE.walkBFS(cd.getRootNode(),
+                    new ConfigurationNodeVisitorAdapter<ImmutableNode>()
+                    {
+                        @Override
+                        public void visitBeforeChildren(ImmutableNode node,
+                                NodeHandler<ImmutableNode> handler)
+                        {
+                            Collection<Configuration> sources = index.get(node);
+                            if (sources == null)
+                            {
+                                index.put(node, Collections.singleton(source));
+                            }
+                            else if (!sources.contains(source))
+                            {
+                                Set<Configuration> newSources =
+                                        new HashSet<>(sources);
+                                newSources.add(source);
+                                index.put(node, newSources);
+                            }
+                        }
+                    }, getModel().getNodeHandler());
         }
-
-        return result;
+        return index;
     }
 
     /**
@@ -1001,6 +1438,176 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         return configurations.size();
     }
 
+    /**
+     * A task for re-constructing the combined node structure in background.
+     * The task obtains a snapshot of the current child data while holding a
+     * read lock. The new node structure is then created without holding a
+     * lock, so that readers are not blocked. Finally, the results are
+     * published under a write lock - provided that there was no invalidation
+     * in the meantime. Otherwise, the task starts again.
+     */
+    private class RebuildTask implements Runnable
+    {
+        /** The child configurations. */
+        private List<ConfigData> children;
+
+        /** The root nodes of the child configurations. */
+        private ImmutableNode[] roots;
+
+        /** The transformed root nodes of the child configurations. */
+        private ImmutableNode[] transformedRoots;
+
+        /** The combined nodes of the child configurations. */
+        private ImmutableNode[] combinedNodes;
+
+        /** The node combiner. */
+        private NodeCombiner combiner;
+
+        /** The flag whether nodes are combined in parallel. */
+        private boolean parallel;
+
+        /** The expression engine for converting child configurations. */
+        private ExpressionEngine engine;
+
+        /** The number of invalidations the snapshot is based on. */
+        private int snapshotCount;
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                boolean published;
+                do
+                {
+                    takeSnapshot();
+                    published = publish(construct());
+                } while (!published);
+            }
+            catch (RuntimeException rex)
+            {
+                rebuildFailed(rex);
+            }
+        }
+
+        /**
+         * Copies the current data about the child configurations.
+         */
+        private void takeSnapshot()
+        {
+            beginRead(true);
+            try
+            {
+                children = new ArrayList<>(configurations);
+                int count = children.size();
+                roots = new ImmutableNode[count];
+                transformedRoots = new ImmutableNode[count];
+                combinedNodes = new ImmutableNode[count];
+                for (int i = 0; i < count; i++)
+                {
+                    ConfigData cd = children.get(i);
+                    roots[i] = cd.getRootNode();
+                    transformedRoots[i] = cd.getCachedTransformedRoot();
+                    combinedNodes[i] = cd.getCombinedNode();
+                }
+                combiner = nodeCombiner;
+                parallel = parallelNodeCombination;
+                engine = conversionExpressionEngine;
+                snapshotCount = invalidationCount;
+            }
+            finally
+            {
+                endRead();
+            }
+        }
+
+        /**
+         * Creates the new combined node structure based on the snapshot.
+         *
+         * @return the new combined root node
+         */
+        private ImmutableNode construct()
+        {
+            ImmutableNode node = null;
+            for (int i = 0; i < children.size(); i++)
+            {
+                if (combinedNodes[i] == null)
+                {
+                    if (transformedRoots[i] == null)
+                    {
+                        ConfigData cd = children.get(i);
+                        roots[i] = cd.getRootNodeOfConfiguration(engine);
+                        transformedRoots[i] = cd.transform(roots[i]);
+                    }
+                    combinedNodes[i] =
+                            (node == null) ? transformedRoots[i]
+                                    : combineNodes(combiner, parallel, node,
+                                            transformedRoots[i]);
+                }
+                node = combinedNodes[i];
+            }
+            return (node == null) ? EMPTY_ROOT : node;
+        }
+
+        /**
+         * Publishes the new combined root node if it is still valid.
+         *
+         * @param root the new root node
+         * @return a flag whether the task is complete
+         */
+        private boolean publish(ImmutableNode root)
+        {
+            beginWrite(true);
+            try
+            {
+                if (snapshotCount != invalidationCount)
+                {
+                    return false;
+                }
+
+                if (!upToDate)
+                {
+                    for (int i = 0; i < children.size(); i++)
+                    {
+                        children.get(i).setNodes(roots[i],
+                                transformedRoots[i], combinedNodes[i]);
+                    }
+                    getSubConfigurationParentModel().replaceRoot(root,
+                            CombinedConfiguration.this);
+                    sourceIndex = null;
+                    upToDate = true;
+                }
+                rebuildPending = false;
+                return true;
+            }
+            finally
+            {
+                endWrite();
+            }
+        }
+
+        /**
+         * Handles an exception during a background re-construction. The
+         * pending flag is reset, so that the next reader performs a
+         * synchronous re-construction and sees the exception.
+         *
+         * @param ex the exception
+         */
+        private void rebuildFailed(RuntimeException ex)
+        {
+            getLogger().warn("Background re-construction failed.", ex);
+            beginWrite(true);
+            try
+            {
+                rebuildPending = false;
+            }
+            finally
+            {
+                endWrite();
+            }
+        }
+    }
+
     /**
      * An internal helper class for storing information about contained
      * configurations.
@@ -1022,6 +1629,15 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         /** Stores the root node for this child configuration.*/
         private ImmutableNode rootNode;
 
+        /** Stores the transformed root node of this child configuration. */
+        private ImmutableNode transformedRoot;
+
+        /**
+         * Stores the result of the combination of the children up to and
+         * including this one.
+         */
+        private ImmutableNode combinedNode;
+
         /**
          * Creates a new instance of {@code ConfigData} and initializes
          * it.
@@ -1082,13 +1698,99 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
         /**
          * Returns the transformed root node of the stored configuration. The
          * term &quot;transformed&quot; means that an eventually defined at path
-         * has been applied.
+         * has been applied. The node is created on first access and then
+         * cached until {@link #resetTransformedRoot()} is called.
          *
          * @return the transformed root node
          */
         public ImmutableNode getTransformedRoot()
         {
-            ImmutableNode configRoot = getRootNodeOfConfiguration();
+            if (transformedRoot == null)
+            {
+                rootNode =
+                        getRootNodeOfConfiguration(conversionExpressionEngine);
+                transformedRoot = transform(rootNode);
+            }
+            return transformedRoot;
+        }
+
+        /**
+         * Returns the transformed root node if it is available. Unlike
+         * {@link #getTransformedRoot()}, this method does not create the node.
+         *
+         * @return the cached transformed root node or <b>null</b>
+         */
+        public ImmutableNode getCachedTransformedRoot()
+        {
+            return transformedRoot;
+        }
+
+        /**
+         * Discards the transformed root node, so that it is created anew on
+         * next access. This method is called when the represented
+         * configuration has been changed.
+         */
+        public void resetTransformedRoot()
+        {
+            transformedRoot = null;
+        }
+
+        /**
+         * Returns the combined node of the children up to and including this
+         * one. Result is <b>null</b> if it has not yet been calculated.
+         *
+         * @return the combined node
+         */
+        public ImmutableNode getCombinedNode()
+        {
+            return combinedNode;
+        }
+
+        /**
+         * Sets the combined node of the children up to and including this
+         * one.
+         *
+         * @param node the combined node
+         */
+        public void setCombinedNode(ImmutableNode node)
+        {
+            combinedNode = node;
+        }
+
+        /**
+         * Discards the combined node, so that the combination is repeated on
+         * the next re-construction.
+         */
+        public void resetCombinedNode()
+        {
+            combinedNode = null;
+        }
+
+        /**
+         * Stores the nodes which have been created for this child
+         * configuration by a background re-construction.
+         *
+         * @param root the root node of the configuration
+         * @param transformed the transformed root node
+         * @param combined the combined node
+         */
+        public void setNodes(ImmutableNode root, ImmutableNode transformed,
+                ImmutableNode combined)
+        {
+            rootNode = root;
+            transformedRoot = transformed;
+            combinedNode = combined;
+        }
+
+        /**
+         * Applies an eventually defined at path to the given root node of the
+         * represented configuration.
+         *
+         * @param configRoot the root node of the configuration
+         * @return the transformed root node
+         */
+        public ImmutableNode transform(ImmutableNode configRoot)
+        {
             return (atPath == null) ? configRoot : prependAtPath(configRoot);
         }
 
@@ -1144,20 +1846,17 @@ public class CombinedConfiguration extends BaseHierarchicalConfiguration impleme
          * hierarchical representation of the configuration has to be created
          * first.
          *
+         * @param engine the expression engine for the conversion
          * @return the root node of the associated configuration
          */
-        private ImmutableNode getRootNodeOfConfiguration()
+        public ImmutableNode getRootNodeOfConfiguration(ExpressionEngine engine)
         {
             getConfiguration().lock(LockMode.READ);
             try
             {
-                ImmutableNode root =
-                        ConfigurationUtils
-                                .convertToHierarchical(getConfiguration(),
-                                        conversionExpressionEngine).getNodeModel()
-                                .getInMemoryRepresentation();
-                rootNode = root;
-                return root;
+                return ConfigurationUtils
+                        .convertToHierarchical(getConfiguration(), engine)
+                        .getNodeModel().getInMemoryRepresentation();
             }
             finally
             {
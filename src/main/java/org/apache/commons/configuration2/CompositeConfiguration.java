@@ -19,14 +19,21 @@ package org.apache.commons.configuration2;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.configuration2.convert.ListDelimiterHandler;
+import org.apache.commons.configuration2.event.ConfigurationEvent;
+import org.apache.commons.configuration2.event.EventListener;
+import org.apache.commons.configuration2.event.EventSource;
 import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 
 /**
@@ -62,6 +69,23 @@ import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
  * object also depends on the {@code Synchronizer} objects used by these
  * children.
  * </p>
+ * <p>
+ * Per default, each property query iterates over the child configurations
+ * until one is found which contains the requested key. For a composite with
+ * many layers this can become expensive. Therefore, a <em>key index</em> can
+ * be enabled using the {@link #setKeyIndexEnabled(boolean)} method. It stores
+ * for each key queried the child configuration defining it, so that further
+ * queries of this key require only a single lookup. The index is kept up to
+ * date by registering an event listener at all child configurations; every
+ * change event received from a child causes the index to be discarded. So the
+ * index can only be used if all child configurations implement the
+ * {@link EventSource} interface and fire change events for all of their
+ * manipulations; if this is not the case, the default lookup is used. This
+ * is also the case if a child configuration is a wrapper which does not
+ * report changes of the configurations it wraps, e.g. another
+ * {@code CompositeConfiguration}, a {@link DataConfiguration}, or a
+ * {@link SubsetConfiguration}.
+ * </p>
  *
  * @author <a href="mailto:epugh@upstate.com">Eric Pugh</a>
  * @author <a href="mailto:hps@intermeta.de">Henning P. Schmiedehausen</a>
@@ -70,6 +94,12 @@ import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 public class CompositeConfiguration extends AbstractConfiguration
 implements Cloneable
 {
+    /**
+     * The maximum number of keys not defined by any child configuration which
+     * are stored in the key index.
+     */
+    private static final int MISSING_KEYS_LIMIT = 1024;
+
     /** List holding all the configuration */
     private List<Configuration> configList = new LinkedList<>();
 
@@ -85,6 +115,38 @@ implements Cloneable
      */
     private boolean inMemoryConfigIsChild;
 
+    /**
+     * The key index. It maps keys to the first child configuration (excluding
+     * the in-memory configuration) which contains them.
+     */
+    private ConcurrentMap<String, Configuration> keyIndex =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Stores keys which are not contained in any child configuration (excluding
+     * the in-memory configuration).
+     */
+    private Set<String> missingKeys = createMissingKeysSet();
+
+    /**
+     * A counter for the invalidations of the key index. It is used to detect
+     * concurrent changes while the index is populated.
+     */
+    private AtomicLong keyIndexGeneration = new AtomicLong();
+
+    /** The listener which invalidates the key index on child changes. */
+    private EventListener<ConfigurationEvent> keyIndexListener =
+            createKeyIndexListener();
+
+    /** A flag whether the key index is enabled. */
+    private boolean keyIndexEnabled;
+
+    /**
+     * A flag whether the key index can actually be used. This is the case if
+     * it is enabled and all child configurations are event sources.
+     */
+    private boolean keyIndexUsable;
+
     /**
      * Creates an empty CompositeConfiguration object which can then
      * be added some other Configuration files
@@ -205,6 +267,12 @@ implements Cloneable
                     ((AbstractConfiguration) config)
                             .setThrowExceptionOnMissing(isThrowExceptionOnMissing());
                 }
+
+                if (keyIndexEnabled)
+                {
+                    registerKeyIndexListener(config);
+                }
+                updateKeyIndex();
             }
         }
         finally
@@ -225,9 +293,14 @@ implements Cloneable
         {
             // Make sure that you can't remove the inMemoryConfiguration from
             // the CompositeConfiguration object
-            if (!config.equals(inMemoryConfiguration))
+            if (!config.equals(inMemoryConfiguration)
+                    && configList.remove(config))
             {
-                configList.remove(config);
+                if (keyIndexEnabled)
+                {
+                    unregisterKeyIndexListener(config);
+                }
+                updateKeyIndex();
             }
         }
         finally
@@ -262,6 +335,13 @@ implements Cloneable
     @Override
     protected void clearInternal()
     {
+        if (keyIndexEnabled)
+        {
+            for (Configuration config : configList)
+            {
+                unregisterKeyIndexListener(config);
+            }
+        }
         configList.clear();
         // recreate the in memory configuration
         inMemoryConfiguration = new BaseConfiguration();
@@ -269,6 +349,7 @@ implements Cloneable
         ((BaseConfiguration) inMemoryConfiguration).setListDelimiterHandler(getListDelimiterHandler());
         configList.add(inMemoryConfiguration);
         inMemoryConfigIsChild = false;
+        updateKeyIndex();
     }
 
     /**
@@ -293,13 +374,21 @@ implements Cloneable
     @Override
     protected Object getPropertyInternal(String key)
     {
-        Configuration firstMatchingConfiguration = null;
-        for (Configuration config : configList)
+        Configuration firstMatchingConfiguration;
+        if (keyIndexUsable)
         {
-            if (config.containsKey(key))
+            firstMatchingConfiguration = findFirstSource(key);
+        }
+        else
+        {
+            firstMatchingConfiguration = null;
+            for (Configuration config : configList)
             {
-                firstMatchingConfiguration = config;
-                break;
+                if (config.containsKey(key))
+                {
+                    firstMatchingConfiguration = config;
+                    break;
+                }
             }
         }
 
@@ -369,6 +458,11 @@ implements Cloneable
     @Override
     protected boolean containsKeyInternal(String key)
     {
+        if (keyIndexUsable)
+        {
+            return findFirstSource(key) != null;
+        }
+
         for (Configuration config : configList)
         {
             if (config.containsKey(key))
@@ -385,13 +479,27 @@ implements Cloneable
         List<Object> list = new ArrayList<>();
 
         // add all elements from the first configuration containing the requested key
-        Iterator<Configuration> it = configList.iterator();
-        while (it.hasNext() && list.isEmpty())
+        boolean scan = true;
+        if (keyIndexUsable)
         {
-            Configuration config = it.next();
-            if (config != inMemoryConfiguration && config.containsKey(key))
+            Configuration source = lookupKeyIndex(key);
+            if (source != null)
+            {
+                appendListProperty(list, source, key);
+            }
+            scan = source != null && list.isEmpty();
+        }
+
+        if (scan)
+        {
+            Iterator<Configuration> it = configList.iterator();
+            while (it.hasNext() && list.isEmpty())
             {
-                appendListProperty(list, config, key);
+                Configuration config = it.next();
+                if (config != inMemoryConfiguration && config.containsKey(key))
+                {
+                    appendListProperty(list, config, key);
+                }
             }
         }
 
@@ -486,6 +594,12 @@ implements Cloneable
         {
             CompositeConfiguration copy = (CompositeConfiguration) super
                     .clone();
+            copy.keyIndex = new ConcurrentHashMap<>();
+            copy.missingKeys = createMissingKeysSet();
+            copy.keyIndexGeneration = new AtomicLong();
+            copy.keyIndexListener = copy.createKeyIndexListener();
+            copy.keyIndexEnabled = false;
+            copy.keyIndexUsable = false;
             copy.configList = new LinkedList<>();
             copy.inMemoryConfiguration = ConfigurationUtils
                     .cloneConfiguration(getInMemoryConfiguration());
@@ -501,6 +615,7 @@ implements Cloneable
             }
 
             copy.cloneInterpolator(this);
+            copy.setKeyIndexEnabled(isKeyIndexEnabled());
             return copy;
         }
         catch (CloneNotSupportedException cnex)
@@ -526,6 +641,69 @@ implements Cloneable
         super.setListDelimiterHandler(listDelimiterHandler);
     }
 
+    /**
+     * Returns a flag whether the key index is enabled.
+     *
+     * @return <b>true</b> if the key index is enabled, <b>false</b> otherwise
+     * @since 2.3
+     */
+    public boolean isKeyIndexEnabled()
+    {
+        beginRead(false);
+        try
+        {
+            return keyIndexEnabled;
+        }
+        finally
+        {
+            endRead();
+        }
+    }
+
+    /**
+     * Enables or disables the key index. If enabled, the child configuration
+     * defining a key is determined only once and then stored, so that further
+     * queries for this key can directly access this child configuration. An
+     * event listener is registered at all child configurations which
+     * discards the index whenever a child configuration is changed. The index
+     * is used only if all child configurations implement the
+     * {@link EventSource} interface and are not wrappers of other
+     * configurations (like a nested composite configuration) whose changes
+     * are not reported by events. It is not suitable if child
+     * configurations can change without firing events (e.g. if they are
+     * reloaded behind the scenes).
+     *
+     * @param enabled a flag whether the key index is to be enabled
+     * @since 2.3
+     */
+    public void setKeyIndexEnabled(boolean enabled)
+    {
+        beginWrite(false);
+        try
+        {
+            if (enabled != keyIndexEnabled)
+            {
+                for (Configuration config : configList)
+                {
+                    if (enabled)
+                    {
+                        registerKeyIndexListener(config);
+                    }
+                    else
+                    {
+                        unregisterKeyIndexListener(config);
+                    }
+                }
+                keyIndexEnabled = enabled;
+                updateKeyIndex();
+            }
+        }
+        finally
+        {
+            endWrite();
+        }
+    }
+
     /**
      * Returns the configuration source, in which the specified key is defined.
      * This method will iterate over all existing child configurations and check
@@ -580,12 +758,200 @@ implements Cloneable
      */
     private void replaceInMemoryConfiguration(Configuration config)
     {
+        Configuration oldConfig = inMemoryConfiguration;
+        inMemoryConfiguration = config;
         if (!inMemoryConfigIsChild)
         {
             // remove current in-memory configuration
-            configList.remove(inMemoryConfiguration);
+            configList.remove(oldConfig);
         }
-        inMemoryConfiguration = config;
+        else if (keyIndexEnabled)
+        {
+            // the old in-memory configuration becomes a normal child
+            registerKeyIndexListener(oldConfig);
+        }
+    }
+
+    /**
+     * Determines the first child configuration which contains the given key
+     * using the key index. The in-memory configuration is taken into account
+     * according to its position in the list of child configurations.
+     *
+     * @param key the key
+     * @return the first child configuration containing this key or
+     *         <b>null</b> if there is none
+     */
+    private Configuration findFirstSource(String key)
+    {
+        Configuration source = lookupKeyIndex(key);
+        if (inMemoryConfiguration.containsKey(key))
+        {
+            if (source == null
+                    || inMemoryConfigIsChild
+                    && configList.indexOf(inMemoryConfiguration) < configList
+                            .indexOf(source))
+            {
+                return inMemoryConfiguration;
+            }
+        }
+        return source;
+    }
+
+    /**
+     * Queries the key index for the first child configuration (excluding the
+     * in-memory configuration) which contains the given key. If the key has
+     * not been indexed yet, the child configurations are searched, and the
+     * result is stored in the index.
+     *
+     * @param key the key
+     * @return the first child configuration other than the in-memory
+     *         configuration which contains this key or <b>null</b>
+     */
+    private Configuration lookupKeyIndex(String key)
+    {
+        Configuration source = keyIndex.get(key);
+        if (source != null || missingKeys.contains(key))
+        {
+            return source;
+        }
+
+        long generation = keyIndexGeneration.get();
+        for (Configuration config : configList)
+        {
+            if (config != inMemoryConfiguration && config.containsKey(key))
+            {
+                source = config;
+                break;
+            }
+        }
+
+        if (source != null)
+        {
+            keyIndex.put(key, source);
+        }
+        else
+        {
+            if (missingKeys.size() >= MISSING_KEYS_LIMIT)
+            {
+                missingKeys.clear();
+            }
+            missingKeys.add(key);
+        }
+        if (keyIndexGeneration.get() != generation)
+        {
+            // a child was changed in the meantime; the result may be stale
+            invalidateKeyIndex();
+        }
+        return source;
+    }
+
+    /**
+     * Discards all data stored in the key index. This method is called
+     * whenever a change of a child configuration is detected.
+     */
+    private void invalidateKeyIndex()
+    {
+        keyIndexGeneration.incrementAndGet();
+        keyIndex.clear();
+        missingKeys.clear();
+    }
+
+    /**
+     * Updates the key index after a change of the list of child
+     * configurations. The index is cleared, and it is checked whether it can
+     * be used with the current child configurations.
+     */
+    private void updateKeyIndex()
+    {
+        invalidateKeyIndex();
+        boolean usable = keyIndexEnabled;
+        for (Iterator<Configuration> it = configList.iterator(); usable
+                && it.hasNext();)
+        {
+            usable = isIndexable(it.next());
+        }
+        keyIndexUsable = usable;
+    }
+
+    /**
+     * Checks whether the given child configuration can be managed by the key
+     * index. This is the case if it reports all of its changes by events.
+     * Configurations wrapping other configurations which do not forward the
+     * events of the wrapped configurations are excluded.
+     *
+     * @param config the child configuration
+     * @return a flag whether the key index can be used with this child
+     */
+    private static boolean isIndexable(Configuration config)
+    {
+        return config instanceof EventSource
+                && !(config instanceof CompositeConfiguration
+                        || config instanceof DataConfiguration
+                        || config instanceof SubsetConfiguration);
+    }
+
+    /**
+     * Registers the listener for the key index at the given child
+     * configuration if it is an event source. The in-memory configuration is
+     * skipped: it is not contained in the index, and it is changed by each
+     * update of this configuration, which would discard the index.
+     *
+     * @param config the child configuration
+     */
+    private void registerKeyIndexListener(Configuration config)
+    {
+        if (config != inMemoryConfiguration && config instanceof EventSource)
+        {
+            ((EventSource) config).addEventListener(ConfigurationEvent.ANY,
+                    keyIndexListener);
+        }
+    }
+
+    /**
+     * Removes the listener for the key index from the given child
+     * configuration.
+     *
+     * @param config the child configuration
+     */
+    private void unregisterKeyIndexListener(Configuration config)
+    {
+        if (config instanceof EventSource)
+        {
+            ((EventSource) config).removeEventListener(
+                    ConfigurationEvent.ANY, keyIndexListener);
+        }
+    }
+
+    /**
+     * Creates the event listener which invalidates the key index when a child
+     * configuration is changed. Both the before and the after events are
+     * handled, so that a query running concurrently to an update cannot leave
+     * stale data in the index.
+     *
+     * @return the listener for the key index
+     */
+    private EventListener<ConfigurationEvent> createKeyIndexListener()
+    {
+        return new EventListener<ConfigurationEvent>()
+        {
+            @Override
+            public void onEvent(ConfigurationEvent event)
+            {
+                invalidateKeyIndex();
+            }
+        };
+    }
+
+    /**
+     * Creates the set for storing keys which are not contained in any child
+     * configuration.
+     *
+     * @return the set for missing keys
+     */
+    private static Set<String> createMissingKeysSet()
+    {
+        return Collections.newSetFromMap(
+                new ConcurrentHashMap<String, Boolean>());
     }
 
     /**
@@ -26,8 +26,13 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.configuration2.convert.DisabledListDelimiterHandler;
 import org.apache.commons.configuration2.convert.ListDelimiterHandler;
@@ -112,6 +117,31 @@ import org.apache.commons.lang3.StringUtils;
  * constructors to <b>true</b>. If commits should not be performed (which is the
  * default behavior), it should be ensured that the connections returned by the
  * {@code DataSource} are in auto-commit mode.
+ * <p>
+ * Per default, each access to a property causes a query on the database. If
+ * the <em>cached</em> flag is set, the whole configuration data (filtered by
+ * the configuration name if defined) is loaded with a single query on first
+ * access and kept in memory; read operations are then served from this copy.
+ * Updates are still written to the database immediately and applied to the
+ * cached data. The cached data is updated in place; so, as for other
+ * in-memory configurations, concurrent access requires a thread-safe
+ * {@code Synchronizer} (write operations hold the write lock). Changes made
+ * by other parties are detected as follows: if a
+ * positive cache refresh interval is set, the data is reloaded on the next
+ * access after this interval has passed. If in addition a version column is
+ * defined (e.g. a timestamp or a counter updated by the application), only a
+ * cheap query for the maximum value of this column and the number of rows is
+ * executed then, and the data is reloaded only if one of these values has
+ * changed. Finally, {@link #invalidateCache()} can be called to force a
+ * reload.
+ * </p>
+ * <p>
+ * The {@code copy()} and {@code append()} methods do not write each property
+ * separately; rather, all database updates caused by such an operation are
+ * collected and sent to the database using JDBC batches in a single
+ * transaction when the operation is complete. Arbitrary updates can be
+ * combined in the same way using the {@link #executeBatch(Runnable)} method.
+ * </p>
  *
  * <h1>Note: Like JDBC itself, protection against SQL injection is left to the user.</h1>
  * @since 1.0
@@ -136,6 +166,16 @@ public class DatabaseConfiguration extends AbstractConfiguration
     /** Constant for the statement used by getKeys.*/
     private static final String SQL_GET_KEYS = "SELECT DISTINCT %s FROM %s WHERE 1 = 1";
 
+    /** Constant for the statement used to load all properties in cached mode.*/
+    private static final String SQL_GET_ALL = "SELECT * FROM %s WHERE 1 = 1";
+
+    /** Constant for the maximum number of statements in a JDBC batch.*/
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /** Constant for the statement used to check the version of cached data.*/
+    private static final String SQL_GET_VERSION =
+            "SELECT MAX(%s), COUNT(*) FROM %s WHERE 1 = 1";
+
     /** The data source to connect to the database. */
     private DataSource dataSource;
 
@@ -157,6 +197,27 @@ public class DatabaseConfiguration extends AbstractConfiguration
     /** A flag whether commits should be performed by this configuration. */
     private boolean autoCommit;
 
+    /** A flag whether the configuration data is cached. */
+    private boolean cached;
+
+    /** The interval after which cached data is checked for changes. */
+    private long cacheRefreshInterval;
+
+    /** The column used to detect changes of cached data. */
+    private String versionColumn;
+
+    /** The cached data; <b>null</b> if it has not been loaded. */
+    private volatile Map<String, List<Object>> cache;
+
+    /** The time when the cached data was last checked for changes. */
+    private volatile long cacheCheckTime;
+
+    /** The version of the cached data. */
+    private volatile List<Object> cacheVersion;
+
+    /** Collects the updates of a batch; <b>null</b> if no batch is active. */
+    private BatchUpdates batchUpdates;
+
     /**
      * Creates a new instance of {@code DatabaseConfiguration}.
      */
@@ -309,6 +370,188 @@ public class DatabaseConfiguration extends AbstractConfiguration
         this.autoCommit = autoCommit;
     }
 
+    /**
+     * Returns a flag whether the data of this configuration is cached in
+     * memory.
+     *
+     * @return the cached flag
+     * @since 2.3
+     */
+    public boolean isCached()
+    {
+        return cached;
+    }
+
+    /**
+     * Sets the cached flag. If set to <b>true</b>, the whole data of this
+     * configuration is loaded on first access and read operations are served
+     * from memory.
+     *
+     * @param cached the cached flag
+     * @since 2.3
+     */
+    public void setCached(boolean cached)
+    {
+        this.cached = cached;
+        invalidateCache();
+    }
+
+    /**
+     * Returns the interval (in milliseconds) after which cached data is
+     * checked for changes.
+     *
+     * @return the cache refresh interval
+     * @since 2.3
+     */
+    public long getCacheRefreshInterval()
+    {
+        return cacheRefreshInterval;
+    }
+
+    /**
+     * Sets the interval (in milliseconds) after which cached data is checked
+     * for changes. On the next access after this interval has passed, the
+     * data is reloaded (or its version is checked if a version column is
+     * defined). A value less than or equal to 0 means that cached data is
+     * never refreshed automatically. This property is only evaluated if the
+     * cached flag is set.
+     *
+     * @param cacheRefreshInterval the cache refresh interval
+     * @since 2.3
+     */
+    public void setCacheRefreshInterval(long cacheRefreshInterval)
+    {
+        this.cacheRefreshInterval = cacheRefreshInterval;
+    }
+
+    /**
+     * Returns the name of the column used to detect changes of cached data.
+     *
+     * @return the name of the version column
+     * @since 2.3
+     */
+    public String getVersionColumn()
+    {
+        return versionColumn;
+    }
+
+    /**
+     * Sets the name of the column used to detect changes of cached data. This
+     * is typically a timestamp or a counter which is updated whenever a row
+     * is changed. When the cache refresh interval has passed, the maximum
+     * value of this column and the number of rows are queried; cached data is
+     * only reloaded if they have changed. If no version column is set, the
+     * data is always reloaded.
+     *
+     * @param versionColumn the name of the version column
+     * @since 2.3
+     */
+    public void setVersionColumn(String versionColumn)
+    {
+        this.versionColumn = versionColumn;
+    }
+
+    /**
+     * Discards the cached data of this configuration. It is loaded again on
+     * next access. This method can be called if it is known that the data in
+     * the database has been changed. It has no effect if the cached flag is
+     * not set.
+     *
+     * @since 2.3
+     */
+    public void invalidateCache()
+    {
+        cache = null;
+    }
+
+    /**
+     * Executes the updates performed by the given {@code Runnable} as a
+     * batch. While the {@code Runnable} is executed, the database updates
+     * caused by adding or removing properties of this configuration are not
+     * written, but collected. After it has completed, they are sent to the
+     * database using JDBC batches in a single transaction. So a large number
+     * of updates requires only a few round trips. If writing the batch
+     * fails, the transaction is rolled back, and an error event of type
+     * {@code WRITE} is generated; the operation type of this event is
+     * {@link ConfigurationEvent#ANY}. If the {@code Runnable} throws an
+     * exception, no updates are written. Note that the updates are neither
+     * visible in the database nor in the cached data of this configuration
+     * before the batch is complete; in cached mode, they are applied to the
+     * cached data at once after they have been written successfully. If this
+     * method is called while another batch is active, the updates become part
+     * of the active batch.
+     *
+     * @param updates the {@code Runnable} performing the updates
+     * @since 2.3
+     */
+    public void executeBatch(Runnable updates)
+    {
+        beginWrite(false);
+        try
+        {
+            if (batchUpdates != null)
+            {
+                updates.run();
+                return;
+            }
+
+            batchUpdates = new BatchUpdates();
+            BatchUpdates currentUpdates;
+            try
+            {
+                updates.run();
+            }
+            finally
+            {
+                currentUpdates = batchUpdates;
+                batchUpdates = null;
+            }
+            writeBatch(currentUpdates);
+        }
+        finally
+        {
+            endWrite();
+        }
+    }
+
+    /**
+     * {@inheritDoc} This implementation writes all properties of the passed
+     * in configuration using a batch.
+     *
+     * @see #executeBatch(Runnable)
+     */
+    @Override
+    public void copy(final Configuration c)
+    {
+        executeBatch(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                DatabaseConfiguration.super.copy(c);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc} This implementation writes all properties of the passed
+     * in configuration using a batch.
+     *
+     * @see #executeBatch(Runnable)
+     */
+    @Override
+    public void append(final Configuration c)
+    {
+        executeBatch(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                DatabaseConfiguration.super.append(c);
+            }
+        });
+    }
+
     /**
      * Returns the value of the specified property. If this causes a database
      * error, an error event will be generated of type
@@ -322,6 +565,12 @@ public class DatabaseConfiguration extends AbstractConfiguration
     @Override
     protected Object getPropertyInternal(final String key)
     {
+        if (isCached())
+        {
+            List<Object> values = fetchCache().get(key);
+            return (values != null) ? createPropertyValue(values) : null;
+        }
+
         JdbcOperation<Object> op =
                 new JdbcOperation<Object>(ConfigurationErrorEvent.READ,
                         ConfigurationErrorEvent.READ, key, null)
@@ -333,26 +582,12 @@ public class DatabaseConfiguration extends AbstractConfiguration
                         openResultSet(String.format(SQL_GET_PROPERTY,
                                 table, keyColumn), true, key);
 
-                List<Object> results = new ArrayList<>();
+                List<Object> values = new ArrayList<>();
                 while (rs.next())
                 {
-                    Object value = extractPropertyValue(rs);
-                    // Split value if it contains the list delimiter
-                    for (Object o : getListDelimiterHandler().parse(value))
-                    {
-                        results.add(o);
-                    }
-                }
-
-                if (!results.isEmpty())
-                {
-                    return (results.size() > 1) ? results : results
-                            .get(0);
-                }
-                else
-                {
-                    return null;
+                    values.add(extractPropertyValue(rs));
                 }
+                return createPropertyValue(values);
             }
         };
 
@@ -372,28 +607,19 @@ public class DatabaseConfiguration extends AbstractConfiguration
     @Override
     protected void addPropertyDirect(final String key, final Object obj)
     {
+        if (batchUpdates != null)
+        {
+            batchUpdates.addInsert(key, String.valueOf(obj));
+            return;
+        }
+
         new JdbcOperation<Void>(ConfigurationErrorEvent.WRITE,
                 ConfigurationEvent.ADD_PROPERTY, key, obj)
         {
             @Override
             protected Void performOperation() throws SQLException
             {
-                StringBuilder query = new StringBuilder("INSERT INTO ");
-                query.append(table).append(" (");
-                query.append(keyColumn).append(", ");
-                query.append(valueColumn);
-                if (configurationNameColumn != null)
-                {
-                    query.append(", ").append(configurationNameColumn);
-                }
-                query.append(") VALUES (?, ?");
-                if (configurationNameColumn != null)
-                {
-                    query.append(", ?");
-                }
-                query.append(")");
-
-                PreparedStatement pstmt = initStatement(query.toString(),
+                PreparedStatement pstmt = initStatement(createInsertStatement(),
                         false, key, String.valueOf(obj));
                 if (configurationNameColumn != null)
                 {
@@ -401,6 +627,7 @@ public class DatabaseConfiguration extends AbstractConfiguration
                 }
 
                 pstmt.executeUpdate();
+                addToCache(key, String.valueOf(obj));
                 return null;
             }
         }
@@ -446,6 +673,11 @@ public class DatabaseConfiguration extends AbstractConfiguration
     @Override
     protected boolean isEmptyInternal()
     {
+        if (isCached())
+        {
+            return fetchCache().isEmpty();
+        }
+
         JdbcOperation<Integer> op =
                 new JdbcOperation<Integer>(ConfigurationErrorEvent.READ,
                         ConfigurationErrorEvent.READ, null, null)
@@ -477,6 +709,11 @@ public class DatabaseConfiguration extends AbstractConfiguration
     @Override
     protected boolean containsKeyInternal(final String key)
     {
+        if (isCached())
+        {
+            return fetchCache().containsKey(key);
+        }
+
         JdbcOperation<Boolean> op =
                 new JdbcOperation<Boolean>(ConfigurationErrorEvent.READ,
                         ConfigurationErrorEvent.READ, key, null)
@@ -507,6 +744,12 @@ public class DatabaseConfiguration extends AbstractConfiguration
     @Override
     protected void clearPropertyDirect(final String key)
     {
+        if (batchUpdates != null)
+        {
+            batchUpdates.addDelete(key);
+            return;
+        }
+
         new JdbcOperation<Void>(ConfigurationErrorEvent.WRITE,
                 ConfigurationEvent.CLEAR_PROPERTY, key, null)
         {
@@ -516,6 +759,7 @@ public class DatabaseConfiguration extends AbstractConfiguration
                 PreparedStatement ps = initStatement(String.format(
                         SQL_CLEAR_PROPERTY, table, keyColumn), true, key);
                 ps.executeUpdate();
+                removeFromCache(key);
                 return null;
             }
         }
@@ -540,6 +784,10 @@ public class DatabaseConfiguration extends AbstractConfiguration
             {
                 initStatement(String.format(SQL_CLEAR,
                         table), true).executeUpdate();
+                if (cache != null)
+                {
+                    cache = new LinkedHashMap<>();
+                }
                 return null;
             }
         }
@@ -559,6 +807,12 @@ public class DatabaseConfiguration extends AbstractConfiguration
     @Override
     protected Iterator<String> getKeysInternal()
     {
+        if (isCached())
+        {
+            // a snapshot, so that the keys can be changed during iteration
+            return new ArrayList<>(fetchCache().keySet()).iterator();
+        }
+
         final Collection<String> keys = new ArrayList<>();
         new JdbcOperation<Collection<String>>(ConfigurationErrorEvent.READ,
                 ConfigurationErrorEvent.READ, null, null)
@@ -661,6 +915,351 @@ public class DatabaseConfiguration extends AbstractConfiguration
         return value;
     }
 
+    /**
+     * Creates the SQL statement for inserting a property. The parameters of
+     * the statement are the key, the value, and - if defined - the
+     * configuration name.
+     *
+     * @return the insert statement
+     */
+    private String createInsertStatement()
+    {
+        StringBuilder query = new StringBuilder("INSERT INTO ");
+        query.append(table).append(" (");
+        query.append(keyColumn).append(", ");
+        query.append(valueColumn);
+        if (configurationNameColumn != null)
+        {
+            query.append(", ").append(configurationNameColumn);
+        }
+        query.append(") VALUES (?, ?");
+        if (configurationNameColumn != null)
+        {
+            query.append(", ?");
+        }
+        query.append(")");
+        return query.toString();
+    }
+
+    /**
+     * Writes the updates collected during a batch to the database. All
+     * updates are executed in a single transaction using JDBC batches. If the
+     * transaction is committed, the updates are applied to the cached data.
+     * Otherwise, it is rolled back before the original auto-commit mode of
+     * the connection is restored; so no pending updates can be committed
+     * accidentally.
+     *
+     * @param updates the updates to be written
+     */
+    private void writeBatch(final BatchUpdates updates)
+    {
+        if (updates.isEmpty())
+        {
+            return;
+        }
+
+        new JdbcOperation<Void>(ConfigurationErrorEvent.WRITE,
+                ConfigurationEvent.ANY, null, null)
+        {
+            @Override
+            protected Void performOperation() throws SQLException
+            {
+                Connection conn = getConnection();
+                boolean connAutoCommit = conn.getAutoCommit();
+                boolean restoreAutoCommit = true;
+                PreparedStatement insertStmt =
+                        conn.prepareStatement(createInsertStatement());
+                try
+                {
+                    conn.setAutoCommit(false);
+                    PreparedStatement deleteStmt =
+                            createStatement(String.format(SQL_CLEAR_PROPERTY,
+                                    table, keyColumn), true);
+                    for (BatchSegment segment : updates.segments)
+                    {
+                        executeStatementBatch(deleteStmt, segment.deletes);
+                        executeStatementBatch(insertStmt, segment.inserts);
+                    }
+                    conn.commit();
+                }
+                catch (Throwable t)
+                {
+                    try
+                    {
+                        conn.rollback();
+                    }
+                    catch (SQLException rex)
+                    {
+                        // do not hide the original exception; the state of
+                        // the transaction is unknown now, so the connection
+                        // must not be switched to auto-commit mode
+                        t.addSuppressed(rex);
+                        restoreAutoCommit = false;
+                    }
+                    throw t;
+                }
+                finally
+                {
+                    try
+                    {
+                        if (restoreAutoCommit)
+                        {
+                            conn.setAutoCommit(connAutoCommit);
+                        }
+                    }
+                    finally
+                    {
+                        insertStmt.close();
+                    }
+                }
+
+                applyToCache(updates);
+                return null;
+            }
+        }
+        .execute();
+    }
+
+    /**
+     * Executes the given statement for all the passed in parameter sets
+     * using JDBC batches. The batch is sent to the database each time it
+     * reaches the maximum size.
+     *
+     * @param ps the statement
+     * @param params a list with the parameters for the single executions
+     * @throws SQLException if an SQL error occurs
+     */
+    private static void executeStatementBatch(PreparedStatement ps,
+            List<Object[]> params) throws SQLException
+    {
+        int count = 0;
+        for (Object[] paramSet : params)
+        {
+            for (int i = 0; i < paramSet.length; i++)
+            {
+                ps.setObject(i + 1, paramSet[i]);
+            }
+            ps.addBatch();
+            if (++count % MAX_BATCH_SIZE == 0)
+            {
+                ps.executeBatch();
+            }
+        }
+        if (count % MAX_BATCH_SIZE != 0)
+        {
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Creates the value of a property from the raw values stored in the
+     * database. Each value is split if it contains the list delimiter.
+     *
+     * @param values the raw values of the property
+     * @return the property value (<b>null</b> if there are no values)
+     */
+    private Object createPropertyValue(List<Object> values)
+    {
+        List<Object> results = new ArrayList<>();
+        for (Object value : values)
+        {
+            for (Object o : getListDelimiterHandler().parse(value))
+            {
+                results.add(o);
+            }
+        }
+
+        if (!results.isEmpty())
+        {
+            return (results.size() > 1) ? results : results.get(0);
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cached data of this configuration. The data is loaded if
+     * necessary. If the cache refresh interval has passed, it is checked
+     * whether the data has changed. If the data cannot be loaded, an empty
+     * map is returned.
+     *
+     * @return a map with the raw values of all properties
+     */
+    private Map<String, List<Object>> fetchCache()
+    {
+        Map<String, List<Object>> data = cache;
+        long now = System.currentTimeMillis();
+        if (data == null)
+        {
+            data = loadCache();
+        }
+        else if (getCacheRefreshInterval() > 0
+                && now - cacheCheckTime >= getCacheRefreshInterval())
+        {
+            cacheCheckTime = now;
+            if (getVersionColumn() == null)
+            {
+                data = loadCache();
+            }
+            else
+            {
+                List<Object> version = queryVersion();
+                if (version != null && !version.equals(cacheVersion))
+                {
+                    data = loadCache();
+                }
+            }
+        }
+
+        if (data == null)
+        {
+            return Collections.emptyMap();
+        }
+        return data;
+    }
+
+    /**
+     * Loads the whole data of this configuration with a single query and
+     * stores it in the cache. In case of an error, result is <b>null</b>
+     * (or the data loaded before if any).
+     *
+     * @return a map with the raw values of all properties
+     */
+    private Map<String, List<Object>> loadCache()
+    {
+        long loadTime = System.currentTimeMillis();
+        List<Object> version =
+                (getVersionColumn() != null) ? queryVersion() : null;
+        Map<String, List<Object>> data =
+                new JdbcOperation<Map<String, List<Object>>>(
+                        ConfigurationErrorEvent.READ,
+                        ConfigurationErrorEvent.READ, null, null)
+        {
+            @Override
+            protected Map<String, List<Object>> performOperation()
+                    throws SQLException
+            {
+                ResultSet rs =
+                        openResultSet(String.format(SQL_GET_ALL, table), true);
+
+                Map<String, List<Object>> result = new LinkedHashMap<>();
+                while (rs.next())
+                {
+                    String key = rs.getString(keyColumn);
+                    List<Object> values = result.get(key);
+                    if (values == null)
+                    {
+                        values = new ArrayList<>(1);
+                        result.put(key, values);
+                    }
+                    values.add(extractPropertyValue(rs));
+                }
+                return result;
+            }
+        }
+        .execute();
+
+        if (data == null)
+        {
+            return cache;
+        }
+        cacheVersion = version;
+        cacheCheckTime = loadTime;
+        cache = data;
+        return data;
+    }
+
+    /**
+     * Queries the current version of the data of this configuration. The
+     * version consists of the maximum value of the version column and the
+     * number of rows. Result is <b>null</b> in case of an error.
+     *
+     * @return the current version of the data
+     */
+    private List<Object> queryVersion()
+    {
+        return new JdbcOperation<List<Object>>(ConfigurationErrorEvent.READ,
+                ConfigurationErrorEvent.READ, null, null)
+        {
+            @Override
+            protected List<Object> performOperation() throws SQLException
+            {
+                ResultSet rs = openResultSet(String.format(SQL_GET_VERSION,
+                        versionColumn, table), true);
+
+                List<Object> version = new ArrayList<>(2);
+                if (rs.next())
+                {
+                    version.add(rs.getObject(1));
+                    version.add(rs.getObject(2));
+                }
+                return version;
+            }
+        }
+        .execute();
+    }
+
+    /**
+     * Adds a value to the cached data if it has been loaded. The data is
+     * modified in place; this method is called only by write operations
+     * which hold the write lock of this configuration.
+     *
+     * @param key the key of the property
+     * @param value the new value
+     */
+    private void addToCache(String key, Object value)
+    {
+        Map<String, List<Object>> data = cache;
+        if (data != null)
+        {
+            List<Object> values = data.get(key);
+            if (values == null)
+            {
+                values = new ArrayList<>(1);
+                data.put(key, values);
+            }
+            values.add(value);
+        }
+    }
+
+    /**
+     * Removes a property from the cached data if it has been loaded.
+     *
+     * @param key the key of the property
+     */
+    private void removeFromCache(String key)
+    {
+        Map<String, List<Object>> data = cache;
+        if (data != null)
+        {
+            data.remove(key);
+        }
+    }
+
+    /**
+     * Applies the updates of a batch which has been written successfully to
+     * the cached data if it has been loaded. The updates are applied in the
+     * same order as they were written to the database.
+     *
+     * @param updates the updates of the batch
+     */
+    private void applyToCache(BatchUpdates updates)
+    {
+        for (BatchSegment segment : updates.segments)
+        {
+            for (Object[] params : segment.deletes)
+            {
+                removeFromCache((String) params[0]);
+            }
+            for (Object[] params : segment.inserts)
+            {
+                addToCache((String) params[0], params[1]);
+            }
+        }
+    }
+
     /**
      * Converts a CLOB to a string.
      *
@@ -748,6 +1347,11 @@ public class DatabaseConfiguration extends AbstractConfiguration
             }
             catch (SQLException e)
             {
+                if (errorEventType == ConfigurationErrorEvent.WRITE)
+                {
+                    // cached data may no longer reflect the database
+                    invalidateCache();
+                }
                 fireError(errorEventType, operationEventType, errorPropertyName,
                         errorPropertyValue, e);
             }
@@ -858,4 +1462,102 @@ public class DatabaseConfiguration extends AbstractConfiguration
          */
         protected abstract T performOperation() throws SQLException;
     }
+
+    /**
+     * An internally used helper class which collects the database updates
+     * performed during a batch. The updates are organized in segments each of
+     * which contains delete and insert operations. When a segment is written,
+     * its deletes are executed before its inserts. A delete of a key for
+     * which an insert is pending therefore starts a new segment; so the
+     * result is the same as if the updates were executed in the order they
+     * were recorded.
+     */
+    private class BatchUpdates
+    {
+        /** The list with the segments of this batch. */
+        private final List<BatchSegment> segments = new ArrayList<>();
+
+        /** The keys inserted in the current segment. */
+        private final Set<String> insertedKeys = new HashSet<>();
+
+        /** The current segment. */
+        private BatchSegment current;
+
+        /**
+         * Records the insertion of a property value.
+         *
+         * @param key the key of the property
+         * @param value the value
+         */
+        public void addInsert(String key, String value)
+        {
+            Object[] params =
+                    (configurationNameColumn != null) ? new Object[] {
+                            key, value, configurationName
+                    } : new Object[] {
+                            key, value
+                    };
+            currentSegment().inserts.add(params);
+            insertedKeys.add(key);
+        }
+
+        /**
+         * Records the removal of a property.
+         *
+         * @param key the key of the property
+         */
+        public void addDelete(String key)
+        {
+            if (insertedKeys.contains(key))
+            {
+                current = null;
+                insertedKeys.clear();
+            }
+            Object[] params =
+                    (configurationNameColumn != null) ? new Object[] {
+                            key, configurationName
+                    } : new Object[] {
+                        key
+                    };
+            currentSegment().deletes.add(params);
+        }
+
+        /**
+         * Returns a flag whether this batch does not contain any updates.
+         *
+         * @return a flag whether this batch is empty
+         */
+        public boolean isEmpty()
+        {
+            return segments.isEmpty();
+        }
+
+        /**
+         * Returns the current segment. It is created if necessary.
+         *
+         * @return the current segment
+         */
+        private BatchSegment currentSegment()
+        {
+            if (current == null)
+            {
+                current = new BatchSegment();
+                segments.add(current);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * A simple data class representing a segment of a batch. It stores the
+     * parameters of the delete and insert statements to be executed.
+     */
+    private static class BatchSegment
+    {
+        /** The parameters of the delete statements. */
+        private final List<Object[]> deletes = new ArrayList<>();
+
+        /** The parameters of the insert statements. */
+        private final List<Object[]> inserts = new ArrayList<>();
+    }
 }
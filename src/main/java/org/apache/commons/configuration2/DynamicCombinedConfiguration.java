@@ -23,15 +23,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.configuration2.event.ConfigurationEvent;
 import org.apache.commons.configuration2.event.Event;
 import org.apache.commons.configuration2.event.EventListener;
+import org.apache.commons.configuration2.event.EventSource;
 import org.apache.commons.configuration2.event.EventType;
 import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
 import org.apache.commons.configuration2.interpol.Lookup;
@@ -58,12 +61,54 @@ import org.apache.commons.configuration2.tree.NodeCombiner;
  * consistency and to avoid exceptions. The {@code Synchronizer} assigned to an
  * instance is also passed to child configuration objects when they are created.
  * </p>
+ * <p>
+ * The CombinedConfigurations created for the different keys are cached. Per
+ * default, this cache is not limited. If the key pattern can evaluate to many
+ * different values (e.g. tenant IDs), the cache can be bounded: the
+ * {@link #setMaxCachedConfigurations(int)} method sets the maximum number of
+ * cached configurations; if it is exceeded, the configurations which have not
+ * been accessed for the longest time are evicted. With
+ * {@link #setCachedConfigurationIdleTime(long)} configurations can be evicted
+ * which have not been accessed for a given time. The limits are checked when
+ * a new configuration is added to the cache; idle configurations are in
+ * addition detected by operations finding their configuration in the cache,
+ * at most every quarter of the idle time. The cache keeps its entries in the
+ * order of their last access, so eviction does not have to inspect all
+ * cached configurations. An evicted configuration is
+ * detached from the child configurations, and an event of type
+ * {@link #CACHED_CONFIGURATION_EVICTED} is fired. It is created anew when its
+ * key is used again. Statistics about the cache can be queried using the
+ * {@code getCacheHitCount()}, {@code getCacheMissCount()}, and
+ * {@code getCacheEvictionCount()} methods.
+ * </p>
+ * <p>
+ * Per default, the key pattern is evaluated at the beginning of each
+ * operation. If a thread performs many operations for the same key (e.g. a
+ * request handler serving a specific tenant), the key can be bound to the
+ * thread using the {@link #bindCurrentKey()} or {@link #bindKey(String)}
+ * methods. Then all operations of this thread use the bound key and directly
+ * access the CombinedConfiguration associated with it until
+ * {@link #unbindKey()} is called. It is important to call this method at the
+ * end of the scope (typically in a {@code finally} block), especially if
+ * threads are pooled.
+ * </p>
  *
  * @since 1.6
  * @version $Id$
  */
 public class DynamicCombinedConfiguration extends CombinedConfiguration
 {
+    /**
+     * Constant for the event type fired when a cached CombinedConfiguration is
+     * evicted. The property name of the event is the key of the evicted
+     * configuration; its value is the evicted configuration.
+     *
+     * @since 2.3
+     */
+    public static final EventType<ConfigurationEvent> CACHED_CONFIGURATION_EVICTED =
+            new EventType<>(ConfigurationEvent.ANY,
+                    "CACHED_CONFIGURATION_EVICTED");
+
     /**
      * Stores the current configuration for each involved thread. This value is
      * set at the beginning of an operation and removed at the end.
@@ -71,9 +116,37 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
     private static final ThreadLocal<CurrentConfigHolder> CURRENT_CONFIG =
             new ThreadLocal<>();
 
-    /** The CombinedConfigurations */
-    private final ConcurrentMap<String, CombinedConfiguration> configs =
-            new ConcurrentHashMap<>();
+    /** The fraction of the idle time after which idle checks are repeated. */
+    private static final int IDLE_CHECK_FRACTION = 4;
+
+    /**
+     * The CombinedConfigurations in the order of their last access. All
+     * accesses are synchronized on this map.
+     */
+    private final Map<String, CachedConfiguration> configs =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The time (in nanoseconds) when idle configurations are checked next. */
+    private final AtomicLong nextIdleCheck =
+            new AtomicLong(System.nanoTime());
+
+    /** The counter for cache hits. */
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    /** The counter for cache misses. */
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /** The counter for evicted configurations. */
+    private final AtomicLong cacheEvictions = new AtomicLong();
+
+    /** The maximum number of cached configurations. */
+    private volatile int maxCachedConfigurations;
+
+    /** The time in milliseconds after which idle configurations are evicted. */
+    private volatile long cachedConfigurationIdleTime;
+
+    /** Stores the keys bound to threads. */
+    private final ThreadLocal<KeyBinding> keyBindings = new ThreadLocal<>();
 
     /** Stores a list with the contained configurations. */
     private final List<ConfigData> configurations = new ArrayList<>();
@@ -88,6 +161,9 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
     /** Stores the combiner. */
     private NodeCombiner nodeCombiner;
 
+    /** A flag whether nodes are combined in parallel. */
+    private boolean parallelNodeCombination;
+
     /** The name of the logger to use for each CombinedConfiguration */
     private String loggerName = DynamicCombinedConfiguration.class.getName();
 
@@ -132,6 +208,157 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
         return this.keyPattern;
     }
 
+    /**
+     * Evaluates the key pattern and binds the resulting key to the current
+     * thread. All following operations of this thread use this key without
+     * evaluating the pattern again, until {@link #unbindKey()} is called.
+     *
+     * @return the key bound to the current thread
+     * @since 2.3
+     */
+    public String bindCurrentKey()
+    {
+        String key = evaluateKeyPattern();
+        bindKey(key);
+        return key;
+    }
+
+    /**
+     * Binds the given key to the current thread. All following operations of
+     * this thread use the CombinedConfiguration associated with this key,
+     * until {@link #unbindKey()} is called. The key must be one the key
+     * pattern can evaluate to.
+     *
+     * @param key the key to be bound (must not be <b>null</b>)
+     * @throws IllegalArgumentException if the key is <b>null</b>
+     * @since 2.3
+     */
+    public void bindKey(String key)
+    {
+        if (key == null)
+        {
+            throw new IllegalArgumentException("Key must not be null!");
+        }
+        keyBindings.set(new KeyBinding(key));
+    }
+
+    /**
+     * Removes the key bound to the current thread. Afterwards, the key pattern
+     * is evaluated again for each operation.
+     *
+     * @since 2.3
+     */
+    public void unbindKey()
+    {
+        keyBindings.remove();
+    }
+
+    /**
+     * Returns the key bound to the current thread. Result is <b>null</b> if
+     * no key is bound.
+     *
+     * @return the key bound to the current thread or <b>null</b>
+     * @since 2.3
+     */
+    public String getBoundKey()
+    {
+        KeyBinding binding = keyBindings.get();
+        return (binding != null) ? binding.getKey() : null;
+    }
+
+    /**
+     * Returns the maximum number of cached CombinedConfigurations. A value
+     * less or equal 0 means that the number is not limited.
+     *
+     * @return the maximum number of cached configurations
+     * @since 2.3
+     */
+    public int getMaxCachedConfigurations()
+    {
+        return maxCachedConfigurations;
+    }
+
+    /**
+     * Sets the maximum number of cached CombinedConfigurations. If a new
+     * configuration is created and this number is exceeded, the
+     * configurations which have not been accessed for the longest time are
+     * evicted. A value less or equal 0 means that the number is not limited;
+     * this is the default.
+     *
+     * @param max the maximum number of cached configurations
+     * @since 2.3
+     */
+    public void setMaxCachedConfigurations(int max)
+    {
+        maxCachedConfigurations = max;
+    }
+
+    /**
+     * Returns the time (in milliseconds) after which cached
+     * CombinedConfigurations which have not been accessed are evicted. A value
+     * less or equal 0 means that idle configurations are not evicted.
+     *
+     * @return the idle time for cached configurations
+     * @since 2.3
+     */
+    public long getCachedConfigurationIdleTime()
+    {
+        return cachedConfigurationIdleTime;
+    }
+
+    /**
+     * Sets the time (in milliseconds) after which cached CombinedConfigurations
+     * which have not been accessed are evicted. Idle configurations are
+     * detected when a new configuration is added to the cache and
+     * periodically by operations finding their configuration in the cache. A
+     * value less or equal 0 means that idle configurations are not evicted; this is the
+     * default.
+     *
+     * @param idleTime the idle time for cached configurations
+     * @since 2.3
+     */
+    public void setCachedConfigurationIdleTime(long idleTime)
+    {
+        cachedConfigurationIdleTime = idleTime;
+    }
+
+    /**
+     * Returns the number of operations which found the CombinedConfiguration
+     * for the current key in the cache.
+     *
+     * @return the number of cache hits
+     * @since 2.3
+     */
+    public long getCacheHitCount()
+    {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of operations which did not find the
+     * CombinedConfiguration for the current key in the cache, so that it had
+     * to be created.
+     *
+     * @return the number of cache misses
+     * @since 2.3
+     */
+    public long getCacheMissCount()
+    {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Returns the number of CombinedConfigurations which have been evicted
+     * from the cache because one of the limits was exceeded.
+     *
+     * @return the number of evicted configurations
+     * @since 2.3
+     */
+    public long getCacheEvictionCount()
+    {
+        return cacheEvictions.get();
+    }
+
     /**
      * Set the name of the Logger to use on each CombinedConfiguration.
      * @param name The Logger name.
@@ -164,6 +391,18 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
      */
     @Override
     public void setNodeCombiner(NodeCombiner nodeCombiner)
+    {
+        setNodeCombiner(nodeCombiner, false);
+    }
+
+    /**
+     * {@inheritDoc} The flag is passed to the combined configurations created
+     * by this object.
+     *
+     * @since 2.3
+     */
+    @Override
+    public void setNodeCombiner(NodeCombiner nodeCombiner, boolean parallel)
     {
         if (nodeCombiner == null)
         {
@@ -171,8 +410,20 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
                     "Node combiner must not be null!");
         }
         this.nodeCombiner = nodeCombiner;
+        parallelNodeCombination = parallel;
         invalidateAll();
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 2.3
+     */
+    @Override
+    public boolean isParallelNodeCombination()
+    {
+        return parallelNodeCombination;
+    }
     /**
      * Adds a new configuration to this combined configuration. It is possible
      * (but not mandatory) to give the new configuration a name. This name must
@@ -204,7 +455,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
             }
 
             // clear cache of all child configurations
-            configs.clear();
+            clearCachedConfigurations();
         }
         finally
         {
@@ -718,7 +969,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
     @Override
     public void clearEventListeners()
     {
-        for (CombinedConfiguration cc : configs.values())
+        for (CombinedConfiguration cc : getCachedConfigurations())
         {
             cc.clearEventListeners();
         }
@@ -729,7 +980,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
     public <T extends Event> void addEventListener(EventType<T> eventType,
             EventListener<? super T> listener)
     {
-        for (CombinedConfiguration cc : configs.values())
+        for (CombinedConfiguration cc : getCachedConfigurations())
         {
             cc.addEventListener(eventType, listener);
         }
@@ -740,7 +991,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
     public <T extends Event> boolean removeEventListener(
             EventType<T> eventType, EventListener<? super T> listener)
     {
-        for (CombinedConfiguration cc : configs.values())
+        for (CombinedConfiguration cc : getCachedConfigurations())
         {
             cc.removeEventListener(eventType, listener);
         }
@@ -750,7 +1001,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
     @Override
     public void clearErrorListeners()
     {
-        for (CombinedConfiguration cc : configs.values())
+        for (CombinedConfiguration cc : getCachedConfigurations())
         {
             cc.clearErrorListeners();
         }
@@ -788,7 +1039,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
 
     public void invalidateAll()
     {
-        for (CombinedConfiguration cc : configs.values())
+        for (CombinedConfiguration cc : getCachedConfigurations())
         {
             cc.invalidate();
         }
@@ -812,6 +1063,7 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
 
         // This actually uses our own synchronizer
         cch.getCurrentConfiguration().beginRead(optimize);
+        checkIdleConfigurations(cch.getKey());
     }
 
     /**
@@ -829,9 +1081,14 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
         if (!optimize && cch.getCurrentConfiguration() == null)
         {
             cch.setCurrentConfiguration(createChildConfiguration());
-            configs.put(cch.getKey(), cch.getCurrentConfiguration());
+            storeCachedConfiguration(cch.getKey(),
+                    cch.getCurrentConfiguration());
             initChildConfiguration(cch.getCurrentConfiguration());
         }
+        else
+        {
+            checkIdleConfigurations(cch.getKey());
+        }
     }
 
     /**
@@ -908,7 +1165,13 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
      */
     private CombinedConfiguration createChildConfiguration()
     {
-        return new CombinedConfiguration(getNodeCombiner());
+        CombinedConfiguration cc =
+                new CombinedConfiguration(getNodeCombiner());
+        if (isParallelNodeCombination())
+        {
+            cc.setNodeCombiner(cc.getNodeCombiner(), true);
+        }
+        return cc;
     }
 
     /**
@@ -971,14 +1234,307 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
         CurrentConfigHolder cch = CURRENT_CONFIG.get();
         if (cch == null)
         {
-            String key = String.valueOf(localSubst.interpolate(keyPattern));
-            cch = new CurrentConfigHolder(key);
-            cch.setCurrentConfiguration(configs.get(key));
+            KeyBinding binding = keyBindings.get();
+            if (binding != null)
+            {
+                cch = new CurrentConfigHolder(binding.getKey());
+                cch.setCurrentConfiguration(fetchBoundConfiguration(binding));
+            }
+            else
+            {
+                String key = evaluateKeyPattern();
+                cch = new CurrentConfigHolder(key);
+                cch.setCurrentConfiguration(
+                        configurationOf(fetchCachedConfiguration(key)));
+            }
             CURRENT_CONFIG.set(cch);
         }
         return cch;
     }
 
+    /**
+     * Evaluates the key pattern and returns the key of the current
+     * configuration.
+     *
+     * @return the current key
+     */
+    private String evaluateKeyPattern()
+    {
+        return String.valueOf(localSubst.interpolate(keyPattern));
+    }
+
+    /**
+     * Returns the cached CombinedConfiguration for the key of the given
+     * binding. If the binding still refers to a cache entry which has not been
+     * released, it is used directly. Otherwise, the cache is queried, and the
+     * binding is updated.
+     *
+     * @param binding the binding of the current thread
+     * @return the cached configuration for the bound key or <b>null</b>
+     */
+    private CombinedConfiguration fetchBoundConfiguration(KeyBinding binding)
+    {
+        CachedConfiguration cached = binding.getCachedConfiguration();
+        if (cached != null && !cached.isReleased())
+        {
+            cacheHits.incrementAndGet();
+            synchronized (configs)
+            {
+                // also moves the entry to the end of the access order
+                configs.get(binding.getKey());
+                cached.touch();
+            }
+        }
+        else
+        {
+            cached = fetchCachedConfiguration(binding.getKey());
+            binding.setCachedConfiguration(cached);
+        }
+        return configurationOf(cached);
+    }
+
+    /**
+     * Returns the cache entry for the given key. Result is <b>null</b> if
+     * there is no such entry. If it is found, the hit counter and the access
+     * time of the entry are updated.
+     *
+     * @param key the key
+     * @return the cache entry for this key or <b>null</b>
+     */
+    private CachedConfiguration fetchCachedConfiguration(String key)
+    {
+        CachedConfiguration cached;
+        synchronized (configs)
+        {
+            cached = configs.get(key);
+            if (cached != null)
+            {
+                cached.touch();
+            }
+        }
+        if (cached != null)
+        {
+            cacheHits.incrementAndGet();
+        }
+        return cached;
+    }
+
+    /**
+     * Returns the configuration stored in the given cache entry, which may be
+     * <b>null</b>.
+     *
+     * @param cached the cache entry
+     * @return the configuration of this entry or <b>null</b>
+     */
+    private static CombinedConfiguration configurationOf(
+            CachedConfiguration cached)
+    {
+        return (cached != null) ? cached.getConfiguration() : null;
+    }
+
+    /**
+     * Returns a collection with all CombinedConfigurations currently cached.
+     *
+     * @return a collection with the cached configurations
+     */
+    private Collection<CombinedConfiguration> getCachedConfigurations()
+    {
+        synchronized (configs)
+        {
+            Collection<CombinedConfiguration> result =
+                    new ArrayList<>(configs.size());
+            for (CachedConfiguration cached : configs.values())
+            {
+                result.add(cached.getConfiguration());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Adds a newly created CombinedConfiguration to the cache. This counts as
+     * a cache miss. Then the limits of the cache are enforced. Note: This
+     * method expects that an exclusive (write) lock is held on this instance.
+     *
+     * @param key the key of the configuration
+     * @param config the configuration
+     */
+    private void storeCachedConfiguration(String key,
+            CombinedConfiguration config)
+    {
+        cacheMisses.incrementAndGet();
+        CachedConfiguration old;
+        synchronized (configs)
+        {
+            old = configs.put(key, new CachedConfiguration(config));
+        }
+        if (old != null)
+        {
+            releaseCachedConfiguration(old);
+        }
+        evictCachedConfigurations(key);
+    }
+
+    /**
+     * Evicts cached CombinedConfigurations which exceed the limits of the
+     * cache. First, configurations are evicted which have been idle for too
+     * long. If then the maximum size is still exceeded, the least recently
+     * used configurations are evicted. The configuration for the given key,
+     * which has just been added, is never evicted. As the cache is ordered by
+     * the time of the last access, only the entries to be evicted have to be
+     * inspected.
+     *
+     * @param currentKey the key of the current configuration
+     */
+    private void evictCachedConfigurations(String currentKey)
+    {
+        Map<String, CachedConfiguration> evicted = new LinkedHashMap<>();
+        synchronized (configs)
+        {
+            removeIdleConfigurations(currentKey, evicted);
+
+            int max = getMaxCachedConfigurations();
+            Iterator<Map.Entry<String, CachedConfiguration>> it =
+                    configs.entrySet().iterator();
+            while (max > 0 && configs.size() > max && it.hasNext())
+            {
+                Map.Entry<String, CachedConfiguration> e = it.next();
+                if (!currentKey.equals(e.getKey()))
+                {
+                    it.remove();
+                    evicted.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        evictCachedConfigurations(evicted);
+    }
+
+    /**
+     * Evicts cached CombinedConfigurations which have been idle for too long
+     * if the last check was at least a quarter of the idle time ago. This
+     * method is called by operations which found their configuration in the
+     * cache; so idle configurations are evicted even if no new configurations
+     * are created. It expects that a lock is held on this instance.
+     *
+     * @param currentKey the key of the current configuration
+     */
+    private void checkIdleConfigurations(String currentKey)
+    {
+        long idleTime = getCachedConfigurationIdleTime();
+        if (idleTime <= 0)
+        {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long next = nextIdleCheck.get();
+        if (now - next >= 0
+                && nextIdleCheck.compareAndSet(next, now
+                        + TimeUnit.MILLISECONDS.toNanos(idleTime)
+                        / IDLE_CHECK_FRACTION))
+        {
+            Map<String, CachedConfiguration> evicted = new LinkedHashMap<>();
+            synchronized (configs)
+            {
+                removeIdleConfigurations(currentKey, evicted);
+            }
+            evictCachedConfigurations(evicted);
+        }
+    }
+
+    /**
+     * Removes the cached CombinedConfigurations which have been idle for too
+     * long from the cache and adds them to the given map. The least recently
+     * used entries come first; so the iteration stops at the first entry
+     * which is not idle. The caller must synchronize on the cache.
+     *
+     * @param currentKey the key of the current configuration
+     * @param evicted the map receiving the removed entries
+     */
+    private void removeIdleConfigurations(String currentKey,
+            Map<String, CachedConfiguration> evicted)
+    {
+        long idleTime = getCachedConfigurationIdleTime();
+        if (idleTime > 0)
+        {
+            long limit =
+                    System.nanoTime()
+                            - TimeUnit.MILLISECONDS.toNanos(idleTime);
+            Iterator<Map.Entry<String, CachedConfiguration>> it =
+                    configs.entrySet().iterator();
+            while (it.hasNext())
+            {
+                Map.Entry<String, CachedConfiguration> e = it.next();
+                if (currentKey.equals(e.getKey())
+                        || e.getValue().getLastAccess() - limit >= 0)
+                {
+                    break;
+                }
+                it.remove();
+                evicted.put(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Processes CombinedConfigurations which have been removed from the cache
+     * because one of its limits was exceeded. The configurations are released,
+     * the statistics are updated, and events are fired.
+     *
+     * @param evicted a map with the keys and the removed cache entries
+     */
+    private void evictCachedConfigurations(
+            Map<String, CachedConfiguration> evicted)
+    {
+        for (Map.Entry<String, CachedConfiguration> e : evicted.entrySet())
+        {
+            cacheEvictions.incrementAndGet();
+            releaseCachedConfiguration(e.getValue());
+            fireEvent(CACHED_CONFIGURATION_EVICTED, e.getKey(),
+                    e.getValue().getConfiguration(), false);
+        }
+    }
+
+    /**
+     * Removes all CombinedConfigurations from the cache. They are released,
+     * but this does not count as eviction.
+     */
+    private void clearCachedConfigurations()
+    {
+        Collection<CachedConfiguration> cachedConfigs;
+        synchronized (configs)
+        {
+            cachedConfigs = new ArrayList<>(configs.values());
+            configs.clear();
+        }
+        for (CachedConfiguration cached : cachedConfigs)
+        {
+            releaseCachedConfiguration(cached);
+        }
+    }
+
+    /**
+     * Releases a CombinedConfiguration which is no longer cached. The cache
+     * entry is marked as released, so that it is no longer used by key
+     * bindings. The configuration is removed as event listener from the child
+     * configurations, so that it can be garbage collected.
+     *
+     * @param cached the cache entry to be released
+     */
+    private void releaseCachedConfiguration(CachedConfiguration cached)
+    {
+        cached.release();
+        CombinedConfiguration config = cached.getConfiguration();
+        for (ConfigData data : configurations)
+        {
+            if (data.getConfiguration() instanceof EventSource)
+            {
+                ((EventSource) data.getConfiguration()).removeEventListener(
+                        ConfigurationEvent.ANY, config);
+            }
+        }
+    }
+
     /**
      * Internal class that identifies each Configuration.
      */
@@ -1040,6 +1596,135 @@ public class DynamicCombinedConfiguration extends CombinedConfiguration
 
     }
 
+    /**
+     * A simple data class holding a cached CombinedConfiguration together with
+     * the time of its last access. The access time is updated while the lock
+     * of the cache is held, so that it corresponds to the order of the cache.
+     */
+    private static class CachedConfiguration
+    {
+        /** The cached configuration. */
+        private final CombinedConfiguration configuration;
+
+        /** The time of the last access in nanoseconds. */
+        private volatile long lastAccess;
+
+        /** A flag whether this entry has been removed from the cache. */
+        private volatile boolean released;
+
+        /**
+         * Creates a new instance of {@code CachedConfiguration}.
+         *
+         * @param config the configuration to be cached
+         */
+        public CachedConfiguration(CombinedConfiguration config)
+        {
+            configuration = config;
+            touch();
+        }
+
+        /**
+         * Returns the cached configuration.
+         *
+         * @return the configuration
+         */
+        public CombinedConfiguration getConfiguration()
+        {
+            return configuration;
+        }
+
+        /**
+         * Returns the time of the last access in nanoseconds.
+         *
+         * @return the time of the last access
+         */
+        public long getLastAccess()
+        {
+            return lastAccess;
+        }
+
+        /**
+         * Records an access to the cached configuration.
+         */
+        public void touch()
+        {
+            lastAccess = System.nanoTime();
+        }
+
+        /**
+         * Returns a flag whether this entry has been removed from the cache.
+         *
+         * @return the released flag
+         */
+        public boolean isReleased()
+        {
+            return released;
+        }
+
+        /**
+         * Marks this entry as removed from the cache.
+         */
+        public void release()
+        {
+            released = true;
+        }
+    }
+
+    /**
+     * A data class storing the key bound to a thread. It also caches the
+     * entry of the associated configuration, so that it can be accessed
+     * without a lookup in the cache.
+     */
+    private static class KeyBinding
+    {
+        /** The bound key. */
+        private final String key;
+
+        /** The cache entry for the bound key. */
+        private CachedConfiguration cachedConfiguration;
+
+        /**
+         * Creates a new instance of {@code KeyBinding}.
+         *
+         * @param k the bound key
+         */
+        public KeyBinding(String k)
+        {
+            key = k;
+        }
+
+        /**
+         * Returns the bound key.
+         *
+         * @return the key
+         */
+        public String getKey()
+        {
+            return key;
+        }
+
+        /**
+         * Returns the cache entry for the bound key. Result may be
+         * <b>null</b> if it has not yet been determined.
+         *
+         * @return the cache entry
+         */
+        public CachedConfiguration getCachedConfiguration()
+        {
+            return cachedConfiguration;
+        }
+
+        /**
+         * Sets the cache entry for the bound key.
+         *
+         * @param cached the cache entry
+         */
+        public void setCachedConfiguration(CachedConfiguration cached)
+        {
+            cachedConfiguration = cached;
+        }
+    }
+
     /**
      * A simple data class holding information about the current configuration
      * while an operation for a thread is processed.
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.builder;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.configuration2.io.FileHandler;
+import org.apache.commons.configuration2.reloading.ContentHashReloadingDetector;
+import org.apache.commons.configuration2.reloading.ReloadingDetector;
+
+/**
+ * <p>
+ * An implementation of the {@code ReloadingDetectorFactory} interface which
+ * creates detectors that compare the content of files.
+ * </p>
+ * <p>
+ * This factory creates objects of type {@link ContentHashReloadingDetector}.
+ * It can be passed to the parameters of a reloading file-based configuration
+ * builder in order to avoid reloads if a file is touched or rewritten without
+ * changing its content. The refresh delay defined by the parameters is taken
+ * into account. Instances have no state other than the digest algorithm and
+ * can be shared between multiple builders.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public class ContentHashReloadingDetectorFactory implements
+        ReloadingDetectorFactory
+{
+    /** The digest algorithm to be used by the detectors. */
+    private final String algorithm;
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetectorFactory}
+     * which creates detectors using the specified digest algorithm.
+     *
+     * @param algorithm the name of the digest algorithm (<b>null</b> for the
+     *        default algorithm)
+     */
+    public ContentHashReloadingDetectorFactory(String algorithm)
+    {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetectorFactory}
+     * which creates detectors using the default digest algorithm.
+     */
+    public ContentHashReloadingDetectorFactory()
+    {
+        this(null);
+    }
+
+    /**
+     * Returns the digest algorithm used by the detectors created by this
+     * factory. Result is <b>null</b> if the default algorithm is used.
+     *
+     * @return the digest algorithm
+     */
+    public String getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * {@inheritDoc} This implementation creates a
+     * {@code ContentHashReloadingDetector}.
+     *
+     * @throws IllegalArgumentException if the digest algorithm is not
+     *         supported
+     */
+    @Override
+    public ReloadingDetector createReloadingDetector(FileHandler handler,
+            FileBasedBuilderParametersImpl params)
+            throws ConfigurationException
+    {
+        Long refreshDelay = params.getReloadingRefreshDelay();
+        return (refreshDelay != null) ? new ContentHashReloadingDetector(
+                handler, refreshDelay, getAlgorithm())
+                : new ContentHashReloadingDetector(handler, getAlgorithm());
+    }
+}
@@ -60,6 +60,16 @@ public class DatabaseBuilderParametersImpl extends BasicBuilderParameters
     /** Constant for the auto commit property. */
     private static final String PROP_AUTO_COMMIT = "autoCommit";
 
+    /** Constant for the cached property. */
+    private static final String PROP_CACHED = "cached";
+
+    /** Constant for the cache refresh interval property. */
+    private static final String PROP_CACHE_REFRESH_INTERVAL =
+            "cacheRefreshInterval";
+
+    /** Constant for the version column property. */
+    private static final String PROP_VERSION_COLUMN = "versionColumn";
+
     @Override
     public DatabaseBuilderParametersImpl setDataSource(DataSource src)
     {
@@ -108,4 +118,25 @@ public class DatabaseBuilderParametersImpl extends BasicBuilderParameters
         storeProperty(PROP_AUTO_COMMIT, Boolean.valueOf(f));
         return this;
     }
+
+    @Override
+    public DatabaseBuilderParametersImpl setCached(boolean f)
+    {
+        storeProperty(PROP_CACHED, Boolean.valueOf(f));
+        return this;
+    }
+
+    @Override
+    public DatabaseBuilderParametersImpl setCacheRefreshInterval(long interval)
+    {
+        storeProperty(PROP_CACHE_REFRESH_INTERVAL, Long.valueOf(interval));
+        return this;
+    }
+
+    @Override
+    public DatabaseBuilderParametersImpl setVersionColumn(String name)
+    {
+        storeProperty(PROP_VERSION_COLUMN, name);
+        return this;
+    }
 }
@@ -111,4 +111,38 @@ public interface DatabaseBuilderProperties<T>
      * @return a reference to this object for method chaining
      */
     T setAutoCommit(boolean f);
+
+    /**
+     * Enables or disables caching. If enabled, the database configuration
+     * loads all of its data with a single query and serves read operations
+     * from memory.
+     *
+     * @param f the value of the cached flag
+     * @return a reference to this object for method chaining
+     * @since 2.3
+     */
+    T setCached(boolean f);
+
+    /**
+     * Sets the interval (in milliseconds) after which cached data is checked
+     * for changes. A value less than or equal to 0 means that cached data is
+     * not refreshed automatically.
+     *
+     * @param interval the cache refresh interval
+     * @return a reference to this object for method chaining
+     * @since 2.3
+     */
+    T setCacheRefreshInterval(long interval);
+
+    /**
+     * Sets the name of the table column which is used to detect changes of
+     * cached data. This is typically a timestamp or a counter updated
+     * together with a row. If set, cached data is only reloaded if the
+     * maximum value of this column or the number of rows has changed.
+     *
+     * @param name the column name
+     * @return a reference to this object for method chaining
+     * @since 2.3
+     */
+    T setVersionColumn(String name);
 }
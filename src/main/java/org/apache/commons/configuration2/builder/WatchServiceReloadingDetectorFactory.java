@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.builder;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.configuration2.io.FileHandler;
+import org.apache.commons.configuration2.reloading.ReloadingDetector;
+import org.apache.commons.configuration2.reloading.WatchServiceReloadingDetector;
+
+/**
+ * <p>
+ * An implementation of the {@code ReloadingDetectorFactory} interface which
+ * creates detectors based on the watch service of the Java platform.
+ * </p>
+ * <p>
+ * This factory creates objects of type {@link WatchServiceReloadingDetector}.
+ * It can be passed to the parameters of a reloading file-based configuration
+ * builder in order to detect changes of local files immediately instead of
+ * polling them. The refresh delay defined by the parameters is used if a file
+ * cannot be monitored by the watch service. Instances have no state and can
+ * be shared between multiple builders.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public class WatchServiceReloadingDetectorFactory implements
+        ReloadingDetectorFactory
+{
+    @Override
+    public ReloadingDetector createReloadingDetector(FileHandler handler,
+            FileBasedBuilderParametersImpl params)
+            throws ConfigurationException
+    {
+        Long refreshDelay = params.getReloadingRefreshDelay();
+        return (refreshDelay != null) ? new WatchServiceReloadingDetector(
+                handler, refreshDelay) : new WatchServiceReloadingDetector(
+                handler);
+    }
+}
@@ -23,6 +23,7 @@ import java.util.LinkedList;
 
 import org.apache.commons.configuration2.ex.ConversionException;
 import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.ClassUtils;
 
 /**
@@ -45,11 +46,22 @@ import org.apache.commons.lang3.ClassUtils;
  * child element and then delegates to {@code convertValue()} which does the
  * actual conversion.
  * </p>
+ * <p>
+ * This class also implements the {@link PrimitiveConversionHandler}
+ * interface. Conversions of single values to primitive types are done
+ * without creating wrapper objects. Derived classes which override one of
+ * the protected conversion methods should be aware that these methods are
+ * bypassed by this optimization; therefore, it is only active for instances
+ * of this class. For derived classes the methods of the
+ * {@code PrimitiveConversionHandler} interface delegate to
+ * {@link #to(Object, Class, ConfigurationInterpolator)}.
+ * </p>
  *
  * @version $Id$
  * @since 2.0
  */
-public class DefaultConversionHandler implements ConversionHandler
+public class DefaultConversionHandler implements ConversionHandler,
+        PrimitiveConversionHandler
 {
     /**
      * A default instance of this class. Because an instance of this class can
@@ -80,6 +92,19 @@ public class DefaultConversionHandler implements ConversionHandler
                 }
             };
 
+    /**
+     * Constant for an object returned by {@code fetchSingleValue()} if the
+     * value to be converted is a complex object.
+     */
+    private static final Object COMPLEX_VALUE = new Object();
+
+    /**
+     * A flag whether the conversion to primitive types is done directly. This
+     * is only the case for instances of this class.
+     */
+    private final boolean directPrimitiveConversion =
+            getClass() == DefaultConversionHandler.class;
+
     /** The current date format. */
     private volatile String dateFormat;
 
@@ -166,6 +191,154 @@ public class DefaultConversionHandler implements ConversionHandler
         }
     }
 
+    /**
+     * {@inheritDoc} This implementation handles values of type
+     * {@code Boolean} and strings directly. Other values are passed to the
+     * generic {@code to()} method.
+     */
+    @Override
+    public boolean toBoolean(Object src, boolean defaultValue,
+            ConfigurationInterpolator ci)
+    {
+        if (directPrimitiveConversion)
+        {
+            Object value = fetchSingleValue(src, ci);
+            if (value == null)
+            {
+                return defaultValue;
+            }
+            if (value instanceof Boolean)
+            {
+                return ((Boolean) value).booleanValue();
+            }
+            if (value instanceof String)
+            {
+                Boolean b = BooleanUtils.toBooleanObject((String) value);
+                if (b != null)
+                {
+                    return b.booleanValue();
+                }
+            }
+        }
+
+        Boolean result = to(src, Boolean.class, ci);
+        return (result != null) ? result.booleanValue() : defaultValue;
+    }
+
+    /**
+     * {@inheritDoc} This implementation handles numbers and strings
+     * representing decimal numbers directly. Other values are passed to the
+     * generic {@code to()} method.
+     */
+    @Override
+    public int toInt(Object src, int defaultValue,
+            ConfigurationInterpolator ci)
+    {
+        if (directPrimitiveConversion)
+        {
+            Object value = fetchSingleValue(src, ci);
+            if (value == null)
+            {
+                return defaultValue;
+            }
+            if (value instanceof Number)
+            {
+                return ((Number) value).intValue();
+            }
+            if (isDecimalString(value))
+            {
+                try
+                {
+                    return Integer.parseInt((String) value);
+                }
+                catch (NumberFormatException nfex)
+                {
+                    // fall through to the generic conversion which
+                    // generates the correct exception
+                }
+            }
+        }
+
+        Integer result = to(src, Integer.class, ci);
+        return (result != null) ? result.intValue() : defaultValue;
+    }
+
+    /**
+     * {@inheritDoc} This implementation handles numbers and strings
+     * representing decimal numbers directly. Other values are passed to the
+     * generic {@code to()} method.
+     */
+    @Override
+    public long toLong(Object src, long defaultValue,
+            ConfigurationInterpolator ci)
+    {
+        if (directPrimitiveConversion)
+        {
+            Object value = fetchSingleValue(src, ci);
+            if (value == null)
+            {
+                return defaultValue;
+            }
+            if (value instanceof Number)
+            {
+                return ((Number) value).longValue();
+            }
+            if (isDecimalString(value))
+            {
+                try
+                {
+                    return Long.parseLong((String) value);
+                }
+                catch (NumberFormatException nfex)
+                {
+                    // fall through to the generic conversion which
+                    // generates the correct exception
+                }
+            }
+        }
+
+        Long result = to(src, Long.class, ci);
+        return (result != null) ? result.longValue() : defaultValue;
+    }
+
+    /**
+     * {@inheritDoc} This implementation handles numbers and strings
+     * representing decimal numbers directly. Other values are passed to the
+     * generic {@code to()} method.
+     */
+    @Override
+    public double toDouble(Object src, double defaultValue,
+            ConfigurationInterpolator ci)
+    {
+        if (directPrimitiveConversion)
+        {
+            Object value = fetchSingleValue(src, ci);
+            if (value == null)
+            {
+                return defaultValue;
+            }
+            if (value instanceof Number)
+            {
+                return ((Number) value).doubleValue();
+            }
+            if (isDecimalString(value))
+            {
+                try
+                {
+                    return Double.parseDouble((String) value);
+                }
+                catch (NumberFormatException nfex)
+                {
+                    // fall through to the generic conversion which
+                    // generates the correct exception
+                }
+            }
+        }
+
+        Double result = to(src, Double.class, ci);
+        return (result != null) ? result.doubleValue() : defaultValue;
+    }
+
     /**
      * Tests whether the passed in object is complex (which means that it
      * contains multiple values). This method is called by
@@ -403,6 +576,38 @@ public class DefaultConversionHandler implements ConversionHandler
         }
     }
 
+    /**
+     * Obtains the single value to be converted by one of the methods for
+     * primitive types. The value is interpolated in the same way as done by
+     * {@link #to(Object, Class, ConfigurationInterpolator)}. If it turns out
+     * to be a complex object, the special {@code COMPLEX_VALUE} object is
+     * returned; such values are handled by the generic conversion.
+     *
+     * @param src the source object
+     * @param ci the {@code ConfigurationInterpolator} provided by the caller
+     * @return the value to be converted
+     */
+    private Object fetchSingleValue(Object src, ConfigurationInterpolator ci)
+    {
+        ConfigurationInterpolator interpolator = fetchInterpolator(ci);
+        Object value = interpolator.interpolate(src);
+        return isComplexObject(value) ? COMPLEX_VALUE : interpolator
+                .interpolate(value);
+    }
+
+    /**
+     * Checks whether the given value is a string which can be parsed directly
+     * as a decimal number.
+     *
+     * @param value the value to check
+     * @return a flag whether this value is a decimal string
+     */
+    private static boolean isDecimalString(Object value)
+    {
+        return value instanceof String
+                && PropertyConverter.isDecimalNumber((String) value);
+    }
+
     /**
      * Obtains a {@code ConfigurationInterpolator}. If the passed in one is not
      * <b>null</b>, it is used. Otherwise, a default one is returned.
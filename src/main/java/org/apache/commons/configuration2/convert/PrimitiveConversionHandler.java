@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.convert;
+
+import org.apache.commons.configuration2.ex.ConversionException;
+import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
+
+/**
+ * <p>
+ * An optional extension of the {@link ConversionHandler} interface for
+ * conversions to primitive types.
+ * </p>
+ * <p>
+ * The generic {@code to()} method of {@code ConversionHandler} returns
+ * objects; so each conversion to a primitive type creates a wrapper object
+ * which has to be unboxed again by the caller. A {@code ConversionHandler}
+ * which also implements this interface offers methods that directly return
+ * primitive values. {@code AbstractConfiguration} makes use of them in its
+ * getter methods for primitive types accepting a default value, so that
+ * these methods do not have to create any objects.
+ * </p>
+ * <p>
+ * The methods of this interface must produce the same results as the
+ * {@code to()} method called with the corresponding wrapper class: variable
+ * substitution is done using the passed in {@link ConfigurationInterpolator},
+ * and if the source object is complex, the first value is converted. If the
+ * source object is <b>null</b> or does not contain any value, the default
+ * value is returned.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public interface PrimitiveConversionHandler
+{
+    /**
+     * Converts the given object to a <b>boolean</b> value.
+     *
+     * @param src the object to be converted
+     * @param defaultValue the value to be returned if there is no value
+     * @param ci an object for performing variable substitution
+     * @return the converted value
+     * @throws ConversionException if the requested conversion is not possible
+     */
+    boolean toBoolean(Object src, boolean defaultValue,
+            ConfigurationInterpolator ci);
+
+    /**
+     * Converts the given object to an <b>int</b> value.
+     *
+     * @param src the object to be converted
+     * @param defaultValue the value to be returned if there is no value
+     * @param ci an object for performing variable substitution
+     * @return the converted value
+     * @throws ConversionException if the requested conversion is not possible
+     */
+    int toInt(Object src, int defaultValue, ConfigurationInterpolator ci);
+
+    /**
+     * Converts the given object to a <b>long</b> value.
+     *
+     * @param src the object to be converted
+     * @param defaultValue the value to be returned if there is no value
+     * @param ci an object for performing variable substitution
+     * @return the converted value
+     * @throws ConversionException if the requested conversion is not possible
+     */
+    long toLong(Object src, long defaultValue, ConfigurationInterpolator ci);
+
+    /**
+     * Converts the given object to a <b>double</b> value.
+     *
+     * @param src the object to be converted
+     * @param defaultValue the value to be returned if there is no value
+     * @param ci an object for performing variable substitution
+     * @return the converted value
+     * @throws ConversionException if the requested conversion is not possible
+     */
+    double toDouble(Object src, double defaultValue,
+            ConfigurationInterpolator ci);
+}
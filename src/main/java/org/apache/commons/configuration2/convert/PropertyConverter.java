@@ -475,6 +475,20 @@ final class PropertyConverter
         }
     }
 
+    /**
+     * Checks whether the given string can be parsed as a plain decimal
+     * number. This is the case if it does not start with one of the prefixes
+     * for hex or binary numbers which are handled specially by
+     * {@link #toNumber(Object, Class)}.
+     *
+     * @param str the string to check
+     * @return a flag whether this string represents a decimal number
+     */
+    static boolean isDecimalNumber(String str)
+    {
+        return !str.startsWith(HEX_PREFIX) && !str.startsWith(BIN_PREFIX);
+    }
+
     /**
      * Convert the specified object into an URI.
      *
@@ -147,6 +147,15 @@ public class ConfigurationEvent extends Event
             new EventType<>(ANY_HIERARCHICAL,
                     "SUBNODE_CHANGED");
 
+    /**
+     * Constant for the event type for the execution of a batch of update
+     * operations. The value of such an event is the batch executed.
+     *
+     * @since 2.3
+     */
+    public static final EventType<ConfigurationEvent> BATCH_UPDATE =
+            new EventType<>(ANY_HIERARCHICAL, "BATCH_UPDATE");
+
     /**
      * The serial version UID.
      */
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.text.StrLookup;
@@ -79,6 +80,14 @@ import org.apache.commons.lang3.text.StrSubstitutor;
  * Implementation node: This class is thread-safe. Lookup objects can be added
  * or removed at any time concurrent to interpolation operations.
  * </p>
+ * <p>
+ * Values to be interpolated are parsed only once: the result - the literal
+ * text and the variables contained in the value - is kept in a cache of
+ * limited size. So repeated interpolation of the same values only has to
+ * resolve the variables. This is the case unless substitution in variable
+ * names is enabled; then each value is processed by the
+ * {@code StrSubstitutor}.
+ * </p>
  *
  * @version $Id$
  * @since 1.4
@@ -97,9 +106,21 @@ public class ConfigurationInterpolator
     /** The variable suffix. */
     private static final String VAR_END = "}";
 
+    /** Constant for the maximum number of cached interpolation templates. */
+    private static final int TEMPLATE_CACHE_SIZE = 1024;
+
     /** A map containing the default prefix lookups. */
     private static final Map<String, Lookup> DEFAULT_PREFIX_LOOKUPS;
 
+    /**
+     * Stores the collection for recording the prefixes of resolved variables
+     * for the current thread. It is shared by all instances, so that nested
+     * interpolation operations (e.g. via a parent interpolator) are recorded,
+     * too.
+     */
+    private static final ThreadLocal<Collection<String>> USED_PREFIXES =
+            new ThreadLocal<>();
+
     /** A map with the currently registered lookup objects. */
     private final Map<String, Lookup> prefixLookups;
 
@@ -109,6 +130,15 @@ public class ConfigurationInterpolator
     /** The helper object performing variable substitution. */
     private final StrSubstitutor substitutor;
 
+    /** A cache with the already parsed values to be interpolated. */
+    private final ConcurrentMap<String, InterpolationTemplate> templates;
+
+    /**
+     * A flag whether the {@code resolve()} method is overridden by a
+     * subclass. Then it has to be called for each variable.
+     */
+    private final boolean resolveOverridden;
+
     /** Stores a parent interpolator objects if the interpolator is nested hierarchically. */
     private volatile ConfigurationInterpolator parentInterpolator;
 
@@ -120,6 +150,8 @@ public class ConfigurationInterpolator
         prefixLookups = new ConcurrentHashMap<>();
         defaultLookups = new CopyOnWriteArrayList<>();
         substitutor = initSubstitutor();
+        templates = new ConcurrentHashMap<>();
+        resolveOverridden = checkResolveOverridden();
     }
 
     /**
@@ -397,11 +429,57 @@ public class ConfigurationInterpolator
                     return resolvedValue;
                 }
             }
-            return substitutor.replace(strValue);
+            return substitute(strValue);
         }
         return value;
     }
 
+    /**
+     * Performs interpolation of the passed in value and records the prefixes
+     * of all variables that have been resolved. This method works like
+     * {@link #interpolate(Object)}. In addition, the prefixes of all variables
+     * with a prefix which are encountered during the interpolation are added
+     * to the given collection. This also includes variables which are
+     * resolved by a parent interpolator or which are contained in the values
+     * of other variables. This information can be used for instance to find
+     * out whether the result of an interpolation depends on volatile data
+     * like system properties.
+     *
+     * @param value the value to be interpolated
+     * @param usedPrefixes a collection in which to store the prefixes of the
+     *        variables resolved (must not be <b>null</b>)
+     * @return the interpolated value
+     * @throws IllegalArgumentException if the collection is <b>null</b>
+     * @since 2.3
+     */
+    public Object interpolate(Object value, Collection<String> usedPrefixes)
+    {
+        if (usedPrefixes == null)
+        {
+            throw new IllegalArgumentException(
+                    "Collection for prefixes must not be null!");
+        }
+
+        Collection<String> outerPrefixes = USED_PREFIXES.get();
+        USED_PREFIXES.set(usedPrefixes);
+        try
+        {
+            return interpolate(value);
+        }
+        finally
+        {
+            if (outerPrefixes != null)
+            {
+                outerPrefixes.addAll(usedPrefixes);
+                USED_PREFIXES.set(outerPrefixes);
+            }
+            else
+            {
+                USED_PREFIXES.remove();
+            }
+        }
+    }
+
     /**
      * Resolves the specified variable. This implementation tries to extract
      * a variable prefix from the given variable name (the first colon (':') is
@@ -424,10 +502,25 @@ public class ConfigurationInterpolator
         }
 
         int prefixPos = var.indexOf(PREFIX_SEPARATOR);
-        if (prefixPos >= 0)
+        return (prefixPos >= 0) ? resolve(var, var.substring(0, prefixPos),
+                var.substring(prefixPos + 1)) : resolve(var, null, var);
+    }
+
+    /**
+     * Resolves a variable whose name has already been split into prefix and
+     * name. This method implements the algorithm described at
+     * {@link #resolve(String)}.
+     *
+     * @param var the full name of the variable
+     * @param prefix the prefix (<b>null</b> if there is none)
+     * @param name the name without the prefix
+     * @return the value of this variable or <b>null</b>
+     */
+    private Object resolve(String var, String prefix, String name)
+    {
+        if (prefix != null)
         {
-            String prefix = var.substring(0, prefixPos);
-            String name = var.substring(prefixPos + 1);
+            recordPrefix(prefix);
             Object value = fetchLookupForPrefix(prefix).lookup(name);
             if (value != null)
             {
@@ -466,6 +559,21 @@ public class ConfigurationInterpolator
         return nullSafeLookup(prefixLookups.get(prefix));
     }
 
+    /**
+     * Records the prefix of a variable to be resolved if the current thread
+     * has requested this.
+     *
+     * @param prefix the prefix
+     */
+    private static void recordPrefix(String prefix)
+    {
+        Collection<String> usedPrefixes = USED_PREFIXES.get();
+        if (usedPrefixes != null)
+        {
+            usedPrefixes.add(prefix);
+        }
+    }
+
     /**
      * Creates and initializes a {@code StrSubstitutor} object which is used for
      * variable substitution. This {@code StrSubstitutor} is assigned a
@@ -487,6 +595,189 @@ public class ConfigurationInterpolator
         });
     }
 
+    /**
+     * Replaces all variables in the given string. Normally, this is done based
+     * on a cached {@code InterpolationTemplate}. If this is not possible, the
+     * {@code StrSubstitutor} is used.
+     *
+     * @param value the string to be interpolated
+     * @return the interpolated string
+     */
+    private String substitute(String value)
+    {
+        if (substitutor.isEnableSubstitutionInVariables())
+        {
+            return substitutor.replace(value);
+        }
+        if (!value.contains(VAR_START))
+        {
+            return value;
+        }
+
+        String result = substitute(fetchTemplate(value), null);
+        return (result != null) ? result : substitutor.replace(value);
+    }
+
+    /**
+     * Interpolates the given template. This method produces the same results
+     * as the {@code StrSubstitutor}: the values of variables are interpolated
+     * recursively, and cyclic references cause an exception. There is one
+     * special case which cannot be handled based on a template: if a variable
+     * directly follows another one whose value ends with the escape
+     * character, the {@code StrSubstitutor} treats the second variable as
+     * escaped. In this case, this method returns <b>null</b>, so that the
+     * caller falls back to the {@code StrSubstitutor}.
+     *
+     * @param template the template
+     * @param priorVariables the list with the variables currently resolved
+     *        (<b>null</b> for a top-level call)
+     * @return the interpolated string or <b>null</b>
+     * @throws IllegalStateException if a cyclic reference is detected
+     */
+    private String substitute(InterpolationTemplate template,
+            List<String> priorVariables)
+    {
+        List<String> prior = priorVariables;
+        StringBuilder buf = new StringBuilder();
+        boolean afterValue = false;
+
+        for (int i = 0; i < template.size(); i++)
+        {
+            if (!template.isVariable(i))
+            {
+                buf.append(template.getLiteral(i));
+                afterValue = false;
+                continue;
+            }
+
+            if (afterValue && buf.charAt(buf.length() - 1) == '$')
+            {
+                return null;
+            }
+
+            InterpolationTemplate.Variable var = template.getVariable(i);
+            if (prior == null)
+            {
+                prior = new ArrayList<>();
+                prior.add(template.getSource());
+            }
+            checkCyclicSubstitution(var.getName(), prior);
+            prior.add(var.getName());
+
+            String value = resolveVariable(var);
+            if (value == null)
+            {
+                value = var.getDefaultValue();
+            }
+            if (value != null)
+            {
+                String subst =
+                        value.contains(VAR_START) ? substitute(
+                                fetchTemplate(value), prior) : value;
+                if (subst == null)
+                {
+                    return null;
+                }
+                buf.append(subst);
+                afterValue = subst.length() > 0;
+            }
+            else
+            {
+                buf.append(var.getExpression());
+                afterValue = false;
+            }
+            prior.remove(prior.size() - 1);
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * Resolves a variable of a template and returns its value as string.
+     *
+     * @param var the variable
+     * @return the string value of this variable or <b>null</b>
+     */
+    private String resolveVariable(InterpolationTemplate.Variable var)
+    {
+        Object value =
+                resolveOverridden ? resolve(var.getName()) : resolve(
+                        var.getName(), var.getPrefix(), var.getLocalName());
+        return (value != null) ? value.toString() : null;
+    }
+
+    /**
+     * Returns the template for the given string. The template is obtained
+     * from the cache if possible. Otherwise, it is created and added to the
+     * cache. If the cache has reached its maximum size, it is cleared first.
+     *
+     * @param value the string
+     * @return the template for this string
+     */
+    private InterpolationTemplate fetchTemplate(String value)
+    {
+        InterpolationTemplate template = templates.get(value);
+        if (template == null)
+        {
+            template = InterpolationTemplate.compile(value);
+            if (templates.size() >= TEMPLATE_CACHE_SIZE)
+            {
+                templates.clear();
+            }
+            templates.put(value, template);
+        }
+        return template;
+    }
+
+    /**
+     * Checks whether the resolution of the given variable would cause an
+     * endless loop. If so, an exception is thrown. The message of the
+     * exception is the same as generated by the {@code StrSubstitutor}.
+     *
+     * @param varName the name of the variable to be resolved
+     * @param priorVariables the list with the variables currently resolved
+     * @throws IllegalStateException if a cycle is detected
+     */
+    private static void checkCyclicSubstitution(String varName,
+            List<String> priorVariables)
+    {
+        if (priorVariables.contains(varName))
+        {
+            StringBuilder buf =
+                    new StringBuilder("Infinite loop in property interpolation of ");
+            buf.append(priorVariables.remove(0)).append(": ");
+            for (int i = 0; i < priorVariables.size(); i++)
+            {
+                if (i > 0)
+                {
+                    buf.append("->");
+                }
+                buf.append(priorVariables.get(i));
+            }
+            throw new IllegalStateException(buf.toString());
+        }
+    }
+
+    /**
+     * Checks whether the {@code resolve()} method has been overridden by a
+     * subclass.
+     *
+     * @return a flag whether {@code resolve()} is overridden
+     */
+    private boolean checkResolveOverridden()
+    {
+        try
+        {
+            return getClass().getMethod("resolve", String.class)
+                    .getDeclaringClass() != ConfigurationInterpolator.class;
+        }
+        catch (NoSuchMethodException nsmex)
+        {
+            // should not happen
+            return true;
+        }
+    }
+
     /**
      * Interpolates a string value that seems to be a single variable.
      *
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.interpol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * An internally used helper class representing a string value which has
+ * already been parsed for variables.
+ * </p>
+ * <p>
+ * {@link ConfigurationInterpolator} uses a {@code StrSubstitutor} for
+ * replacing variables. This class scans the value on each invocation. An
+ * instance of {@code InterpolationTemplate} stores the result of such a scan:
+ * the value is split into a sequence of literal text and variables. For each
+ * variable the prefix, the name, and an optional default value are
+ * extracted. So interpolation of a template just has to iterate over its
+ * parts.
+ * </p>
+ * <p>
+ * The parsing follows the rules implemented by {@code StrSubstitutor} with
+ * its default settings: variables have the form <code>${name}</code>, the
+ * character <code>$</code> can be used to escape a variable, and a default
+ * value can be specified using the delimiter <code>:-</code>. Substitution in
+ * variable names is not supported.
+ * </p>
+ * <p>
+ * Instances are immutable and can therefore be shared between multiple
+ * threads.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+final class InterpolationTemplate
+{
+    /** Constant for the start of a variable. */
+    static final String VAR_START = "${";
+
+    /** Constant for the end of a variable. */
+    static final String VAR_END = "}";
+
+    /** Constant for the escape character. */
+    private static final char ESCAPE = '$';
+
+    /** Constant for the delimiter of a default value. */
+    private static final String DEFAULT_DELIMITER = ":-";
+
+    /** Constant for the separator of a prefix. */
+    private static final char PREFIX_SEPARATOR = ':';
+
+    /** The source string of this template. */
+    private final String source;
+
+    /**
+     * The parts of this template. Elements are either strings (for literal
+     * text) or {@code Variable} objects.
+     */
+    private final Object[] parts;
+
+    /**
+     * Creates a new instance of {@code InterpolationTemplate}.
+     *
+     * @param src the source string
+     * @param templateParts the list with the parts of the template
+     */
+    private InterpolationTemplate(String src, List<Object> templateParts)
+    {
+        source = src;
+        parts = templateParts.toArray();
+    }
+
+    /**
+     * Parses the given string and returns a new {@code InterpolationTemplate}
+     * for it.
+     *
+     * @param source the string to be parsed (must not be <b>null</b>)
+     * @return the template for this string
+     */
+    public static InterpolationTemplate compile(String source)
+    {
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        int length = source.length();
+
+        while (pos < length)
+        {
+            if (!source.startsWith(VAR_START, pos))
+            {
+                literal.append(source.charAt(pos++));
+            }
+            else if (pos > 0 && source.charAt(pos - 1) == ESCAPE)
+            {
+                // escaped variable: the escape character is dropped, and the
+                // variable start is literal text; as both are the same
+                // character, the literal buffer already has the right content
+                pos++;
+            }
+            else
+            {
+                int endPos = source.indexOf(VAR_END, pos + VAR_START.length());
+                if (endPos < 0)
+                {
+                    literal.append(source, pos, length);
+                    pos = length;
+                }
+                else
+                {
+                    if (literal.length() > 0)
+                    {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    parts.add(Variable.create(source.substring(pos, endPos
+                            + VAR_END.length()), source.substring(pos
+                            + VAR_START.length(), endPos)));
+                    pos = endPos + VAR_END.length();
+                }
+            }
+        }
+
+        if (literal.length() > 0)
+        {
+            parts.add(literal.toString());
+        }
+        return new InterpolationTemplate(source, parts);
+    }
+
+    /**
+     * Returns the source string of this template.
+     *
+     * @return the source string
+     */
+    public String getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Returns the number of parts of this template.
+     *
+     * @return the number of parts
+     */
+    public int size()
+    {
+        return parts.length;
+    }
+
+    /**
+     * Returns a flag whether the part at the given position is a variable.
+     * Otherwise, it is literal text.
+     *
+     * @param idx the index of the part
+     * @return a flag whether this part is a variable
+     */
+    public boolean isVariable(int idx)
+    {
+        return parts[idx] instanceof Variable;
+    }
+
+    /**
+     * Returns the literal text of the part at the given position. This method
+     * can only be called for parts which are no variables.
+     *
+     * @param idx the index of the part
+     * @return the literal text of this part
+     */
+    public String getLiteral(int idx)
+    {
+        return (String) parts[idx];
+    }
+
+    /**
+     * Returns the variable at the given position. This method can only be
+     * called for parts which are variables.
+     *
+     * @param idx the index of the part
+     * @return the variable at this position
+     */
+    public Variable getVariable(int idx)
+    {
+        return (Variable) parts[idx];
+    }
+
+    /**
+     * A class representing a variable in an interpolation template.
+     */
+    static final class Variable
+    {
+        /** The full expression of the variable including the markers. */
+        private final String expression;
+
+        /** The name of the variable. */
+        private final String name;
+
+        /** The prefix of the variable. */
+        private final String prefix;
+
+        /** The name of the variable without the prefix. */
+        private final String localName;
+
+        /** The default value of the variable. */
+        private final String defaultValue;
+
+        /**
+         * Creates a new instance of {@code Variable}.
+         *
+         * @param expr the full expression
+         * @param varName the name
+         * @param varPrefix the prefix (may be <b>null</b>)
+         * @param varLocalName the name without the prefix
+         * @param varDefault the default value (may be <b>null</b>)
+         */
+        private Variable(String expr, String varName, String varPrefix,
+                String varLocalName, String varDefault)
+        {
+            expression = expr;
+            name = varName;
+            prefix = varPrefix;
+            localName = varLocalName;
+            defaultValue = varDefault;
+        }
+
+        /**
+         * Creates a new {@code Variable} from the given expression. The name
+         * expression is split into the name and the default value; the name
+         * is split into the prefix and the local name.
+         *
+         * @param expression the full expression of the variable
+         * @param nameExpression the expression between the variable markers
+         * @return the new variable
+         */
+        static Variable create(String expression, String nameExpression)
+        {
+            String name = nameExpression;
+            String defaultValue = null;
+            for (int i = 0; i < nameExpression.length(); i++)
+            {
+                if (nameExpression.startsWith(VAR_START, i))
+                {
+                    break;
+                }
+                if (nameExpression.startsWith(DEFAULT_DELIMITER, i))
+                {
+                    name = nameExpression.substring(0, i);
+                    defaultValue =
+                            nameExpression.substring(i
+                                    + DEFAULT_DELIMITER.length());
+                    break;
+                }
+            }
+
+            int prefixPos = name.indexOf(PREFIX_SEPARATOR);
+            return (prefixPos >= 0) ? new Variable(expression, name,
+                    name.substring(0, prefixPos), name.substring(prefixPos + 1),
+                    defaultValue) : new Variable(expression, name, null, name,
+                    defaultValue);
+        }
+
+        /**
+         * Returns the full expression of this variable as contained in the
+         * source string.
+         *
+         * @return the expression
+         */
+        public String getExpression()
+        {
+            return expression;
+        }
+
+        /**
+         * Returns the name of this variable (including the prefix).
+         *
+         * @return the name
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Returns the prefix of this variable. Result is <b>null</b> if the
+         * variable does not have a prefix.
+         *
+         * @return the prefix
+         */
+        public String getPrefix()
+        {
+            return prefix;
+        }
+
+        /**
+         * Returns the name of this variable without the prefix.
+         *
+         * @return the local name
+         */
+        public String getLocalName()
+        {
+            return localName;
+        }
+
+        /**
+         * Returns the default value of this variable. Result is <b>null</b>
+         * if no default value was specified.
+         *
+         * @return the default value
+         */
+        public String getDefaultValue()
+        {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.commons.configuration2.io.FileHandler;
+
+/**
+ * <p>
+ * A specialized {@code FileHandlerReloadingDetector} which ignores changes of
+ * the modification time of the monitored file if its content has not changed.
+ * </p>
+ * <p>
+ * The base class reports the need for a reload whenever the last modification
+ * time of the file changes. This also happens if the file is just touched or
+ * rewritten with identical content, e.g. by deployment tools or configuration
+ * management agents; the resulting reload is unnecessary. This class in
+ * addition stores a digest of the file's content. When the base class detects
+ * a changed modification time, the file is read and its digest is computed. If
+ * it is equal to the stored one, the new modification time is recorded, and no
+ * reload is reported.
+ * </p>
+ * <p>
+ * The file is read only if its modification time has changed; so the
+ * additional overhead is small. The digest is computed using a
+ * {@code MessageDigest} with the algorithm specified at construction time;
+ * the default algorithm is {@value #DEFAULT_ALGORITHM}. The digest is only
+ * used to recognize unchanged content, not for security purposes. If the file
+ * cannot be read, this class behaves like its base class.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public class ContentHashReloadingDetector extends FileHandlerReloadingDetector
+{
+    /** Constant for the default digest algorithm. */
+    public static final String DEFAULT_ALGORITHM = "MD5";
+
+    /** The size of the buffer for reading the file. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The name of the digest algorithm. */
+    private final String algorithm;
+
+    /** The digest of the content at the time of the last reload. */
+    private byte[] contentDigest;
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetector} and
+     * initializes it with the {@code FileHandler} to monitor, the refresh
+     * delay, and the digest algorithm.
+     *
+     * @param handler the {@code FileHandler} associated with this detector (can
+     *        be <b>null</b>)
+     * @param refreshDelay the refresh delay; a value of 0 means that a check is
+     *        performed in all cases
+     * @param algorithm the name of the digest algorithm (<b>null</b> for the
+     *        default algorithm)
+     * @throws IllegalArgumentException if the algorithm is not supported
+     */
+    public ContentHashReloadingDetector(FileHandler handler, long refreshDelay,
+            String algorithm)
+    {
+        super(handler, refreshDelay);
+        this.algorithm = (algorithm != null) ? algorithm : DEFAULT_ALGORITHM;
+        createDigest(this.algorithm);
+    }
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetector} and
+     * initializes it with the {@code FileHandler} to monitor and the refresh
+     * delay. The default digest algorithm is used.
+     *
+     * @param handler the {@code FileHandler} associated with this detector (can
+     *        be <b>null</b>)
+     * @param refreshDelay the refresh delay; a value of 0 means that a check is
+     *        performed in all cases
+     */
+    public ContentHashReloadingDetector(FileHandler handler, long refreshDelay)
+    {
+        this(handler, refreshDelay, null);
+    }
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetector} and
+     * initializes it with the {@code FileHandler} to monitor and the digest
+     * algorithm. The default refresh delay is used.
+     *
+     * @param handler the {@code FileHandler} associated with this detector (can
+     *        be <b>null</b>)
+     * @param algorithm the name of the digest algorithm (<b>null</b> for the
+     *        default algorithm)
+     * @throws IllegalArgumentException if the algorithm is not supported
+     */
+    public ContentHashReloadingDetector(FileHandler handler, String algorithm)
+    {
+        super(handler);
+        this.algorithm = (algorithm != null) ? algorithm : DEFAULT_ALGORITHM;
+        createDigest(this.algorithm);
+    }
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetector} and
+     * initializes it with the {@code FileHandler} to monitor. The default
+     * refresh delay and digest algorithm are used.
+     *
+     * @param handler the {@code FileHandler} associated with this detector (can
+     *        be <b>null</b>)
+     */
+    public ContentHashReloadingDetector(FileHandler handler)
+    {
+        this(handler, (String) null);
+    }
+
+    /**
+     * Creates a new instance of {@code ContentHashReloadingDetector} with an
+     * uninitialized {@code FileHandler} object.
+     */
+    public ContentHashReloadingDetector()
+    {
+        this(null);
+    }
+
+    /**
+     * Returns the name of the algorithm used for computing the digest of the
+     * file's content.
+     *
+     * @return the digest algorithm
+     */
+    public String getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * {@inheritDoc} This implementation additionally compares the digest of
+     * the file's content if the base class reports a change. If the content
+     * is unchanged, the new modification time is stored, and result is
+     * <b>false</b>.
+     */
+    @Override
+    public boolean isReloadingRequired()
+    {
+        if (!super.isReloadingRequired())
+        {
+            return false;
+        }
+
+        long modified = getLastModificationDate();
+        byte[] digest = calculateDigest();
+        if (digest != null && Arrays.equals(digest, contentDigest))
+        {
+            super.updateLastModified(modified);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} This implementation also stores the digest of the file's
+     * current content. This method is called when the detector is initialized
+     * and after a reload.
+     */
+    @Override
+    protected void updateLastModified(long time)
+    {
+        super.updateLastModified(time);
+        contentDigest = (time != 0) ? calculateDigest() : null;
+    }
+
+    /**
+     * Calculates the digest of the content of the monitored file. Result is
+     * <b>null</b> if the file does not exist or cannot be read.
+     *
+     * @return the digest of the file's content or <b>null</b>
+     */
+    protected byte[] calculateDigest()
+    {
+        File file = getFile();
+        if (file == null || !file.isFile())
+        {
+            return null;
+        }
+
+        try
+        {
+            InputStream in = new FileInputStream(file);
+            try
+            {
+                MessageDigest digest = createDigest(getAlgorithm());
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int count;
+                while ((count = in.read(buffer)) >= 0)
+                {
+                    digest.update(buffer, 0, count);
+                }
+                return digest.digest();
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (IOException ioex)
+        {
+            // fall back to the modification time
+            return null;
+        }
+    }
+
+    /**
+     * Creates a {@code MessageDigest} for the given algorithm.
+     *
+     * @param algorithm the name of the algorithm
+     * @return the {@code MessageDigest}
+     * @throws IllegalArgumentException if the algorithm is not supported
+     */
+    private static MessageDigest createDigest(String algorithm)
+    {
+        try
+        {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch (NoSuchAlgorithmException nsaex)
+        {
+            throw new IllegalArgumentException(
+                    "Unsupported digest algorithm: " + algorithm, nsaex);
+        }
+    }
+}
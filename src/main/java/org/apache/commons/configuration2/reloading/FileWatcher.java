@@ -0,0 +1,470 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+/**
+ * <p>
+ * An internally used helper class which monitors directories for changes
+ * using a {@code java.nio.file.WatchService}.
+ * </p>
+ * <p>
+ * This class is used by {@link WatchServiceReloadingDetector}. There is a
+ * single instance which is shared by all detectors. Each directory containing
+ * a monitored file is registered only once at the watch service, no matter how
+ * many files in this directory are monitored. A single daemon thread waits for
+ * events reported by the watch service and notifies the detectors affected.
+ * The thread is started when the first directory is registered and terminates
+ * when no more directories are monitored.
+ * </p>
+ * <p>
+ * Detectors are referenced weakly; so a detector which is no longer used is
+ * eventually removed even if it has not been unregistered explicitly. This
+ * class is thread-safe.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+final class FileWatcher
+{
+    /** The shared instance. */
+    private static final FileWatcher INSTANCE = new FileWatcher();
+
+    /** The kinds of events a directory is registered for. */
+    private static final WatchEvent.Kind<?>[] EVENT_KINDS = {
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE
+    };
+
+    /** A map with the monitored directories. */
+    private final Map<Path, WatchedDirectory> directories;
+
+    /** A map for finding the directory which belongs to a watch key. */
+    private final Map<WatchKey, WatchedDirectory> watchKeys;
+
+    /** The current watch service; <b>null</b> if none is active. */
+    private WatchService watchService;
+
+    /**
+     * Creates a new instance of {@code FileWatcher}.
+     */
+    private FileWatcher()
+    {
+        directories = new HashMap<>();
+        watchKeys = new HashMap<>();
+    }
+
+    /**
+     * Returns the shared instance of this class.
+     *
+     * @return the shared {@code FileWatcher}
+     */
+    public static FileWatcher getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the given detector for changes of the specified file. The
+     * directory containing the file is registered at the watch service if
+     * necessary. If this is not possible (e.g. because the directory does
+     * not exist), result is <b>null</b>.
+     *
+     * @param file the file to be monitored
+     * @param detector the detector to be notified about changes
+     * @return a {@code Registration} object or <b>null</b> if the file cannot
+     *         be monitored
+     */
+    public Registration register(File file,
+            WatchServiceReloadingDetector detector)
+    {
+        Path path;
+        try
+        {
+            path = file.getAbsoluteFile().toPath().normalize();
+        }
+        catch (RuntimeException rex)
+        {
+            // the file cannot be converted to a path
+            return null;
+        }
+        Path dir = path.getParent();
+        if (dir == null)
+        {
+            return null;
+        }
+
+        synchronized (this)
+        {
+            WatchedDirectory watchedDir = directories.get(dir);
+            if (watchedDir == null)
+            {
+                watchedDir = registerDirectory(dir);
+                if (watchedDir == null)
+                {
+                    return null;
+                }
+            }
+            else
+            {
+                removeStaleRegistrations(watchedDir);
+            }
+            Registration reg =
+                    new Registration(watchedDir, path.getFileName(), detector);
+            watchedDir.registrations.add(reg);
+            return reg;
+        }
+    }
+
+    /**
+     * Returns the number of directories which are currently monitored.
+     *
+     * @return the number of monitored directories
+     */
+    public synchronized int getWatchedDirectoryCount()
+    {
+        return directories.size();
+    }
+
+    /**
+     * Removes the given registration. If no more registrations exist for its
+     * directory, the directory is no longer monitored.
+     *
+     * @param reg the registration to be removed
+     */
+    synchronized void unregister(Registration reg)
+    {
+        reg.valid = false;
+        WatchedDirectory watchedDir = reg.directory;
+        if (watchedDir.registrations.remove(reg)
+                && watchedDir.registrations.isEmpty())
+        {
+            removeDirectory(watchedDir);
+        }
+    }
+
+    /**
+     * Removes registrations from the given directory whose detectors have been
+     * garbage collected.
+     *
+     * @param watchedDir the directory
+     */
+    private static void removeStaleRegistrations(WatchedDirectory watchedDir)
+    {
+        for (Iterator<Registration> it =
+                watchedDir.registrations.iterator(); it.hasNext();)
+        {
+            if (it.next().detector.get() == null)
+            {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Registers a directory at the watch service. The watch service is
+     * created if necessary.
+     *
+     * @param dir the directory
+     * @return the new {@code WatchedDirectory} or <b>null</b> if the directory
+     *         cannot be registered
+     */
+    private WatchedDirectory registerDirectory(Path dir)
+    {
+        boolean newService = false;
+        try
+        {
+            if (watchService == null)
+            {
+                watchService = FileSystems.getDefault().newWatchService();
+                newService = true;
+            }
+            WatchKey key = dir.register(watchService, EVENT_KINDS);
+            WatchedDirectory watchedDir = new WatchedDirectory(dir, key);
+            directories.put(dir, watchedDir);
+            watchKeys.put(key, watchedDir);
+            if (newService)
+            {
+                startWatchThread(watchService);
+            }
+            return watchedDir;
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            if (newService)
+            {
+                closeWatchService();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Removes a directory from monitoring. If this was the last directory,
+     * the watch service is closed, which also terminates the watch thread.
+     *
+     * @param watchedDir the directory to be removed
+     */
+    private void removeDirectory(WatchedDirectory watchedDir)
+    {
+        watchedDir.key.cancel();
+        directories.remove(watchedDir.path);
+        watchKeys.remove(watchedDir.key);
+        if (directories.isEmpty())
+        {
+            closeWatchService();
+        }
+    }
+
+    /**
+     * Closes the current watch service.
+     */
+    private void closeWatchService()
+    {
+        try
+        {
+            watchService.close();
+        }
+        catch (IOException ioex)
+        {
+            // ignore; the service is no longer used anyway
+        }
+        watchService = null;
+    }
+
+    /**
+     * Starts the thread which processes the events of the given watch
+     * service.
+     *
+     * @param service the watch service
+     */
+    private void startWatchThread(final WatchService service)
+    {
+        new BasicThreadFactory.Builder().namingPattern("FileWatcher-%s")
+                .daemon(true).build().newThread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        processEvents(service);
+                    }
+                }).start();
+    }
+
+    /**
+     * The main loop of the watch thread. Waits for events of the given watch
+     * service and notifies the affected detectors. The loop ends when the
+     * service is closed.
+     *
+     * @param service the watch service
+     */
+    private void processEvents(WatchService service)
+    {
+        try
+        {
+            while (true)
+            {
+                WatchKey key = service.take();
+                for (WatchServiceReloadingDetector detector : handleEvents(key))
+                {
+                    detector.fileChanged();
+                }
+            }
+        }
+        catch (ClosedWatchServiceException cwex)
+        {
+            // the service has been closed; stop watching
+        }
+        catch (InterruptedException iex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Processes the events reported for a watch key and determines the
+     * detectors to be notified. If the key has become invalid, all
+     * registrations of the directory are invalidated.
+     *
+     * @param key the watch key
+     * @return a list with the detectors to be notified
+     */
+    private synchronized List<WatchServiceReloadingDetector> handleEvents(
+            WatchKey key)
+    {
+        List<WatchServiceReloadingDetector> detectors = new ArrayList<>();
+        List<WatchEvent<?>> events = key.pollEvents();
+        WatchedDirectory watchedDir = watchKeys.get(key);
+        if (watchedDir == null)
+        {
+            return detectors;
+        }
+
+        boolean valid = key.reset();
+        for (Iterator<Registration> it =
+                watchedDir.registrations.iterator(); it.hasNext();)
+        {
+            Registration reg = it.next();
+            WatchServiceReloadingDetector detector = reg.detector.get();
+            if (detector == null)
+            {
+                it.remove();
+            }
+            else if (!valid || isAffected(reg, events))
+            {
+                detectors.add(detector);
+            }
+        }
+
+        if (!valid || watchedDir.registrations.isEmpty())
+        {
+            for (Registration reg : watchedDir.registrations)
+            {
+                reg.valid = false;
+            }
+            watchedDir.registrations.clear();
+            removeDirectory(watchedDir);
+        }
+        return detectors;
+    }
+
+    /**
+     * Checks whether one of the given events affects the file of the
+     * specified registration.
+     *
+     * @param reg the registration
+     * @param events the list with events
+     * @return a flag whether the file of the registration is affected
+     */
+    private static boolean isAffected(Registration reg,
+            List<WatchEvent<?>> events)
+    {
+        for (WatchEvent<?> event : events)
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || reg.fileName.equals(event.context()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A class representing the registration of a detector for a file. An
+     * instance becomes invalid if the directory of the file can no longer be
+     * monitored.
+     */
+    static final class Registration
+    {
+        /** The directory of the monitored file. */
+        private final WatchedDirectory directory;
+
+        /** The name of the monitored file. */
+        private final Path fileName;
+
+        /** A reference to the detector to be notified. */
+        private final WeakReference<WatchServiceReloadingDetector> detector;
+
+        /** A flag whether this registration is still valid. */
+        private volatile boolean valid;
+
+        /**
+         * Creates a new instance of {@code Registration}.
+         *
+         * @param dir the directory
+         * @param name the name of the file
+         * @param det the detector
+         */
+        private Registration(WatchedDirectory dir, Path name,
+                WatchServiceReloadingDetector det)
+        {
+            directory = dir;
+            fileName = name;
+            detector = new WeakReference<>(det);
+            valid = true;
+        }
+
+        /**
+         * Returns a flag whether this registration is still valid. If this
+         * method returns <b>false</b>, the file is no longer monitored.
+         *
+         * @return a flag whether this registration is valid
+         */
+        public boolean isValid()
+        {
+            return valid;
+        }
+
+        /**
+         * Cancels this registration. The detector is no longer notified about
+         * changes.
+         */
+        public void cancel()
+        {
+            getInstance().unregister(this);
+        }
+    }
+
+    /**
+     * A simple data class storing information about a monitored directory.
+     */
+    private static final class WatchedDirectory
+    {
+        /** The path to the directory. */
+        private final Path path;
+
+        /** The watch key for this directory. */
+        private final WatchKey key;
+
+        /** The registrations for files in this directory. */
+        private final List<Registration> registrations;
+
+        /**
+         * Creates a new instance of {@code WatchedDirectory}.
+         *
+         * @param path the path
+         * @param key the watch key
+         */
+        public WatchedDirectory(Path path, WatchKey key)
+        {
+            this.path = path;
+            this.key = key;
+            registrations = new LinkedList<>();
+        }
+    }
+}
@@ -49,6 +49,12 @@ import org.apache.commons.lang3.concurrent.BasicThreadFactory;
  * created and used. When shutting down this object it can be specified whether
  * the {@code ScheduledExecutorService} should be shut down, too.
  * </p>
+ * <p>
+ * Applications with many reloading configuration sources can create their
+ * triggers via a {@link ReloadingScheduler} instead. Such triggers share the
+ * thread pool of the scheduler; shutting them down never shuts down the
+ * scheduler's executor service.
+ * </p>
  *
  * @version $Id$
  * @since 2.0
@@ -59,6 +65,9 @@ public class PeriodicReloadingTrigger
     /** The executor service used by this trigger. */
     private final ScheduledExecutorService executorService;
 
+    /** The scheduler used by this trigger; <b>null</b> if there is none. */
+    private final ReloadingScheduler scheduler;
+
     /** The associated reloading controller. */
     private final ReloadingController controller;
 
@@ -90,18 +99,8 @@ public class PeriodicReloadingTrigger
     public PeriodicReloadingTrigger(ReloadingController ctrl, Object ctrlParam,
             long triggerPeriod, TimeUnit unit, ScheduledExecutorService exec)
     {
-        if (ctrl == null)
-        {
-            throw new IllegalArgumentException(
-                    "ReloadingController must not be null!");
-        }
-
-        controller = ctrl;
-        controllerParam = ctrlParam;
-        period = triggerPeriod;
-        timeUnit = unit;
-        executorService =
-                (exec != null) ? exec : createDefaultExecutorService();
+        this(ctrl, ctrlParam, triggerPeriod, unit,
+                (exec != null) ? exec : createDefaultExecutorService(), null);
     }
 
     /**
@@ -118,23 +117,84 @@ public class PeriodicReloadingTrigger
     public PeriodicReloadingTrigger(ReloadingController ctrl, Object ctrlParam,
             long triggerPeriod, TimeUnit unit)
     {
-        this(ctrl, ctrlParam, triggerPeriod, unit, null);
+        this(ctrl, ctrlParam, triggerPeriod, unit,
+                (ScheduledExecutorService) null);
+    }
+
+    /**
+     * Creates a new instance of {@code PeriodicReloadingTrigger} which uses the
+     * given {@code ReloadingScheduler}. This constructor is called by the
+     * scheduler.
+     *
+     * @param ctrl the {@code ReloadingController} (must not be <b>null</b>)
+     * @param ctrlParam the optional parameter to be passed to the controller
+     *        when doing reloading checks
+     * @param triggerPeriod the period in which the controller is triggered
+     * @param unit the time unit for the period
+     * @param sched the {@code ReloadingScheduler}
+     * @throws IllegalArgumentException if a required argument is missing
+     */
+    PeriodicReloadingTrigger(ReloadingController ctrl, Object ctrlParam,
+            long triggerPeriod, TimeUnit unit, ReloadingScheduler sched)
+    {
+        this(ctrl, ctrlParam, triggerPeriod, unit, sched.getExecutorService(),
+                sched);
+    }
+
+    /**
+     * Creates a new instance of {@code PeriodicReloadingTrigger} and
+     * initializes all fields.
+     *
+     * @param ctrl the {@code ReloadingController}
+     * @param ctrlParam the parameter for the controller
+     * @param triggerPeriod the period
+     * @param unit the time unit for the period
+     * @param exec the executor service
+     * @param sched the scheduler (can be <b>null</b>)
+     * @throws IllegalArgumentException if a required argument is missing
+     */
+    private PeriodicReloadingTrigger(ReloadingController ctrl,
+            Object ctrlParam, long triggerPeriod, TimeUnit unit,
+            ScheduledExecutorService exec, ReloadingScheduler sched)
+    {
+        if (ctrl == null)
+        {
+            throw new IllegalArgumentException(
+                    "ReloadingController must not be null!");
+        }
+
+        controller = ctrl;
+        controllerParam = ctrlParam;
+        period = triggerPeriod;
+        timeUnit = unit;
+        executorService = exec;
+        scheduler = sched;
     }
 
     /**
      * Starts this trigger. The associated {@code ReloadingController} will be
      * triggered according to the specified period. The first triggering happens
-     * after a period. If this trigger is already started, this invocation has
-     * no effect.
+     * after a period (plus a random jitter if a {@code ReloadingScheduler} is
+     * used). If this trigger is already started, this invocation has no
+     * effect.
      */
     public synchronized void start()
     {
         if (!isRunning())
         {
-            triggerTask =
-                    getExecutorService().scheduleAtFixedRate(
-                            createTriggerTaskCommand(), period, period,
-                            timeUnit);
+            if (scheduler != null)
+            {
+                triggerTask =
+                        scheduler.schedule(controller, controllerParam, period,
+                                timeUnit);
+            }
+            else
+            {
+                triggerTask =
+                        getExecutorService().scheduleAtFixedRate(
+                                createTriggerTaskCommand(), period, period,
+                                timeUnit);
+            }
         }
     }
 
@@ -168,7 +228,8 @@ public class PeriodicReloadingTrigger
      * be called if this trigger is no more needed. It ensures that the trigger
      * is stopped. If the parameter is <b>true</b>, the executor service is also
      * shut down. This should be done if this trigger is the only user of this
-     * executor service.
+     * executor service. The executor service of a {@code ReloadingScheduler}
+     * is never shut down by this method.
      *
      * @param shutdownExecutor a flag whether the associated
      *        {@code ScheduledExecutorService} is to be shut down
@@ -176,7 +237,7 @@ public class PeriodicReloadingTrigger
     public void shutdown(boolean shutdownExecutor)
     {
         stop();
-        if (shutdownExecutor)
+        if (shutdownExecutor && scheduler == null)
         {
             getExecutorService().shutdown();
         }
@@ -0,0 +1,495 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+/**
+ * <p>
+ * A class which executes the checks of many {@link PeriodicReloadingTrigger}
+ * objects on a small, shared thread pool.
+ * </p>
+ * <p>
+ * A {@code PeriodicReloadingTrigger} created without an executor service uses
+ * its own thread. If an application has many reloading configuration sources,
+ * this results in many threads which are idle most of the time. Triggers
+ * created by the {@link #createTrigger(ReloadingController, Object, long,
+ * TimeUnit)} method of this class in contrast share the thread pool of this
+ * scheduler. A default instance with a pool of
+ * {@value #DEFAULT_POOL_SIZE} daemon threads can be obtained via
+ * {@link #getDefaultInstance()}.
+ * </p>
+ * <p>
+ * In addition, this class implements the following optimizations:
+ * <ul>
+ * <li>Checks for the same monitored file are coalesced. If the controllers of
+ * multiple triggers use a {@link FileHandlerReloadingDetector} for the same
+ * file, a check is skipped if another check for this file is currently
+ * running or if the last one happened less than half of the trigger's period
+ * ago. A controller whose check has been skipped is checked later together
+ * with the next check for this file which detects a change; the first check
+ * of a controller is never skipped. For controllers with other detectors,
+ * checks are coalesced per controller in the same way. (If a check is
+ * skipped, the controller parameter of the skipped trigger is only passed to
+ * the controller if a change is detected later.)</li>
+ * <li>The first check of a trigger is delayed by a random amount of time
+ * (the <em>jitter</em>) in addition to the period. The jitter is defined as a
+ * fraction of the period; the default value is {@value #DEFAULT_JITTER}. So
+ * triggers which are started at the same time with the same period do not
+ * perform their checks at the same instant.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Triggers using a scheduler do not shut down the scheduler's executor
+ * service when they are shut down. The {@link #shutdown()} method of this
+ * class has to be called explicitly if a scheduler is no longer needed (this
+ * is not necessary for the default instance). This class is thread-safe.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public class ReloadingScheduler
+{
+    /** The number of threads used by the default instance. */
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    /** The default jitter as a fraction of the trigger period. */
+    public static final double DEFAULT_JITTER = 0.1;
+
+    /** The shared default instance. */
+    private static ReloadingScheduler defaultInstance;
+
+    /** The executor service for executing the checks. */
+    private final ScheduledExecutorService executorService;
+
+    /** The jitter as a fraction of the period. */
+    private final double jitter;
+
+    /** The states of checks for controllers not monitoring a file. */
+    private final Map<ReloadingController, CheckState> controllerStates;
+
+    /** The states of checks for monitored files. */
+    private final Map<File, CheckState> fileStates;
+
+    /** The random number generator for the jitter. */
+    private final Random random;
+
+    /**
+     * Creates a new instance of {@code ReloadingScheduler} with a new thread
+     * pool of the given size and the given jitter.
+     *
+     * @param poolSize the number of threads in the pool
+     * @param jitter the jitter as a fraction of the period (0 for no jitter)
+     * @throws IllegalArgumentException if a parameter is invalid
+     */
+    public ReloadingScheduler(int poolSize, double jitter)
+    {
+        this(createExecutorService(poolSize), jitter);
+    }
+
+    /**
+     * Creates a new instance of {@code ReloadingScheduler} which uses the
+     * given executor service and the given jitter.
+     *
+     * @param exec the executor service (must not be <b>null</b>)
+     * @param jitter the jitter as a fraction of the period (0 for no jitter)
+     * @throws IllegalArgumentException if a parameter is invalid
+     */
+    public ReloadingScheduler(ScheduledExecutorService exec, double jitter)
+    {
+        if (exec == null)
+        {
+            throw new IllegalArgumentException(
+                    "Executor service must not be null!");
+        }
+        if (jitter < 0)
+        {
+            throw new IllegalArgumentException(
+                    "Jitter must not be negative: " + jitter);
+        }
+
+        executorService = exec;
+        this.jitter = jitter;
+        controllerStates =
+                Collections
+                        .synchronizedMap(new WeakHashMap<ReloadingController, CheckState>());
+        fileStates =
+                Collections.synchronizedMap(new HashMap<File, CheckState>());
+        random = new Random();
+    }
+
+    /**
+     * Returns the shared default instance. This instance uses a pool of
+     * {@value #DEFAULT_POOL_SIZE} daemon threads and the default jitter. It is
+     * created on first access (or again if it has been shut down).
+     *
+     * @return the default {@code ReloadingScheduler}
+     */
+    public static synchronized ReloadingScheduler getDefaultInstance()
+    {
+        if (defaultInstance == null
+                || defaultInstance.getExecutorService().isShutdown())
+        {
+            defaultInstance =
+                    new ReloadingScheduler(DEFAULT_POOL_SIZE, DEFAULT_JITTER);
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Returns the executor service used by this scheduler.
+     *
+     * @return the {@code ScheduledExecutorService}
+     */
+    public ScheduledExecutorService getExecutorService()
+    {
+        return executorService;
+    }
+
+    /**
+     * Returns the jitter used by this scheduler.
+     *
+     * @return the jitter as a fraction of the period
+     */
+    public double getJitter()
+    {
+        return jitter;
+    }
+
+    /**
+     * Creates a {@code PeriodicReloadingTrigger} which uses this scheduler.
+     *
+     * @param ctrl the {@code ReloadingController} (must not be <b>null</b>)
+     * @param ctrlParam the optional parameter to be passed to the controller
+     *        when doing reloading checks
+     * @param period the period in which the controller is triggered
+     * @param unit the time unit for the period
+     * @return the new trigger
+     * @throws IllegalArgumentException if a required argument is missing
+     */
+    public PeriodicReloadingTrigger createTrigger(ReloadingController ctrl,
+            Object ctrlParam, long period, TimeUnit unit)
+    {
+        return new PeriodicReloadingTrigger(ctrl, ctrlParam, period, unit,
+                this);
+    }
+
+    /**
+     * Shuts down the executor service of this scheduler. Triggers using this
+     * scheduler are no longer executed.
+     */
+    public void shutdown()
+    {
+        getExecutorService().shutdown();
+    }
+
+    /**
+     * Schedules the periodic checks for the given controller. This method is
+     * called by a trigger when it is started.
+     *
+     * @param ctrl the {@code ReloadingController}
+     * @param ctrlParam the parameter for the controller
+     * @param period the period
+     * @param unit the time unit for the period
+     * @return the future for the scheduled task
+     */
+    ScheduledFuture<?> schedule(final ReloadingController ctrl,
+            final Object ctrlParam, long period, TimeUnit unit)
+    {
+        final long periodNanos = unit.toNanos(period);
+        return getExecutorService().scheduleAtFixedRate(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                checkForReloading(ctrl, ctrlParam, periodNanos / 2);
+            }
+        }, periodNanos + nextJitter(periodNanos), periodNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Performs a reloading check for the given controller unless it is
+     * coalesced with another check. Checks are coalesced for the file
+     * monitored by the controller's detector if it is a
+     * {@link FileHandlerReloadingDetector}, otherwise for the controller. The
+     * check is skipped if another coalesced check is currently running or if
+     * the last one happened less than the given interval ago. A skipped
+     * controller is remembered and checked as soon as a check for the same
+     * file detects a change.
+     *
+     * @param ctrl the {@code ReloadingController}
+     * @param ctrlParam the parameter for the controller
+     * @param minInterval the minimum interval between two checks (in
+     *        nanoseconds)
+     * @return a flag whether a check was actually performed
+     */
+    boolean checkForReloading(ReloadingController ctrl, Object ctrlParam,
+            long minInterval)
+    {
+        CheckState state = fetchCheckState(ctrl);
+        if (!state.tryStart())
+        {
+            state.skip(ctrl, ctrlParam);
+            return false;
+        }
+
+        try
+        {
+            if (state.isCheckedRecently(ctrl, minInterval))
+            {
+                state.skip(ctrl, ctrlParam);
+                return false;
+            }
+            boolean changed = ctrl.checkForReloading(ctrlParam);
+            state.checked(ctrl);
+            if (changed)
+            {
+                checkSkippedControllers(state, ctrl);
+            }
+            return true;
+        }
+        finally
+        {
+            state.finish();
+        }
+    }
+
+    /**
+     * Checks all controllers whose checks have been skipped because they were
+     * coalesced with a check which detected a change.
+     *
+     * @param state the current check state
+     * @param ctrl the controller which has already been checked
+     */
+    private static void checkSkippedControllers(CheckState state,
+            ReloadingController ctrl)
+    {
+        for (Map.Entry<ReloadingController, Object> e : state.fetchSkipped()
+                .entrySet())
+        {
+            if (e.getKey() != ctrl)
+            {
+                e.getKey().checkForReloading(e.getValue());
+                state.checked(e.getKey());
+            }
+        }
+    }
+
+    /**
+     * Returns the state of checks for the given controller. This is the
+     * state for the monitored file if the controller uses a
+     * {@link FileHandlerReloadingDetector}, otherwise the state for the
+     * controller itself. The state is created if necessary.
+     *
+     * @param ctrl the {@code ReloadingController}
+     * @return the state of checks for this controller
+     */
+    private CheckState fetchCheckState(ReloadingController ctrl)
+    {
+        File file = fetchMonitoredFile(ctrl);
+        if (file != null)
+        {
+            return fetchCheckState(fileStates, file);
+        }
+        return fetchCheckState(controllerStates, ctrl);
+    }
+
+    /**
+     * Returns the state of checks for the given key from the given map. The
+     * state is created if necessary.
+     *
+     * @param <K> the type of the key
+     * @param states the map with states
+     * @param key the key
+     * @return the state of checks for this key
+     */
+    private static <K> CheckState fetchCheckState(Map<K, CheckState> states,
+            K key)
+    {
+        synchronized (states)
+        {
+            CheckState state = states.get(key);
+            if (state == null)
+            {
+                state = new CheckState();
+                states.put(key, state);
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Returns the file monitored by the detector of the given controller. If
+     * the detector is not a {@link FileHandlerReloadingDetector} or does not
+     * have a file, result is <b>null</b>.
+     *
+     * @param ctrl the {@code ReloadingController}
+     * @return the monitored file or <b>null</b>
+     */
+    private static File fetchMonitoredFile(ReloadingController ctrl)
+    {
+        ReloadingDetector detector = ctrl.getDetector();
+        if (detector instanceof FileHandlerReloadingDetector)
+        {
+            File file = ((FileHandlerReloadingDetector) detector).getFile();
+            if (file != null)
+            {
+                return file.getAbsoluteFile();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a random jitter for the given period.
+     *
+     * @param periodNanos the period in nanoseconds
+     * @return the jitter in nanoseconds
+     */
+    private long nextJitter(long periodNanos)
+    {
+        return (long) (random.nextDouble() * jitter * periodNanos);
+    }
+
+    /**
+     * Creates the executor service for a scheduler with its own thread pool.
+     *
+     * @param poolSize the number of threads
+     * @return the executor service
+     * @throws IllegalArgumentException if the pool size is invalid
+     */
+    private static ScheduledExecutorService createExecutorService(int poolSize)
+    {
+        if (poolSize < 1)
+        {
+            throw new IllegalArgumentException("Invalid pool size: "
+                    + poolSize);
+        }
+        ThreadFactory factory =
+                new BasicThreadFactory.Builder()
+                        .namingPattern("ReloadingScheduler-%s").daemon(true)
+                        .build();
+        return Executors.newScheduledThreadPool(poolSize, factory);
+    }
+
+    /**
+     * A class storing the state of the checks which are coalesced for a file
+     * or a controller.
+     */
+    private static class CheckState
+    {
+        /** A flag whether a check is currently running. */
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        /** The controllers which have already been checked. */
+        private final Set<ReloadingController> checkedControllers =
+                Collections.newSetFromMap(
+                        new WeakHashMap<ReloadingController, Boolean>());
+
+        /** The controllers whose checks have been skipped with parameters. */
+        private Map<ReloadingController, Object> skipped = new WeakHashMap<>();
+
+        /** The time of the last check. */
+        private long lastCheck;
+
+        /**
+         * Tries to start a check. This fails if another check is running.
+         *
+         * @return a flag whether the check can be started
+         */
+        public boolean tryStart()
+        {
+            return running.compareAndSet(false, true);
+        }
+
+        /**
+         * Notifies this object that the current check is finished.
+         */
+        public void finish()
+        {
+            running.set(false);
+        }
+
+        /**
+         * Checks whether a check can be skipped for the given controller
+         * because the last check happened less than the given interval ago.
+         * This is not the case if the controller has never been checked.
+         *
+         * @param ctrl the {@code ReloadingController}
+         * @param minInterval the minimum interval between two checks
+         * @return a flag whether the check can be skipped
+         */
+        public synchronized boolean isCheckedRecently(
+                ReloadingController ctrl, long minInterval)
+        {
+            return checkedControllers.contains(ctrl)
+                    && System.nanoTime() - lastCheck < minInterval;
+        }
+
+        /**
+         * Records that the given controller has been checked.
+         *
+         * @param ctrl the {@code ReloadingController}
+         */
+        public synchronized void checked(ReloadingController ctrl)
+        {
+            lastCheck = System.nanoTime();
+            checkedControllers.add(ctrl);
+        }
+
+        /**
+         * Records that the check of the given controller has been skipped.
+         *
+         * @param ctrl the {@code ReloadingController}
+         * @param ctrlParam the parameter for the controller
+         */
+        public synchronized void skip(ReloadingController ctrl,
+                Object ctrlParam)
+        {
+            skipped.put(ctrl, ctrlParam);
+        }
+
+        /**
+         * Returns the controllers whose checks have been skipped and resets
+         * this information.
+         *
+         * @return a map with the skipped controllers and their parameters
+         */
+        public synchronized Map<ReloadingController, Object> fetchSkipped()
+        {
+            Map<ReloadingController, Object> result = skipped;
+            skipped = new WeakHashMap<>();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration2.io.FileHandler;
+
+/**
+ * <p>
+ * A specialized implementation of {@code ReloadingDetector} which uses the
+ * {@code WatchService} API of the Java platform to monitor a file specified by
+ * a {@link FileHandler}.
+ * </p>
+ * <p>
+ * Rather than checking the last modification time of the file on each call
+ * of {@code isReloadingRequired()}, this class registers the directory
+ * containing the file at a watch service. Change events for this directory
+ * are received by a background thread which is shared by all instances of
+ * this class; a directory is registered only once, even if multiple files in
+ * it are monitored. When a change of the monitored file is reported, the next
+ * call of {@code isReloadingRequired()} returns <b>true</b> (provided that the
+ * file exists). So changes are detected shortly after they happen, and no file
+ * system access is needed as long as the file is not changed.
+ * </p>
+ * <p>
+ * If the file cannot be monitored this way - for instance, because its
+ * directory does not exist or because the location is not a local file - this
+ * class falls back to the polling mechanism of its super class. In this mode,
+ * the refresh delay is taken into account as usual; it also determines how
+ * often an attempt to register the file at the watch service is made.
+ * </p>
+ * <p>
+ * Note that the quality of the change notifications depends on the platform;
+ * some implementations of the watch service detect changes only with a delay.
+ * Changes of the target of a symbolic link are not detected. The first call
+ * of {@code isReloadingRequired()} (or {@code reloadingPerformed()}) starts
+ * monitoring; changes before this point in time are not reported. An instance
+ * which is no longer needed should be stopped by calling
+ * {@link #stopWatching()}; otherwise, its registration remains active until
+ * the object is garbage collected.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public class WatchServiceReloadingDetector extends FileHandlerReloadingDetector
+{
+    /** The number of changes reported by the watch service. */
+    private final AtomicLong changeCount;
+
+    /** The registration at the file watcher; null if not watching. */
+    private FileWatcher.Registration registration;
+
+    /** The file that is currently monitored via the watch service. */
+    private File watchedFile;
+
+    /** The change count at the time a reload was last detected. */
+    private long detectedChangeCount;
+
+    /** The change count at the time the last reload was performed. */
+    private long handledChangeCount;
+
+    /** The time of the last attempt to register at the file watcher. */
+    private long lastRegistration;
+
+    /** A flag whether monitoring has already been started. */
+    private boolean initialized;
+
+    /**
+     * Creates a new instance of {@code WatchServiceReloadingDetector} and
+     * initializes it with the {@code FileHandler} to monitor and the refresh
+     * delay. The refresh delay is only used if the file cannot be monitored by
+     * the watch service.
+     *
+     * @param handler the {@code FileHandler} associated with this detector (can
+     *        be <b>null</b>)
+     * @param refreshDelay the refresh delay for polling
+     */
+    public WatchServiceReloadingDetector(FileHandler handler, long refreshDelay)
+    {
+        super(handler, refreshDelay);
+        changeCount = new AtomicLong();
+    }
+
+    /**
+     * Creates a new instance of {@code WatchServiceReloadingDetector} and
+     * initializes it with the {@code FileHandler} to monitor and a default
+     * refresh delay.
+     *
+     * @param handler the {@code FileHandler} associated with this detector (can
+     *        be <b>null</b>)
+     */
+    public WatchServiceReloadingDetector(FileHandler handler)
+    {
+        super(handler);
+        changeCount = new AtomicLong();
+    }
+
+    /**
+     * Creates a new instance of {@code WatchServiceReloadingDetector} with an
+     * uninitialized {@code FileHandler} object.
+     */
+    public WatchServiceReloadingDetector()
+    {
+        this(null);
+    }
+
+    /**
+     * {@inheritDoc} This implementation checks whether a change of the
+     * monitored file has been reported by the watch service. If the file
+     * cannot be monitored by the watch service, the check is done by the
+     * super class.
+     */
+    @Override
+    public boolean isReloadingRequired()
+    {
+        if (!ensureWatching())
+        {
+            return super.isReloadingRequired();
+        }
+
+        long count = changeCount.get();
+        if (count == handledChangeCount || !watchedFile.exists())
+        {
+            return false;
+        }
+        detectedChangeCount = count;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} This implementation marks all changes reported until the
+     * last positive check as handled. Changes reported later cause another
+     * reload.
+     */
+    @Override
+    public void reloadingPerformed()
+    {
+        if (ensureWatching())
+        {
+            handledChangeCount = detectedChangeCount;
+        }
+        super.reloadingPerformed();
+    }
+
+    /**
+     * Returns a flag whether the monitored file is currently watched by the
+     * watch service. A result of <b>false</b> means that the polling mechanism
+     * of the super class is used.
+     *
+     * @return a flag whether the file is monitored by the watch service
+     */
+    public boolean isWatching()
+    {
+        return registration != null && registration.isValid();
+    }
+
+    /**
+     * Stops monitoring the file with the watch service. This method should be
+     * called when this detector is no longer needed. If this object is used
+     * again afterwards, the file is registered anew.
+     */
+    public void stopWatching()
+    {
+        if (registration != null)
+        {
+            registration.cancel();
+            registration = null;
+            watchedFile = null;
+        }
+    }
+
+    /**
+     * Notifies this object that a change of the monitored file has been
+     * reported. This method is called by the watch thread.
+     */
+    void fileChanged()
+    {
+        changeCount.incrementAndGet();
+    }
+
+    /**
+     * Makes sure that the current file is registered at the watch service if
+     * possible. This method also handles changes of the location of the
+     * {@code FileHandler} and invalid registrations. If the registration
+     * fails, it is tried again after the refresh delay.
+     *
+     * @return a flag whether the file is monitored by the watch service
+     */
+    private boolean ensureWatching()
+    {
+        File file = getFile();
+        if (file != null && isWatching() && file.equals(watchedFile))
+        {
+            return true;
+        }
+
+        stopWatching();
+        boolean watching = file != null && register(file);
+        initialized = true;
+        return watching;
+    }
+
+    /**
+     * Tries to register the given file at the watch service. An attempt is
+     * only made if the refresh delay has passed since the last one. If the
+     * file is registered after monitoring has already been started, changes
+     * may have been missed; therefore, a reload is triggered in this case.
+     *
+     * @param file the file to be monitored
+     * @return a flag whether the registration was successful
+     */
+    private boolean register(File file)
+    {
+        long now = System.currentTimeMillis();
+        if (lastRegistration != 0 && now < lastRegistration + getRefreshDelay())
+        {
+            return false;
+        }
+
+        lastRegistration = now;
+        registration = FileWatcher.getInstance().register(file, this);
+        if (registration == null)
+        {
+            return false;
+        }
+
+        watchedFile = file;
+        handledChangeCount = changeCount.get();
+        if (initialized)
+        {
+            handledChangeCount--;
+        }
+        detectedChangeCount = handledChangeCount;
+        return true;
+    }
+}
@@ -66,12 +66,21 @@ abstract class AbstractImmutableNodeHandler implements
 
     /**
      * {@inheritDoc} This implementation returns an immutable list with all
-     * child nodes accepted by the specified matcher.
+     * child nodes accepted by the specified matcher. For the matcher
+     * {@link NodeNameMatchers#EQUALS} the index of child nodes by name
+     * maintained by {@code ImmutableNode} is used; so no iteration over all
+     * child nodes is necessary.
      */
     @Override
     public <C> List<ImmutableNode> getMatchingChildren(ImmutableNode node,
             NodeMatcher<C> matcher, C criterion)
     {
+        if (matcher == NodeNameMatchers.EQUALS
+                && (criterion == null || criterion instanceof String))
+        {
+            return node.getChildrenByName((String) criterion);
+        }
+
         List<ImmutableNode> result =
                 new ArrayList<>(node.getChildren().size());
         for (ImmutableNode c : node.getChildren())
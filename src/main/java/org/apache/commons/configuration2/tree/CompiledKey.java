@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * An internally used helper class representing a configuration key which has
+ * already been tokenized by a {@link DefaultExpressionEngine}.
+ * </p>
+ * <p>
+ * Parsing a key using a {@link DefaultConfigurationKey.KeyIterator} is
+ * relatively expensive. An instance of this class stores the results of this
+ * parsing process: for each part of the key the node name, the index (if
+ * any), and the flags whether the part refers to a property or to an
+ * attribute. So a key only has to be parsed once; afterwards, the information
+ * about its parts can be accessed directly by position.
+ * </p>
+ * <p>
+ * Instances are immutable and can therefore be shared between multiple
+ * threads.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+final class CompiledKey
+{
+    /** Constant for the index of a key part without an index. */
+    private static final int NO_INDEX = -1;
+
+    /** The names of the single key parts. */
+    private final String[] names;
+
+    /** The indices of the key parts. */
+    private final int[] indices;
+
+    /** The flags whether a key part has an index. */
+    private final boolean[] indexFlags;
+
+    /** The flags whether a key part refers to an attribute. */
+    private final boolean[] attributeFlags;
+
+    /** The flags whether a key part refers to a property. */
+    private final boolean[] propertyFlags;
+
+    /**
+     * Creates a new instance of {@code CompiledKey} from the lists with the
+     * data of the single key parts.
+     *
+     * @param partNames the list with the names of the key parts
+     * @param partIndices the list with the indices (-1 for none)
+     * @param partIndexFlags the list with the index flags
+     * @param partAttributeFlags the list with the attribute flags
+     * @param partPropertyFlags the list with the property flags
+     */
+    private CompiledKey(List<String> partNames, List<Integer> partIndices,
+            List<Boolean> partIndexFlags, List<Boolean> partAttributeFlags,
+            List<Boolean> partPropertyFlags)
+    {
+        int size = partNames.size();
+        names = partNames.toArray(new String[size]);
+        indices = new int[size];
+        indexFlags = new boolean[size];
+        attributeFlags = new boolean[size];
+        propertyFlags = new boolean[size];
+        for (int i = 0; i < size; i++)
+        {
+            indices[i] = partIndices.get(i).intValue();
+            indexFlags[i] = partIndexFlags.get(i).booleanValue();
+            attributeFlags[i] = partAttributeFlags.get(i).booleanValue();
+            propertyFlags[i] = partPropertyFlags.get(i).booleanValue();
+        }
+    }
+
+    /**
+     * Parses the given key using the syntax of the specified expression engine
+     * and returns a new {@code CompiledKey} instance for it.
+     *
+     * @param engine the {@code DefaultExpressionEngine}
+     * @param key the key to be parsed (may be <b>null</b>)
+     * @return the {@code CompiledKey} for this key
+     */
+    public static CompiledKey compile(DefaultExpressionEngine engine,
+            String key)
+    {
+        List<String> names = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        List<Boolean> indexFlags = new ArrayList<>();
+        List<Boolean> attributeFlags = new ArrayList<>();
+        List<Boolean> propertyFlags = new ArrayList<>();
+
+        DefaultConfigurationKey.KeyIterator it =
+                new DefaultConfigurationKey(engine, key).iterator();
+        while (it.hasNext())
+        {
+            names.add(it.nextKey(false));
+            indexFlags.add(it.hasIndex());
+            indices.add(it.hasIndex() ? it.getIndex() : NO_INDEX);
+            // isAttribute() depends on the position in the key, so it has to
+            // be evaluated directly after the part has been read
+            attributeFlags.add(it.isAttribute());
+            propertyFlags.add(it.isPropertyKey());
+        }
+
+        return new CompiledKey(names, indices, indexFlags, attributeFlags,
+                propertyFlags);
+    }
+
+    /**
+     * Returns the number of parts of this key.
+     *
+     * @return the number of key parts
+     */
+    public int size()
+    {
+        return names.length;
+    }
+
+    /**
+     * Returns a flag whether the part at the given position is the last one
+     * of this key.
+     *
+     * @param pos the position
+     * @return a flag whether this is the last key part
+     */
+    public boolean isLast(int pos)
+    {
+        return pos == names.length - 1;
+    }
+
+    /**
+     * Returns the name of the key part at the given position. For attributes
+     * the attribute markers have already been removed.
+     *
+     * @param pos the position
+     * @return the name of this key part
+     */
+    public String getName(int pos)
+    {
+        return names[pos];
+    }
+
+    /**
+     * Returns a flag whether the key part at the given position has an index.
+     *
+     * @param pos the position
+     * @return a flag whether this key part has an index
+     */
+    public boolean hasIndex(int pos)
+    {
+        return indexFlags[pos];
+    }
+
+    /**
+     * Returns the index of the key part at the given position. If this part
+     * does not have an index, result is -1.
+     *
+     * @param pos the position
+     * @return the index of this key part
+     */
+    public int getIndex(int pos)
+    {
+        return indices[pos];
+    }
+
+    /**
+     * Returns a flag whether the key part at the given position refers to an
+     * attribute.
+     *
+     * @param pos the position
+     * @return a flag whether this key part is an attribute
+     */
+    public boolean isAttribute(int pos)
+    {
+        return attributeFlags[pos];
+    }
+
+    /**
+     * Returns a flag whether the key part at the given position refers to a
+     * property. Note that if the same delimiters are used for properties and
+     * attributes, both {@code isAttribute()} and {@code isPropertyKey()} can
+     * return <b>true</b>.
+     *
+     * @param pos the position
+     * @return a flag whether this key part is a property key
+     */
+    public boolean isPropertyKey(int pos)
+    {
+        return propertyFlags[pos];
+    }
+}
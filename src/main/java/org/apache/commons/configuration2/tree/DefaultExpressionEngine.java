@@ -19,6 +19,8 @@ package org.apache.commons.configuration2.tree;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -103,6 +105,13 @@ import org.apache.commons.lang3.StringUtils;
  * a hierarchical configuration can be altered.
  * </p>
  * <p>
+ * Keys passed to the {@code query()} method are parsed only once. The parsed
+ * form is stored in a bounded cache, so that repeated queries for the same
+ * keys - which is the typical usage pattern of a configuration - do not have
+ * to tokenize the key again. The maximum size of this cache can be set when
+ * creating an instance; a size of 0 disables caching.
+ * </p>
+ * <p>
  * Instances of this class are thread-safe and can be shared between multiple
  * hierarchical configuration objects.
  * </p>
@@ -123,12 +132,35 @@ public class DefaultExpressionEngine implements ExpressionEngine
             new DefaultExpressionEngine(
                     DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS);
 
+    /**
+     * Constant for the default maximum number of parsed keys stored in the
+     * key cache.
+     *
+     * @since 2.3
+     */
+    public static final int DEFAULT_KEY_CACHE_SIZE = 1024;
+
     /** The symbols used by this instance. */
     private final DefaultExpressionEngineSymbols symbols;
 
     /** The matcher for node names. */
     private final NodeMatcher<String> nameMatcher;
 
+    /** The cache for keys which have already been parsed. */
+    private final ConcurrentMap<String, CompiledKey> keyCache;
+
+    /** The maximum number of entries in the key cache. */
+    private final int keyCacheSize;
+
+    /**
+     * A flag whether queries are evaluated based on cached parsed keys. This
+     * is only the case for instances of this class; subclasses may override
+     * {@link #findNodesForKey(DefaultConfigurationKey.KeyIterator, Object,
+     * Collection, NodeHandler)}.
+     */
+    private final boolean compiledQueries =
+            getClass() == DefaultExpressionEngine.class;
+
     /**
      * Creates a new instance of {@code DefaultExpressionEngine} and initializes
      * its symbols.
@@ -154,16 +186,44 @@ public class DefaultExpressionEngine implements ExpressionEngine
      */
     public DefaultExpressionEngine(DefaultExpressionEngineSymbols syms,
             NodeMatcher<String> nodeNameMatcher)
+    {
+        this(syms, nodeNameMatcher, DEFAULT_KEY_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a new instance of {@code DefaultExpressionEngine} and initializes
+     * its symbols, the matcher for comparing node names, and the maximum size
+     * of the cache for parsed keys. If the cache is full, it is cleared before
+     * new keys are added. A cache size of 0 disables caching; then each key is
+     * parsed again on every query.
+     *
+     * @param syms the object with the symbols (must not be <b>null</b>)
+     * @param nodeNameMatcher the matcher for node names; can be <b>null</b>,
+     *        then a default matcher is used
+     * @param cacheSize the maximum number of parsed keys to be cached
+     * @throws IllegalArgumentException if the symbols are <b>null</b> or the
+     *         cache size is negative
+     * @since 2.3
+     */
+    public DefaultExpressionEngine(DefaultExpressionEngineSymbols syms,
+            NodeMatcher<String> nodeNameMatcher, int cacheSize)
     {
         if (syms == null)
         {
             throw new IllegalArgumentException("Symbols must not be null!");
         }
+        if (cacheSize < 0)
+        {
+            throw new IllegalArgumentException(
+                    "Key cache size must not be negative: " + cacheSize);
+        }
 
         symbols = syms;
         nameMatcher =
                 (nodeNameMatcher != null) ? nodeNameMatcher
                         : NodeNameMatchers.EQUALS;
+        keyCacheSize = cacheSize;
+        keyCache = new ConcurrentHashMap<>();
     }
 
     /**
@@ -178,17 +238,39 @@ public class DefaultExpressionEngine implements ExpressionEngine
         return symbols;
     }
 
+    /**
+     * Returns the maximum number of parsed keys which are cached by this
+     * instance. A value of 0 means that caching is disabled.
+     *
+     * @return the maximum size of the key cache
+     * @since 2.3
+     */
+    public int getKeyCacheSize()
+    {
+        return keyCacheSize;
+    }
+
     /**
      * {@inheritDoc} This method supports the syntax as described in the class
-     * comment.
+     * comment. For instances of this class, the key is evaluated based on a
+     * parsed form obtained from a cache. Subclasses delegate to
+     * {@link #findNodesForKey(DefaultConfigurationKey.KeyIterator, Object,
+     * Collection, NodeHandler)}, so that they can customize the evaluation.
      */
     @Override
     public <T> List<QueryResult<T>> query(T root, String key,
             NodeHandler<T> handler)
     {
         List<QueryResult<T>> results = new LinkedList<>();
-        findNodesForKey(new DefaultConfigurationKey(this, key).iterator(),
-                root, results, handler);
+        if (compiledQueries)
+        {
+            findNodesForKey(compileKey(key), 0, root, results, handler);
+        }
+        else
+        {
+            findNodesForKey(new DefaultConfigurationKey(this, key).iterator(),
+                    root, results, handler);
+        }
         return results;
     }
 
@@ -481,6 +563,106 @@ public class DefaultExpressionEngine implements ExpressionEngine
         }
     }
 
+    /**
+     * Returns the number of parsed keys which are currently stored in the key
+     * cache. This method is mainly used for testing purposes.
+     *
+     * @return the current number of cached keys
+     */
+    int getCachedKeyCount()
+    {
+        return keyCache.size();
+    }
+
+    /**
+     * Returns the parsed form of the given key. The key is obtained from the
+     * cache if possible; otherwise, it is parsed and added to the cache. If
+     * the cache has reached its maximum size, it is cleared first. So reads
+     * never have to lock the cache, and frequently used keys are soon parsed
+     * again after a clear.
+     *
+     * @param key the key
+     * @return the {@code CompiledKey} for this key
+     */
+    private CompiledKey compileKey(String key)
+    {
+        if (key == null)
+        {
+            return CompiledKey.compile(this, key);
+        }
+
+        CompiledKey compiledKey = keyCache.get(key);
+        if (compiledKey == null)
+        {
+            compiledKey = CompiledKey.compile(this, key);
+            if (keyCacheSize > 0)
+            {
+                if (keyCache.size() >= keyCacheSize)
+                {
+                    keyCache.clear();
+                }
+                keyCache.put(key, compiledKey);
+            }
+        }
+        return compiledKey;
+    }
+
+    /**
+     * Recursive helper method for evaluating a parsed key. This method
+     * processes all facets of a configuration key, traverses the tree of
+     * properties and fetches the results of all matching properties. The
+     * current key part is identified by its position, so no iterator has
+     * to be cloned when the search branches.
+     *
+     * @param <T> the type of nodes to be dealt with
+     * @param key the parsed key
+     * @param pos the position of the current key part
+     * @param node the current node
+     * @param results here the found results are stored
+     * @param handler the node handler
+     */
+    private <T> void findNodesForKey(CompiledKey key, int pos, T node,
+            Collection<QueryResult<T>> results, NodeHandler<T> handler)
+    {
+        if (pos >= key.size())
+        {
+            results.add(QueryResult.createNodeResult(node));
+        }
+
+        else
+        {
+            String name = key.getName(pos);
+            if (key.isPropertyKey(pos))
+            {
+                List<T> subNodes = findChildNodesByName(handler, node, name);
+                if (key.hasIndex(pos))
+                {
+                    int index = key.getIndex(pos);
+                    if (index >= 0 && index < subNodes.size())
+                    {
+                        findNodesForKey(key, pos + 1, subNodes.get(index),
+                                results, handler);
+                    }
+                }
+                else
+                {
+                    for (T subNode : subNodes)
+                    {
+                        findNodesForKey(key, pos + 1, subNode, results,
+                                handler);
+                    }
+                }
+            }
+            if (key.isAttribute(pos) && key.isLast(pos))
+            {
+                if (handler.getAttributeValue(node, name) != null)
+                {
+                    results.add(QueryResult.createAttributeResult(node, name));
+                }
+            }
+        }
+    }
+
     /**
      * Determines the index of the given node based on its parent node.
      *
@@ -38,12 +38,33 @@ import java.util.Map;
  * updating properties, but these methods return new {@code ImmutableNode}
  * instances. Instances are created using the nested {@code Builder} class.
  * </p>
+ * <p>
+ * In order to support fast navigation through wide node structures, a node
+ * can look up its child nodes by name. For this purpose an index is created
+ * on first access which maps node names to the lists of children with this
+ * name. The index is stored in a persistent map. Methods creating an updated
+ * copy of a node pass this index to the new node; if only a single child node
+ * is affected, it is adapted accordingly, sharing all unchanged parts with the
+ * index of the original node.
+ * </p>
+ * <p>
+ * Methods which add, remove, or replace a single child node do not copy the
+ * whole list of children. Rather, the children are then stored in a persistent
+ * list which shares its unchanged parts with the list of the original node.
+ * So updating a single child of a node with many children is cheap.
+ * </p>
  *
  * @version $Id$
  * @since 2.0
  */
 public final class ImmutableNode
 {
+    /**
+     * The key used in the index of child nodes for children without a name.
+     * (The persistent map used for the index does not support null keys.)
+     */
+    private static final Object NULL_NAME_KEY = new Object();
+
     /** The name of this node. */
     private final String nodeName;
 
@@ -56,6 +77,14 @@ public final class ImmutableNode
     /** A map with the attributes of this node. */
     private final Map<String, Object> attributes;
 
+    /**
+     * A map which allows fast access to child nodes by their names. It is
+     * created on demand. Because it is immutable, it does not matter if it is
+     * created multiple times by concurrent threads.
+     */
+    private volatile PersistentHashMap<Object, List<ImmutableNode>>
+            childrenByName;
+
     /**
      * Creates a new instance of {@code ImmutableNode} from the given
      * {@code Builder} object.
@@ -68,6 +97,7 @@ public final class ImmutableNode
         attributes = b.createAttributes();
         nodeName = b.name;
         value = b.value;
+        childrenByName = b.directChildrenByName;
     }
 
     /**
@@ -102,7 +132,10 @@ public final class ImmutableNode
     }
 
     /**
-     * Returns a list with the children of this node.
+     * Returns a list with the children of this node which have the given name.
+     * The list is a new copy which can be modified by the caller. Child nodes
+     * are looked up using an internal index, so this method does not have to
+     * iterate over all children.
      *
      * @param name the node name to find
      *
@@ -110,19 +143,11 @@ public final class ImmutableNode
      */
     public List<ImmutableNode> getChildren(final String name)
     {
-        final List<ImmutableNode> list = new ArrayList<>();
         if (name == null)
         {
-            return list;
-        }
-        for (final ImmutableNode node : children)
-        {
-            if (name.equals(node.getNodeName()))
-            {
-                list.add(node);
-            }
+            return new ArrayList<>();
         }
-        return list;
+        return new ArrayList<>(getChildrenByName(name));
     }
 
     /**
@@ -145,7 +170,8 @@ public final class ImmutableNode
      */
     public ImmutableNode setName(String name)
     {
-        return new Builder(children, attributes).name(name).value(value)
+        return new Builder(children, attributes)
+                .childrenByName(childrenByName).name(name).value(value)
                 .create();
     }
 
@@ -158,7 +184,8 @@ public final class ImmutableNode
      */
     public ImmutableNode setValue(Object newValue)
     {
-        return new Builder(children, attributes).name(nodeName).value(newValue)
+        return new Builder(children, attributes)
+                .childrenByName(childrenByName).name(nodeName).value(newValue)
                 .create();
     }
 
@@ -173,8 +200,17 @@ public final class ImmutableNode
     public ImmutableNode addChild(ImmutableNode child)
     {
         checkChildNode(child);
-        Builder builder = new Builder(children.size() + 1, attributes);
-        builder.addChildren(children).addChild(child);
+        Builder builder =
+                new Builder(PersistentNodeList.from(children).append(child),
+                        attributes);
+        PersistentHashMap<Object, List<ImmutableNode>> index = childrenByName;
+        if (index != null)
+        {
+            builder.childrenByName(updateIndex(index, child.getNodeName(),
+                    PersistentNodeList.from(
+                            namedChildren(index, child.getNodeName()))
+                            .append(child)));
+        }
         return createWithBasicProperties(builder);
     }
 
@@ -188,22 +224,23 @@ public final class ImmutableNode
      */
     public ImmutableNode removeChild(ImmutableNode child)
     {
-        // use same size of children in case the child does not exist
-        Builder builder = new Builder(children.size(), attributes);
-        boolean foundChild = false;
-        for (ImmutableNode c : children)
+        if (!containsChild(child))
         {
-            if (c == child)
-            {
-                foundChild = true;
-            }
-            else
-            {
-                builder.addChild(c);
-            }
+            return this;
         }
 
-        return foundChild ? createWithBasicProperties(builder) : this;
+        Builder builder =
+                new Builder(PersistentNodeList.from(children)
+                        .removeNode(child), attributes);
+        PersistentHashMap<Object, List<ImmutableNode>> index = childrenByName;
+        if (index != null)
+        {
+            builder.childrenByName(updateIndex(index, child.getNodeName(),
+                    PersistentNodeList.from(
+                            namedChildren(index, child.getNodeName()))
+                            .removeNode(child)));
+        }
+        return createWithBasicProperties(builder);
     }
 
     /**
@@ -220,22 +257,27 @@ public final class ImmutableNode
             ImmutableNode newChild)
     {
         checkChildNode(newChild);
-        Builder builder = new Builder(children.size(), attributes);
-        boolean foundChild = false;
-        for (ImmutableNode c : children)
+        if (!containsChild(oldChild))
         {
-            if (c == oldChild)
-            {
-                builder.addChild(newChild);
-                foundChild = true;
-            }
-            else
-            {
-                builder.addChild(c);
-            }
+            return this;
         }
 
-        return foundChild ? createWithBasicProperties(builder) : this;
+        Builder builder =
+                new Builder(PersistentNodeList.from(children).replaceNode(
+                        oldChild, newChild), attributes);
+        PersistentHashMap<Object, List<ImmutableNode>> index = childrenByName;
+        if (index != null
+                && equalNames(oldChild.getNodeName(), newChild.getNodeName()))
+        {
+            // the position of the new child in the list of children with
+            // the same name is unchanged; otherwise, the index is recreated
+            // on demand
+            builder.childrenByName(updateIndex(index, newChild.getNodeName(),
+                    PersistentNodeList.from(
+                            namedChildren(index, newChild.getNodeName()))
+                            .replaceNode(oldChild, newChild)));
+        }
+        return createWithBasicProperties(builder);
     }
 
     /**
@@ -313,6 +355,45 @@ public final class ImmutableNode
         return this;
     }
 
+    /**
+     * Returns a list with all child nodes that have the given name. Other than
+     * {@link #getChildren(String)}, this method also supports a <b>null</b>
+     * name; then all children without a name are returned. The list is
+     * obtained from the index of child nodes which is created on first
+     * access.
+     *
+     * @param name the name of the desired child nodes
+     * @return an unmodifiable list with the child nodes with this name
+     */
+    List<ImmutableNode> getChildrenByName(String name)
+    {
+        if (children.size() <= 1)
+        {
+            // no index needed
+            return (children.isEmpty() || !equalNames(name, children.get(0)
+                    .getNodeName())) ? Collections.<ImmutableNode> emptyList()
+                    : children;
+        }
+        return namedChildren(fetchChildrenByName(), name);
+    }
+
+    /**
+     * Returns the index of child nodes by their names. It is created on
+     * demand.
+     *
+     * @return the map with child nodes by their names
+     */
+    private PersistentHashMap<Object, List<ImmutableNode>> fetchChildrenByName()
+    {
+        PersistentHashMap<Object, List<ImmutableNode>> index = childrenByName;
+        if (index == null)
+        {
+            index = createChildrenByName(children);
+            childrenByName = index;
+        }
+        return index;
+    }
+
     /**
      * Initializes the given builder with basic properties (node name and value)
      * and returns the newly created node. This is a helper method for updating
@@ -336,7 +417,125 @@ public final class ImmutableNode
     private ImmutableNode createWithNewAttributes(Map<String, Object> newAttrs)
     {
         return createWithBasicProperties(new Builder(children, null)
-                .addAttributes(newAttrs));
+                .childrenByName(childrenByName).addAttributes(newAttrs));
+    }
+
+    /**
+     * Creates an index with the given child nodes grouped by their names. The
+     * lists stored in the index are immutable.
+     *
+     * @param nodes the list with child nodes
+     * @return the index with child nodes by their names
+     */
+    private static PersistentHashMap<Object, List<ImmutableNode>>
+            createChildrenByName(List<ImmutableNode> nodes)
+    {
+        Map<Object, List<ImmutableNode>> lists = new HashMap<>();
+        for (ImmutableNode c : nodes)
+        {
+            Object key = indexKey(c.getNodeName());
+            List<ImmutableNode> namedChildren = lists.get(key);
+            if (namedChildren == null)
+            {
+                namedChildren = new ArrayList<>();
+                lists.put(key, namedChildren);
+            }
+            namedChildren.add(c);
+        }
+
+        PersistentHashMap.Builder<Object, List<ImmutableNode>> index =
+                PersistentHashMap.<Object, List<ImmutableNode>> empty()
+                        .builder();
+        for (Map.Entry<Object, List<ImmutableNode>> e : lists.entrySet())
+        {
+            index.put(e.getKey(), Collections.unmodifiableList(e.getValue()));
+        }
+        return index.build();
+    }
+
+    /**
+     * Returns the list of child nodes with the given name from the specified
+     * index. If there are no such children, an empty list is returned.
+     *
+     * @param index the index of child nodes
+     * @param name the name
+     * @return the list with child nodes with this name
+     */
+    private static List<ImmutableNode> namedChildren(
+            PersistentHashMap<Object, List<ImmutableNode>> index, String name)
+    {
+        List<ImmutableNode> namedChildren = index.get(indexKey(name));
+        return (namedChildren != null) ? namedChildren : Collections
+                .<ImmutableNode> emptyList();
+    }
+
+    /**
+     * Returns an updated version of the given index of child nodes in which
+     * the list for the specified name is replaced. As the index is a
+     * persistent map, all other lists and most of its internal structure are
+     * shared with the original index.
+     *
+     * @param index the original index
+     * @param name the name whose children have changed
+     * @param namedChildren the new (immutable) list of children with this
+     *        name
+     * @return the updated index
+     */
+    private static PersistentHashMap<Object, List<ImmutableNode>> updateIndex(
+            PersistentHashMap<Object, List<ImmutableNode>> index, String name,
+            List<ImmutableNode> namedChildren)
+    {
+        Object key = indexKey(name);
+        return namedChildren.isEmpty() ? index.remove(key) : index.put(key,
+                namedChildren);
+    }
+
+    /**
+     * Returns the key under which the children with the given name are
+     * stored in the index of child nodes.
+     *
+     * @param name the name (may be <b>null</b>)
+     * @return the key for the index
+     */
+    private static Object indexKey(String name)
+    {
+        return (name != null) ? name : NULL_NAME_KEY;
+    }
+
+    /**
+     * Checks whether the given node is a child of this node. Nodes are
+     * compared by identity. Only the children with the same name as the given
+     * node have to be checked; they are obtained from the index.
+     *
+     * @param child the node to be checked
+     * @return a flag whether the node is a child of this node
+     */
+    private boolean containsChild(ImmutableNode child)
+    {
+        if (child == null)
+        {
+            return false;
+        }
+        for (ImmutableNode c : getChildrenByName(child.getNodeName()))
+        {
+            if (c == child)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares two node names, taking <b>null</b> values into account.
+     *
+     * @param name1 the first name
+     * @param name2 the second name
+     * @return a flag whether these names are equal
+     */
+    private static boolean equalNames(String name1, String name2)
+    {
+        return (name1 == null) ? name2 == null : name1.equals(name2);
     }
 
     /**
@@ -377,6 +576,13 @@ public final class ImmutableNode
         /** The direct map of attributes of the new node. */
         private final Map<String, Object> directAttributes;
 
+        /**
+         * An index of the children of the new node by name which can be
+         * passed directly to the new node.
+         */
+        private PersistentHashMap<Object, List<ImmutableNode>>
+                directChildrenByName;
+
         /**
          * A list for the children of the new node. This list is populated by
          * the {@code addChild()} method.
@@ -437,20 +643,19 @@ public final class ImmutableNode
         }
 
         /**
-         * Creates a new instance of {@code Builder} and initializes the
-         * attributes of the new node and prepares the collection for the
-         * children. This constructor is used internally by methods of
-         * {@code ImmutableNode} which update the node and change the children.
-         * The new number of child nodes can be passed so that the collection
-         * for the new children can be created with an appropriate size.
+         * Sets the index of child nodes by name which is passed to the newly
+         * created node. This method is used internally when deriving a node
+         * from another one. The caller is responsible for passing an index
+         * which is consistent with the children of the new node.
          *
-         * @param childCount the expected number of new children
-         * @param dirAttrs the attributes of the new node
+         * @param index the index of child nodes (may be <b>null</b>)
+         * @return a reference to this object for method chaining
          */
-        private Builder(int childCount, Map<String, Object> dirAttrs)
+        private Builder childrenByName(
+                PersistentHashMap<Object, List<ImmutableNode>> index)
         {
-            this(null, dirAttrs);
-            initChildrenCollection(childCount);
+            directChildrenByName = index;
+            return this;
         }
 
         /**
@@ -46,6 +46,12 @@ import org.apache.commons.lang3.mutable.MutableObject;
  * operation. If this fails, the manipulation has to be done anew on the updated
  * structure.
  * </p>
+ * <p>
+ * Multiple update operations can be combined to a {@link ModelBatch} which is
+ * then executed by the {@link #executeBatch(ModelBatch, NodeKeyResolver)}
+ * method. The operations of the batch are applied on a private copy of the
+ * model's structure; the result is published in a single step.
+ * </p>
  *
  * @version $Id$
  * @since 2.0
@@ -58,19 +64,32 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
      */
     private static final NodeHandler<ImmutableNode> DUMMY_HANDLER =
             new TreeData(null,
-                    Collections.<ImmutableNode, ImmutableNode> emptyMap(),
+                    PersistentHashMap.<ImmutableNode, ImmutableNode> empty(),
                     Collections.<ImmutableNode, ImmutableNode> emptyMap(), null, new ReferenceTracker());
 
     /** Stores information about the current nodes structure. */
     private final AtomicReference<TreeData> structure;
 
+    /**
+     * A flag whether this model is used internally for executing a batch. In
+     * this case, the model is accessed by a single thread only.
+     */
+    private final boolean batchModel;
+
+    /**
+     * Stores the {@code TreeData} object created by the last transaction of a
+     * batch. The mappings of this object can be updated directly by the next
+     * transaction.
+     */
+    private TreeData batchTransactionData;
+
     /**
      * Creates a new instance of {@code InMemoryNodeModel} which is initialized
      * with an empty root node.
      */
     public InMemoryNodeModel()
     {
-        this(null);
+        this((ImmutableNode) null);
     }
 
     /**
@@ -85,6 +104,19 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
         structure =
                 new AtomicReference<>(
                         createTreeData(initialRootNode(root), null));
+        batchModel = false;
+    }
+
+    /**
+     * Creates a new instance of {@code InMemoryNodeModel} which is used
+     * internally for executing a batch on the given data.
+     *
+     * @param data the {@code TreeData} to operate on
+     */
+    private InMemoryNodeModel(TreeData data)
+    {
+        structure = new AtomicReference<>(data);
+        batchModel = true;
     }
 
     /**
@@ -506,6 +538,80 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
         }, null, resolver);
     }
 
+    /**
+     * Executes all operations contained in the given batch in a single step.
+     * The operations are applied in order on a private copy of the current
+     * structure. Note that each operation is still executed in its own
+     * transaction; the operations are not merged. But as the copy is not
+     * visible to other threads, these transactions update the parent mapping,
+     * the replacement mapping, and the references of the structure in place
+     * rather than copying them. Eventually, the resulting structure replaces
+     * the current one. So this model is changed only once, and concurrent
+     * readers never see a partially applied batch. If another update happens
+     * concurrently, the whole batch is executed anew.
+     *
+     * @param batch the batch to be executed (must not be <b>null</b>)
+     * @param resolver the {@code NodeKeyResolver}
+     * @throws IllegalArgumentException if the batch is <b>null</b>
+     * @since 2.3
+     */
+    public void executeBatch(ModelBatch batch,
+            NodeKeyResolver<ImmutableNode> resolver)
+    {
+        executeBatch(batch, null, resolver);
+    }
+
+    /**
+     * Executes a batch using a tracked node as root node. This method works
+     * like the {@link #executeBatch(ModelBatch, NodeKeyResolver)} method, but
+     * the origin of all operations (also for the interpretation of the keys)
+     * is a tracked node identified by the passed in {@code NodeSelector}. The
+     * selector can be <b>null</b>, then the root node is assumed.
+     *
+     * @param batch the batch to be executed (must not be <b>null</b>)
+     * @param selector the {@code NodeSelector} defining the root node (or
+     *        <b>null</b>)
+     * @param resolver the {@code NodeKeyResolver}
+     * @throws IllegalArgumentException if the batch is <b>null</b>
+     * @throws ConfigurationRuntimeException if the selector cannot be resolved
+     * @since 2.3
+     */
+    public void executeBatch(ModelBatch batch, NodeSelector selector,
+            NodeKeyResolver<ImmutableNode> resolver)
+    {
+        if (batch == null)
+        {
+            throw new IllegalArgumentException("Batch must not be null!");
+        }
+        if (batch.isEmpty())
+        {
+            return;
+        }
+
+        boolean done;
+        do
+        {
+            TreeData currentData = getTreeData();
+            InMemoryNodeModel detachedNodeModel =
+                    (selector != null) ? currentData.getNodeTracker()
+                            .getDetachedNodeModel(selector) : null;
+            if (detachedNodeModel != null)
+            {
+                detachedNodeModel.executeBatch(batch, null, resolver);
+                done = true;
+            }
+            else
+            {
+                InMemoryNodeModel model = new InMemoryNodeModel(currentData);
+                batch.applyTo(model, selector, resolver);
+                TreeData batchData = model.getTreeData();
+                done = structure.compareAndSet(currentData, batchData
+                        .updateReferenceTracker(batchData.getReferenceTracker()
+                                .completeBatch()));
+            }
+        } while (!done);
+    }
+
     /**
      * Adds a node to be tracked. After this method has been called with a
      * specific {@code NodeSelector}, the node associated with this key can be
@@ -806,10 +912,11 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
      * of the passed in root node. For each node in the subtree the parent
      * relation is added to the map.
      *
-     * @param parents the map with parent nodes
+     * @param parents the builder for the map with parent nodes
      * @param root the root node of the current tree
      */
-    static void updateParentMapping(final Map<ImmutableNode, ImmutableNode> parents,
+    static void updateParentMapping(
+            final PersistentHashMap.Builder<ImmutableNode, ImmutableNode> parents,
             ImmutableNode root)
     {
         NodeTreeWalker.INSTANCE.walkBFS(root,
@@ -881,7 +988,9 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
 
     /**
      * Creates a {@code TreeData} object for the specified root node and
-     * {@code NodeTracker}. Other parameters are set to default values.
+     * {@code NodeTracker}. Other parameters are set to default values. The
+     * mapping to parent nodes is created on demand; so setting a new root
+     * node does not require a traversal of the whole node structure.
      *
      * @param root the new root node for this model
      * @param newTracker the new {@code NodeTracker}
@@ -890,7 +999,7 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
     private TreeData createTreeDataForRootAndTracker(ImmutableNode root,
             NodeTracker newTracker)
     {
-        return new TreeData(root, createParentMapping(root),
+        return new TreeData(root, null,
                 Collections.<ImmutableNode, ImmutableNode> emptyMap(),
                 newTracker, new ReferenceTracker());
     }
@@ -1126,24 +1235,6 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
         return null;
     }
 
-    /**
-     * Creates the mapping to parent nodes for the nodes structured represented
-     * by the passed in root node. Each node is assigned its parent node. Here
-     * an iterative algorithm is used rather than a recursive one to avoid stack
-     * overflow for huge structures.
-     *
-     * @param root the root node of the structure
-     * @return the parent node mapping
-     */
-    private Map<ImmutableNode, ImmutableNode> createParentMapping(
-            ImmutableNode root)
-    {
-        Map<ImmutableNode, ImmutableNode> parents =
-                new HashMap<>();
-        updateParentMapping(parents, root);
-        return parents;
-    }
-
     /**
      * Performs a non-blocking, thread-safe update of this model based on a
      * transaction initialized by the passed in initializer. This method uses
@@ -1188,19 +1279,41 @@ public class InMemoryNodeModel implements NodeModel<ImmutableNode>
     {
         boolean done;
         ModelTransaction tx =
-                new ModelTransaction(currentData, selector, resolver);
+                new ModelTransaction(currentData, selector, resolver,
+                        canUpdateMappings(currentData));
         if (!txInit.initTransaction(tx))
         {
             done = true;
         }
         else
         {
-            TreeData newData = tx.execute();
+            TreeData newData = batchModel ? tx.executeInBatch() : tx.execute();
             done = structure.compareAndSet(tx.getCurrentData(), newData);
+            if (batchModel)
+            {
+                batchTransactionData = newData;
+            }
         }
         return done;
     }
 
+    /**
+     * Checks whether a transaction on the given data can update the mappings
+     * of the data directly. This is the case for a model executing a batch if
+     * the data has been created by the previous transaction of the batch
+     * (and is therefore not visible to anybody else). If nodes are tracked,
+     * the original data is needed during the transaction; so the mappings are
+     * copied in this case.
+     *
+     * @param currentData the current data of the model
+     * @return a flag whether the mappings of this data can be updated
+     */
+    private boolean canUpdateMappings(TreeData currentData)
+    {
+        return batchModel && currentData == batchTransactionData
+                && !currentData.getNodeTracker().hasTrackedNodes();
+    }
+
     /**
      * Tries to execute a transaction on the model of a detached tracked node.
      * This method checks whether the target node of the transaction is a
@@ -62,19 +62,18 @@ public class MergeCombiner extends NodeCombiner
 
         // Check if nodes can be combined
         List<ImmutableNode> children2 = new LinkedList<>(node2.getChildren());
+        List<ImmutableNode> partners =
+                new ArrayList<>(node1.getChildren().size());
         for (ImmutableNode child1 : node1.getChildren())
         {
             ImmutableNode child2 = canCombine(node2, child1, children2);
+            partners.add(child2);
             if (child2 != null)
             {
-                result.addChild(combine(child1, child2));
                 children2.remove(child2);
             }
-            else
-            {
-                result.addChild(child1);
-            }
         }
+        result.addChildren(combineChildren(node1.getChildren(), partners));
 
         // Add remaining children of node 2
         for (ImmutableNode c : children2)
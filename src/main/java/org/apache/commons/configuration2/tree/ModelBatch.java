@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * A class for collecting multiple update operations on a node model which are
+ * to be executed as a single batch.
+ * </p>
+ * <p>
+ * Each update of an {@link InMemoryNodeModel} is executed in a separate
+ * transaction which publishes a new root node. Using this class, the
+ * operations are recorded first. Then the whole batch can be passed to the
+ * {@link InMemoryNodeModel#executeBatch(ModelBatch, NodeKeyResolver)} method
+ * which applies all operations in order and publishes the resulting root node
+ * in a single step. So concurrent readers either see the state before or
+ * after the whole batch.
+ * </p>
+ * <p>
+ * The operations of a batch are still executed in separate transactions;
+ * they are not merged into a single one. So the costs of locating and
+ * replacing the affected nodes are the same as for single updates. A batch
+ * saves the copies of the model's internal data structures each transaction
+ * has to create otherwise. This is especially noticeable for configurations
+ * storing references for their nodes (e.g. {@code XMLConfiguration}) when a
+ * large number of changes is to be applied.
+ * </p>
+ * <p>
+ * The operations supported by this class correspond to the update methods
+ * defined by the {@link NodeModel} interface; they have the same semantics.
+ * Note that operations are executed sequentially; so an operation sees the
+ * results of the operations executed before.
+ * </p>
+ * <p>
+ * Implementation note: This class is not thread-safe. A batch can be executed
+ * multiple times, but it should not be modified while it is executed.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+public class ModelBatch
+{
+    /** The list with the operations of this batch. */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Adds an operation which adds new values to a property.
+     *
+     * @param key the key of the property
+     * @param values the values to be added
+     * @return a reference to this object for method chaining
+     * @see NodeModel#addProperty(String, Iterable, NodeKeyResolver)
+     */
+    public ModelBatch addProperty(String key, Iterable<?> values)
+    {
+        List<Object> valueList = new ArrayList<>();
+        if (values != null)
+        {
+            for (Object value : values)
+            {
+                valueList.add(value);
+            }
+        }
+        return addOperation(OperationType.ADD_PROPERTY, key, valueList);
+    }
+
+    /**
+     * Adds an operation which adds a collection of nodes.
+     *
+     * @param key the key where the nodes are to be added
+     * @param nodes the collection with the nodes to be added
+     * @return a reference to this object for method chaining
+     * @see NodeModel#addNodes(String, Collection, NodeKeyResolver)
+     */
+    public ModelBatch addNodes(String key,
+            Collection<? extends ImmutableNode> nodes)
+    {
+        return addOperation(OperationType.ADD_NODES, key,
+                (nodes != null) ? new ArrayList<>(nodes) : null);
+    }
+
+    /**
+     * Adds an operation which changes the value of a property.
+     *
+     * @param key the key of the property
+     * @param value the new value
+     * @return a reference to this object for method chaining
+     * @see NodeModel#setProperty(String, Object, NodeKeyResolver)
+     */
+    public ModelBatch setProperty(String key, Object value)
+    {
+        return addOperation(OperationType.SET_PROPERTY, key, value);
+    }
+
+    /**
+     * Adds an operation which removes the values of a property.
+     *
+     * @param key the key of the property
+     * @return a reference to this object for method chaining
+     * @see NodeModel#clearProperty(String, NodeKeyResolver)
+     */
+    public ModelBatch clearProperty(String key)
+    {
+        return addOperation(OperationType.CLEAR_PROPERTY, key, null);
+    }
+
+    /**
+     * Adds an operation which removes a whole sub tree.
+     *
+     * @param key the key selecting the sub tree
+     * @return a reference to this object for method chaining
+     * @see NodeModel#clearTree(String, NodeKeyResolver)
+     */
+    public ModelBatch clearTree(String key)
+    {
+        return addOperation(OperationType.CLEAR_TREE, key, null);
+    }
+
+    /**
+     * Returns the number of operations contained in this batch.
+     *
+     * @return the number of operations
+     */
+    public int size()
+    {
+        return operations.size();
+    }
+
+    /**
+     * Returns a flag whether this batch is empty.
+     *
+     * @return <b>true</b> if this batch does not contain any operations,
+     *         <b>false</b> otherwise
+     */
+    public boolean isEmpty()
+    {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Applies the operations of this batch on the given {@code NodeModel}.
+     * This method can be used for arbitrary node models. The operations are
+     * executed one by one by invoking the corresponding methods of the model;
+     * so there is no guarantee that they are applied as a single step.
+     *
+     * @param model the {@code NodeModel}
+     * @param resolver the {@code NodeKeyResolver}
+     */
+    public void applyTo(NodeModel<ImmutableNode> model,
+            NodeKeyResolver<ImmutableNode> resolver)
+    {
+        for (Operation op : operations)
+        {
+            op.apply(model, resolver);
+        }
+    }
+
+    /**
+     * Applies the operations of this batch on the given
+     * {@code InMemoryNodeModel} using a tracked node as root node. This method
+     * is used by {@code InMemoryNodeModel} for executing a batch.
+     *
+     * @param model the {@code InMemoryNodeModel}
+     * @param selector the {@code NodeSelector} defining the root node (or
+     *        <b>null</b>)
+     * @param resolver the {@code NodeKeyResolver}
+     */
+    void applyTo(InMemoryNodeModel model, NodeSelector selector,
+            NodeKeyResolver<ImmutableNode> resolver)
+    {
+        for (Operation op : operations)
+        {
+            op.apply(model, selector, resolver);
+        }
+    }
+
+    /**
+     * Adds a new operation to this batch.
+     *
+     * @param type the type of the operation
+     * @param key the key
+     * @param data additional data of the operation
+     * @return a reference to this object for method chaining
+     */
+    private ModelBatch addOperation(OperationType type, String key,
+            Object data)
+    {
+        operations.add(new Operation(type, key, data));
+        return this;
+    }
+
+    /**
+     * An enumeration for the types of operations supported by a batch.
+     */
+    private enum OperationType
+    {
+        ADD_PROPERTY, ADD_NODES, SET_PROPERTY, CLEAR_PROPERTY, CLEAR_TREE
+    }
+
+    /**
+     * A simple data class representing a single operation of a batch.
+     */
+    private static final class Operation
+    {
+        /** The type of this operation. */
+        private final OperationType type;
+
+        /** The key affected by this operation. */
+        private final String key;
+
+        /** Additional data; its meaning depends on the operation type. */
+        private final Object data;
+
+        /**
+         * Creates a new instance of {@code Operation}.
+         *
+         * @param type the type
+         * @param key the key
+         * @param data additional data
+         */
+        public Operation(OperationType type, String key, Object data)
+        {
+            this.type = type;
+            this.key = key;
+            this.data = data;
+        }
+
+        /**
+         * Executes this operation on the given node model.
+         *
+         * @param model the {@code NodeModel}
+         * @param resolver the {@code NodeKeyResolver}
+         */
+        public void apply(NodeModel<ImmutableNode> model,
+                NodeKeyResolver<ImmutableNode> resolver)
+        {
+            switch (type)
+            {
+            case ADD_PROPERTY:
+                model.addProperty(key, values(), resolver);
+                break;
+            case ADD_NODES:
+                model.addNodes(key, nodes(), resolver);
+                break;
+            case SET_PROPERTY:
+                model.setProperty(key, data, resolver);
+                break;
+            case CLEAR_PROPERTY:
+                model.clearProperty(key, resolver);
+                break;
+            default:
+                model.clearTree(key, resolver);
+                break;
+            }
+        }
+
+        /**
+         * Executes this operation on the given in-memory node model using a
+         * tracked node as root node.
+         *
+         * @param model the {@code InMemoryNodeModel}
+         * @param selector the {@code NodeSelector} (may be <b>null</b>)
+         * @param resolver the {@code NodeKeyResolver}
+         */
+        public void apply(InMemoryNodeModel model, NodeSelector selector,
+                NodeKeyResolver<ImmutableNode> resolver)
+        {
+            switch (type)
+            {
+            case ADD_PROPERTY:
+                model.addProperty(key, selector, values(), resolver);
+                break;
+            case ADD_NODES:
+                model.addNodes(key, selector, nodes(), resolver);
+                break;
+            case SET_PROPERTY:
+                model.setProperty(key, selector, data, resolver);
+                break;
+            case CLEAR_PROPERTY:
+                model.clearProperty(key, selector, resolver);
+                break;
+            default:
+                model.clearTree(key, selector, resolver);
+                break;
+            }
+        }
+
+        /**
+         * Returns the values of an add property operation.
+         *
+         * @return the values
+         */
+        @SuppressWarnings("unchecked")
+        private Iterable<Object> values()
+        {
+            return (Iterable<Object>) data;
+        }
+
+        /**
+         * Returns the nodes of an add nodes operation.
+         *
+         * @return the nodes
+         */
+        @SuppressWarnings("unchecked")
+        private Collection<ImmutableNode> nodes()
+        {
+            return (Collection<ImmutableNode>) data;
+        }
+    }
+}
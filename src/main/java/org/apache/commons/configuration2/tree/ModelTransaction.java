@@ -66,17 +66,25 @@ class ModelTransaction
 {
     /**
      * Constant for the maximum number of entries in the replacement mapping. If
-     * this number is exceeded, the parent mapping is reconstructed. The number
-     * is a bit arbitrary. If it is too low, updates - especially on large node
-     * structures - are expensive because the parent mapping is often rebuild.
-     * If it is too big, read access to the model is slowed down because looking
-     * up the parent of a node is more complicated.
+     * this number is exceeded, the replacements are applied to the parent
+     * mapping. The number is a bit arbitrary. If it is too low, updates are
+     * expensive because the children of replaced nodes have to be assigned to
+     * their new parents often. If it is too big, read access to the model is
+     * slowed down because looking up the parent of a node is more complicated.
      */
     private static final int MAX_REPLACEMENTS = 200;
 
     /** Constant for an unknown level. */
     private static final int LEVEL_UNKNOWN = -1;
 
+    /**
+     * Constant for the maximum number of child nodes to be replaced or removed
+     * for which a children update operation manipulates the single child nodes
+     * of its target node. For more changes, the list of children is
+     * reconstructed.
+     */
+    private static final int MAX_INCREMENTAL_CHILD_CHANGES = 8;
+
     /** Stores the current tree data of the calling node model. */
     private final TreeData currentData;
 
@@ -95,8 +103,14 @@ class ModelTransaction
     /** The nodes replaced in this transaction. */
     private final Map<ImmutableNode, ImmutableNode> replacedNodes;
 
-    /** A new parent mapping. */
-    private final Map<ImmutableNode, ImmutableNode> parentMapping;
+    /**
+     * A builder for the new parent mapping. The mapping of the current data is
+     * created when the transaction starts (the transaction needs it anyway
+     * for determining the parents of the nodes to be updated); so the
+     * resulting data always has a mapping.
+     */
+    private final PersistentHashMap.Builder<ImmutableNode, ImmutableNode>
+            parentMapping;
 
     /** A collection with nodes which have been added. */
     private final Collection<ImmutableNode> addedNodes;
@@ -136,12 +150,36 @@ class ModelTransaction
      */
     public ModelTransaction(TreeData treeData, NodeSelector selector,
             NodeKeyResolver<ImmutableNode> resolver)
+    {
+        this(treeData, selector, resolver, false);
+    }
+
+    /**
+     * Creates a new instance of {@code ModelTransaction} for the current tree
+     * data and specifies whether the mappings of the tree data can be updated
+     * directly. This is possible if the {@code TreeData} object has been
+     * created by a previous transaction of a batch; then it is not visible to
+     * any other party, and copying the mappings can be avoided.
+     *
+     * @param treeData the current {@code TreeData} structure to operate on
+     * @param selector an optional {@code NodeSelector} defining the target root
+     *        node for this transaction; this can be used to perform operations
+     *        on tracked nodes
+     * @param resolver the {@code NodeKeyResolver}
+     * @param updateMappings a flag whether the mappings of the tree data can
+     *        be updated directly
+     */
+    public ModelTransaction(TreeData treeData, NodeSelector selector,
+            NodeKeyResolver<ImmutableNode> resolver, boolean updateMappings)
     {
         currentData = treeData;
         this.resolver = resolver;
-        replacementMapping = getCurrentData().copyReplacementMapping();
+        replacementMapping =
+                updateMappings ? getCurrentData()
+                        .getReplacementMappingForUpdate() : getCurrentData()
+                        .copyReplacementMapping();
         replacedNodes = new HashMap<>();
-        parentMapping = getCurrentData().copyParentMapping();
+        parentMapping = initParentMapping(treeData, updateMappings);
         operations = new TreeMap<>();
         addedNodes = new LinkedList<>();
         removedNodes = new LinkedList<>();
@@ -321,10 +359,26 @@ class ModelTransaction
     {
         executeOperations();
         updateParentMapping();
-        return new TreeData(newRoot, parentMapping, replacementMapping,
-                currentData.getNodeTracker().update(newRoot, rootNodeSelector,
-                        getResolver(), getCurrentData()), updateReferenceTracker()
-        );
+        return new TreeData(newRoot, parentMapping.build(), replacementMapping,
+                updateNodeTracker(), updateReferenceTracker(false));
+    }
+
+    /**
+     * Executes this transaction as part of a batch. This method works like
+     * {@link #execute()}, but the resulting {@code TreeData} object keeps the
+     * builder of its parent mapping, and its reference tracker is private to
+     * the batch. So the next transaction of the batch can continue updating
+     * these structures in place rather than copying them.
+     *
+     * @return the updated {@code TreeData}
+     */
+    TreeData executeInBatch()
+    {
+        executeOperations();
+        updateParentMapping();
+        return new TreeData(newRoot, parentMapping.snapshot(), parentMapping,
+                replacementMapping, updateNodeTracker(),
+                updateReferenceTracker(true));
     }
 
     /**
@@ -377,6 +431,27 @@ class ModelTransaction
         return ops;
     }
 
+    /**
+     * Obtains the builder for the parent mapping of this transaction. If the
+     * mappings of the current data can be updated directly and the data
+     * provides a builder, this builder is used. Otherwise, a new builder is
+     * created based on the parent mapping of the current data; if this
+     * mapping does not exist yet, it is created now.
+     *
+     * @param treeData the current data of the model
+     * @param updateMappings a flag whether the mappings of the tree data can
+     *        be updated directly
+     * @return the builder for the parent mapping
+     */
+    private static PersistentHashMap.Builder<ImmutableNode, ImmutableNode>
+            initParentMapping(TreeData treeData, boolean updateMappings)
+    {
+        PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                updateMappings ? treeData.getParentMappingForUpdate() : null;
+        return (builder != null) ? builder : treeData.getParentMapping()
+                .builder();
+    }
+
     /**
      * Initializes the root node to be used within queries. If a tracked node
      * selector is provided, this node becomes the root node. Otherwise, the
@@ -437,27 +512,49 @@ class ModelTransaction
     private void updateParentMapping()
     {
         replacementMapping.putAll(replacedNodes);
+        updateParentMappingForAddedNodes();
+        updateParentMappingForRemovedNodes();
         if (replacementMapping.size() > MAX_REPLACEMENTS)
         {
-            rebuildParentMapping();
-        }
-        else
-        {
-            updateParentMappingForAddedNodes();
-            updateParentMappingForRemovedNodes();
+            compactParentMapping();
         }
     }
 
     /**
-     * Rebuilds the parent mapping from scratch. This method is called if the
-     * replacement mapping exceeds its maximum size. In this case, it is
-     * cleared, and a new parent mapping is constructed for the new root node.
+     * Applies the replacement mapping on the parent mapping. This method is
+     * called if the replacement mapping exceeds its maximum size. Because a
+     * node can only be replaced if its parent is replaced, too, the nodes
+     * resulting from replacements form a connected structure starting at the
+     * new root node. This structure is traversed, and the children of the nodes
+     * found are assigned to their new parents. Afterwards, the replaced nodes
+     * are removed from the parent mapping, and the replacement mapping is
+     * cleared. So only the paths affected by updates are visited rather than
+     * the whole node structure.
      */
-    private void rebuildParentMapping()
+    private void compactParentMapping()
     {
+        Set<ImmutableNode> replacements =
+                new HashSet<>(replacementMapping.values());
+        List<ImmutableNode> pendingNodes = new LinkedList<>();
+        pendingNodes.add(newRoot);
+        while (!pendingNodes.isEmpty())
+        {
+            ImmutableNode node = pendingNodes.remove(0);
+            for (ImmutableNode child : node.getChildren())
+            {
+                parentMapping.put(child, node);
+                if (replacements.contains(child))
+                {
+                    pendingNodes.add(child);
+                }
+            }
+        }
+
+        for (ImmutableNode node : replacementMapping.keySet())
+        {
+            parentMapping.remove(node);
+        }
         replacementMapping.clear();
-        parentMapping.clear();
-        InMemoryNodeModel.updateParentMapping(parentMapping, newRoot);
     }
 
     /**
@@ -520,20 +617,35 @@ class ModelTransaction
         } while (replacement != null);
     }
 
+    /**
+     * Returns an updated {@code NodeTracker} instance. The tracked nodes are
+     * updated for the new root node.
+     *
+     * @return the updated tracker instance
+     */
+    private NodeTracker updateNodeTracker()
+    {
+        return currentData.getNodeTracker().update(newRoot, rootNodeSelector,
+                getResolver(), getCurrentData());
+    }
+
     /**
      * Returns an updated {@code ReferenceTracker} instance. The changes
      * performed during this transaction are applied to the tracker.
      *
+     * @param batch a flag whether this transaction is part of a batch
      * @return the updated tracker instance
      */
-    private ReferenceTracker updateReferenceTracker()
+    private ReferenceTracker updateReferenceTracker(boolean batch)
     {
         ReferenceTracker tracker = currentData.getReferenceTracker();
         if (newReferences != null)
         {
             tracker = tracker.addReferences(newReferences);
         }
-        return tracker.updateReferences(replacedNodes, allRemovedNodes);
+        return batch ? tracker.updateReferencesInBatch(replacedNodes,
+                allRemovedNodes) : tracker.updateReferences(replacedNodes,
+                allRemovedNodes);
     }
 
     /**
@@ -766,7 +878,9 @@ class ModelTransaction
          * {@inheritDoc} This implementation applies changes on the children of
          * the passed in target node according to its configuration: new nodes
          * are added, replacements are performed, and nodes no longer needed are
-         * removed.
+         * removed. If only a few children are affected, the target node is
+         * updated child by child, so that its list of children does not have
+         * to be copied.
          */
         @Override
         protected ImmutableNode apply(ImmutableNode target,
@@ -775,6 +889,12 @@ class ModelTransaction
             Map<ImmutableNode, ImmutableNode> replacements =
                     fetchReplacementMap();
             Set<ImmutableNode> removals = fetchRemovalSet();
+            if (isIncrementalUpdate(replacements, removals))
+            {
+                return applyIncrementally(target, operations, replacements,
+                        removals);
+            }
+
             List<ImmutableNode> resultNodes = new LinkedList<>();
 
             for (ImmutableNode nd : target.getChildren())
@@ -803,6 +923,88 @@ class ModelTransaction
             return target.replaceChildren(resultNodes);
         }
 
+        /**
+         * Checks whether the changes of this operation can be applied on the
+         * single child nodes of the target node. This is the case if only a
+         * few children are affected, and no replacement node is removed.
+         *
+         * @param replacements the map with replacement nodes
+         * @param removals the set with nodes to be removed
+         * @return a flag whether the changes can be applied incrementally
+         */
+        private boolean isIncrementalUpdate(
+                Map<ImmutableNode, ImmutableNode> replacements,
+                Set<ImmutableNode> removals)
+        {
+            if (replacements.size() + removals.size()
+                    > MAX_INCREMENTAL_CHILD_CHANGES)
+            {
+                return false;
+            }
+            for (ImmutableNode repl : replacements.values())
+            {
+                if (removals.contains(repl))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Applies the changes of this operation by updating the single child
+         * nodes of the target node. The result is the same as produced by the
+         * {@code apply()} method, but the list of children is not copied.
+         *
+         * @param target the target node for this operation
+         * @param operations the current {@code Operations} instance
+         * @param replacements the map with replacement nodes
+         * @param removals the set with nodes to be removed
+         * @return the manipulated node
+         */
+        private ImmutableNode applyIncrementally(ImmutableNode target,
+                Operations operations,
+                Map<ImmutableNode, ImmutableNode> replacements,
+                Set<ImmutableNode> removals)
+        {
+            ImmutableNode result = target;
+            for (Map.Entry<ImmutableNode, ImmutableNode> e : replacements
+                    .entrySet())
+            {
+                ImmutableNode node =
+                        result.replaceChild(e.getKey(), e.getValue());
+                if (node != result)
+                {
+                    replacedNodes.put(e.getKey(), e.getValue());
+                    result = node;
+                }
+            }
+            for (ImmutableNode nd : removals)
+            {
+                ImmutableNode node = result.removeChild(nd);
+                if (node != result)
+                {
+                    removedNodes.add(nd);
+                    result = node;
+                }
+            }
+
+            if (newNodes != null)
+            {
+                for (ImmutableNode nd : newNodes)
+                {
+                    if (nd != null)
+                    {
+                        result = result.addChild(nd);
+                    }
+                }
+            }
+            operations.newNodesAdded(newNodes);
+            // the target node must be replaced by a new instance
+            return (result != target) ? result : target.replaceChildren(target
+                    .getChildren());
+        }
+
         /**
          * Obtains the map with replacement nodes. If no replacements are
          * defined, an empty map is returned.
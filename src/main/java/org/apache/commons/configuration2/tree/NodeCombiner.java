@@ -16,9 +16,15 @@
  */
 package org.apache.commons.configuration2.tree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * <p>
@@ -43,6 +49,16 @@ import java.util.Set;
  * nodes. For this purpose the {@code addListNode()} method exists. It
  * can be passed the name of a node, which should be considered a list node.
  * </p>
+ * <p>
+ * The combination of large node structures can be done in parallel by calling
+ * {@link #combineInParallel(ImmutableNode, ImmutableNode)}. The combination
+ * is then executed in a fork-join pool, and the pairs of child nodes to be
+ * combined recursively are processed by separate tasks if their subtrees are
+ * large enough. Sub classes support this by passing the child nodes to the
+ * {@link #combineChildren(List, List)} method rather than combining them
+ * directly. The minimum size of a subtree to be processed by a separate task
+ * can be set using the {@code setParallelThreshold()} method.
+ * </p>
  *
  * @version $Id$
  * @since 1.3
@@ -58,15 +74,36 @@ public abstract class NodeCombiner
     protected static final NodeHandler<ImmutableNode> HANDLER =
             createNodeHandler();
 
+    /**
+     * Constant for the default threshold for parallel combinations. This is
+     * the minimum number of nodes in a pair of subtrees to be combined by a
+     * separate task.
+     *
+     * @since 2.3
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * Marks threads which combine a pair of subtrees below the threshold.
+     * All pairs of descendant nodes are then combined sequentially, too; so
+     * their sizes need not be determined.
+     */
+    private static final ThreadLocal<Boolean> SEQUENTIAL_COMBINATION =
+            new ThreadLocal<>();
+
     /** Stores a list with node names that are known to be list nodes. */
     private final Set<String> listNodes;
 
+    /** The threshold for combining subtrees in parallel. */
+    private int parallelThreshold;
+
     /**
      * Creates a new instance of {@code NodeCombiner}.
      */
     public NodeCombiner()
     {
         listNodes = new HashSet<>();
+        parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
     }
 
     /**
@@ -103,6 +140,39 @@ public abstract class NodeCombiner
         return listNodes.contains(node.getNodeName());
     }
 
+    /**
+     * Returns the threshold for parallel combinations. This is the minimum
+     * number of nodes contained in a pair of subtrees for which a separate
+     * task is created.
+     *
+     * @return the threshold for parallel combinations
+     * @since 2.3
+     */
+    public int getParallelThreshold()
+    {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the threshold for parallel combinations. Pairs of subtrees with
+     * fewer nodes are combined sequentially because the overhead of a
+     * separate task would outweigh the benefits. The value must be greater
+     * than 0.
+     *
+     * @param threshold the threshold for parallel combinations
+     * @throws IllegalArgumentException if the threshold is less than 1
+     * @since 2.3
+     */
+    public void setParallelThreshold(int threshold)
+    {
+        if (threshold < 1)
+        {
+            throw new IllegalArgumentException(
+                    "Parallel threshold must be greater than 0: " + threshold);
+        }
+        parallelThreshold = threshold;
+    }
+
     /**
      * Combines the hierarchies represented by the given root nodes. This method
      * must be defined in concrete sub classes with the implementation of a
@@ -115,6 +185,182 @@ public abstract class NodeCombiner
     public abstract ImmutableNode combine(ImmutableNode node1,
             ImmutableNode node2);
 
+    /**
+     * Combines the hierarchies represented by the given root nodes using
+     * multiple threads. This method invokes {@code combine()} in a fork-join
+     * pool; so independent subtrees can be combined in parallel if the
+     * concrete combiner implementation uses the
+     * {@link #combineChildren(List, List)} method. The result is the same as
+     * returned by {@code combine()}.
+     *
+     * @param node1 the first root node
+     * @param node2 the second root node
+     * @return the root node of the resulting combined node structure
+     * @since 2.3
+     */
+    public ImmutableNode combineInParallel(ImmutableNode node1,
+            ImmutableNode node2)
+    {
+        if (isRunningInPool())
+        {
+            return combine(node1, node2);
+        }
+        return PoolHolder.POOL.invoke(new CombineTask(node1, node2));
+    }
+
+    /**
+     * Combines the children of a node with their partners in the second node
+     * structure. This method is intended to be called by the
+     * {@code combine()} method of concrete sub classes after they have
+     * determined which children are to be combined recursively. The lists
+     * passed in must have the same size; an element of the partners list is
+     * either <b>null</b>, meaning that the corresponding child is taken over
+     * as is, or the node of the second structure with which it is to be
+     * combined. The returned list contains the resulting children in the same
+     * order. If this method is called during a parallel combination, pairs of
+     * large subtrees are combined by separate tasks. Pairs of smaller subtrees
+     * are combined sequentially including all their descendants.
+     *
+     * @param children the children of the first node
+     * @param partners the partners of these children in the second node
+     *        structure (elements may be <b>null</b>)
+     * @return a list with the resulting children
+     * @since 2.3
+     */
+    protected List<ImmutableNode> combineChildren(List<ImmutableNode> children,
+            List<ImmutableNode> partners)
+    {
+        ImmutableNode[] result = new ImmutableNode[children.size()];
+        boolean parallel = isParallelCombination();
+        List<CombineTask> tasks = null;
+
+        for (int i = 0; i < result.length; i++)
+        {
+            ImmutableNode child = children.get(i);
+            ImmutableNode partner = partners.get(i);
+            if (partner == null)
+            {
+                result[i] = child;
+            }
+            else if (parallel && exceedsParallelThreshold(child, partner))
+            {
+                if (tasks == null)
+                {
+                    tasks = new ArrayList<>();
+                }
+                CombineTask task = new CombineTask(child, partner, i);
+                task.fork();
+                tasks.add(task);
+            }
+            else if (parallel)
+            {
+                result[i] = combineSequentially(child, partner);
+            }
+            else
+            {
+                result[i] = combine(child, partner);
+            }
+        }
+
+        if (tasks != null)
+        {
+            for (CombineTask task : tasks)
+            {
+                result[task.getIndex()] = task.join();
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Combines a pair of subtrees below the threshold for parallel
+     * combinations in the current thread. While this combination is in
+     * progress, {@link #combineChildren(List, List)} does not check the sizes
+     * of child nodes; all pairs of descendants are smaller than the threshold
+     * as well.
+     *
+     * @param node1 the first node
+     * @param node2 the second node
+     * @return the combined node
+     */
+    private ImmutableNode combineSequentially(ImmutableNode node1,
+            ImmutableNode node2)
+    {
+        SEQUENTIAL_COMBINATION.set(Boolean.TRUE);
+        try
+        {
+            return combine(node1, node2);
+        }
+        finally
+        {
+            SEQUENTIAL_COMBINATION.remove();
+        }
+    }
+
+    /**
+     * Returns a flag whether the current thread takes part in a parallel
+     * combination and may create separate tasks. This is not the case if it
+     * currently combines a pair of small subtrees.
+     *
+     * @return <b>true</b> if a parallel combination is in progress
+     */
+    private static boolean isParallelCombination()
+    {
+        return isRunningInPool() && SEQUENTIAL_COMBINATION.get() == null;
+    }
+
+    /**
+     * Returns a flag whether the current thread belongs to the pool for
+     * parallel combinations.
+     *
+     * @return <b>true</b> if running in the pool for parallel combinations
+     */
+    private static boolean isRunningInPool()
+    {
+        return ForkJoinTask.inForkJoinPool()
+                && ForkJoinTask.getPool() == PoolHolder.POOL;
+    }
+
+    /**
+     * Checks whether the given pair of subtrees contains enough nodes to be
+     * combined by a separate task. Nodes are only counted until the threshold
+     * is reached.
+     *
+     * @param node1 the first node
+     * @param node2 the second node
+     * @return a flag whether the threshold is exceeded
+     */
+    private boolean exceedsParallelThreshold(ImmutableNode node1,
+            ImmutableNode node2)
+    {
+        int threshold = getParallelThreshold();
+        int count = countNodes(node1, threshold);
+        return count >= threshold
+                || countNodes(node2, threshold - count) + count >= threshold;
+    }
+
+    /**
+     * Counts the nodes of the given subtree. The counting stops when the
+     * given limit is reached.
+     *
+     * @param node the root of the subtree
+     * @param limit the limit
+     * @return the number of nodes (at most the limit)
+     */
+    private static int countNodes(ImmutableNode node, int limit)
+    {
+        int count = 1;
+        for (ImmutableNode child : node.getChildren())
+        {
+            if (count >= limit)
+            {
+                break;
+            }
+            count += countNodes(child, limit - count);
+        }
+        return count;
+    }
+
     /**
      * Creates a node handler object for immutable nodes which can be used by
      * sub classes to perform advanced operations on nodes.
@@ -138,4 +384,75 @@ public abstract class NodeCombiner
             }
         };
     }
+
+    /**
+     * A task for combining two node structures in the fork-join pool.
+     */
+    private class CombineTask extends RecursiveTask<ImmutableNode>
+    {
+        /** The serial version UID. */
+        private static final long serialVersionUID = 20261017L;
+
+        /** The first node. */
+        private final transient ImmutableNode node1;
+
+        /** The second node. */
+        private final transient ImmutableNode node2;
+
+        /** The index of the resulting node in its parent. */
+        private final int index;
+
+        /**
+         * Creates a new instance of {@code CombineTask} for combining two root
+         * nodes.
+         *
+         * @param n1 the first node
+         * @param n2 the second node
+         */
+        public CombineTask(ImmutableNode n1, ImmutableNode n2)
+        {
+            this(n1, n2, 0);
+        }
+
+        /**
+         * Creates a new instance of {@code CombineTask} for combining two
+         * child nodes.
+         *
+         * @param n1 the first node
+         * @param n2 the second node
+         * @param idx the index of the resulting child node
+         */
+        public CombineTask(ImmutableNode n1, ImmutableNode n2, int idx)
+        {
+            node1 = n1;
+            node2 = n2;
+            index = idx;
+        }
+
+        /**
+         * Returns the index of the resulting child node.
+         *
+         * @return the index
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        @Override
+        protected ImmutableNode compute()
+        {
+            return combine(node1, node2);
+        }
+    }
+
+    /**
+     * A holder class for the fork-join pool used for parallel combinations.
+     * The pool is created on first access.
+     */
+    private static class PoolHolder
+    {
+        /** The pool for parallel combinations. */
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
 }
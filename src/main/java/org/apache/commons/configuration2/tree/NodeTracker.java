@@ -188,6 +188,17 @@ class NodeTracker
         return getTrackedNodeData(selector).getNode();
     }
 
+    /**
+     * Returns a flag whether this object currently tracks any nodes.
+     *
+     * @return <b>true</b> if there are tracked nodes, <b>false</b> otherwise
+     * @since 2.3
+     */
+    public boolean hasTrackedNodes()
+    {
+        return !trackedNodes.isEmpty();
+    }
+
     /**
      * Returns a flag whether the specified tracked node is detached.
      *
@@ -16,6 +16,8 @@
  */
 package org.apache.commons.configuration2.tree;
 
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * <p>
@@ -67,18 +69,13 @@ public class OverrideCombiner extends NodeCombiner
         result.name(node1.getNodeName());
 
         // Process nodes from the first structure, which override the second
+        List<ImmutableNode> partners =
+                new ArrayList<>(node1.getChildren().size());
         for (ImmutableNode child : node1.getChildren())
         {
-            ImmutableNode child2 = canCombine(node1, node2, child);
-            if (child2 != null)
-            {
-                result.addChild(combine(child, child2));
-            }
-            else
-            {
-                result.addChild(child);
-            }
+            partners.add(canCombine(node1, node2, child));
         }
+        result.addChildren(combineChildren(node1.getChildren(), partners));
 
         // Process nodes from the second structure, which are not contained
         // in the first structure
@@ -0,0 +1,763 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+/**
+ * <p>
+ * An internally used immutable map for the data structures of node models.
+ * </p>
+ * <p>
+ * This class is used by {@link TreeData} to store the parent nodes of the
+ * nodes in a tree, and by {@link ImmutableNode} for the index of its child
+ * nodes by name. Each update of a node structure produces new objects with
+ * updated maps. If the data was stored in a plain hash map, it would have to
+ * be copied for each update; for large node structures this is expensive.
+ * This class implements a persistent hash trie instead: updates return a new
+ * map instance which shares all unchanged parts with the original map. So the
+ * costs of an update do not depend on the size of the map.
+ * </p>
+ * <p>
+ * Keys are compared using their {@code equals()} method; as
+ * {@code ImmutableNode} does not override it, nodes are compared by identity.
+ * Keys must not be <b>null</b>. Instances are immutable and can be shared
+ * between multiple threads. In order to perform many updates efficiently, a
+ * {@link Builder} can be obtained; it modifies the parts of the trie it has
+ * created itself in place.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class PersistentHashMap<K, V>
+{
+    /** An empty instance. */
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap(
+            new BitmapNode(null, 0, new Object[0]), 0);
+
+    /** The number of hash bits processed on each level of the trie. */
+    private static final int BITS = 5;
+
+    /** The mask for extracting the hash bits of a level. */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** The root node of the trie. */
+    private final TrieNode root;
+
+    /** The number of entries contained in this map. */
+    private final int size;
+
+    /**
+     * Creates a new instance of {@code PersistentHashMap}.
+     *
+     * @param root the root node of the trie
+     * @param size the number of entries
+     */
+    private PersistentHashMap(TrieNode root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns an empty map.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return an empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the value associated with the given key.
+     *
+     * @param key the key
+     * @return the associated value or <b>null</b> if the key is not contained
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key)
+    {
+        return (V) root.find(0, hash(key), key);
+    }
+
+    /**
+     * Returns the number of entries contained in this map.
+     *
+     * @return the size of this map
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a new map which contains the given entry in addition to the
+     * entries of this map. An existing entry for this key is replaced.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the updated map
+     */
+    public PersistentHashMap<K, V> put(K key, V value)
+    {
+        return builder().put(key, value).build();
+    }
+
+    /**
+     * Returns a new map which contains all entries of this map except for the
+     * one with the given key.
+     *
+     * @param key the key to be removed
+     * @return the updated map
+     */
+    public PersistentHashMap<K, V> remove(Object key)
+    {
+        return builder().remove(key).build();
+    }
+
+    /**
+     * Returns a {@code Builder} for creating a modified version of this map.
+     * This map is not affected by the builder.
+     *
+     * @return a {@code Builder} initialized with the content of this map
+     */
+    public Builder<K, V> builder()
+    {
+        return new Builder<>(root, size);
+    }
+
+    /**
+     * Determines the hash value of a key. The bits of the hash code are
+     * spread, so that keys with hash codes differing only in their higher
+     * bits do not end up deep in the trie.
+     *
+     * @param key the key
+     * @return the hash value for this key
+     */
+    private static int hash(Object key)
+    {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Checks whether a key stored in the trie equals the given key.
+     *
+     * @param k the stored key
+     * @param key the key to compare with
+     * @return a flag whether the keys are equal
+     */
+    private static boolean equalKeys(Object k, Object key)
+    {
+        return k == key || key.equals(k);
+    }
+
+    /**
+     * Returns the index of a trie node's child for the given hash value on the
+     * specified level.
+     *
+     * @param hash the hash value
+     * @param shift the shift determining the level
+     * @return the bit representing this index
+     */
+    private static int bitFor(int hash, int shift)
+    {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Creates a trie node which contains the two given entries.
+     *
+     * @param owner the owner of the new node
+     * @param shift the shift of the new node
+     * @param key1 the first key
+     * @param value1 the first value
+     * @param hash2 the hash of the second key
+     * @param key2 the second key
+     * @param value2 the second value
+     * @return the new trie node
+     */
+    private static TrieNode createNode(Object owner, int shift, Object key1,
+            Object value1, int hash2, Object key2, Object value2)
+    {
+        int hash1 = hash(key1);
+        if (hash1 == hash2)
+        {
+            return new CollisionNode(owner, hash1, new Object[] {
+                    key1, value1, key2, value2
+            });
+        }
+
+        SizeTracker tracker = new SizeTracker();
+        return new BitmapNode(owner, 0, new Object[0])
+                .put(owner, shift, hash1, key1, value1, tracker)
+                .put(owner, shift, hash2, key2, value2, tracker);
+    }
+
+    /**
+     * Returns a copy of the given array with a pair of elements inserted at
+     * the given position.
+     *
+     * @param array the array
+     * @param pos the position
+     * @param e1 the first element to be inserted
+     * @param e2 the second element to be inserted
+     * @return the new array
+     */
+    private static Object[] insertPair(Object[] array, int pos, Object e1,
+            Object e2)
+    {
+        Object[] result = new Object[array.length + 2];
+        System.arraycopy(array, 0, result, 0, pos);
+        result[pos] = e1;
+        result[pos + 1] = e2;
+        System.arraycopy(array, pos, result, pos + 2, array.length - pos);
+        return result;
+    }
+
+    /**
+     * Returns a copy of the given array with the pair of elements at the
+     * given position removed.
+     *
+     * @param array the array
+     * @param pos the position
+     * @return the new array
+     */
+    private static Object[] removePair(Object[] array, int pos)
+    {
+        Object[] result = new Object[array.length - 2];
+        System.arraycopy(array, 0, result, 0, pos);
+        System.arraycopy(array, pos + 2, result, pos, result.length - pos);
+        return result;
+    }
+
+    /**
+     * <p>
+     * A builder for creating updated versions of a {@code PersistentHashMap}.
+     * </p>
+     * <p>
+     * A builder modifies the nodes of the trie it has created itself in place;
+     * all other nodes are copied before they are changed. So a series of
+     * updates can be performed without creating garbage for each single
+     * operation. The map the builder was obtained from is never changed. After
+     * {@link #build()} has been called, the builder can no longer be used.
+     * Instances are not thread-safe.
+     * </p>
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    public static final class Builder<K, V>
+    {
+        /** The object marking the trie nodes owned by this builder. */
+        private Object owner;
+
+        /** The current root node. */
+        private TrieNode root;
+
+        /** Keeps track of the number of entries. */
+        private final SizeTracker tracker;
+
+        /**
+         * Creates a new instance of {@code Builder}.
+         *
+         * @param root the initial root node
+         * @param size the initial size
+         */
+        private Builder(TrieNode root, int size)
+        {
+            this.root = root;
+            owner = new Object();
+            tracker = new SizeTracker();
+            tracker.size = size;
+        }
+
+        /**
+         * Returns the value associated with the given key.
+         *
+         * @param key the key
+         * @return the associated value or <b>null</b> if the key is not
+         *         contained
+         */
+        @SuppressWarnings("unchecked")
+        public V get(Object key)
+        {
+            return (V) root.find(0, hash(key), key);
+        }
+
+        /**
+         * Adds an entry to the map. An existing entry for this key is
+         * replaced.
+         *
+         * @param key the key
+         * @param value the value
+         * @return a reference to this builder for method chaining
+         */
+        public Builder<K, V> put(K key, V value)
+        {
+            root = root.put(checkOwner(), 0, hash(key), key, value, tracker);
+            return this;
+        }
+
+        /**
+         * Removes the entry with the given key from the map.
+         *
+         * @param key the key
+         * @return a reference to this builder for method chaining
+         */
+        public Builder<K, V> remove(Object key)
+        {
+            TrieNode newRoot =
+                    root.remove(checkOwner(), 0, hash(key), key, tracker);
+            root = (newRoot != null) ? newRoot : EMPTY.root;
+            return this;
+        }
+
+        /**
+         * Returns a {@code PersistentHashMap} with the content of this
+         * builder.
+         *
+         * @return the map
+         */
+        public PersistentHashMap<K, V> build()
+        {
+            checkOwner();
+            owner = null;
+            return create();
+        }
+
+        /**
+         * Returns a {@code PersistentHashMap} with the current content of
+         * this builder without invalidating the builder. Note that the
+         * returned map shares the trie nodes owned by this builder; so
+         * further updates performed by the builder are visible in this map,
+         * too. This method must therefore only be used if the map is no
+         * longer accessed after the builder has been changed, e.g. for the
+         * intermediate results of a batch.
+         *
+         * @return the map
+         */
+        PersistentHashMap<K, V> snapshot()
+        {
+            checkOwner();
+            return create();
+        }
+
+        /**
+         * Creates a map with the current content of this builder.
+         *
+         * @return the map
+         */
+        private PersistentHashMap<K, V> create()
+        {
+            return (tracker.size == 0) ? PersistentHashMap.<K, V> empty()
+                    : new PersistentHashMap<K, V>(root, tracker.size);
+        }
+
+        /**
+         * Returns the owner object of this builder and checks whether the
+         * builder can still be used.
+         *
+         * @return the owner object
+         * @throws IllegalStateException if {@code build()} has been called
+         */
+        private Object checkOwner()
+        {
+            if (owner == null)
+            {
+                throw new IllegalStateException(
+                        "Builder cannot be used after build() was called!");
+            }
+            return owner;
+        }
+    }
+
+    /**
+     * A simple helper class for keeping track of the changes of the number of
+     * entries during update operations.
+     */
+    private static final class SizeTracker
+    {
+        /** The current size. */
+        private int size;
+    }
+
+    /**
+     * An abstract base class for the nodes of the trie. The update methods
+     * modify the node in place if it belongs to the passed in owner object;
+     * otherwise, an updated copy is returned.
+     */
+    private abstract static class TrieNode
+    {
+        /** The owner of this node; can be <b>null</b>. */
+        private final Object owner;
+
+        /**
+         * Creates a new instance of {@code TrieNode} with the given owner.
+         *
+         * @param owner the owner
+         */
+        protected TrieNode(Object owner)
+        {
+            this.owner = owner;
+        }
+
+        /**
+         * Checks whether this node can be modified in place by the given
+         * owner.
+         *
+         * @param editor the owner performing a modification
+         * @return a flag whether this node can be modified directly
+         */
+        protected boolean isEditable(Object editor)
+        {
+            return owner != null && owner == editor;
+        }
+
+        /**
+         * Searches for the value of the given key.
+         *
+         * @param shift the shift of this node
+         * @param hash the hash of the key
+         * @param key the key
+         * @return the value or <b>null</b> if the key cannot be found
+         */
+        public abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * Adds an entry to this node.
+         *
+         * @param editor the owner performing the modification
+         * @param shift the shift of this node
+         * @param hash the hash of the key
+         * @param key the key
+         * @param value the value
+         * @param tracker the object for tracking the size
+         * @return the updated node
+         */
+        public abstract TrieNode put(Object editor, int shift, int hash,
+                Object key, Object value, SizeTracker tracker);
+
+        /**
+         * Removes an entry from this node.
+         *
+         * @param editor the owner performing the modification
+         * @param shift the shift of this node
+         * @param hash the hash of the key
+         * @param key the key
+         * @param tracker the object for tracking the size
+         * @return the updated node or <b>null</b> if it is now empty
+         */
+        public abstract TrieNode remove(Object editor, int shift, int hash,
+                Object key, SizeTracker tracker);
+    }
+
+    /**
+     * A trie node storing its entries in a compact array. A bitmap defines
+     * which of the possible hash values on this level are present. For each
+     * of them the array contains a pair of elements: either a key and its
+     * value, or <b>null</b> and a sub node.
+     */
+    private static final class BitmapNode extends TrieNode
+    {
+        /** The bitmap of the present hash values. */
+        private int bitmap;
+
+        /** The array with the entries and sub nodes. */
+        private Object[] array;
+
+        /**
+         * Creates a new instance of {@code BitmapNode}.
+         *
+         * @param owner the owner
+         * @param bitmap the bitmap
+         * @param array the array with entries
+         */
+        public BitmapNode(Object owner, int bitmap, Object[] array)
+        {
+            super(owner);
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key)
+        {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0)
+            {
+                return null;
+            }
+
+            int pos = position(bit);
+            Object k = array[pos];
+            if (k == null)
+            {
+                return ((TrieNode) array[pos + 1])
+                        .find(shift + BITS, hash, key);
+            }
+            return equalKeys(k, key) ? array[pos + 1] : null;
+        }
+
+        @Override
+        public TrieNode put(Object editor, int shift, int hash,
+                Object key, Object value, SizeTracker tracker)
+        {
+            int bit = bitFor(hash, shift);
+            int pos = position(bit);
+            if ((bitmap & bit) == 0)
+            {
+                tracker.size++;
+                return update(editor, bitmap | bit,
+                        insertPair(array, pos, key, value));
+            }
+
+            Object k = array[pos];
+            Object v = array[pos + 1];
+            if (k == null)
+            {
+                TrieNode child = (TrieNode) v;
+                TrieNode newChild =
+                        child.put(editor, shift + BITS, hash, key, value,
+                                tracker);
+                return (newChild == child) ? this : updateSlot(editor,
+                        pos + 1, newChild);
+            }
+            if (equalKeys(k, key))
+            {
+                return (v == value) ? this : updateSlot(editor, pos + 1,
+                        value);
+            }
+
+            tracker.size++;
+            TrieNode subNode =
+                    createNode(editor, shift + BITS, k, v, hash, key, value);
+            BitmapNode result = (BitmapNode) updateSlot(editor, pos, null);
+            result.array[pos + 1] = subNode;
+            return result;
+        }
+
+        @Override
+        public TrieNode remove(Object editor, int shift, int hash,
+                Object key, SizeTracker tracker)
+        {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0)
+            {
+                return this;
+            }
+
+            int pos = position(bit);
+            Object k = array[pos];
+            if (k == null)
+            {
+                TrieNode child = (TrieNode) array[pos + 1];
+                TrieNode newChild =
+                        child.remove(editor, shift + BITS, hash, key, tracker);
+                if (newChild == child)
+                {
+                    return this;
+                }
+                if (newChild != null)
+                {
+                    return updateSlot(editor, pos + 1, newChild);
+                }
+            }
+            else if (!equalKeys(k, key))
+            {
+                return this;
+            }
+            else
+            {
+                tracker.size--;
+            }
+
+            return (bitmap == bit) ? null : update(editor, bitmap ^ bit,
+                    removePair(array, pos));
+        }
+
+        /**
+         * Returns the position in the array of the element with the given
+         * bit.
+         *
+         * @param bit the bit
+         * @return the position of the corresponding elements in the array
+         */
+        private int position(int bit)
+        {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        /**
+         * Returns a node with the given content. This node is modified if it
+         * is owned by the editor; otherwise, a new node is created.
+         *
+         * @param editor the owner performing the modification
+         * @param newBitmap the new bitmap
+         * @param newArray the new array
+         * @return the updated node
+         */
+        private TrieNode update(Object editor, int newBitmap, Object[] newArray)
+        {
+            if (isEditable(editor))
+            {
+                bitmap = newBitmap;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(editor, newBitmap, newArray);
+        }
+
+        /**
+         * Returns a node with a changed element in the array. This node is
+         * modified if it is owned by the editor; otherwise, a copy is
+         * created.
+         *
+         * @param editor the owner performing the modification
+         * @param pos the position of the element
+         * @param value the new value of this element
+         * @return the updated node
+         */
+        private TrieNode updateSlot(Object editor, int pos, Object value)
+        {
+            BitmapNode result =
+                    isEditable(editor) ? this : new BitmapNode(editor, bitmap,
+                            array.clone());
+            result.array[pos] = value;
+            return result;
+        }
+    }
+
+    /**
+     * A trie node storing entries whose keys have the same hash value. The
+     * entries are stored as key-value pairs in an array which is searched
+     * linearly.
+     */
+    private static final class CollisionNode extends TrieNode
+    {
+        /** The common hash value of all keys. */
+        private final int keyHash;
+
+        /** The array with the entries. */
+        private Object[] array;
+
+        /**
+         * Creates a new instance of {@code CollisionNode}.
+         *
+         * @param owner the owner
+         * @param hash the hash value
+         * @param array the array with entries
+         */
+        public CollisionNode(Object owner, int hash, Object[] array)
+        {
+            super(owner);
+            keyHash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key)
+        {
+            int pos = indexOf(key);
+            return (pos >= 0) ? array[pos + 1] : null;
+        }
+
+        @Override
+        public TrieNode put(Object editor, int shift, int hash,
+                Object key, Object value, SizeTracker tracker)
+        {
+            if (hash != keyHash)
+            {
+                // move this node one level down
+                return new BitmapNode(editor, bitFor(keyHash, shift),
+                        new Object[] {
+                                null, this
+                        }).put(editor, shift, hash, key, value, tracker);
+            }
+
+            int pos = indexOf(key);
+            if (pos >= 0)
+            {
+                if (array[pos + 1] == value)
+                {
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[pos + 1] = value;
+                return update(editor, newArray);
+            }
+            tracker.size++;
+            return update(editor, insertPair(array, array.length, key, value));
+        }
+
+        @Override
+        public TrieNode remove(Object editor, int shift, int hash,
+                Object key, SizeTracker tracker)
+        {
+            int pos = indexOf(key);
+            if (pos < 0)
+            {
+                return this;
+            }
+            tracker.size--;
+            return (array.length == 2) ? null : update(editor, removePair(
+                    array, pos));
+        }
+
+        /**
+         * Returns the position of the given key in the array.
+         *
+         * @param key the key
+         * @return the position of this key or -1 if it cannot be found
+         */
+        private int indexOf(Object key)
+        {
+            for (int i = 0; i < array.length; i += 2)
+            {
+                if (equalKeys(array[i], key))
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns a node with the given array. This node is modified if it is
+         * owned by the editor; otherwise, a new node is created.
+         *
+         * @param editor the owner performing the modification
+         * @param newArray the new array
+         * @return the updated node
+         */
+        private TrieNode update(Object editor, Object[] newArray)
+        {
+            if (isEditable(editor))
+            {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(editor, keyHash, newArray);
+        }
+    }
+}
@@ -0,0 +1,576 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * An internally used immutable list for storing the child nodes of an
+ * {@link ImmutableNode}.
+ * </p>
+ * <p>
+ * Each update of an {@code ImmutableNode} creates a new node instance. If the
+ * children were stored in a plain list, adding, removing, or replacing a
+ * single child would require a copy of the whole list; so a sequence of such
+ * updates on a node with many children would have quadratic costs. This class
+ * implements a persistent list: the elements are stored in small arrays which
+ * form the leaves of a balanced binary tree. An update operation returns a new
+ * list instance which shares all unchanged parts of the tree with the original
+ * list; only the leaf affected and the path to it have to be copied. Thus
+ * single element updates and access by index have logarithmic costs.
+ * </p>
+ * <p>
+ * This class implements the {@code List} interface, but all methods that
+ * would modify the list throw an {@code UnsupportedOperationException}.
+ * Instances are immutable and can therefore be shared between multiple
+ * threads.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.3
+ */
+final class PersistentNodeList extends AbstractList<ImmutableNode>
+{
+    /** An empty instance. */
+    static final PersistentNodeList EMPTY = new PersistentNodeList(null);
+
+    /** The maximum number of elements stored in a single leaf. */
+    private static final int LEAF_CAPACITY = 32;
+
+    /** The root of the tree storing the elements; null for an empty list. */
+    private final Node root;
+
+    /**
+     * Creates a new instance of {@code PersistentNodeList} with the given
+     * root of the tree.
+     *
+     * @param root the root (may be <b>null</b>)
+     */
+    private PersistentNodeList(Node root)
+    {
+        this.root = root;
+    }
+
+    /**
+     * Returns a {@code PersistentNodeList} with the elements of the given
+     * collection. If the collection already is a {@code PersistentNodeList},
+     * it is returned directly.
+     *
+     * @param nodes the collection with the elements of the list
+     * @return the {@code PersistentNodeList} with these elements
+     */
+    static PersistentNodeList from(Collection<? extends ImmutableNode> nodes)
+    {
+        if (nodes instanceof PersistentNodeList)
+        {
+            return (PersistentNodeList) nodes;
+        }
+
+        ImmutableNode[] items = nodes.toArray(new ImmutableNode[nodes.size()]);
+        return (items.length == 0) ? EMPTY : new PersistentNodeList(build(
+                items, 0, items.length));
+    }
+
+    @Override
+    public ImmutableNode get(int index)
+    {
+        checkIndex(index, size());
+        Node node = root;
+        int pos = index;
+        while (node instanceof Branch)
+        {
+            Branch branch = (Branch) node;
+            if (pos < branch.left.size)
+            {
+                node = branch.left;
+            }
+            else
+            {
+                pos -= branch.left.size;
+                node = branch.right;
+            }
+        }
+        return ((Leaf) node).items[pos];
+    }
+
+    @Override
+    public int size()
+    {
+        return (root != null) ? root.size : 0;
+    }
+
+    @Override
+    public Iterator<ImmutableNode> iterator()
+    {
+        return new NodeIterator(root);
+    }
+
+    /**
+     * Returns a new list with the given element added at the end.
+     *
+     * @param node the element to be added
+     * @return the new list
+     */
+    PersistentNodeList append(ImmutableNode node)
+    {
+        return insert(size(), node);
+    }
+
+    /**
+     * Returns a new list with the given element inserted at the specified
+     * position.
+     *
+     * @param index the index of the new element
+     * @param node the element to be inserted
+     * @return the new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    PersistentNodeList insert(int index, ImmutableNode node)
+    {
+        checkIndex(index, size() + 1);
+        if (root == null)
+        {
+            return new PersistentNodeList(new Leaf(
+                    new ImmutableNode[] { node }));
+        }
+        return new PersistentNodeList(insert(root, index, node));
+    }
+
+    /**
+     * Returns a new list in which the element at the specified position is
+     * replaced by the given one.
+     *
+     * @param index the index of the element to be replaced
+     * @param node the new element
+     * @return the new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    PersistentNodeList update(int index, ImmutableNode node)
+    {
+        checkIndex(index, size());
+        return new PersistentNodeList(update(root, index, node));
+    }
+
+    /**
+     * Returns a new list with the element at the specified position removed.
+     *
+     * @param index the index of the element to be removed
+     * @return the new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    PersistentNodeList delete(int index)
+    {
+        checkIndex(index, size());
+        Node newRoot = delete(root, index);
+        return (newRoot != null) ? new PersistentNodeList(newRoot) : EMPTY;
+    }
+
+    /**
+     * Returns a new list with all occurrences of the given element replaced
+     * by another one. Elements are compared by identity. If the element to be
+     * replaced is not contained in this list, the same list is returned.
+     *
+     * @param oldNode the element to be replaced
+     * @param newNode the replacing element
+     * @return the new list
+     */
+    PersistentNodeList replaceNode(ImmutableNode oldNode,
+            ImmutableNode newNode)
+    {
+        PersistentNodeList result = this;
+        int index = 0;
+        for (ImmutableNode n : this)
+        {
+            if (n == oldNode)
+            {
+                result = result.update(index, newNode);
+            }
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new list with all occurrences of the given element removed.
+     * Elements are compared by identity. If the element is not contained in
+     * this list, the same list is returned.
+     *
+     * @param node the element to be removed
+     * @return the new list
+     */
+    PersistentNodeList removeNode(ImmutableNode node)
+    {
+        // this list is iterated; so the indices in the result list are
+        // shifted by the number of elements already removed
+        PersistentNodeList result = this;
+        int index = 0;
+        for (ImmutableNode n : this)
+        {
+            if (n == node)
+            {
+                result = result.delete(index);
+            }
+            else
+            {
+                index++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a balanced tree for the given range of an array with elements.
+     *
+     * @param items the array with elements
+     * @param from the start index of the range (inclusive)
+     * @param to the end index of the range (exclusive)
+     * @return the root of the new tree
+     */
+    private static Node build(ImmutableNode[] items, int from, int to)
+    {
+        if (to - from <= LEAF_CAPACITY)
+        {
+            return new Leaf(Arrays.copyOfRange(items, from, to));
+        }
+        int mid = from + (to - from) / 2;
+        return new Branch(build(items, from, mid), build(items, mid, to));
+    }
+
+    /**
+     * Inserts an element into the given subtree.
+     *
+     * @param node the root of the subtree
+     * @param index the index of the new element in the subtree
+     * @param item the element to be inserted
+     * @return the root of the updated subtree
+     */
+    private static Node insert(Node node, int index, ImmutableNode item)
+    {
+        if (node instanceof Leaf)
+        {
+            ImmutableNode[] items = ((Leaf) node).items;
+            ImmutableNode[] newItems = new ImmutableNode[items.length + 1];
+            System.arraycopy(items, 0, newItems, 0, index);
+            newItems[index] = item;
+            System.arraycopy(items, index, newItems, index + 1, items.length
+                    - index);
+            if (newItems.length <= LEAF_CAPACITY)
+            {
+                return new Leaf(newItems);
+            }
+            return build(newItems, 0, newItems.length);
+        }
+
+        Branch branch = (Branch) node;
+        if (index < branch.left.size)
+        {
+            return balance(insert(branch.left, index, item), branch.right);
+        }
+        return balance(branch.left,
+                insert(branch.right, index - branch.left.size, item));
+    }
+
+    /**
+     * Replaces an element in the given subtree.
+     *
+     * @param node the root of the subtree
+     * @param index the index of the element in the subtree
+     * @param item the new element
+     * @return the root of the updated subtree
+     */
+    private static Node update(Node node, int index, ImmutableNode item)
+    {
+        if (node instanceof Leaf)
+        {
+            ImmutableNode[] newItems = ((Leaf) node).items.clone();
+            newItems[index] = item;
+            return new Leaf(newItems);
+        }
+
+        Branch branch = (Branch) node;
+        if (index < branch.left.size)
+        {
+            return new Branch(update(branch.left, index, item), branch.right);
+        }
+        return new Branch(branch.left, update(branch.right, index
+                - branch.left.size, item));
+    }
+
+    /**
+     * Removes an element from the given subtree. Result is <b>null</b> if the
+     * subtree becomes empty. If the two leaves of a branch become small
+     * enough, they are merged.
+     *
+     * @param node the root of the subtree
+     * @param index the index of the element to be removed
+     * @return the root of the updated subtree
+     */
+    private static Node delete(Node node, int index)
+    {
+        if (node instanceof Leaf)
+        {
+            ImmutableNode[] items = ((Leaf) node).items;
+            if (items.length == 1)
+            {
+                return null;
+            }
+            ImmutableNode[] newItems = new ImmutableNode[items.length - 1];
+            System.arraycopy(items, 0, newItems, 0, index);
+            System.arraycopy(items, index + 1, newItems, index,
+                    newItems.length - index);
+            return new Leaf(newItems);
+        }
+
+        Branch branch = (Branch) node;
+        Node left = branch.left;
+        Node right = branch.right;
+        if (index < left.size)
+        {
+            left = delete(left, index);
+        }
+        else
+        {
+            right = delete(right, index - left.size);
+        }
+
+        if (left == null)
+        {
+            return right;
+        }
+        if (right == null)
+        {
+            return left;
+        }
+        if (left instanceof Leaf && right instanceof Leaf
+                && left.size + right.size <= LEAF_CAPACITY)
+        {
+            ImmutableNode[] leftItems = ((Leaf) left).items;
+            ImmutableNode[] items =
+                    Arrays.copyOf(leftItems, left.size + right.size);
+            System.arraycopy(((Leaf) right).items, 0, items,
+                    leftItems.length, right.size);
+            return new Leaf(items);
+        }
+        return balance(left, right);
+    }
+
+    /**
+     * Creates a branch for the given subtrees and rebalances it if
+     * necessary. The heights of the subtrees must not differ by more than 2.
+     *
+     * @param left the left subtree
+     * @param right the right subtree
+     * @return the root of the balanced tree
+     */
+    private static Node balance(Node left, Node right)
+    {
+        if (left.height > right.height + 1)
+        {
+            Branch l = (Branch) left;
+            if (l.left.height >= l.right.height)
+            {
+                return new Branch(l.left, new Branch(l.right, right));
+            }
+            Branch lr = (Branch) l.right;
+            return new Branch(new Branch(l.left, lr.left), new Branch(
+                    lr.right, right));
+        }
+
+        if (right.height > left.height + 1)
+        {
+            Branch r = (Branch) right;
+            if (r.right.height >= r.left.height)
+            {
+                return new Branch(new Branch(left, r.left), r.right);
+            }
+            Branch rl = (Branch) r.left;
+            return new Branch(new Branch(left, rl.left), new Branch(rl.right,
+                    r.right));
+        }
+
+        return new Branch(left, right);
+    }
+
+    /**
+     * Checks whether the given index is in the range from 0 (inclusive) to
+     * the given limit (exclusive).
+     *
+     * @param index the index to be checked
+     * @param limit the limit
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private static void checkIndex(int index, int limit)
+    {
+        if (index < 0 || index >= limit)
+        {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+    }
+
+    /**
+     * The base class of the nodes of the tree storing the list elements.
+     */
+    private abstract static class Node
+    {
+        /** The number of elements in the subtree. */
+        final int size;
+
+        /** The height of the subtree; 0 for a leaf. */
+        final int height;
+
+        /**
+         * Creates a new instance of {@code Node}.
+         *
+         * @param size the number of elements
+         * @param height the height
+         */
+        Node(int size, int height)
+        {
+            this.size = size;
+            this.height = height;
+        }
+    }
+
+    /**
+     * A leaf of the tree. It stores up to {@link #LEAF_CAPACITY} elements in
+     * an array which is never modified.
+     */
+    private static final class Leaf extends Node
+    {
+        /** The elements of this leaf. */
+        final ImmutableNode[] items;
+
+        /**
+         * Creates a new instance of {@code Leaf}.
+         *
+         * @param items the elements (must not be empty)
+         */
+        Leaf(ImmutableNode[] items)
+        {
+            super(items.length, 0);
+            this.items = items;
+        }
+    }
+
+    /**
+     * An inner node of the tree with two subtrees.
+     */
+    private static final class Branch extends Node
+    {
+        /** The left subtree. */
+        final Node left;
+
+        /** The right subtree. */
+        final Node right;
+
+        /**
+         * Creates a new instance of {@code Branch}.
+         *
+         * @param left the left subtree
+         * @param right the right subtree
+         */
+        Branch(Node left, Node right)
+        {
+            super(left.size + right.size, Math.max(left.height,
+                    right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * An iterator over the elements of a {@code PersistentNodeList}. It
+     * traverses the leaves of the tree from left to right.
+     */
+    private static final class NodeIterator implements Iterator<ImmutableNode>
+    {
+        /** A stack with the branches whose right subtree is still pending. */
+        private final Deque<Branch> pending = new ArrayDeque<>();
+
+        /** The elements of the current leaf. */
+        private ImmutableNode[] items;
+
+        /** The position in the current leaf. */
+        private int position;
+
+        /**
+         * Creates a new instance of {@code NodeIterator}.
+         *
+         * @param root the root of the tree (may be <b>null</b>)
+         */
+        NodeIterator(Node root)
+        {
+            if (root != null)
+            {
+                descend(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return items != null
+                    && (position < items.length || !pending.isEmpty());
+        }
+
+        @Override
+        public ImmutableNode next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (position >= items.length)
+            {
+                descend(pending.pop().right);
+            }
+            return items[position++];
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException(
+                    "List of child nodes cannot be modified!");
+        }
+
+        /**
+         * Moves to the leftmost leaf of the given subtree.
+         *
+         * @param node the root of the subtree
+         */
+        private void descend(Node node)
+        {
+            Node current = node;
+            while (current instanceof Branch)
+            {
+                Branch branch = (Branch) current;
+                pending.push(branch);
+                current = branch.left;
+            }
+            items = ((Leaf) current).items;
+            position = 0;
+        }
+    }
+}
@@ -48,7 +48,11 @@ import java.util.Map;
  * <p>
  * Implementation note: This class is intended to work in a concurrent
  * environment. Instances are immutable. The represented state can be updated by
- * creating new instances which are then stored by the owning node model.
+ * creating new instances which are then stored by the owning node model. The
+ * only exception are instances created during the execution of a batch: they
+ * are private to the batch and are updated in place by the following
+ * transactions of this batch. Before the result of the batch is published,
+ * they are turned into regular instances again.
  * </p>
  *
  * @version $Id$
@@ -61,6 +65,9 @@ class ReferenceTracker
     /** A list with the removed references. */
     private final List<Object> removedReferences;
 
+    /** A flag whether this instance is private to a batch. */
+    private final boolean batchCopy;
+
     /**
      * Creates a new instance of {@code ReferenceTracker} and sets the data to
      * be managed. This constructor is used internally when references are
@@ -71,9 +78,24 @@ class ReferenceTracker
      */
     private ReferenceTracker(Map<ImmutableNode, Object> refs,
             List<Object> removedRefs)
+    {
+        this(refs, removedRefs, false);
+    }
+
+    /**
+     * Creates a new instance of {@code ReferenceTracker}, sets the data to be
+     * managed, and specifies whether the instance is private to a batch.
+     *
+     * @param refs the references
+     * @param removedRefs the removed references
+     * @param batch the flag whether this instance is private to a batch
+     */
+    private ReferenceTracker(Map<ImmutableNode, Object> refs,
+            List<Object> removedRefs, boolean batch)
     {
         references = refs;
         removedReferences = removedRefs;
+        batchCopy = batch;
     }
 
     /**
@@ -167,6 +189,65 @@ class ReferenceTracker
         return this;
     }
 
+    /**
+     * Updates the references managed by this object at the end of a
+     * transaction which is part of a batch. This method works like
+     * {@link #updateReferences(Map, Collection)}, but the data of an instance
+     * created by a previous transaction of the batch is updated in place. So
+     * the references have to be copied only once per batch rather than once
+     * per transaction.
+     *
+     * @param replacedNodes the map with nodes that have been replaced
+     * @param removedNodes the list with nodes that have been removed
+     * @return the updated instance
+     */
+    ReferenceTracker updateReferencesInBatch(
+            Map<ImmutableNode, ImmutableNode> replacedNodes,
+            Collection<ImmutableNode> removedNodes)
+    {
+        if (references.isEmpty())
+        {
+            return this;
+        }
+
+        ReferenceTracker tracker =
+                batchCopy ? this : new ReferenceTracker(
+                        new HashMap<>(references), new LinkedList<>(
+                                removedReferences), true);
+        for (Map.Entry<ImmutableNode, ImmutableNode> e : replacedNodes
+                .entrySet())
+        {
+            Object ref = tracker.references.remove(e.getKey());
+            if (ref != null)
+            {
+                tracker.references.put(e.getValue(), ref);
+            }
+        }
+        for (ImmutableNode node : removedNodes)
+        {
+            Object ref = tracker.references.remove(node);
+            if (ref != null)
+            {
+                tracker.removedReferences.add(ref);
+            }
+        }
+        return tracker;
+    }
+
+    /**
+     * Returns an instance which can be published after the execution of a
+     * batch. If this instance has been created for a batch, a regular instance
+     * sharing its data is returned; it must no longer be updated in place.
+     * Otherwise, result is this instance.
+     *
+     * @return the instance to be published
+     */
+    ReferenceTracker completeBatch()
+    {
+        return batchCopy ? new ReferenceTracker(references, removedReferences)
+                : this;
+    }
+
     /**
      * Returns the reference object associated with the given node.
      *
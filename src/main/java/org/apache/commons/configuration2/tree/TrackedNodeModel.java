@@ -211,6 +211,24 @@ public class TrackedNodeModel implements NodeModel<ImmutableNode>
         getParentModel().clearProperty(key, getSelector(), resolver);
     }
 
+    /**
+     * Executes all operations contained in the given batch in a single step.
+     * This implementation delegates to the parent model passing in the
+     * selector of the tracked node.
+     *
+     * @param batch the batch to be executed (must not be <b>null</b>)
+     * @param resolver the {@code NodeKeyResolver}
+     * @throws IllegalArgumentException if the batch is <b>null</b>
+     * @see InMemoryNodeModel#executeBatch(ModelBatch, NodeSelector,
+     *      NodeKeyResolver)
+     * @since 2.3
+     */
+    public void executeBatch(ModelBatch batch,
+            NodeKeyResolver<ImmutableNode> resolver)
+    {
+        getParentModel().executeBatch(batch, getSelector(), resolver);
+    }
+
     /**
      * {@inheritDoc} This implementation clears the sub tree spanned by the
      * associate tracked node. This has the side effect that this in any case
@@ -34,8 +34,20 @@ class TreeData extends AbstractImmutableNodeHandler implements ReferenceNodeHand
     /** The root node of the tree. */
     private final ImmutableNode root;
 
-    /** A map that associates the parent node to each node. */
-    private final Map<ImmutableNode, ImmutableNode> parentMapping;
+    /**
+     * A map that associates the parent node to each node. This map is
+     * created on demand.
+     */
+    private volatile PersistentHashMap<ImmutableNode, ImmutableNode>
+            parentMapping;
+
+    /**
+     * A builder for the parent mapping which can be used to update the
+     * mapping in place. This is only set for instances created by a
+     * transaction of a batch.
+     */
+    private final PersistentHashMap.Builder<ImmutableNode, ImmutableNode>
+            parentMappingBuilder;
 
     /**
      * Stores information about nodes which have been replaced by
@@ -58,18 +70,43 @@ class TreeData extends AbstractImmutableNodeHandler implements ReferenceNodeHand
      * data to be stored.
      *
      * @param root the root node of the current tree
-     * @param parentMapping the mapping to parent nodes
+     * @param parentMapping the mapping to parent nodes; can be <b>null</b>,
+     *        then the mapping is created when it is accessed for the first
+     *        time (in this case, the map with replacements must be empty)
      * @param replacements the map with the nodes that have been replaced
      * @param tracker the {@code NodeTracker}
      * @param refTracker the {@code ReferenceTracker}
      */
     public TreeData(ImmutableNode root,
-            Map<ImmutableNode, ImmutableNode> parentMapping,
+            PersistentHashMap<ImmutableNode, ImmutableNode> parentMapping,
+            Map<ImmutableNode, ImmutableNode> replacements,
+            NodeTracker tracker, ReferenceTracker refTracker)
+    {
+        this(root, parentMapping, null, replacements, tracker, refTracker);
+    }
+
+    /**
+     * Creates a new instance of {@code TreeData} with a builder for updating
+     * the parent mapping in place. This constructor is used by the
+     * transactions of a batch. The parent mapping must have been obtained
+     * from the builder.
+     *
+     * @param root the root node of the current tree
+     * @param parentMapping the mapping to parent nodes
+     * @param mappingBuilder the builder for the parent mapping
+     * @param replacements the map with the nodes that have been replaced
+     * @param tracker the {@code NodeTracker}
+     * @param refTracker the {@code ReferenceTracker}
+     */
+    TreeData(ImmutableNode root,
+            PersistentHashMap<ImmutableNode, ImmutableNode> parentMapping,
+            PersistentHashMap.Builder<ImmutableNode, ImmutableNode> mappingBuilder,
             Map<ImmutableNode, ImmutableNode> replacements,
             NodeTracker tracker, ReferenceTracker refTracker)
     {
         this.root = root;
         this.parentMapping = parentMapping;
+        parentMappingBuilder = mappingBuilder;
         replacementMapping = replacements;
         inverseReplacementMapping = createInverseMapping(replacements);
         nodeTracker = tracker;
@@ -120,7 +157,7 @@ class TreeData extends AbstractImmutableNodeHandler implements ReferenceNodeHand
         }
         ImmutableNode org = handleReplacements(node, inverseReplacementMapping);
 
-        ImmutableNode parent = parentMapping.get(org);
+        ImmutableNode parent = getParentMapping().get(org);
         if (parent == null)
         {
             throw new IllegalArgumentException("Cannot determine parent! "
@@ -130,13 +167,54 @@ class TreeData extends AbstractImmutableNodeHandler implements ReferenceNodeHand
     }
 
     /**
-     * Returns a copy of the mapping from nodes to their parents.
+     * Returns the mapping from nodes to their parents. As the mapping is
+     * immutable, it can be returned directly. If it has not yet been created,
+     * this is done now by traversing the whole node structure.
      *
-     * @return the copy of the parent mapping
+     * @return the parent mapping
      */
-    public Map<ImmutableNode, ImmutableNode> copyParentMapping()
+    public PersistentHashMap<ImmutableNode, ImmutableNode> getParentMapping()
     {
-        return new HashMap<>(parentMapping);
+        PersistentHashMap<ImmutableNode, ImmutableNode> mapping = parentMapping;
+        if (mapping == null)
+        {
+            PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                    PersistentHashMap.<ImmutableNode, ImmutableNode> empty()
+                            .builder();
+            InMemoryNodeModel.updateParentMapping(builder, root);
+            mapping = builder.build();
+            parentMapping = mapping;
+        }
+        return mapping;
+    }
+
+    /**
+     * Returns a flag whether the mapping from nodes to their parents has
+     * already been created. If this is not the case, updates of the node
+     * structure do not need to maintain the mapping.
+     *
+     * @return a flag whether the parent mapping is available
+     * @since 2.3
+     */
+    public boolean isParentMappingCreated()
+    {
+        return parentMapping != null;
+    }
+
+    /**
+     * Returns a builder which updates the parent mapping of this object in
+     * place. Like {@link #getReplacementMappingForUpdate()}, this method is
+     * used by transactions of a batch operating on a {@code TreeData} object
+     * created by the previous transaction of the batch. Result is <b>null</b>
+     * if this object has not been created by such a transaction.
+     *
+     * @return the builder for updating the parent mapping or <b>null</b>
+     * @since 2.3
+     */
+    PersistentHashMap.Builder<ImmutableNode, ImmutableNode>
+            getParentMappingForUpdate()
+    {
+        return parentMappingBuilder;
     }
 
     /**
@@ -149,6 +227,21 @@ class TreeData extends AbstractImmutableNodeHandler implements ReferenceNodeHand
         return new HashMap<>(replacementMapping);
     }
 
+    /**
+     * Returns the map storing the replaced nodes without creating a copy.
+     * This method is used by transactions of a batch which operate on a
+     * {@code TreeData} object created by the previous transaction of this
+     * batch. As this object is not visible to any other party, the mapping
+     * can be updated directly.
+     *
+     * @return the replacement mapping
+     * @since 2.3
+     */
+    Map<ImmutableNode, ImmutableNode> getReplacementMappingForUpdate()
+    {
+        return replacementMapping;
+    }
+
     /**
      * Creates a new instance which uses the specified {@code NodeTracker}.
      * This method is called when there are updates of the state of tracked
@@ -18,19 +18,24 @@ package org.apache.commons.configuration2;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.configuration2.convert.ConversionHandler;
 import org.apache.commons.configuration2.convert.DefaultConversionHandler;
@@ -39,6 +44,7 @@ import org.apache.commons.configuration2.convert.DisabledListDelimiterHandler;
 import org.apache.commons.configuration2.event.ConfigurationEvent;
 import org.apache.commons.configuration2.event.EventListener;
 import org.apache.commons.configuration2.event.EventType;
+import org.apache.commons.configuration2.ex.ConversionException;
 import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
 import org.apache.commons.configuration2.interpol.Lookup;
 import org.easymock.EasyMock;
@@ -661,6 +667,186 @@ public class TestAbstractConfigurationBasicFeatures
                 config.getString(KEY_PREFIX));
     }
 
+    /**
+     * Creates a test configuration with a lookup which counts its
+     * invocations.
+     *
+     * @param counter the counter for lookup invocations
+     * @return the test configuration
+     */
+    private static PropertiesConfiguration setUpCountingLookupConfig(
+            final AtomicInteger counter)
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.getInterpolator().registerLookup("count", new Lookup()
+        {
+            @Override
+            public Object lookup(String variable)
+            {
+                counter.incrementAndGet();
+                return variable;
+            }
+        });
+        config.addProperty(KEY_PREFIX, "Value of ${count:test}");
+        return config;
+    }
+
+    /**
+     * Tests that interpolated values are not cached per default.
+     */
+    @Test
+    public void testCacheInterpolatedValuesDefault()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        PropertiesConfiguration config = setUpCountingLookupConfig(counter);
+        assertFalse("Caching enabled", config.isCacheInterpolatedValues());
+        config.getString(KEY_PREFIX);
+        config.getString(KEY_PREFIX);
+        assertEquals("Wrong number of lookups", 2, counter.get());
+        assertEquals("Wrong volatile prefixes",
+                AbstractConfiguration.DEFAULT_VOLATILE_INTERPOLATION_PREFIXES,
+                config.getVolatileInterpolationPrefixes());
+    }
+
+    /**
+     * Tests that interpolated values are cached if this is enabled.
+     */
+    @Test
+    public void testCacheInterpolatedValues()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        PropertiesConfiguration config = setUpCountingLookupConfig(counter);
+        config.setCacheInterpolatedValues(true);
+        assertTrue("Caching not enabled", config.isCacheInterpolatedValues());
+        assertEquals("Wrong value (1)", "Value of test",
+                config.getString(KEY_PREFIX));
+        assertEquals("Wrong value (2)", "Value of test",
+                config.getString(KEY_PREFIX));
+        assertEquals("Wrong number of lookups", 1, counter.get());
+    }
+
+    /**
+     * Tests that the cache for interpolated values is cleared when the
+     * configuration is changed.
+     */
+    @Test
+    public void testCacheInterpolatedValuesChangeConfiguration()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setCacheInterpolatedValues(true);
+        config.addProperty("animal", "quick brown fox");
+        config.addProperty(KEY_PREFIX, SUBST_TXT);
+        assertEquals("Wrong interpolation (1)",
+                "The quick brown fox jumps over the ${target}.",
+                config.getString(KEY_PREFIX));
+        config.addProperty("target", "lazy dog");
+        assertEquals("Wrong interpolation (2)",
+                "The quick brown fox jumps over the lazy dog.",
+                config.getString(KEY_PREFIX));
+        config.setProperty("animal", "cat");
+        assertEquals("Wrong interpolation (3)",
+                "The cat jumps over the lazy dog.",
+                config.getString(KEY_PREFIX));
+        config.clearProperty("target");
+        assertEquals("Wrong interpolation (4)",
+                "The cat jumps over the ${target}.",
+                config.getString(KEY_PREFIX));
+    }
+
+    /**
+     * Tests that the cache for interpolated values is cleared when the
+     * interpolator is changed.
+     */
+    @Test
+    public void testCacheInterpolatedValuesChangeInterpolator()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        PropertiesConfiguration config = setUpCountingLookupConfig(counter);
+        config.setCacheInterpolatedValues(true);
+        config.getString(KEY_PREFIX);
+        Map<String, Lookup> lookups = new HashMap<>();
+        lookups.put("count", ConfigurationInterpolator.nullSafeLookup(null));
+        config.setPrefixLookups(lookups);
+        assertEquals("Wrong value", "Value of ${count:test}",
+                config.getString(KEY_PREFIX));
+    }
+
+    /**
+     * Tests that results depending on volatile prefixes are not cached.
+     */
+    @Test
+    public void testCacheInterpolatedValuesVolatilePrefix()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        PropertiesConfiguration config = setUpCountingLookupConfig(counter);
+        config.setCacheInterpolatedValues(true);
+        config.setVolatileInterpolationPrefixes(Collections
+                .singleton("count"));
+        config.getString(KEY_PREFIX);
+        config.getString(KEY_PREFIX);
+        assertEquals("Wrong number of lookups", 2, counter.get());
+    }
+
+    /**
+     * Tests that system properties are not cached per default.
+     */
+    @Test
+    public void testCacheInterpolatedValuesSystemProperties()
+    {
+        final String sysKey = "test.interpolation.cache";
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setCacheInterpolatedValues(true);
+        config.addProperty("nested", "${sys:" + sysKey + "}");
+        config.addProperty(KEY_PREFIX, "Value: ${nested}");
+        try
+        {
+            System.setProperty(sysKey, "1");
+            assertEquals("Wrong value (1)", "Value: 1",
+                    config.getString(KEY_PREFIX));
+            System.setProperty(sysKey, "2");
+            assertEquals("Wrong value (2)", "Value: 2",
+                    config.getString(KEY_PREFIX));
+        }
+        finally
+        {
+            System.clearProperty(sysKey);
+        }
+    }
+
+    /**
+     * Tests whether the default volatile prefixes can be restored.
+     */
+    @Test
+    public void testSetVolatileInterpolationPrefixesNull()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setVolatileInterpolationPrefixes(Arrays.asList("a", "b"));
+        config.setVolatileInterpolationPrefixes(null);
+        assertEquals("Wrong volatile prefixes",
+                AbstractConfiguration.DEFAULT_VOLATILE_INTERPOLATION_PREFIXES,
+                config.getVolatileInterpolationPrefixes());
+    }
+
+    /**
+     * Tests that a cloned configuration has its own cache for interpolated
+     * values.
+     */
+    @Test
+    public void testCacheInterpolatedValuesClone()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setCacheInterpolatedValues(true);
+        config.addProperty("animal", "fox");
+        config.addProperty(KEY_PREFIX, "${animal}s");
+        assertEquals("Wrong value", "foxs", config.getString(KEY_PREFIX));
+        PropertiesConfiguration copy = (PropertiesConfiguration) config.clone();
+        assertTrue("Caching not enabled", copy.isCacheInterpolatedValues());
+        copy.setProperty("animal", "dog");
+        assertEquals("Wrong value in copy", "dogs", copy.getString(KEY_PREFIX));
+        assertEquals("Wrong value in original", "foxs",
+                config.getString(KEY_PREFIX));
+    }
+
     /**
      * Tests interpolate() if the configuration does not have a
      * {@code ConfigurationInterpolator}.
@@ -677,6 +863,205 @@ public class TestAbstractConfigurationBasicFeatures
                 config.getString(KEY_PREFIX));
     }
 
+    /**
+     * Tests that caching of converted values is disabled per default.
+     */
+    @Test
+    public void testCacheConvertedValuesDefault()
+    {
+        assertFalse("Caching enabled",
+                new PropertiesConfiguration().isCacheConvertedValues());
+    }
+
+    /**
+     * Creates a configuration for tests of the conversion cache. Caching is
+     * enabled, and a counting conversion handler is installed.
+     *
+     * @param handler the conversion handler
+     * @return the test configuration
+     */
+    private static PropertiesConfiguration setUpConversionCacheConfig(
+            CountingConversionHandler handler)
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setConversionHandler(handler);
+        config.setCacheConvertedValues(true);
+        config.addProperty(KEY_PREFIX, "8080");
+        return config;
+    }
+
+    /**
+     * Tests whether converted values are cached.
+     */
+    @Test
+    public void testCacheConvertedValues()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        assertTrue("Caching not enabled", config.isCacheConvertedValues());
+        assertEquals("Wrong value (1)", 8080, config.getInt(KEY_PREFIX));
+        assertEquals("Wrong value (2)", 8080, config.getInt(KEY_PREFIX));
+        assertEquals("Wrong value (3)", Integer.valueOf(8080),
+                config.getInteger(KEY_PREFIX, null));
+        assertEquals("Wrong number of conversions", 1, handler.getCount());
+    }
+
+    /**
+     * Tests that converted values are cached per target class.
+     */
+    @Test
+    public void testCacheConvertedValuesDifferentClasses()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        assertEquals("Wrong int", 8080, config.getInt(KEY_PREFIX));
+        assertEquals("Wrong long", 8080L, config.getLong(KEY_PREFIX));
+        assertEquals("Wrong int (2)", 8080, config.getInt(KEY_PREFIX));
+        assertEquals("Wrong long (2)", 8080L, config.getLong(KEY_PREFIX));
+        assertEquals("Wrong number of conversions", 2, handler.getCount());
+    }
+
+    /**
+     * Tests that the getters for primitive types with a default value use the
+     * cache for converted values.
+     */
+    @Test
+    public void testCacheConvertedValuesPrimitiveWithDefaultValue()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        assertEquals("Wrong int (1)", 8080, config.getInt(KEY_PREFIX, 0));
+        assertEquals("Wrong int (2)", 8080, config.getInt(KEY_PREFIX, 0));
+        assertEquals("Wrong long (1)", 8080L, config.getLong(KEY_PREFIX, 0L));
+        assertEquals("Wrong long (2)", 8080L, config.getLong(KEY_PREFIX, 0L));
+        assertEquals("Wrong double", 8080.0,
+                config.getDouble(KEY_PREFIX, 0.0), .001);
+        assertEquals("Wrong double (2)", 8080.0,
+                config.getDouble(KEY_PREFIX, 0.0), .001);
+        assertEquals("Wrong number of conversions", 3, handler.getCount());
+        assertEquals("Wrong default value", 42,
+                config.getInt("unknownKey", 42));
+    }
+
+    /**
+     * Tests that the cache for converted values is cleared when the
+     * configuration is changed.
+     */
+    @Test
+    public void testCacheConvertedValuesChangeConfiguration()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        config.getInt(KEY_PREFIX);
+        config.setProperty(KEY_PREFIX, "8081");
+        assertEquals("Wrong value", 8081, config.getInt(KEY_PREFIX));
+        config.setProperty(KEY_PREFIX, "8080");
+        assertEquals("Wrong value (2)", 8080, config.getInt(KEY_PREFIX));
+        assertEquals("Wrong number of conversions", 3, handler.getCount());
+    }
+
+    /**
+     * Tests that a cached value is not used if the raw value of the property
+     * has been changed without an event.
+     */
+    @Test
+    public void testCacheConvertedValuesChangeWithoutEvent()
+    {
+        PropertiesConfiguration wrapped = new PropertiesConfiguration();
+        TestConfigurationImpl config = new TestConfigurationImpl(wrapped);
+        config.setCacheConvertedValues(true);
+        wrapped.addProperty(KEY_PREFIX, "1");
+        assertEquals("Wrong value (1)", 1, config.getInt(KEY_PREFIX));
+        wrapped.setProperty(KEY_PREFIX, "2");
+        assertEquals("Wrong value (2)", 2, config.getInt(KEY_PREFIX));
+    }
+
+    /**
+     * Tests that values containing variables are not cached.
+     */
+    @Test
+    public void testCacheConvertedValuesWithVariables()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setCacheConvertedValues(true);
+        config.addProperty(KEY_PREFIX, "${sys:" + KEY_PREFIX + "}");
+        System.setProperty(KEY_PREFIX, "1");
+        try
+        {
+            assertEquals("Wrong value (1)", 1, config.getInt(KEY_PREFIX));
+            System.setProperty(KEY_PREFIX, "2");
+            assertEquals("Wrong value (2)", 2, config.getInt(KEY_PREFIX));
+        }
+        finally
+        {
+            System.clearProperty(KEY_PREFIX);
+        }
+    }
+
+    /**
+     * Tests that values of mutable target classes are not cached.
+     */
+    @Test
+    public void testCacheConvertedValuesMutableClass()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        config.setProperty(KEY_PREFIX, "2017-01-01 12:00:00");
+        Date d1 = config.get(Date.class, KEY_PREFIX);
+        Date d2 = config.get(Date.class, KEY_PREFIX);
+        assertNotSame("Same instance", d1, d2);
+        assertEquals("Wrong number of conversions", 2, handler.getCount());
+    }
+
+    /**
+     * Tests that the cache for converted values is cleared when the
+     * conversion handler is changed.
+     */
+    @Test
+    public void testCacheConvertedValuesChangeConversionHandler()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        config.getInt(KEY_PREFIX);
+        CountingConversionHandler handler2 = new CountingConversionHandler();
+        config.setConversionHandler(handler2);
+        config.getInt(KEY_PREFIX);
+        assertEquals("Cache not cleared", 1, handler2.getCount());
+    }
+
+    /**
+     * Tests that a cloned configuration has its own cache for converted
+     * values.
+     */
+    @Test
+    public void testCacheConvertedValuesClone()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setCacheConvertedValues(true);
+        config.addProperty(KEY_PREFIX, "true");
+        assertTrue("Wrong value", config.getBoolean(KEY_PREFIX));
+        PropertiesConfiguration copy = (PropertiesConfiguration) config.clone();
+        assertTrue("Caching not enabled", copy.isCacheConvertedValues());
+        copy.setProperty(KEY_PREFIX, "false");
+        assertFalse("Wrong value in copy", copy.getBoolean(KEY_PREFIX));
+        assertTrue("Wrong value in original", config.getBoolean(KEY_PREFIX));
+    }
+
+    /**
+     * Tests that caching of converted values can be disabled again.
+     */
+    @Test
+    public void testCacheConvertedValuesDisable()
+    {
+        CountingConversionHandler handler = new CountingConversionHandler();
+        PropertiesConfiguration config = setUpConversionCacheConfig(handler);
+        config.getInt(KEY_PREFIX);
+        config.setCacheConvertedValues(false);
+        assertFalse("Caching still enabled", config.isCacheConvertedValues());
+        config.getInt(KEY_PREFIX);
+        assertEquals("Wrong number of conversions", 2, handler.getCount());
+    }
+
     /**
      * Tests whether a configuration instance has a default conversion hander.
      */
@@ -745,6 +1130,85 @@ public class TestAbstractConfigurationBasicFeatures
         assertNull("Wrong result", config.get(Integer.class, KEY_PREFIX));
     }
 
+    /**
+     * Tests that the getter methods for primitive types with a default value
+     * make use of a PrimitiveConversionHandler.
+     */
+    @Test
+    public void testGetPrimitiveWithDefaultValue()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setConversionHandler(new DefaultConversionHandler()
+        {
+            @Override
+            public int toInt(Object src, int defaultValue,
+                    ConfigurationInterpolator ci)
+            {
+                return defaultValue + 1;
+            }
+        });
+        config.addProperty(KEY_PREFIX, "1");
+        assertEquals("Handler not called", 11, config.getInt(KEY_PREFIX, 10));
+    }
+
+    /**
+     * Tests the getter methods for primitive types with a default value.
+     */
+    @Test
+    public void testGetPrimitiveWithDefaultValueConversions()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.addProperty("int", "${long}");
+        config.addProperty("long", "12345");
+        config.addProperty("double", "2.5");
+        config.addProperty("boolean", "on");
+        assertEquals("Wrong int", 12345, config.getInt("int", 0));
+        assertEquals("Wrong long", 12345L, config.getLong("long", 0L));
+        assertEquals("Wrong double", 2.5, config.getDouble("double", 0.0),
+                .0001);
+        assertTrue("Wrong boolean", config.getBoolean("boolean", false));
+        assertEquals("Wrong default", 42, config.getInt(KEY_PREFIX, 42));
+    }
+
+    /**
+     * Tests the exception thrown by a getter method for a primitive type if
+     * the value cannot be converted.
+     */
+    @Test
+    public void testGetPrimitiveWithDefaultValueConversionError()
+    {
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.addProperty(KEY_PREFIX, "invalid");
+        try
+        {
+            config.getInt(KEY_PREFIX, 0);
+            fail("Invalid value not detected!");
+        }
+        catch (ConversionException cex)
+        {
+            assertTrue("Key not in message: " + cex.getMessage(), cex
+                    .getMessage().contains(KEY_PREFIX));
+        }
+    }
+
+    /**
+     * Tests the getter methods for primitive types with a default value if the
+     * conversion handler does not support primitive conversions.
+     */
+    @Test
+    public void testGetPrimitiveWithDefaultValueNoPrimitiveHandler()
+    {
+        ConversionHandler handler = EasyMock.createMock(ConversionHandler.class);
+        EasyMock.expect(handler.to("1", Integer.class, null)).andReturn(1);
+        EasyMock.replay(handler);
+        PropertiesConfiguration config = new PropertiesConfiguration();
+        config.setInterpolator(null);
+        config.setConversionHandler(handler);
+        config.addProperty(KEY_PREFIX, "1");
+        assertEquals("Wrong result", 1, config.getInt(KEY_PREFIX, 0));
+        EasyMock.verify(handler);
+    }
+
     /**
      * Tests get() for an unknown property if a default value is provided.
      */
@@ -1160,6 +1624,34 @@ public class TestAbstractConfigurationBasicFeatures
         }
     }
 
+    /**
+     * A conversion handler which counts the conversions to single values.
+     */
+    private static class CountingConversionHandler extends
+            DefaultConversionHandler
+    {
+        /** The number of conversions. */
+        private int count;
+
+        /**
+         * Returns the number of conversions.
+         *
+         * @return the counter
+         */
+        public int getCount()
+        {
+            return count;
+        }
+
+        @Override
+        public <T> T to(Object src, Class<T> targetCls,
+                ConfigurationInterpolator ci)
+        {
+            count++;
+            return super.to(src, targetCls, ci);
+        }
+    }
+
     /**
      * A test configuration implementation. This implementation inherits
      * directly from AbstractConfiguration. For implementing the required
@@ -26,6 +26,7 @@ import static org.junit.Assert.assertTrue;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -777,4 +778,178 @@ public class TestBaseConfiguration
         }
         assertEquals("Wrong size", count, config.size());
     }
+
+    /**
+     * Tests that copy-on-write mode is disabled per default.
+     */
+    @Test
+    public void testCopyOnWriteDefault()
+    {
+        assertFalse("Copy-on-write enabled", config.isCopyOnWrite());
+    }
+
+    /**
+     * Tests basic manipulations of a configuration in copy-on-write mode.
+     */
+    @Test
+    public void testCopyOnWriteUpdates()
+    {
+        config.setCopyOnWrite(true);
+        assertTrue("Copy-on-write not enabled", config.isCopyOnWrite());
+        config.addProperty("key1", "value1");
+        config.addProperty("key2", "a,b");
+        config.addProperty("key2", "c");
+        config.addProperty("key3", "value3");
+        config.clearProperty("key1");
+        assertFalse("Key not removed", config.containsKey("key1"));
+        ListAssert.assertEquals("Wrong list", Arrays.asList("a", "b", "c"),
+                config.getList("key2"));
+        Iterator<String> it = config.getKeys();
+        assertEquals("Wrong key (1)", "key2", it.next());
+        assertEquals("Wrong key (2)", "key3", it.next());
+        assertFalse("Too many keys", it.hasNext());
+        assertEquals("Wrong size", 2, config.size());
+        config.clear();
+        assertTrue("Not empty", config.isEmpty());
+    }
+
+    /**
+     * Tests that a list value obtained from a configuration in copy-on-write
+     * mode is not changed by later updates.
+     */
+    @Test
+    public void testCopyOnWriteListNotModified()
+    {
+        config.setCopyOnWrite(true);
+        config.addProperty("list", "a,b");
+        List<?> list = (List<?>) config.getProperty("list");
+        config.addProperty("list", "c");
+        assertEquals("List was modified", 2, list.size());
+        assertEquals("Wrong number of new values", 3,
+                config.getList("list").size());
+    }
+
+    /**
+     * Tests that an iterator over the keys of a configuration in
+     * copy-on-write mode is not affected by later updates.
+     */
+    @Test
+    public void testCopyOnWriteKeysIteratorSnapshot()
+    {
+        config.setCopyOnWrite(true);
+        config.addProperty("key1", "value1");
+        config.addProperty("key2", "value2");
+        Iterator<String> it = config.getKeys();
+        assertEquals("Wrong first key", "key1", it.next());
+        config.clearProperty("key2");
+        config.addProperty("key3", "value3");
+        assertEquals("Wrong second key", "key2", it.next());
+        assertFalse("Too many keys", it.hasNext());
+    }
+
+    /**
+     * Tests that the keys iterator of a configuration in copy-on-write mode
+     * does not support remove operations.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCopyOnWriteKeysIteratorRemove()
+    {
+        config.setCopyOnWrite(true);
+        config.addProperty("key", "value");
+        Iterator<String> it = config.getKeys();
+        it.next();
+        it.remove();
+    }
+
+    /**
+     * Tests that read operations do not use the synchronizer in copy-on-write
+     * mode while updates do.
+     */
+    @Test
+    public void testCopyOnWriteSynchronization()
+    {
+        config.addProperty("key", "value");
+        SynchronizerTestImpl sync = new SynchronizerTestImpl();
+        config.setSynchronizer(sync);
+        config.setCopyOnWrite(true);
+        assertEquals("Wrong value", "value", config.getString("key"));
+        assertTrue("Key not found", config.containsKey("key"));
+        assertTrue("No keys", config.getKeys().hasNext());
+        sync.verify();
+        config.addProperty("key2", "other");
+        sync.verify(SynchronizerTestImpl.Methods.BEGIN_WRITE,
+                SynchronizerTestImpl.Methods.END_WRITE);
+    }
+
+    /**
+     * Tests that a clone of a configuration in copy-on-write mode is
+     * independent from the original.
+     */
+    @Test
+    public void testCopyOnWriteClone()
+    {
+        config.setCopyOnWrite(true);
+        config.addProperty("list", "a,b");
+        BaseConfiguration copy = (BaseConfiguration) config.clone();
+        assertTrue("Copy-on-write not enabled", copy.isCopyOnWrite());
+        copy.addProperty("list", "c");
+        assertEquals("Original modified", 2, config.getList("list").size());
+        assertEquals("Copy not modified", 3, copy.getList("list").size());
+    }
+
+    /**
+     * Tests setProperty() in copy-on-write mode.
+     */
+    @Test
+    public void testCopyOnWriteSetProperty()
+    {
+        config.setCopyOnWrite(true);
+        config.addProperty("key1", "a,b");
+        config.addProperty("key2", "value2");
+        List<?> list = (List<?>) config.getProperty("key1");
+        config.setProperty("key1", "c,d,e");
+        ListAssert.assertEquals("Wrong new list", Arrays.asList("c", "d", "e"),
+                config.getList("key1"));
+        ListAssert.assertEquals("Old list modified", Arrays.asList("a", "b"),
+                list);
+        config.setProperty("key2", "new");
+        assertEquals("Wrong single value", "new", config.getProperty("key2"));
+        config.setProperty("key2", null);
+        assertFalse("Key not removed", config.containsKey("key2"));
+    }
+
+    /**
+     * Tests that a property overwritten by setProperty() in copy-on-write
+     * mode never appears to be missing for a concurrent reader.
+     */
+    @Test
+    public void testCopyOnWriteSetPropertyConcurrentRead() throws Exception
+    {
+        config.setCopyOnWrite(true);
+        config.addProperty("key", "0");
+        final int updates = 1000;
+        Thread writer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                for (int i = 1; i <= updates; i++)
+                {
+                    config.setProperty("key", String.valueOf(i));
+                }
+            }
+        };
+        writer.start();
+        int missing = 0;
+        while (writer.isAlive())
+        {
+            if (!config.containsKey("key"))
+            {
+                missing++;
+            }
+        }
+        writer.join();
+        assertEquals("Key was missing", 0, missing);
+        assertEquals("Wrong final value", updates, config.getInt("key"));
+    }
 }
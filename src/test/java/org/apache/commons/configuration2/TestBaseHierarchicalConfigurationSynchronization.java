@@ -35,6 +35,7 @@ import org.apache.commons.configuration2.builder.FileBasedConfigurationBuilder;
 import org.apache.commons.configuration2.builder.fluent.Parameters;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.io.FileHandler;
+import org.apache.commons.configuration2.sync.ReadWriteSynchronizer;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.commons.configuration2.tree.InMemoryNodeModel;
 import org.apache.commons.configuration2.tree.NodeStructureHelper;
@@ -300,6 +301,139 @@ public class TestBaseHierarchicalConfigurationSynchronization
         }
     }
 
+    /**
+     * Tests that read operations do not call the Synchronizer if lock-free
+     * reads are enabled.
+     */
+    @Test
+    public void testLockFreeReadsNotSynchronized()
+    {
+        config.setLockFreeReads(true);
+        assertEquals("Wrong value", "I'm complex!",
+                config.getString("element2.subelement.subsubelement"));
+        assertTrue("Key not found", config.containsKey("list.item"));
+        assertTrue("Wrong max index", config.getMaxIndex("list.item") > 0);
+        assertTrue("No keys", config.getKeys().hasNext());
+        assertFalse("Empty", config.isEmpty());
+        sync.verify();
+    }
+
+    /**
+     * Tests that write operations are still synchronized if lock-free reads
+     * are enabled.
+     */
+    @Test
+    public void testLockFreeReadsWritesSynchronized()
+    {
+        config.setLockFreeReads(true);
+        config.setProperty("element2.subelement.subsubelement", "changed");
+        sync.verify(Methods.BEGIN_WRITE, Methods.END_WRITE);
+        assertEquals("Change not visible", "changed",
+                config.getString("element2.subelement.subsubelement"));
+    }
+
+    /**
+     * Tests concurrent lock-free reads while the configuration is updated.
+     */
+    @Test
+    public void testLockFreeReadsConcurrentUpdates()
+            throws InterruptedException
+    {
+        final int writeCount = 500;
+        config.setSynchronizer(new ReadWriteSynchronizer());
+        config.setLockFreeReads(true);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Collection<LockFreeReadThread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+        {
+            LockFreeReadThread t = new LockFreeReadThread(config, startLatch);
+            t.start();
+            threads.add(t);
+        }
+
+        startLatch.countDown();
+        for (int i = 0; i < writeCount; i++)
+        {
+            config.addProperty("concurrent.value", i);
+        }
+        for (LockFreeReadThread t : threads)
+        {
+            t.verify();
+        }
+        assertEquals("Wrong number of values", writeCount - 1,
+                config.getMaxIndex("concurrent.value"));
+    }
+
+    /**
+     * A thread class which reads properties from a configuration with
+     * lock-free reads enabled while another thread updates it.
+     */
+    private static class LockFreeReadThread extends Thread
+    {
+        /** Constant for the number of read operations. */
+        private static final int READ_COUNT = 1000;
+
+        /** The test configuration. */
+        private final BaseHierarchicalConfiguration config;
+
+        /** The latch for synchronizing thread start. */
+        private final CountDownLatch latch;
+
+        /** The number of read operations with an unexpected result. */
+        private int errors;
+
+        /**
+         * Creates a new instance of {@code LockFreeReadThread}.
+         *
+         * @param c the configuration
+         * @param startLatch the start latch
+         */
+        public LockFreeReadThread(BaseHierarchicalConfiguration c,
+                CountDownLatch startLatch)
+        {
+            config = c;
+            latch = startLatch;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                latch.await();
+                for (int i = 0; i < READ_COUNT; i++)
+                {
+                    if (!"I'm complex!".equals(config
+                            .getString("element2.subelement.subsubelement")))
+                    {
+                        errors++;
+                    }
+                    config.getList("concurrent.value");
+                }
+            }
+            catch (InterruptedException iex)
+            {
+                // ignore
+            }
+        }
+
+        /**
+         * Verifies that all read operations returned the expected results.
+         */
+        public void verify()
+        {
+            try
+            {
+                join();
+            }
+            catch (InterruptedException e)
+            {
+                fail("Waiting was interrupted: " + e);
+            }
+            assertEquals("Wrong number of errors", 0, errors);
+        }
+    }
+
     /**
      * A thread class for testing concurrent access to SubNode configurations.
      */
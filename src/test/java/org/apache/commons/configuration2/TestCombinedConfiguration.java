@@ -34,7 +34,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.configuration2.SynchronizerTestImpl.Methods;
 import org.apache.commons.configuration2.convert.DefaultListDelimiterHandler;
@@ -381,6 +388,16 @@ public class TestCombinedConfiguration
         config.setNodeCombiner(null);
     }
 
+    /**
+     * Tests that lock-free reads cannot be enabled for a combined
+     * configuration.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetLockFreeReadsUnsupported()
+    {
+        config.setLockFreeReads(true);
+    }
+
     /**
      * Tests cloning a combined configuration.
      */
@@ -604,6 +621,41 @@ public class TestCombinedConfiguration
                 sources.contains(config.getConfiguration(CHILD2)));
     }
 
+    /**
+     * Tests whether the source of a key is updated after a child
+     * configuration has been changed.
+     */
+    @Test
+    public void testGetSourceAfterChildChange()
+    {
+        setUpSourceTest();
+        final String key = "moved.key";
+        config.getConfiguration(CHILD1).addProperty(key, Boolean.TRUE);
+        assertEquals("Wrong source (1)", config.getConfiguration(CHILD1),
+                config.getSource(key));
+        config.getConfiguration(CHILD1).clearProperty(key);
+        config.getConfiguration(CHILD2).addProperty(key, Boolean.TRUE);
+        assertEquals("Wrong source (2)", config.getConfiguration(CHILD2),
+                config.getSource(key));
+    }
+
+    /**
+     * Tests getSources() for a node which belongs to multiple child
+     * configurations because the same configuration has been added twice.
+     */
+    @Test
+    public void testGetSourcesSameConfigurationTwice()
+    {
+        BaseHierarchicalConfiguration child =
+                new BaseHierarchicalConfiguration();
+        child.addProperty("shared.key", "value");
+        config.addConfiguration(child, "first");
+        config.addConfiguration(child, "second", "sub");
+        assertEquals("Wrong source (1)", child, config.getSource("shared.key"));
+        assertEquals("Wrong source (2)", child,
+                config.getSource("sub.shared.key"));
+    }
+
     /**
      * Tests getSources() for a non existing key.
      */
@@ -1100,6 +1152,438 @@ public class TestCombinedConfiguration
         checkConfigurationsAt(true);
     }
 
+    /**
+     * Creates a combined configuration with a counting node combiner and the
+     * given number of flat child configurations. Each child defines the
+     * property "child" with its index and a property "key&lt;index&gt;".
+     *
+     * @param combiner the node combiner
+     * @param count the number of children
+     */
+    private void setUpIncrementalTest(CountingCombiner combiner, int count)
+    {
+        config.setNodeCombiner(combiner);
+        for (int i = 0; i < count; i++)
+        {
+            BaseConfiguration child = new BaseConfiguration();
+            child.addProperty("child", i);
+            child.addProperty("key" + i, "value" + i);
+            config.addConfiguration(child);
+        }
+        config.getString("child");
+        combiner.reset();
+    }
+
+    /**
+     * Tests that a change of the last child configuration does not require
+     * combining the other children again.
+     */
+    @Test
+    public void testIncrementalRebuildChangeLastChild()
+    {
+        CountingCombiner combiner = new CountingCombiner();
+        setUpIncrementalTest(combiner, 4);
+        config.getConfiguration(3).addProperty("new", "last");
+        assertEquals("Wrong new value", "last", config.getString("new"));
+        assertEquals("Wrong other value", "value0", config.getString("key0"));
+        assertEquals("Wrong number of combinations", 1, combiner.getCount());
+    }
+
+    /**
+     * Tests that a change of a child configuration causes only the
+     * combinations starting with this child to be repeated.
+     */
+    @Test
+    public void testIncrementalRebuildChangeMiddleChild()
+    {
+        CountingCombiner combiner = new CountingCombiner();
+        setUpIncrementalTest(combiner, 4);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        assertEquals("Wrong changed value", "changed",
+                config.getString("key1"));
+        assertEquals("Wrong other value", "value3", config.getString("key3"));
+        assertEquals("Wrong number of combinations", 3, combiner.getCount());
+    }
+
+    /**
+     * Tests that the node structures of unchanged child configurations are
+     * reused, while an explicit invalidation causes a full re-construction.
+     */
+    @Test
+    public void testIncrementalRebuildReusesUnchangedChildren()
+    {
+        CountingCombiner combiner = new CountingCombiner();
+        setUpIncrementalTest(combiner, 2);
+        BaseConfiguration child0 =
+                (BaseConfiguration) config.getConfiguration(0);
+        child0.removeEventListener(ConfigurationEvent.ANY, config);
+        child0.setProperty("key0", "silent");
+        config.getConfiguration(1).addProperty("other", "value");
+        assertEquals("Silent change detected", "value0",
+                config.getString("key0"));
+        config.invalidate();
+        assertEquals("Change not detected after invalidate", "silent",
+                config.getString("key0"));
+        assertEquals("Wrong number of combinations", 2, combiner.getCount());
+    }
+
+    /**
+     * Tests that adding a child configuration reuses the existing combined
+     * nodes.
+     */
+    @Test
+    public void testIncrementalRebuildAddConfiguration()
+    {
+        CountingCombiner combiner = new CountingCombiner();
+        setUpIncrementalTest(combiner, 3);
+        BaseConfiguration child = new BaseConfiguration();
+        child.addProperty("added", Boolean.TRUE);
+        config.addConfiguration(child);
+        assertTrue("Property not found", config.getBoolean("added"));
+        assertEquals("Wrong number of combinations", 1, combiner.getCount());
+    }
+
+    /**
+     * Tests that removing a child configuration causes the following children
+     * to be combined again.
+     */
+    @Test
+    public void testIncrementalRebuildRemoveConfiguration()
+    {
+        CountingCombiner combiner = new CountingCombiner();
+        setUpIncrementalTest(combiner, 4);
+        config.removeConfigurationAt(1);
+        assertFalse("Property of removed child found",
+                config.containsKey("key1"));
+        assertEquals("Wrong value", "value2", config.getString("key2"));
+        assertEquals("Wrong number of combinations", 2, combiner.getCount());
+    }
+
+    /**
+     * Tests that an event from an unknown source causes a full
+     * re-construction.
+     */
+    @Test
+    public void testIncrementalRebuildUnknownEventSource()
+    {
+        CountingCombiner combiner = new CountingCombiner();
+        setUpIncrementalTest(combiner, 3);
+        config.onEvent(new ConfigurationEvent(this,
+                ConfigurationEvent.ADD_PROPERTY, "test", "value", true));
+        config.getString("child");
+        assertEquals("Wrong number of combinations", 2, combiner.getCount());
+    }
+
+    /**
+     * Tests whether nodes can be combined in parallel.
+     */
+    @Test
+    public void testParallelNodeCombination()
+    {
+        OverrideCombiner combiner = new OverrideCombiner();
+        combiner.setParallelThreshold(1);
+        config.setNodeCombiner(combiner, true);
+        assertTrue("Parallel flag not set", config.isParallelNodeCombination());
+        BaseHierarchicalConfiguration child =
+                new BaseHierarchicalConfiguration();
+        child.addProperty(TEST_KEY, Boolean.FALSE);
+        child.addProperty("test.other", "value");
+        config.addConfiguration(setUpTestConfiguration());
+        config.addConfiguration(child);
+        assertTrue("Wrong overridden property", config.getBoolean(TEST_KEY));
+        assertEquals("Wrong comment", "This is a test",
+                config.getString("test.comment"));
+        assertEquals("Wrong other property", "value",
+                config.getString("test.other"));
+        config.setNodeCombiner(combiner);
+        assertFalse("Parallel flag still set",
+                config.isParallelNodeCombination());
+    }
+
+    /**
+     * Installs a thread-safe synchronizer and the given executor for
+     * background re-constructions.
+     *
+     * @param executor the executor
+     */
+    private void setUpRebuildExecutor(Executor executor)
+    {
+        config.setSynchronizer(new ReadWriteSynchronizer());
+        config.setRebuildExecutor(executor);
+    }
+
+    /**
+     * Tests that readers see the previous node structure while a background
+     * re-construction is pending.
+     */
+    @Test
+    public void testBackgroundRebuildServesPreviousRoot()
+    {
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        assertEquals("Previous value not served", "value1",
+                config.getString("key1"));
+        assertEquals("Wrong number of tasks", 1, executor.size());
+        executor.runAll();
+        assertEquals("New value not published", "changed",
+                config.getString("key1"));
+    }
+
+    /**
+     * Tests that a clone created while a background re-construction is
+     * pending does not take over this state.
+     */
+    @Test
+    public void testCloneWithPendingBackgroundRebuild()
+    {
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        assertEquals("Wrong number of tasks", 1, executor.size());
+
+        CombinedConfiguration copy = (CombinedConfiguration) config.clone();
+        assertEquals("Wrong value in copy", "changed", copy.getString("key1"));
+        copy.getConfiguration(1).setProperty("key1", "changedCopy");
+        executor.runAll();
+        assertEquals("Copy not updated", "changedCopy",
+                copy.getString("key1"));
+        assertEquals("Original changed", "changed", config.getString("key1"));
+    }
+
+    /**
+     * Tests that multiple changes cause only a single background
+     * re-construction.
+     */
+    @Test
+    public void testBackgroundRebuildMultipleChanges()
+    {
+        setUpIncrementalTest(new CountingCombiner(), 3);
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        config.getConfiguration(0).setProperty("key0", "changed0");
+        config.getConfiguration(2).setProperty("key2", "changed2");
+        assertEquals("Wrong number of tasks", 1, executor.size());
+        executor.runAll();
+        assertEquals("Wrong value (1)", "changed0", config.getString("key0"));
+        assertEquals("Wrong value (2)", "changed2", config.getString("key2"));
+        assertEquals("Wrong value (3)", "value1", config.getString("key1"));
+        assertEquals("Got further tasks", 0, executor.size());
+    }
+
+    /**
+     * Tests that the initial node structure is constructed synchronously even
+     * if an executor is set.
+     */
+    @Test
+    public void testBackgroundRebuildInitialConstruction()
+    {
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        config.addConfiguration(setUpTestConfiguration());
+        assertTrue("Property not found", config.getBoolean(TEST_KEY));
+        assertEquals("Got tasks", 0, executor.size());
+    }
+
+    /**
+     * Tests that a background re-construction is repeated if there is a change
+     * while it is running.
+     */
+    @Test
+    public void testBackgroundRebuildConcurrentChange()
+    {
+        final AtomicInteger changes = new AtomicInteger();
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        config.setNodeCombiner(new UnionCombiner()
+        {
+            @Override
+            public ImmutableNode combine(ImmutableNode node1,
+                    ImmutableNode node2)
+            {
+                if (changes.getAndDecrement() == 1)
+                {
+                    config.getConfiguration(1).setProperty("key1",
+                            "concurrent");
+                }
+                return super.combine(node1, node2);
+            }
+        });
+        config.getString("key0");
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        changes.set(1);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        executor.runAll();
+        assertEquals("Concurrent change not detected", "concurrent",
+                config.getString("key1"));
+    }
+
+    /**
+     * Tests that an exception during a background re-construction causes the
+     * next reader to re-construct the node structure synchronously.
+     */
+    @Test
+    public void testBackgroundRebuildFailure()
+    {
+        final AtomicInteger failures = new AtomicInteger();
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        config.setNodeCombiner(new UnionCombiner()
+        {
+            @Override
+            public ImmutableNode combine(ImmutableNode node1,
+                    ImmutableNode node2)
+            {
+                if (failures.getAndDecrement() > 0)
+                {
+                    throw new IllegalStateException("Test exception");
+                }
+                return super.combine(node1, node2);
+            }
+        });
+        config.getString("key0");
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        failures.set(1);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        executor.runAll();
+        assertEquals("Wrong value", "changed", config.getString("key1"));
+        assertEquals("Got further tasks", 0, executor.size());
+    }
+
+    /**
+     * Tests that a rejected background task causes a synchronous
+     * re-construction.
+     */
+    @Test
+    public void testBackgroundRebuildRejected()
+    {
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        setUpRebuildExecutor(new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                throw new RejectedExecutionException("Test exception");
+            }
+        });
+        config.getConfiguration(1).setProperty("key1", "changed");
+        assertEquals("Wrong value", "changed", config.getString("key1"));
+    }
+
+    /**
+     * Tests that background re-constructions can be disabled again.
+     */
+    @Test
+    public void testBackgroundRebuildDisabled()
+    {
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        assertSame("Executor not set", executor, config.getRebuildExecutor());
+        config.setRebuildExecutor(null);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        assertEquals("Wrong value", "changed", config.getString("key1"));
+        assertEquals("Got tasks", 0, executor.size());
+    }
+
+    /**
+     * Tests that an executor cannot be set if the configuration is not
+     * thread-safe.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testSetRebuildExecutorNoOpSynchronizer()
+    {
+        config.setRebuildExecutor(new QueueExecutor());
+    }
+
+    /**
+     * Tests that re-constructions are done synchronously again if the
+     * synchronizer is replaced by one which is not thread-safe.
+     */
+    @Test
+    public void testBackgroundRebuildSynchronizerReset()
+    {
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        QueueExecutor executor = new QueueExecutor();
+        setUpRebuildExecutor(executor);
+        config.setSynchronizer(null);
+        config.getConfiguration(1).setProperty("key1", "changed");
+        assertEquals("Wrong value", "changed", config.getString("key1"));
+        assertEquals("Got tasks", 0, executor.size());
+    }
+
+    /**
+     * Tests that the event listener does not obtain a lock for events fired
+     * after an update if no executor is set.
+     */
+    @Test
+    public void testOnEventAfterUpdateNotSynchronized()
+    {
+        SynchronizerTestImpl sync = setUpSynchronizerTest();
+        config.onEvent(new ConfigurationEvent(this,
+                ConfigurationEvent.ADD_PROPERTY, "test", "value", false));
+        sync.verify();
+    }
+
+    /**
+     * Tests a background re-construction performed by a real thread while
+     * another thread reads the configuration.
+     */
+    @Test
+    public void testBackgroundRebuildWithThread() throws InterruptedException
+    {
+        final int changes = 100;
+        setUpIncrementalTest(new CountingCombiner(), 2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        setUpRebuildExecutor(executor);
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<Throwable> readerError =
+                new AtomicReference<>();
+        Thread reader = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    while (!stop.get())
+                    {
+                        assertEquals("Wrong unchanged value", "value0",
+                                config.getString("key0"));
+                        assertNotNull("No changed value",
+                                config.getString("key1"));
+                    }
+                }
+                catch (Throwable t)
+                {
+                    readerError.set(t);
+                }
+            }
+        };
+        reader.start();
+
+        try
+        {
+            for (int i = 0; i < changes; i++)
+            {
+                config.getConfiguration(1).setProperty("key1", "change" + i);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            assertTrue("Executor not terminated",
+                    executor.awaitTermination(10, TimeUnit.SECONDS));
+            stop.set(true);
+            reader.join();
+        }
+        assertNull("Reader failed: " + readerError.get(), readerError.get());
+        assertEquals("Last change not published", "change" + (changes - 1),
+                config.getString("key1"));
+    }
+
     /**
      * Helper method for creating a test configuration to be added to the
      * combined configuration.
@@ -1114,6 +1598,78 @@ public class TestCombinedConfiguration
         return config;
     }
 
+    /**
+     * A simple executor implementation which collects the tasks passed to it.
+     * They are executed on request.
+     */
+    private static class QueueExecutor implements Executor
+    {
+        /** The list with the pending tasks. */
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command)
+        {
+            tasks.add(command);
+        }
+
+        /**
+         * Returns the number of pending tasks.
+         *
+         * @return the number of tasks
+         */
+        public int size()
+        {
+            return tasks.size();
+        }
+
+        /**
+         * Executes all pending tasks including the ones added during
+         * execution.
+         */
+        public void runAll()
+        {
+            while (!tasks.isEmpty())
+            {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    /**
+     * A node combiner which counts the number of combine operations.
+     */
+    private static class CountingCombiner extends UnionCombiner
+    {
+        /** The counter for combine operations. */
+        private int count;
+
+        /**
+         * Returns the number of combine operations since the last reset.
+         *
+         * @return the counter
+         */
+        public int getCount()
+        {
+            return count;
+        }
+
+        /**
+         * Resets the counter.
+         */
+        public void reset()
+        {
+            count = 0;
+        }
+
+        @Override
+        public ImmutableNode combine(ImmutableNode node1, ImmutableNode node2)
+        {
+            count++;
+            return super.combine(node1, node2);
+        }
+    }
+
     /**
      * Test event listener class for checking if the expected invalidate events
      * are fired.
@@ -28,8 +28,13 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -934,4 +939,300 @@ public class TestCompositeConfiguration
                 cc.getNumberOfConfigurations());
         sync.verify(Methods.BEGIN_READ, Methods.END_READ);
     }
+
+    /**
+     * Creates a composite configuration with two layers and an enabled key
+     * index.
+     *
+     * @param c1 the first layer
+     * @param c2 the second layer
+     * @return the composite configuration
+     */
+    private static CompositeConfiguration createIndexedComposite(
+            Configuration c1, Configuration c2)
+    {
+        CompositeConfiguration config = new CompositeConfiguration();
+        config.addConfiguration(c1);
+        config.addConfiguration(c2);
+        config.setKeyIndexEnabled(true);
+        return config;
+    }
+
+    /**
+     * Tests that the key index is disabled per default.
+     */
+    @Test
+    public void testKeyIndexDisabledByDefault()
+    {
+        assertFalse("Key index enabled", cc.isKeyIndexEnabled());
+    }
+
+    /**
+     * Tests property queries if the key index is enabled.
+     */
+    @Test
+    public void testKeyIndexQueries()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c1.addProperty("key", "v1");
+        c2.addProperty("key", "v2");
+        c2.addProperty("other", "o2");
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        config.addProperty("memory", "m");
+
+        for (int i = 0; i < 2; i++)
+        {
+            assertEquals("Wrong value (1)", "v1", config.getString("key"));
+            assertEquals("Wrong value (2)", "o2", config.getString("other"));
+            assertEquals("Wrong value (3)", "m", config.getString("memory"));
+            assertTrue("Key not found", config.containsKey("other"));
+            assertFalse("Unknown key found", config.containsKey("unknown"));
+            assertNull("Got unknown value", config.getProperty("unknown"));
+        }
+    }
+
+    /**
+     * Tests that the key index is updated when a child configuration is
+     * changed.
+     */
+    @Test
+    public void testKeyIndexChildChanged()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        assertEquals("Wrong initial value", "v2", config.getString("key"));
+        assertFalse("Key found", config.containsKey("new"));
+
+        c1.addProperty("key", "v1");
+        c2.addProperty("new", "n");
+        assertEquals("Wrong value after add", "v1", config.getString("key"));
+        assertTrue("New key not found", config.containsKey("new"));
+        c1.clearProperty("key");
+        assertEquals("Wrong value after clear", "v2",
+                config.getString("key"));
+    }
+
+    /**
+     * Tests that the key index takes changes of the list of child
+     * configurations into account.
+     */
+    @Test
+    public void testKeyIndexChildAddedAndRemoved()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        assertEquals("Wrong initial value", "v2", config.getString("key"));
+
+        BaseConfiguration c3 = new BaseConfiguration();
+        c3.addProperty("key", "v3");
+        config.removeConfiguration(c2);
+        assertFalse("Key still found", config.containsKey("key"));
+        config.addConfiguration(c3);
+        assertEquals("Wrong value", "v3", config.getString("key"));
+        c3.setProperty("key", "v4");
+        assertEquals("Change not detected", "v4", config.getString("key"));
+        c2.setProperty("key", "v5");
+        assertEquals("Change of removed child detected", "v4",
+                config.getString("key"));
+    }
+
+    /**
+     * Tests getList() if the key index is enabled.
+     */
+    @Test
+    public void testKeyIndexGetList()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c1.addProperty("list", "a");
+        c1.addProperty("list", "b");
+        c2.addProperty("list", "c");
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        config.addProperty("list", "d");
+        config.addProperty("memory", "m");
+
+        List<Object> list = config.getList("list");
+        assertEquals("Wrong list", Arrays.asList("a", "b", "d"), list);
+        assertEquals("Wrong memory list", Collections.singletonList("m"),
+                config.getList("memory"));
+        assertTrue("Got unknown list", config.getList("unknown").isEmpty());
+    }
+
+    /**
+     * Tests the key index if the in-memory configuration is a child
+     * configuration with a higher priority than other children.
+     */
+    @Test
+    public void testKeyIndexInMemoryConfigurationAsChild()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c1.addProperty("key", "v1");
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = new CompositeConfiguration();
+        config.setKeyIndexEnabled(true);
+        config.addConfiguration(c1, true);
+        config.addConfiguration(c2);
+        assertEquals("Wrong value", "v1", config.getString("key"));
+        c1.clearProperty("key");
+        assertEquals("Wrong value after clear", "v2", config.getString("key"));
+    }
+
+    /**
+     * Tests that no listener for the key index is registered at the in-memory
+     * configuration, so that updates of the composite configuration do not
+     * discard the index.
+     */
+    @Test
+    public void testKeyIndexNoListenerAtInMemoryConfiguration()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        BaseConfiguration inMemory =
+                (BaseConfiguration) config.getInMemoryConfiguration();
+        int listenerCount =
+                new BaseConfiguration().getEventListeners(
+                        ConfigurationEvent.ANY).size();
+        assertEquals("Listener registered", listenerCount, inMemory
+                .getEventListeners(ConfigurationEvent.ANY).size());
+
+        config.clear();
+        assertEquals("Listener registered after clear", listenerCount,
+                ((BaseConfiguration) config.getInMemoryConfiguration())
+                        .getEventListeners(ConfigurationEvent.ANY).size());
+    }
+
+    /**
+     * Tests that a former in-memory configuration which stays a child gets
+     * the listener for the key index when another in-memory configuration is
+     * set.
+     */
+    @Test
+    public void testKeyIndexInMemoryConfigurationReplaced()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = new CompositeConfiguration();
+        config.setKeyIndexEnabled(true);
+        config.addConfiguration(c1, true);
+        config.addConfiguration(c2, true);
+        assertEquals("Wrong initial value", "v2", config.getString("key"));
+
+        c1.addProperty("key", "v1");
+        assertEquals("Change not detected", "v1", config.getString("key"));
+    }
+
+    /**
+     * Tests that the key index is not used if a child configuration does not
+     * fire change events.
+     */
+    @Test
+    public void testKeyIndexChildNoEventSource()
+    {
+        final Configuration c1 = new BaseConfiguration();
+        Configuration wrapper = (Configuration) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] { Configuration.class }, new InvocationHandler()
+                {
+                    @Override
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) throws Throwable
+                    {
+                        return method.invoke(c1, args);
+                    }
+                });
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = createIndexedComposite(wrapper, c2);
+        assertEquals("Wrong initial value", "v2", config.getString("key"));
+        c1.addProperty("key", "v1");
+        assertEquals("Change not detected", "v1", config.getString("key"));
+    }
+
+    /**
+     * Tests that the key index is not used if a child configuration is a
+     * composite configuration whose layers can change without events.
+     */
+    @Test
+    public void testKeyIndexNestedComposite()
+    {
+        BaseConfiguration inner1 = new BaseConfiguration();
+        BaseConfiguration inner2 = new BaseConfiguration();
+        inner2.addProperty("key", "inner");
+        CompositeConfiguration nested = new CompositeConfiguration();
+        nested.addConfiguration(inner1);
+        nested.addConfiguration(inner2);
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = createIndexedComposite(nested, c2);
+        assertEquals("Wrong initial value", "inner", config.getString("key"));
+        inner1.addProperty("key", "v1");
+        assertEquals("Change not detected", "v1", config.getString("key"));
+        inner2.clearProperty("key");
+        inner1.clearProperty("key");
+        assertEquals("Removal not detected", "v2", config.getString("key"));
+    }
+
+    /**
+     * Tests that the key index is not used if a child configuration is a
+     * subset of another configuration.
+     */
+    @Test
+    public void testKeyIndexSubsetChild()
+    {
+        BaseConfiguration parent = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config =
+                createIndexedComposite(parent.subset("prefix"), c2);
+        assertEquals("Wrong initial value", "v2", config.getString("key"));
+        parent.addProperty("prefix.key", "v1");
+        assertEquals("Change not detected", "v1", config.getString("key"));
+    }
+
+    /**
+     * Tests that the listeners for the key index are removed when it is
+     * disabled.
+     */
+    @Test
+    public void testKeyIndexDisable()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        int listenerCount =
+                c1.getEventListeners(ConfigurationEvent.ANY).size();
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        assertEquals("Listener not registered", listenerCount + 1,
+                c1.getEventListeners(ConfigurationEvent.ANY).size());
+        config.setKeyIndexEnabled(false);
+        assertEquals("Listener not removed", listenerCount,
+                c1.getEventListeners(ConfigurationEvent.ANY).size());
+    }
+
+    /**
+     * Tests that a clone of a configuration with a key index has its own
+     * index.
+     */
+    @Test
+    public void testKeyIndexClone()
+    {
+        BaseConfiguration c1 = new BaseConfiguration();
+        BaseConfiguration c2 = new BaseConfiguration();
+        c2.addProperty("key", "v2");
+        CompositeConfiguration config = createIndexedComposite(c1, c2);
+        assertEquals("Wrong value", "v2", config.getString("key"));
+
+        CompositeConfiguration copy = (CompositeConfiguration) config.clone();
+        assertTrue("Key index not enabled", copy.isKeyIndexEnabled());
+        copy.getConfiguration(0).addProperty("key", "c1");
+        assertEquals("Wrong value in copy", "c1", copy.getString("key"));
+        assertEquals("Original changed", "v2", config.getString("key"));
+    }
 }
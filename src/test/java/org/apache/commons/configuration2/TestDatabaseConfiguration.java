@@ -19,12 +19,17 @@ package org.apache.commons.configuration2;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import javax.sql.DataSource;
 import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -554,6 +559,578 @@ public class TestDatabaseConfiguration
         EasyMock.verify(rs, clob);
     }
 
+    /**
+     * Creates a configuration in cached mode with default settings.
+     *
+     * @return the configuration
+     * @throws ConfigurationException if an error occurs
+     */
+    private CountingDatabaseConfiguration setUpCachedConfig()
+            throws ConfigurationException
+    {
+        return helper.createConfig(CountingDatabaseConfiguration.class, helper
+                .setUpDefaultParameters().setCached(true));
+    }
+
+    /**
+     * Waits until the given time has passed.
+     *
+     * @param millis the time to wait
+     * @throws InterruptedException if waiting is interrupted
+     */
+    private static void waitFor(long millis) throws InterruptedException
+    {
+        long end = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() <= end)
+        {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * Tests whether the properties related to caching are set by the
+     * builder.
+     */
+    @Test
+    public void testCachedInitFromParameters() throws ConfigurationException
+    {
+        DatabaseConfiguration config =
+                helper.createConfig(DatabaseConfiguration.class, helper
+                        .setUpDefaultParameters().setCached(true)
+                        .setCacheRefreshInterval(1000).setVersionColumn("ver"));
+        assertTrue("Not cached", config.isCached());
+        assertEquals("Wrong refresh interval", 1000,
+                config.getCacheRefreshInterval());
+        assertEquals("Wrong version column", "ver", config.getVersionColumn());
+    }
+
+    /**
+     * Tests that read operations in cached mode do not access the database
+     * after the data has been loaded.
+     */
+    @Test
+    public void testCachedReadsFromMemory() throws ConfigurationException
+    {
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        assertEquals("Wrong value (1)", "value1", config.getProperty("key1"));
+        setUpErrorListener(config);
+
+        assertEquals("Wrong value (2)", "value2", config.getProperty("key2"));
+        assertNull("Unknown property", config.getProperty("key3"));
+        assertTrue("Key not found", config.containsKey("keyMulti"));
+        assertFalse("Empty", config.isEmpty());
+        Iterator<String> it = config.getKeys();
+        assertEquals("Wrong key (1)", "key1", it.next());
+        assertEquals("Wrong key (2)", "key2", it.next());
+        assertEquals("Wrong key (3)", "keyMulti", it.next());
+        assertFalse("Too many keys", it.hasNext());
+        assertEquals("Wrong number of loaded values", 3, config.extractCount);
+    }
+
+    /**
+     * Tests that only the data of the current configuration is loaded in
+     * cached mode.
+     */
+    @Test
+    public void testCachedMultipleConfigurations() throws ConfigurationException
+    {
+        DatabaseConfiguration config2 =
+                helper.setUpMultiConfig(DatabaseConfiguration.class,
+                        CONFIG_NAME2);
+        config2.addProperty("keyOther", "other");
+        DatabaseConfiguration config =
+                helper.createConfig(DatabaseConfiguration.class,
+                        helper.setUpMultiParameters(null).setCached(true));
+
+        assertEquals("Wrong value", "value1", config.getProperty("key1"));
+        assertFalse("Got key of other config", config.containsKey("keyOther"));
+    }
+
+    /**
+     * Tests that the list delimiter handler is applied to cached values.
+     */
+    @Test
+    public void testCachedGetListWithDelimiter() throws ConfigurationException
+    {
+        DatabaseConfiguration config = setUpCachedConfig();
+        config.setListDelimiterHandler(new DefaultListDelimiterHandler(';'));
+        List<Object> values = config.getList("keyMulti");
+        assertEquals("Wrong number of list elements", 3, values.size());
+        assertEquals("Wrong list element 1", "b", values.get(1));
+    }
+
+    /**
+     * Tests that updates in cached mode are written to the database and
+     * reflected by the cached data.
+     */
+    @Test
+    public void testCachedUpdates() throws ConfigurationException
+    {
+        DatabaseConfiguration config = setUpCachedConfig();
+        DatabaseConfiguration dbConfig = helper.setUpConfig();
+        assertTrue("Key not found", config.containsKey("key1"));
+
+        config.addProperty("newKey", "newValue");
+        config.setProperty("key2", "changed");
+        config.clearProperty("key1");
+        assertEquals("Wrong new value", "newValue",
+                config.getProperty("newKey"));
+        assertEquals("Wrong changed value", "changed",
+                config.getProperty("key2"));
+        assertFalse("Key not removed", config.containsKey("key1"));
+        assertEquals("Not written (1)", "newValue",
+                dbConfig.getProperty("newKey"));
+        assertEquals("Not written (2)", "changed", dbConfig.getProperty("key2"));
+        assertFalse("Not removed", dbConfig.containsKey("key1"));
+
+        config.clear();
+        assertTrue("Not cleared", config.isEmpty());
+        assertTrue("Not cleared in database", dbConfig.isEmpty());
+    }
+
+    /**
+     * Tests that properties can be removed in cached mode while iterating
+     * over the keys.
+     */
+    @Test
+    public void testCachedClearPropertiesDuringIteration()
+            throws ConfigurationException
+    {
+        DatabaseConfiguration config = setUpCachedConfig();
+        Iterator<String> it = config.getKeys();
+        while (it.hasNext())
+        {
+            config.clearProperty(it.next());
+        }
+        assertTrue("Not cleared", config.isEmpty());
+        assertTrue("Not cleared in database", helper.setUpConfig().isEmpty());
+    }
+
+    /**
+     * Tests that changes made by others are not visible in cached mode
+     * without a refresh interval until the cache is invalidated.
+     */
+    @Test
+    public void testCachedInvalidate() throws ConfigurationException
+    {
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        assertFalse("Key found", config.containsKey("newKey"));
+        helper.setUpConfig().addProperty("newKey", "newValue");
+
+        assertFalse("Change visible", config.containsKey("newKey"));
+        config.invalidateCache();
+        assertEquals("Change not visible", "newValue",
+                config.getProperty("newKey"));
+    }
+
+    /**
+     * Tests whether cached data is reloaded after the refresh interval.
+     */
+    @Test
+    public void testCachedRefreshInterval() throws Exception
+    {
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        config.setCacheRefreshInterval(10);
+        assertFalse("Key found", config.containsKey("newKey"));
+        helper.setUpConfig().addProperty("newKey", "newValue");
+
+        waitFor(20);
+        assertEquals("Change not visible", "newValue",
+                config.getProperty("newKey"));
+    }
+
+    /**
+     * Tests that cached data is only reloaded if the version has changed when
+     * a version column is set.
+     */
+    @Test
+    public void testCachedVersionColumn() throws Exception
+    {
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        config.setCacheRefreshInterval(10);
+        config.setVersionColumn(DatabaseConfigurationTestHelper.COL_KEY);
+        assertTrue("Key not found", config.containsKey("key1"));
+        int count = config.extractCount;
+
+        waitFor(20);
+        assertTrue("Key not found after check", config.containsKey("key1"));
+        assertEquals("Data reloaded", count, config.extractCount);
+
+        helper.setUpConfig().clearProperty("key2");
+        waitFor(20);
+        assertFalse("Change not visible", config.containsKey("key2"));
+        assertTrue("Data not reloaded", config.extractCount > count);
+    }
+
+    /**
+     * Tests the behavior of cached mode if the data cannot be loaded.
+     */
+    @Test
+    public void testCachedLoadError() throws ConfigurationException
+    {
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        setUpErrorListener(config);
+        assertNull("Got a value", config.getProperty("key1"));
+        checkErrorListener(ConfigurationErrorEvent.READ,
+                ConfigurationErrorEvent.READ, null, null);
+
+        config.failOnConnect = false;
+        assertEquals("Data not loaded", "value1", config.getProperty("key1"));
+    }
+
+    /**
+     * Tests that cached data is discarded if a write operation fails.
+     */
+    @Test
+    public void testCachedWriteError() throws ConfigurationException
+    {
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        assertTrue("Key not found", config.containsKey("key1"));
+        int count = config.extractCount;
+        setUpErrorListener(config);
+        config.addProperty("key1", "value");
+        checkErrorListener(ConfigurationErrorEvent.WRITE,
+                ConfigurationEvent.ADD_PROPERTY, "key1", "value");
+
+        config.failOnConnect = false;
+        assertEquals("Wrong value", "value1", config.getProperty("key1"));
+        assertTrue("Data not reloaded", config.extractCount > count);
+    }
+
+    /**
+     * Creates a configuration with test properties to be written in a batch.
+     *
+     * @param count the number of properties
+     * @return the configuration
+     */
+    private static Configuration createBatchSource(int count)
+    {
+        Configuration src = new BaseConfiguration();
+        for (int i = 0; i < count; i++)
+        {
+            src.addProperty("batch.key" + i, "value" + i);
+        }
+        return src;
+    }
+
+    /**
+     * Checks whether the properties of a batch source have been written.
+     *
+     * @param config the configuration to check
+     * @param count the number of properties
+     */
+    private static void checkBatchProperties(Configuration config, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals("Wrong value at " + i, "value" + i,
+                    config.getString("batch.key" + i));
+        }
+    }
+
+    /**
+     * Tests whether append() writes all properties using a single
+     * connection.
+     */
+    @Test
+    public void testAppendBatch() throws ConfigurationException
+    {
+        final int count = 2500;
+        CountingDatabaseConfiguration config =
+                helper.setUpConfig(CountingDatabaseConfiguration.class);
+        config.append(createBatchSource(count));
+        assertEquals("Wrong number of connections", 1, config.connectCount);
+        checkBatchProperties(helper.setUpConfig(), count);
+    }
+
+    /**
+     * Tests whether copy() overrides existing properties in a batch.
+     */
+    @Test
+    public void testCopyBatch() throws ConfigurationException
+    {
+        final int count = 10;
+        CountingDatabaseConfiguration config =
+                helper.setUpConfig(CountingDatabaseConfiguration.class);
+        Configuration src = createBatchSource(count);
+        src.addProperty("key1", "newValue");
+        config.copy(src);
+        assertEquals("Wrong number of connections", 1, config.connectCount);
+        DatabaseConfiguration dbConfig = helper.setUpConfig();
+        checkBatchProperties(dbConfig, count);
+        assertEquals("Property not overridden", "newValue",
+                dbConfig.getProperty("key1"));
+        assertEquals("Other property changed", "value2",
+                dbConfig.getProperty("key2"));
+    }
+
+    /**
+     * Tests a batch for a table with multiple configurations.
+     */
+    @Test
+    public void testAppendBatchMultipleConfigurations()
+            throws ConfigurationException
+    {
+        final int count = 10;
+        DatabaseConfiguration config = helper.setUpMultiConfig();
+        config.append(createBatchSource(count));
+        checkBatchProperties(helper.setUpMultiConfig(), count);
+        assertFalse("Written to other configuration",
+                helper.setUpMultiConfig(DatabaseConfiguration.class,
+                        CONFIG_NAME2).containsKey("batch.key0"));
+    }
+
+    /**
+     * Tests that the order of updates in a batch is taken into account.
+     */
+    @Test
+    public void testExecuteBatchUpdateOrder() throws ConfigurationException
+    {
+        final DatabaseConfiguration config = helper.setUpConfig();
+        config.executeBatch(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                config.addProperty("newKey", "value1");
+                config.clearProperty("newKey");
+                config.addProperty("newKey", "value2");
+                config.setProperty("key1", "changed");
+                config.clearProperty("key2");
+            }
+        });
+
+        DatabaseConfiguration dbConfig = helper.setUpConfig();
+        assertEquals("Wrong value (1)", "value2", dbConfig.getProperty("newKey"));
+        assertEquals("Wrong value (2)", "changed", dbConfig.getProperty("key1"));
+        assertFalse("Key not removed", dbConfig.containsKey("key2"));
+    }
+
+    /**
+     * Tests that no connection is opened for an empty batch.
+     */
+    @Test
+    public void testExecuteBatchEmpty() throws ConfigurationException
+    {
+        CountingDatabaseConfiguration config =
+                helper.setUpConfig(CountingDatabaseConfiguration.class);
+        config.append(new BaseConfiguration());
+        assertEquals("Got a connection", 0, config.connectCount);
+    }
+
+    /**
+     * Tests that nothing is written if the updates of a batch throw an
+     * exception.
+     */
+    @Test
+    public void testExecuteBatchException() throws ConfigurationException
+    {
+        final CountingDatabaseConfiguration config = setUpCachedConfig();
+        try
+        {
+            config.executeBatch(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    config.addProperty("newKey", "value");
+                    throw new IllegalStateException("Test exception");
+                }
+            });
+            fail("Exception not thrown!");
+        }
+        catch (IllegalStateException isex)
+        {
+            // expected
+        }
+        assertFalse("Property in cache", config.containsKey("newKey"));
+        assertFalse("Property written",
+                helper.setUpConfig().containsKey("newKey"));
+    }
+
+    /**
+     * Tests that a batch is rolled back if an update fails.
+     */
+    @Test
+    public void testAppendBatchRollback() throws ConfigurationException
+    {
+        PotentialErrorDatabaseConfiguration config = setUpConfig();
+        config.clearErrorListeners();
+        listener = new ErrorListenerTestImpl(config);
+        config.addEventListener(ConfigurationErrorEvent.ANY, listener);
+        Configuration src = createBatchSource(10);
+        // violates the primary key
+        src.addProperty("key1", "duplicate");
+
+        config.append(src);
+        checkErrorListener(ConfigurationErrorEvent.WRITE,
+                ConfigurationEvent.ANY, null, null);
+        DatabaseConfiguration dbConfig = helper.setUpConfig();
+        assertFalse("Not rolled back", dbConfig.containsKey("batch.key0"));
+        assertEquals("Wrong value", "value1", dbConfig.getProperty("key1"));
+    }
+
+    /**
+     * Tests that a batch in cached mode updates the cached data.
+     */
+    @Test
+    public void testAppendBatchCached() throws ConfigurationException
+    {
+        final int count = 10;
+        CountingDatabaseConfiguration config = setUpCachedConfig();
+        assertTrue("Key not found", config.containsKey("key1"));
+        config.append(createBatchSource(count));
+        assertEquals("Wrong number of connections", 2, config.connectCount);
+        checkBatchProperties(config, count);
+        assertEquals("Data reloaded", 2, config.connectCount);
+    }
+
+    /**
+     * Tests that the updates of a batch become visible in the cached data only
+     * after they have been written.
+     */
+    @Test
+    public void testExecuteBatchCachedUpdatesVisibleAfterWrite()
+            throws ConfigurationException
+    {
+        final CountingDatabaseConfiguration config = setUpCachedConfig();
+        assertTrue("Key not found", config.containsKey("key1"));
+        config.executeBatch(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                config.addProperty("newKey", "newValue");
+                config.setProperty("key1", "changed");
+                config.clearProperty("key2");
+                assertEquals("Pending change visible", "value1",
+                        config.getProperty("key1"));
+                assertFalse("Pending insert visible",
+                        config.containsKey("newKey"));
+                assertTrue("Pending delete visible",
+                        config.containsKey("key2"));
+            }
+        });
+
+        assertEquals("Wrong value (1)", "newValue",
+                config.getProperty("newKey"));
+        assertEquals("Wrong value (2)", "changed", config.getProperty("key1"));
+        assertFalse("Key not removed", config.containsKey("key2"));
+        assertEquals("Data reloaded", 2, config.connectCount);
+    }
+
+    /**
+     * Creates a mock for a statement whose batches fail with the given
+     * exception.
+     *
+     * @param ex the exception to be thrown
+     * @return the mock statement
+     * @throws SQLException if an error occurs
+     */
+    private static PreparedStatement createFailingBatchStatement(Exception ex)
+            throws SQLException
+    {
+        PreparedStatement stmt =
+                EasyMock.createNiceMock(PreparedStatement.class);
+        EasyMock.expect(stmt.executeBatch()).andThrow(ex).anyTimes();
+        EasyMock.replay(stmt);
+        return stmt;
+    }
+
+    /**
+     * Prepares a mock connection for writing a batch. Expectations for the
+     * outcome of the transaction have to be added by the caller.
+     *
+     * @param stmt the statement to be returned by the connection
+     * @return the mock connection
+     * @throws SQLException if an error occurs
+     */
+    private static Connection createBatchConnection(PreparedStatement stmt)
+            throws SQLException
+    {
+        Connection conn = EasyMock.createMock(Connection.class);
+        EasyMock.expect(conn.getAutoCommit()).andReturn(Boolean.TRUE);
+        EasyMock.expect(conn.prepareStatement(EasyMock.anyString()))
+                .andReturn(stmt).times(2);
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    /**
+     * Creates a configuration which obtains the given connection.
+     *
+     * @param conn the connection
+     * @return the configuration
+     * @throws Exception if an error occurs
+     */
+    private DatabaseConfiguration setUpConfigWithConnection(Connection conn)
+            throws Exception
+    {
+        DataSource ds = EasyMock.createMock(DataSource.class);
+        EasyMock.expect(ds.getConnection()).andReturn(conn);
+        EasyMock.replay(ds, conn);
+        DatabaseConfiguration config = helper.setUpConfig();
+        config.setDataSource(ds);
+        return config;
+    }
+
+    /**
+     * Tests that a batch is rolled back if a runtime exception is thrown
+     * while it is written.
+     */
+    @Test
+    public void testAppendBatchRollbackRuntimeException() throws Exception
+    {
+        IllegalStateException ex = new IllegalStateException("Test exception");
+        Connection conn =
+                createBatchConnection(createFailingBatchStatement(ex));
+        conn.rollback();
+        conn.setAutoCommit(true);
+        conn.close();
+        DatabaseConfiguration config = setUpConfigWithConnection(conn);
+
+        try
+        {
+            config.append(createBatchSource(1));
+            fail("Exception not thrown!");
+        }
+        catch (IllegalStateException isex)
+        {
+            assertEquals("Wrong exception", ex, isex);
+        }
+        EasyMock.verify(conn);
+    }
+
+    /**
+     * Tests that a failed rollback does not hide the original exception and
+     * that the connection is not switched back to auto-commit mode.
+     */
+    @Test
+    public void testAppendBatchRollbackFails() throws Exception
+    {
+        SQLException ex = new SQLException("Test exception");
+        SQLException rollbackEx = new SQLException("Rollback exception");
+        Connection conn =
+                createBatchConnection(createFailingBatchStatement(ex));
+        conn.rollback();
+        EasyMock.expectLastCall().andThrow(rollbackEx);
+        conn.close();
+        DatabaseConfiguration config = setUpConfigWithConnection(conn);
+        config.clearErrorListeners();
+        listener = new ErrorListenerTestImpl(config);
+        config.addEventListener(ConfigurationErrorEvent.ANY, listener);
+
+        config.append(createBatchSource(1));
+        Throwable cause = listener.checkEvent(ConfigurationErrorEvent.WRITE,
+                ConfigurationEvent.ANY, null, null);
+        listener = null;
+        assertEquals("Wrong exception", ex, cause);
+        assertEquals("Rollback exception not suppressed",
+                Arrays.asList(rollbackEx),
+                Arrays.asList(cause.getSuppressed()));
+        EasyMock.verify(conn);
+    }
+
     /**
      * A specialized database configuration implementation that can be
      * configured to throw an exception when obtaining a connection. This way
@@ -586,4 +1163,33 @@ public class TestDatabaseConfiguration
             return super.getDatasource();
         }
     }
+
+    /**
+     * A specialized database configuration implementation which counts the
+     * values extracted from result sets. This can be used to find out whether
+     * data has been loaded from the database.
+     */
+    public static class CountingDatabaseConfiguration extends
+            PotentialErrorDatabaseConfiguration
+    {
+        /** The number of extracted values. */
+        int extractCount;
+
+        /** The number of requested data sources. */
+        int connectCount;
+
+        @Override
+        public DataSource getDatasource()
+        {
+            connectCount++;
+            return super.getDatasource();
+        }
+
+        @Override
+        protected Object extractPropertyValue(ResultSet rs) throws SQLException
+        {
+            extractCount++;
+            return super.extractPropertyValue(rs);
+        }
+    }
 }
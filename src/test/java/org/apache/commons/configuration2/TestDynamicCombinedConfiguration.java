@@ -30,6 +30,8 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.apache.commons.configuration2.SynchronizerTestImpl.Methods;
@@ -43,6 +45,8 @@ import org.apache.commons.configuration2.builder.combined.MultiFileConfiguration
 import org.apache.commons.configuration2.builder.combined.ReloadingCombinedConfigurationBuilder;
 import org.apache.commons.configuration2.builder.fluent.Parameters;
 import org.apache.commons.configuration2.convert.DefaultListDelimiterHandler;
+import org.apache.commons.configuration2.event.ConfigurationEvent;
+import org.apache.commons.configuration2.event.EventListener;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.interpol.ConfigurationInterpolator;
 import org.apache.commons.configuration2.interpol.Lookup;
@@ -526,6 +530,264 @@ public class TestDynamicCombinedConfiguration
 
     }
 
+    /**
+     * Creates a configuration for testing the cache of combined
+     * configurations. The key pattern is resolved by the given lookup.
+     *
+     * @param lookup the lookup for the tenant
+     * @param child the child configuration to be added
+     * @return the test configuration
+     */
+    private static DynamicCombinedConfiguration setUpCacheTest(
+            TenantLookup lookup, BaseHierarchicalConfiguration child)
+    {
+        DynamicCombinedConfiguration config =
+                new DynamicCombinedConfiguration();
+        config.getInterpolator().registerLookup("tenant", lookup);
+        config.setKeyPattern("${tenant:id}");
+        child.addProperty("key", "value");
+        config.addConfiguration(child, "child");
+        return config;
+    }
+
+    /**
+     * Accesses the given configuration as the given tenant.
+     *
+     * @param config the configuration
+     * @param lookup the lookup for the tenant
+     * @param tenant the tenant
+     */
+    private static void access(DynamicCombinedConfiguration config,
+            TenantLookup lookup, String tenant)
+    {
+        lookup.setTenant(tenant);
+        assertEquals("Wrong value for " + tenant, "value",
+                config.getString("key"));
+    }
+
+    /**
+     * Tests whether cache statistics are recorded.
+     */
+    @Test
+    public void testCacheStatistics()
+    {
+        TenantLookup lookup = new TenantLookup();
+        DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        access(config, lookup, "a");
+        access(config, lookup, "a");
+        access(config, lookup, "b");
+        assertEquals("Wrong hits", 1, config.getCacheHitCount());
+        assertEquals("Wrong misses", 2, config.getCacheMissCount());
+        assertEquals("Wrong evictions", 0, config.getCacheEvictionCount());
+    }
+
+    /**
+     * Tests that the least recently used configuration is evicted if the
+     * maximum size of the cache is exceeded.
+     */
+    @Test
+    public void testCacheMaxSizeEvictsLeastRecentlyUsed()
+    {
+        TenantLookup lookup = new TenantLookup();
+        BaseHierarchicalConfiguration child =
+                new BaseHierarchicalConfiguration();
+        DynamicCombinedConfiguration config = setUpCacheTest(lookup, child);
+        EvictionListener listener = new EvictionListener();
+        config.addEventListener(
+                DynamicCombinedConfiguration.CACHED_CONFIGURATION_EVICTED,
+                listener);
+        config.setMaxCachedConfigurations(2);
+        int listenerCount =
+                child.getEventListeners(ConfigurationEvent.ANY).size();
+        access(config, lookup, "a");
+        access(config, lookup, "b");
+        access(config, lookup, "a");
+        access(config, lookup, "c");
+        assertEquals("Wrong evictions", 1, config.getCacheEvictionCount());
+        assertEquals("Wrong number of events", 1, listener.events.size());
+        ConfigurationEvent event = listener.events.get(0);
+        assertEquals("Wrong evicted key", "b", event.getPropertyName());
+        assertFalse("Evicted configuration still registered",
+                child.getEventListeners(ConfigurationEvent.ANY).contains(
+                        event.getPropertyValue()));
+        assertEquals("Wrong number of listeners at child", listenerCount + 2,
+                child.getEventListeners(ConfigurationEvent.ANY).size());
+        long misses = config.getCacheMissCount();
+        access(config, lookup, "a");
+        assertEquals("Configuration a was evicted", misses,
+                config.getCacheMissCount());
+        access(config, lookup, "b");
+        assertEquals("Configuration b not recreated", misses + 1,
+                config.getCacheMissCount());
+    }
+
+    /**
+     * Tests that configurations which have not been accessed for the idle time
+     * are evicted.
+     */
+    @Test
+    public void testCacheIdleTime() throws InterruptedException
+    {
+        TenantLookup lookup = new TenantLookup();
+        DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        config.setCachedConfigurationIdleTime(1);
+        assertEquals("Wrong idle time", 1,
+                config.getCachedConfigurationIdleTime());
+        access(config, lookup, "a");
+        Thread.sleep(20);
+        access(config, lookup, "b");
+        assertEquals("Wrong evictions", 1, config.getCacheEvictionCount());
+    }
+
+    /**
+     * Tests that idle configurations are also evicted if the current
+     * configuration is found in the cache.
+     */
+    @Test
+    public void testCacheIdleTimeEvictOnCacheHit() throws InterruptedException
+    {
+        TenantLookup lookup = new TenantLookup();
+        DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        EvictionListener listener = new EvictionListener();
+        config.addEventListener(
+                DynamicCombinedConfiguration.CACHED_CONFIGURATION_EVICTED,
+                listener);
+        config.setCachedConfigurationIdleTime(50);
+        access(config, lookup, "a");
+        access(config, lookup, "b");
+        Thread.sleep(100);
+        long misses = config.getCacheMissCount();
+        access(config, lookup, "b");
+        assertEquals("Not a cache hit", misses, config.getCacheMissCount());
+        assertEquals("Wrong evictions", 1, config.getCacheEvictionCount());
+        assertEquals("Wrong evicted key", "a",
+                listener.events.get(0).getPropertyName());
+    }
+
+    /**
+     * Tests that the cache is not limited per default.
+     */
+    @Test
+    public void testCacheUnlimitedByDefault()
+    {
+        TenantLookup lookup = new TenantLookup();
+        DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        assertEquals("Wrong maximum size", 0,
+                config.getMaxCachedConfigurations());
+        for (int i = 0; i < 10; i++)
+        {
+            access(config, lookup, "tenant" + i);
+        }
+        assertEquals("Got evictions", 0, config.getCacheEvictionCount());
+    }
+
+    /**
+     * Tests that a bound key is used instead of evaluating the key pattern.
+     */
+    @Test
+    public void testBindCurrentKey()
+    {
+        TenantLookup lookup = new TenantLookup();
+        DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        lookup.setTenant("a");
+        assertEquals("Wrong bound key", "a", config.bindCurrentKey());
+        try
+        {
+            assertEquals("Wrong key", "a", config.getBoundKey());
+            int lookups = lookup.count;
+            config.getString("key");
+            config.addProperty("tenant.property", "a");
+            lookup.setTenant("b");
+            assertEquals("Wrong property", "a",
+                    config.getString("tenant.property"));
+            assertEquals("Pattern evaluated", lookups, lookup.count);
+        }
+        finally
+        {
+            config.unbindKey();
+        }
+        assertNull("Still bound", config.getBoundKey());
+        assertNull("Wrong configuration for unbound key",
+                config.getString("tenant.property"));
+    }
+
+    /**
+     * Tests that a bound key is used only by the thread which has bound it.
+     */
+    @Test
+    public void testBindKeyPerThread() throws InterruptedException
+    {
+        TenantLookup lookup = new TenantLookup();
+        final DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        lookup.setTenant("b");
+        config.bindKey("a");
+        config.addProperty("tenant.property", "a");
+        final List<Object> results = new ArrayList<>();
+        Thread t = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                results.add(config.getBoundKey());
+                results.add(config.getString("tenant.property"));
+            }
+        };
+        t.start();
+        t.join();
+        config.unbindKey();
+        assertNull("Key bound in other thread", results.get(0));
+        assertNull("Wrong configuration in other thread", results.get(1));
+    }
+
+    /**
+     * Tests that a binding detects that its configuration has been evicted.
+     */
+    @Test
+    public void testBindKeyAfterEviction() throws InterruptedException
+    {
+        final TenantLookup lookup = new TenantLookup();
+        final DynamicCombinedConfiguration config =
+                setUpCacheTest(lookup, new BaseHierarchicalConfiguration());
+        config.setMaxCachedConfigurations(1);
+        config.bindKey("a");
+        try
+        {
+            config.addProperty("tenant.property", "a");
+            Thread t = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    access(config, lookup, "b");
+                }
+            };
+            t.start();
+            t.join();
+            assertEquals("No eviction", 1, config.getCacheEvictionCount());
+            assertNull("Evicted configuration used",
+                    config.getString("tenant.property"));
+        }
+        finally
+        {
+            config.unbindKey();
+        }
+    }
+
+    /**
+     * Tries to bind a null key.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBindKeyNull()
+    {
+        new DynamicCombinedConfiguration().bindKey(null);
+    }
+
     private void verify(String key, DynamicCombinedConfiguration config, int rows)
     {
         System.setProperty("Id", key);
@@ -575,4 +837,49 @@ public class TestDynamicCombinedConfiguration
 
         }
     }
+
+    /**
+     * A lookup which returns the current tenant as value for the key "id".
+     */
+    private static class TenantLookup implements Lookup
+    {
+        /** The current tenant. */
+        private String tenant;
+
+        /** The number of lookups. */
+        int count;
+
+        /**
+         * Sets the current tenant.
+         *
+         * @param t the tenant
+         */
+        public void setTenant(String t)
+        {
+            tenant = t;
+        }
+
+        @Override
+        public Object lookup(String key)
+        {
+            count++;
+            return "id".equals(key) ? tenant : null;
+        }
+    }
+
+    /**
+     * A listener which records eviction events.
+     */
+    private static class EvictionListener implements
+            EventListener<ConfigurationEvent>
+    {
+        /** The list with the received events. */
+        final List<ConfigurationEvent> events = new ArrayList<>();
+
+        @Override
+        public void onEvent(ConfigurationEvent event)
+        {
+            events.add(event);
+        }
+    }
 }
@@ -17,18 +17,27 @@
 package org.apache.commons.configuration2;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.configuration2.convert.DefaultListDelimiterHandler;
+import org.apache.commons.configuration2.event.ConfigurationEvent;
+import org.apache.commons.configuration2.event.EventListenerTestImpl;
 import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 import org.apache.commons.configuration2.tree.DefaultConfigurationKey;
 import org.apache.commons.configuration2.tree.DefaultExpressionEngine;
+import org.apache.commons.configuration2.tree.DefaultExpressionEngineSymbols;
 import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.commons.configuration2.tree.ModelBatch;
 import org.apache.commons.configuration2.tree.NodeStructureHelper;
 import org.junit.Before;
 import org.junit.Test;
@@ -640,6 +649,161 @@ public class TestHierarchicalConfiguration
                 config.childConfigurationsAt("not.existing.key").isEmpty());
     }
 
+    /**
+     * Tests the default value of the snapshot mode flag.
+     */
+    @Test
+    public void testSnapshotModeDefault()
+    {
+        assertFalse("Snapshot mode enabled", config.isSnapshotMode());
+    }
+
+    /**
+     * Tests that the snapshot mode yields the same results for the keys
+     * defined in the configuration as the normal mode.
+     */
+    @Test
+    public void testSnapshotModeGetProperty()
+    {
+        config.addProperty("tables.table(0)[@type]", "system");
+        BaseHierarchicalConfiguration snapConfig =
+                new BaseHierarchicalConfiguration(config);
+        snapConfig.setSnapshotMode(true);
+
+        for (Iterator<String> it = config.getKeys(); it.hasNext();)
+        {
+            String key = it.next();
+            assertEquals("Wrong value for " + key, config.getProperty(key),
+                    snapConfig.getProperty(key));
+            assertTrue("Key not found: " + key, snapConfig.containsKey(key));
+        }
+    }
+
+    /**
+     * Tests that keys which are not directly defined can be queried in
+     * snapshot mode.
+     */
+    @Test
+    public void testSnapshotModeAdditionalKeys()
+    {
+        config.setSnapshotMode(true);
+        assertEquals("Wrong indexed property", NodeStructureHelper.table(1),
+                config.getString("tables.table(1).name"));
+        assertEquals("Wrong indexed property (2)",
+                NodeStructureHelper.field(1, 2),
+                config.getString("tables.table(1).fields.field(2).name"));
+        assertFalse("Found non-existing key",
+                config.containsKey("tables.table.nonExisting"));
+        assertNull("Got a value for a non-existing key",
+                config.getProperty("tables.table.nonExisting"));
+        assertFalse("Found key of a node without value",
+                config.containsKey("tables.table(0)"));
+    }
+
+    /**
+     * Tests whether getKeys() and size() work in snapshot mode.
+     */
+    @Test
+    public void testSnapshotModeGetKeysAndSize()
+    {
+        List<String> expectedKeys = ConfigurationAssert.keysToList(config);
+        config.setSnapshotMode(true);
+        assertEquals("Wrong keys", expectedKeys,
+                ConfigurationAssert.keysToList(config));
+        assertEquals("Wrong size", expectedKeys.size(), config.size());
+    }
+
+    /**
+     * Tests that a snapshot is discarded when the configuration is changed.
+     */
+    @Test
+    public void testSnapshotModeUpdatedAfterChange()
+    {
+        final String key = "tables.table(0).name";
+        config.setSnapshotMode(true);
+        assertEquals("Wrong initial value", NodeStructureHelper.table(0),
+                config.getString(key));
+        assertFalse("Key already found", config.containsKey("new.key"));
+
+        config.setProperty(key, NEW_NAME);
+        config.addProperty("new.key", Boolean.TRUE);
+        assertEquals("Change not visible", NEW_NAME, config.getString(key));
+        assertTrue("New key not found", config.containsKey("new.key"));
+        assertTrue("New key not in key set", ConfigurationAssert
+                .keysToList(config).contains("new.key"));
+
+        config.clearProperty("new.key");
+        assertFalse("Key not removed", config.containsKey("new.key"));
+        config.clear();
+        assertTrue("Configuration not empty", config.isEmpty());
+        assertEquals("Wrong size", 0, config.size());
+    }
+
+    /**
+     * Tests that a list value returned in snapshot mode can be modified
+     * without affecting the snapshot.
+     */
+    @Test
+    public void testSnapshotModeListValueNotShared()
+    {
+        final String key = "tables.table.name";
+        config.setSnapshotMode(true);
+        @SuppressWarnings("unchecked")
+        List<Object> values = (List<Object>) config.getProperty(key);
+        int count = values.size();
+        values.clear();
+        assertEquals("Snapshot was modified", count,
+                ((List<?>) config.getProperty(key)).size());
+    }
+
+    /**
+     * Tests that a change of the expression engine is taken into account by
+     * the snapshot mode.
+     */
+    @Test
+    public void testSnapshotModeChangeExpressionEngine()
+    {
+        config.setSnapshotMode(true);
+        assertEquals("Wrong value", NodeStructureHelper.table(0),
+                config.getString("tables.table(0).name"));
+        DefaultExpressionEngineSymbols symbols =
+                new DefaultExpressionEngineSymbols.Builder(
+                        DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS)
+                        .setPropertyDelimiter("/").create();
+        config.setExpressionEngine(new DefaultExpressionEngine(symbols));
+        assertEquals("Wrong value for new syntax",
+                NodeStructureHelper.table(0),
+                config.getString("tables/table(0)/name"));
+        assertNull("Old syntax still supported",
+                config.getString("tables.table(0).name"));
+    }
+
+    /**
+     * Tests that a clone of a configuration in snapshot mode does not share
+     * the snapshot with the original.
+     */
+    @Test
+    public void testSnapshotModeClone()
+    {
+        config.setSnapshotMode(true);
+        assertTrue("Key not found", config.containsKey("tables.table.name"));
+        BaseHierarchicalConfiguration copy =
+                (BaseHierarchicalConfiguration) config.clone();
+        assertTrue("Snapshot mode not copied", copy.isSnapshotMode());
+        copy.addProperty("new.key", "test");
+        assertTrue("Key not found in copy", copy.containsKey("new.key"));
+        assertFalse("Key found in original", config.containsKey("new.key"));
+    }
+
+    /**
+     * Tests the default value of the lock-free reads flag.
+     */
+    @Test
+    public void testLockFreeReadsDefault()
+    {
+        assertFalse("Lock-free reads enabled", config.isLockFreeReads());
+    }
+
     /**
      * Checks the content of the passed in configuration object. Used by some
      * tests that copy a configuration.
@@ -661,4 +825,97 @@ public class TestHierarchicalConfiguration
             }
         }
     }
+
+    /**
+     * Tests whether a batch of update operations can be executed.
+     */
+    @Test
+    public void testExecuteBatch()
+    {
+        ImmutableNode node =
+                new ImmutableNode.Builder().name("child").value("v").create();
+        ModelBatch batch = new ModelBatch()
+                .addProperty("batch.list", Arrays.asList("a", "b"))
+                .setProperty("batch.list(1)", "c")
+                .addProperty("batch.temp", Collections.singleton("t"))
+                .clearProperty("batch.temp")
+                .addNodes("batch.nodes", Collections.singleton(node))
+                .clearTree("tables.table(0)");
+        config.executeBatch(batch);
+
+        assertEquals("Wrong list", Arrays.asList("a", "c"),
+                config.getList("batch.list"));
+        assertFalse("Temp property found", config.containsKey("batch.temp"));
+        assertEquals("Wrong node value", "v",
+                config.getString("batch.nodes.child"));
+        assertEquals("Wrong table", NodeStructureHelper.table(1),
+                config.getString("tables.table(0).name"));
+    }
+
+    /**
+     * Tests that a batch causes a single pair of events.
+     */
+    @Test
+    public void testExecuteBatchEvents()
+    {
+        EventListenerTestImpl listener = new EventListenerTestImpl(config);
+        config.addEventListener(ConfigurationEvent.ANY, listener);
+        ModelBatch batch = new ModelBatch();
+        for (int i = 0; i < 10; i++)
+        {
+            batch.addProperty("batch.key" + i, Collections.singleton(i));
+        }
+
+        config.executeBatch(batch);
+        listener.checkEvent(ConfigurationEvent.BATCH_UPDATE, null, batch,
+                true);
+        listener.checkEvent(ConfigurationEvent.BATCH_UPDATE, null, batch,
+                false);
+        listener.done();
+        assertEquals("Wrong value", 9, config.getInt("batch.key9"));
+    }
+
+    /**
+     * Tests that an empty batch does not change the configuration.
+     */
+    @Test
+    public void testExecuteBatchEmpty()
+    {
+        EventListenerTestImpl listener = new EventListenerTestImpl(config);
+        config.addEventListener(ConfigurationEvent.ANY, listener);
+        ImmutableNode root = config.getNodeModel().getRootNode();
+
+        config.executeBatch(new ModelBatch());
+        listener.done();
+        assertSame("Root node changed", root,
+                config.getNodeModel().getRootNode());
+    }
+
+    /**
+     * Tries to execute a null batch.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteBatchNull()
+    {
+        config.executeBatch(null);
+    }
+
+    /**
+     * Tests whether a batch can be executed on a sub configuration which is
+     * connected to its parent.
+     */
+    @Test
+    public void testExecuteBatchSubConfiguration()
+    {
+        HierarchicalConfiguration<ImmutableNode> sub =
+                config.configurationAt("tables.table(1)", true);
+        ((BaseHierarchicalConfiguration) sub).executeBatch(new ModelBatch()
+                .setProperty("name", NEW_NAME).addProperty("comment",
+                        Collections.singleton("test")));
+
+        assertEquals("Name not changed", NEW_NAME,
+                config.getString("tables.table(1).name"));
+        assertEquals("Comment not added", "test",
+                config.getString("tables.table(1).comment"));
+    }
 }
@@ -130,6 +130,41 @@ public class TestDatabaseBuilderParametersImpl
                 .getParameters().get("autoCommit"));
     }
 
+    /**
+     * Tests whether the cached flag can be set.
+     */
+    @Test
+    public void testSetCached()
+    {
+        assertSame("Wrong result", params, params.setCached(true));
+        assertEquals("Wrong cached flag", Boolean.TRUE, params.getParameters()
+                .get("cached"));
+    }
+
+    /**
+     * Tests whether the cache refresh interval can be set.
+     */
+    @Test
+    public void testSetCacheRefreshInterval()
+    {
+        assertSame("Wrong result", params,
+                params.setCacheRefreshInterval(60000));
+        assertEquals("Wrong refresh interval", Long.valueOf(60000), params
+                .getParameters().get("cacheRefreshInterval"));
+    }
+
+    /**
+     * Tests whether the version column can be set.
+     */
+    @Test
+    public void testSetVersionColumn()
+    {
+        String colName = "VERSION_COLUMN";
+        assertSame("Wrong result", params, params.setVersionColumn(colName));
+        assertEquals("Wrong version column name", colName, params
+                .getParameters().get("versionColumn"));
+    }
+
     /**
      * Tests whether properties can be set through BeanUtils.
      */
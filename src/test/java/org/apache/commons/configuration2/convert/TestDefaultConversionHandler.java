@@ -17,6 +17,7 @@
 package org.apache.commons.configuration2.convert;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -374,4 +375,130 @@ public class TestDefaultConversionHandler
         Object result = handler.to(value.toString(), Long.TYPE, null);
         assertEquals("Wrong conversion result", value, result);
     }
+
+    /**
+     * Tests a direct conversion to an int value.
+     */
+    @Test
+    public void testToIntPrimitive()
+    {
+        assertEquals("Wrong string", 8080, handler.toInt("8080", 0, null));
+        assertEquals("Wrong number", 42, handler.toInt(42L, 0, null));
+        assertEquals("Wrong hex", 255, handler.toInt("0xFF", 0, null));
+        assertEquals("Wrong binary", 5, handler.toInt("0b101", 0, null));
+        assertEquals("Wrong list", 1,
+                handler.toInt(Arrays.asList("1", "2"), 0, null));
+        assertEquals("Wrong variable", Integer.parseInt(REPLACEMENT),
+                handler.toInt(VAR, 0, createInterpolator()));
+    }
+
+    /**
+     * Tests that the default value is returned by toInt() if there is no
+     * value.
+     */
+    @Test
+    public void testToIntPrimitiveDefault()
+    {
+        assertEquals("Wrong null", 17, handler.toInt(null, 17, null));
+        assertEquals("Wrong empty list", 17,
+                handler.toInt(new ArrayList<Object>(), 17, null));
+    }
+
+    /**
+     * Tests a failed direct conversion to an int value.
+     */
+    @Test(expected = ConversionException.class)
+    public void testToIntPrimitiveInvalid()
+    {
+        handler.toInt("not a number", 0, null);
+    }
+
+    /**
+     * Tests a direct conversion to a long value.
+     */
+    @Test
+    public void testToLongPrimitive()
+    {
+        assertEquals("Wrong string", 20130819214935L,
+                handler.toLong("20130819214935", 0, null));
+        assertEquals("Wrong number", 42L, handler.toLong(42, 0, null));
+        assertEquals("Wrong hex", 255L, handler.toLong("0xFF", 0, null));
+        assertEquals("Wrong default", 17L, handler.toLong(null, 17, null));
+    }
+
+    /**
+     * Tests a failed direct conversion to a long value.
+     */
+    @Test(expected = ConversionException.class)
+    public void testToLongPrimitiveInvalid()
+    {
+        handler.toLong("1.5", 0, null);
+    }
+
+    /**
+     * Tests a direct conversion to a double value.
+     */
+    @Test
+    public void testToDoublePrimitive()
+    {
+        final double delta = 1e-10;
+        assertEquals("Wrong string", 3.1415,
+                handler.toDouble("3.1415", 0, null), delta);
+        assertEquals("Wrong number", 42.0, handler.toDouble(42, 0, null),
+                delta);
+        assertEquals("Wrong default", 1.5, handler.toDouble(null, 1.5, null),
+                delta);
+    }
+
+    /**
+     * Tests a failed direct conversion to a double value.
+     */
+    @Test(expected = ConversionException.class)
+    public void testToDoublePrimitiveInvalid()
+    {
+        handler.toDouble("NaN?", 0, null);
+    }
+
+    /**
+     * Tests a direct conversion to a boolean value.
+     */
+    @Test
+    public void testToBooleanPrimitive()
+    {
+        assertTrue("Wrong string", handler.toBoolean("true", false, null));
+        assertTrue("Wrong yes", handler.toBoolean("yes", false, null));
+        assertFalse("Wrong off", handler.toBoolean("off", true, null));
+        assertTrue("Wrong object",
+                handler.toBoolean(Boolean.TRUE, false, null));
+        assertTrue("Wrong default", handler.toBoolean(null, true, null));
+    }
+
+    /**
+     * Tests a failed direct conversion to a boolean value.
+     */
+    @Test(expected = ConversionException.class)
+    public void testToBooleanPrimitiveInvalid()
+    {
+        handler.toBoolean(1, false, null);
+    }
+
+    /**
+     * Tests that the conversion methods for primitive types delegate to the
+     * generic conversion for derived classes.
+     */
+    @Test
+    public void testToIntPrimitiveSubclass()
+    {
+        handler = new DefaultConversionHandler()
+        {
+            @Override
+            protected <T> T convertValue(Object src, Class<T> targetCls,
+                    ConfigurationInterpolator ci)
+            {
+                return super.convertValue("0".equals(src) ? "100" : src,
+                        targetCls, ci);
+            }
+        };
+        assertEquals("Wrong result", 100, handler.toInt("0", 1, null));
+    }
 }
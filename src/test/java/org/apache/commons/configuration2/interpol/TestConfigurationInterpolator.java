@@ -21,13 +21,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.easymock.EasyMock;
 import org.easymock.IAnswer;
@@ -465,6 +468,72 @@ public class TestConfigurationInterpolator
         assertEquals("Wrong result", value, interpolator.interpolate(value));
     }
 
+    /**
+     * Tests whether the prefixes of resolved variables can be recorded.
+     */
+    @Test
+    public void testInterpolateRecordUsedPrefixes()
+    {
+        interpolator.registerLookup(TEST_PREFIX, setUpTestLookup());
+        interpolator.registerLookup("other", setUpTestLookup("x", "y"));
+        interpolator.addDefaultLookup(setUpTestLookup("nested",
+                "${other:x}"));
+        Set<String> prefixes = new HashSet<>();
+        assertEquals("Wrong result", TEST_VALUE + " y ${unknown}",
+                interpolator.interpolate("${" + TEST_PREFIX + ':' + TEST_NAME
+                        + "} ${nested} ${unknown}", prefixes));
+        assertEquals("Wrong prefixes",
+                new HashSet<>(Arrays.asList(TEST_PREFIX, "other")), prefixes);
+    }
+
+    /**
+     * Tests that prefixes recorded by a nested interpolation are also passed
+     * to the outer interpolation.
+     */
+    @Test
+    public void testInterpolateRecordUsedPrefixesNested()
+    {
+        final ConfigurationInterpolator nested = new ConfigurationInterpolator();
+        nested.registerLookup(TEST_PREFIX, setUpTestLookup());
+        interpolator.registerLookup("outer", new Lookup()
+        {
+            @Override
+            public Object lookup(String variable)
+            {
+                Set<String> nestedPrefixes = new HashSet<>();
+                return nested.interpolate("${" + variable + "}",
+                        nestedPrefixes);
+            }
+        });
+        Set<String> prefixes = new HashSet<>();
+        assertEquals("Wrong result", TEST_VALUE, interpolator.interpolate(
+                "${outer:" + TEST_PREFIX + ':' + TEST_NAME + "}", prefixes));
+        assertEquals("Wrong prefixes",
+                new HashSet<>(Arrays.asList(TEST_PREFIX, "outer")), prefixes);
+    }
+
+    /**
+     * Tests that prefixes are only recorded while requested.
+     */
+    @Test
+    public void testInterpolateRecordUsedPrefixesFinished()
+    {
+        interpolator.registerLookup(TEST_PREFIX, setUpTestLookup());
+        Set<String> prefixes = new HashSet<>();
+        interpolator.interpolate("test", prefixes);
+        interpolator.interpolate("${" + TEST_PREFIX + ':' + TEST_NAME + "}");
+        assertTrue("Got prefixes", prefixes.isEmpty());
+    }
+
+    /**
+     * Tries to record prefixes in a null collection.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInterpolateRecordUsedPrefixesNull()
+    {
+        interpolator.interpolate("${test}", null);
+    }
+
     /**
      * Tests whether the flag for substitution in variable names can be
      * modified.
@@ -533,6 +602,148 @@ public class TestConfigurationInterpolator
         assertEquals("Wrong result", value, interpolator.interpolate(value));
     }
 
+    /**
+     * Creates a lookup object which resolves variables from the given map.
+     *
+     * @param map the map with variables
+     * @return the lookup
+     */
+    private static Lookup mapLookup(final Map<String, String> map)
+    {
+        return new Lookup()
+        {
+            @Override
+            public Object lookup(String variable)
+            {
+                return map.get(variable);
+            }
+        };
+    }
+
+    /**
+     * Checks that the interpolator produces the same results as a
+     * {@code StrSubstitutor} for the given values. Each value is interpolated
+     * twice, so that cached templates are used as well.
+     *
+     * @param vars the map with the variables
+     * @param values the values to be interpolated
+     */
+    @SuppressWarnings("deprecation") // the reference implementation
+    private void checkSameResultsAsSubstitutor(Map<String, String> vars,
+            String... values)
+    {
+        interpolator.addDefaultLookup(mapLookup(vars));
+        org.apache.commons.lang3.text.StrSubstitutor substitutor =
+                new org.apache.commons.lang3.text.StrSubstitutor(
+                        org.apache.commons.lang3.text.StrLookup
+                                .mapLookup(vars));
+        for (int i = 0; i < 2; i++)
+        {
+            for (String value : values)
+            {
+                assertEquals("Wrong result for " + value,
+                        substitutor.replace(value),
+                        interpolator.interpolate(value));
+            }
+        }
+    }
+
+    /**
+     * Tests that interpolation yields the same results as the
+     * {@code StrSubstitutor} for various special cases.
+     */
+    @Test
+    public void testInterpolationSameResultsAsSubstitutor()
+    {
+        Map<String, String> vars = new HashMap<>();
+        vars.put("a", "A");
+        vars.put("b", "${a}x");
+        vars.put("c", "v$");
+        vars.put("d", "${undefined:-def}");
+        vars.put("e", "");
+        vars.put("p:n", "prefixed");
+        checkSameResultsAsSubstitutor(vars, "x${a}y", "$${a}", "$$${a}",
+                "${b}-${a}", "${c}${a}", "${c}$${a}", "${e}${a}", "${d}",
+                "${undef}", "${undef:-${a}}", "${undef:-x:-y}", "${a", "${a}}",
+                "a$", "$", "${a}$", "text", "${p:n}.${p:undef}", "${${a}}",
+                "${a}${b}${c}${d}");
+    }
+
+    /**
+     * Tests that a cyclic reference is detected and reported in the same way
+     * as by the {@code StrSubstitutor}.
+     */
+    @Test
+    @SuppressWarnings("deprecation") // the reference implementation
+    public void testInterpolationCyclicReference()
+    {
+        Map<String, String> vars = new HashMap<>();
+        vars.put("a", "${b}");
+        vars.put("b", "x${c}");
+        vars.put("c", "${a}");
+        interpolator.addDefaultLookup(mapLookup(vars));
+        String value = "Test ${a}";
+        String expMsg = null;
+        try
+        {
+            new org.apache.commons.lang3.text.StrSubstitutor(
+                    org.apache.commons.lang3.text.StrLookup.mapLookup(vars))
+                    .replace(value);
+        }
+        catch (IllegalStateException isex)
+        {
+            expMsg = isex.getMessage();
+        }
+        for (int i = 0; i < 2; i++)
+        {
+            try
+            {
+                interpolator.interpolate(value);
+                fail("Cyclic reference not detected!");
+            }
+            catch (IllegalStateException isex)
+            {
+                assertEquals("Wrong message", expMsg, isex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tests that a lookup registered after a value has been interpolated is
+     * taken into account when the value is interpolated again.
+     */
+    @Test
+    public void testInterpolationLookupRegisteredLater()
+    {
+        String value = "Value: ${" + TEST_PREFIX + ":" + TEST_NAME + "}!";
+        assertEquals("Wrong initial result", value,
+                interpolator.interpolate(value));
+        interpolator.registerLookup(TEST_PREFIX, setUpTestLookup());
+        assertEquals("Lookup not used", "Value: " + TEST_VALUE + "!",
+                interpolator.interpolate(value));
+        interpolator.deregisterLookup(TEST_PREFIX);
+        assertEquals("Lookup still used", value,
+                interpolator.interpolate(value));
+    }
+
+    /**
+     * Tests that an overridden resolve() method is called for all variables.
+     */
+    @Test
+    public void testInterpolationResolveOverridden()
+    {
+        interpolator = new ConfigurationInterpolator()
+        {
+            @Override
+            public Object resolve(String var)
+            {
+                return var.toUpperCase();
+            }
+        };
+        assertEquals("Wrong result", "Vars: A:B, C", interpolator
+                .interpolate("Vars: ${a:b}, ${c:-default}"));
+    }
+
     /**
      * Tries to obtain an instance from a null specification.
      */
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.interpol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@code InterpolationTemplate}.
+ *
+ * @version $Id$
+ */
+public class TestInterpolationTemplate
+{
+    /**
+     * Tests a template for a string without variables.
+     */
+    @Test
+    public void testCompileLiteral()
+    {
+        String source = "This is a test.";
+        InterpolationTemplate template = InterpolationTemplate.compile(source);
+        assertEquals("Wrong source", source, template.getSource());
+        assertEquals("Wrong number of parts", 1, template.size());
+        assertFalse("A variable", template.isVariable(0));
+        assertEquals("Wrong literal", source, template.getLiteral(0));
+    }
+
+    /**
+     * Tests a template for an empty string.
+     */
+    @Test
+    public void testCompileEmpty()
+    {
+        assertEquals("Got parts", 0, InterpolationTemplate.compile("").size());
+    }
+
+    /**
+     * Tests a template with literal text and variables.
+     */
+    @Test
+    public void testCompileVariables()
+    {
+        InterpolationTemplate template =
+                InterpolationTemplate.compile("${a}, ${b}!");
+        assertEquals("Wrong number of parts", 4, template.size());
+        assertTrue("No variable (1)", template.isVariable(0));
+        assertEquals("Wrong variable (1)", "a", template.getVariable(0)
+                .getName());
+        assertEquals("Wrong literal (1)", ", ", template.getLiteral(1));
+        assertEquals("Wrong expression", "${b}", template.getVariable(2)
+                .getExpression());
+        assertEquals("Wrong literal (2)", "!", template.getLiteral(3));
+    }
+
+    /**
+     * Tests whether a variable can be escaped.
+     */
+    @Test
+    public void testCompileEscapedVariable()
+    {
+        InterpolationTemplate template =
+                InterpolationTemplate.compile("a $${var} b");
+        assertEquals("Wrong number of parts", 1, template.size());
+        assertEquals("Wrong literal", "a ${var} b", template.getLiteral(0));
+    }
+
+    /**
+     * Tests a variable which is not terminated.
+     */
+    @Test
+    public void testCompileUnterminatedVariable()
+    {
+        InterpolationTemplate template =
+                InterpolationTemplate.compile("test ${var");
+        assertEquals("Wrong number of parts", 1, template.size());
+        assertEquals("Wrong literal", "test ${var", template.getLiteral(0));
+    }
+
+    /**
+     * Tests whether the prefix of a variable is extracted.
+     */
+    @Test
+    public void testVariablePrefix()
+    {
+        InterpolationTemplate.Variable var =
+                InterpolationTemplate.compile("${sys:user.home}")
+                        .getVariable(0);
+        assertEquals("Wrong name", "sys:user.home", var.getName());
+        assertEquals("Wrong prefix", "sys", var.getPrefix());
+        assertEquals("Wrong local name", "user.home", var.getLocalName());
+        assertNull("Got a default value", var.getDefaultValue());
+    }
+
+    /**
+     * Tests a variable without a prefix.
+     */
+    @Test
+    public void testVariableNoPrefix()
+    {
+        InterpolationTemplate.Variable var =
+                InterpolationTemplate.compile("${var}").getVariable(0);
+        assertNull("Got a prefix", var.getPrefix());
+        assertEquals("Wrong local name", "var", var.getLocalName());
+    }
+
+    /**
+     * Tests whether a default value is extracted.
+     */
+    @Test
+    public void testVariableDefaultValue()
+    {
+        InterpolationTemplate.Variable var =
+                InterpolationTemplate.compile("${env:HOME:-/tmp:-x}")
+                        .getVariable(0);
+        assertEquals("Wrong name", "env:HOME", var.getName());
+        assertEquals("Wrong prefix", "env", var.getPrefix());
+        assertEquals("Wrong local name", "HOME", var.getLocalName());
+        assertEquals("Wrong default value", "/tmp:-x", var.getDefaultValue());
+    }
+
+    /**
+     * Tests that a default value delimiter after a nested variable start is
+     * ignored.
+     */
+    @Test
+    public void testVariableDefaultValueAfterNestedStart()
+    {
+        InterpolationTemplate.Variable var =
+                InterpolationTemplate.compile("${a${b:-c}").getVariable(0);
+        assertEquals("Wrong name", "a${b:-c", var.getName());
+        assertNull("Got a default value", var.getDefaultValue());
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.commons.configuration2.io.FileHandler;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@code ContentHashReloadingDetector}.
+ *
+ * @version $Id$
+ */
+public class TestContentHashReloadingDetector
+{
+    /** Constant for a file's modification time. */
+    private static final long LAST_MODIFIED = 1400000000000L;
+
+    /** Constant for the original content of the test file. */
+    private static final String CONTENT = "key = value";
+
+    /** A helper object for creating temporary files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** The file to be monitored. */
+    private File file;
+
+    /** The detector to be tested. */
+    private ContentHashReloadingDetector detector;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        file = folder.newFile("hashed.properties");
+        writeFile(CONTENT, LAST_MODIFIED);
+        detector = new ContentHashReloadingDetector(new FileHandler(), 0);
+        detector.getFileHandler().setFile(file);
+    }
+
+    /**
+     * Writes the given content into the test file and sets its modification
+     * time.
+     *
+     * @param content the content
+     * @param modified the modification time
+     * @throws IOException if an error occurs
+     */
+    private void writeFile(String content, long modified) throws IOException
+    {
+        Writer out = new FileWriter(file);
+        try
+        {
+            out.write(content);
+        }
+        finally
+        {
+            out.close();
+        }
+        assertTrue("Cannot set modification time",
+                file.setLastModified(modified));
+    }
+
+    /**
+     * Tests the default algorithm.
+     */
+    @Test
+    public void testDefaultAlgorithm()
+    {
+        assertEquals("Wrong algorithm",
+                ContentHashReloadingDetector.DEFAULT_ALGORITHM,
+                new ContentHashReloadingDetector().getAlgorithm());
+    }
+
+    /**
+     * Tests whether a specific algorithm can be set.
+     */
+    @Test
+    public void testInitAlgorithm()
+    {
+        ContentHashReloadingDetector det =
+                new ContentHashReloadingDetector(null, 1000, "SHA-256");
+        assertEquals("Wrong algorithm", "SHA-256", det.getAlgorithm());
+        assertEquals("Wrong refresh delay", 1000, det.getRefreshDelay());
+    }
+
+    /**
+     * Tries to create an instance with an unsupported algorithm.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitUnsupportedAlgorithm()
+    {
+        new ContentHashReloadingDetector(null, "unknown algorithm");
+    }
+
+    /**
+     * Tests isReloadingRequired() if no location has been set.
+     */
+    @Test
+    public void testIsReloadingRequiredNoLocation()
+    {
+        assertFalse("Reloading",
+                new ContentHashReloadingDetector().isReloadingRequired());
+    }
+
+    /**
+     * Tests whether a change of the content is detected.
+     */
+    @Test
+    public void testContentChanged() throws IOException
+    {
+        assertFalse("Reloading (1)", detector.isReloadingRequired());
+        writeFile("key = other value", LAST_MODIFIED + 1000);
+        assertTrue("No reloading", detector.isReloadingRequired());
+        detector.reloadingPerformed();
+        assertFalse("Reloading (2)", detector.isReloadingRequired());
+    }
+
+    /**
+     * Tests that a touched file does not cause a reload.
+     */
+    @Test
+    public void testFileTouched()
+    {
+        assertFalse("Reloading (1)", detector.isReloadingRequired());
+        assertTrue("Cannot set modification time",
+                file.setLastModified(LAST_MODIFIED + 1000));
+        assertFalse("Reloading (2)", detector.isReloadingRequired());
+    }
+
+    /**
+     * Tests that a file rewritten with the same content does not cause a
+     * reload, and that a later change is still detected.
+     */
+    @Test
+    public void testSameContentWritten() throws IOException
+    {
+        assertFalse("Reloading (1)", detector.isReloadingRequired());
+        writeFile(CONTENT, LAST_MODIFIED + 1000);
+        assertFalse("Reloading (2)", detector.isReloadingRequired());
+        assertFalse("Reloading (3)", detector.isReloadingRequired());
+        writeFile("changed", LAST_MODIFIED + 2000);
+        assertTrue("No reloading", detector.isReloadingRequired());
+    }
+
+    /**
+     * Tests that the content at the time of the last reload is used for the
+     * comparison.
+     */
+    @Test
+    public void testContentRestoredBeforeReload() throws IOException
+    {
+        assertFalse("Reloading (1)", detector.isReloadingRequired());
+        writeFile("changed", LAST_MODIFIED + 1000);
+        assertTrue("No reloading (1)", detector.isReloadingRequired());
+        writeFile(CONTENT, LAST_MODIFIED + 2000);
+        assertFalse("Reloading (2)", detector.isReloadingRequired());
+        writeFile("changed", LAST_MODIFIED + 3000);
+        detector.reloadingPerformed();
+        writeFile(CONTENT, LAST_MODIFIED + 4000);
+        assertTrue("No reloading (2)", detector.isReloadingRequired());
+    }
+
+    /**
+     * Tests that the modification time is used if the file cannot be read.
+     */
+    @Test
+    public void testDigestNotAvailable()
+    {
+        ContentHashReloadingDetector det =
+                new ContentHashReloadingDetector(new FileHandler(), 0)
+                {
+                    @Override
+                    protected byte[] calculateDigest()
+                    {
+                        return null;
+                    }
+                };
+        det.getFileHandler().setFile(file);
+        assertFalse("Reloading", det.isReloadingRequired());
+        assertTrue("Cannot set modification time",
+                file.setLastModified(LAST_MODIFIED + 1000));
+        assertTrue("No reloading", det.isReloadingRequired());
+    }
+
+    /**
+     * Tests calculateDigest() for a non-existing file.
+     */
+    @Test
+    public void testCalculateDigestNonExistingFile()
+    {
+        detector.getFileHandler().setFile(new File(folder.getRoot(),
+                "nonExisting.properties"));
+        assertNull("Got a digest", detector.calculateDigest());
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration2.io.FileHandler;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@code ReloadingScheduler}.
+ *
+ * @version $Id$
+ */
+public class TestReloadingScheduler
+{
+    /** Constant for a parameter to be passed to the controller. */
+    private static final Object CTRL_PARAM = "Test controller parameter";
+
+    /** Constant for the period. */
+    private static final long PERIOD = 60;
+
+    /** Constant for the period's time unit. */
+    private static final TimeUnit UNIT = TimeUnit.SECONDS;
+
+    /** Constant for the jitter used by tests. */
+    private static final double JITTER = 0.5;
+
+    /** A mock for the executor service. */
+    private ScheduledExecutorService executor;
+
+    /** A helper object for creating temporary files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** A mock for the reloading controller. */
+    private ReloadingController controller;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        executor = EasyMock.createMock(ScheduledExecutorService.class);
+        controller = createControllerMock();
+    }
+
+    /**
+     * Creates a mock for a reloading controller. The controller does not have
+     * a detector monitoring a file.
+     *
+     * @return the mock
+     */
+    private static ReloadingController createControllerMock()
+    {
+        ReloadingController ctrl =
+                EasyMock.createMock(ReloadingController.class);
+        EasyMock.expect(ctrl.getDetector()).andStubReturn(null);
+        return ctrl;
+    }
+
+    /**
+     * Creates a reloading controller with a detector monitoring the given
+     * file.
+     *
+     * @param file the file to be monitored
+     * @return the controller
+     */
+    private static ReloadingController createFileController(File file)
+    {
+        FileHandler handler = new FileHandler();
+        handler.setFile(file);
+        return new ReloadingController(new FileHandlerReloadingDetector(
+                handler, 0));
+    }
+
+    /**
+     * Creates a mock for a scheduled future.
+     *
+     * @return the mock
+     */
+    private static ScheduledFuture<Void> createFutureMock()
+    {
+        @SuppressWarnings("unchecked")
+        ScheduledFuture<Void> mock =
+                EasyMock.createMock(ScheduledFuture.class);
+        return mock;
+    }
+
+    /**
+     * Prepares the executor mock to expect a scheduled task. The task and the
+     * initial delay are stored in the passed in objects.
+     *
+     * @param future the future to be returned
+     * @param task an object for storing the task
+     * @param delay an object for storing the initial delay
+     */
+    private void expectSchedule(final ScheduledFuture<Void> future,
+            final MutableObject<Runnable> task,
+            final MutableObject<Long> delay)
+    {
+        executor.scheduleAtFixedRate(EasyMock.anyObject(Runnable.class),
+                EasyMock.anyLong(), EasyMock.eq(UNIT.toNanos(PERIOD)),
+                EasyMock.eq(TimeUnit.NANOSECONDS));
+        EasyMock.expectLastCall().andAnswer(
+                new IAnswer<ScheduledFuture<Void>>()
+                {
+                    @Override
+                    public ScheduledFuture<Void> answer() throws Throwable
+                    {
+                        task.setValue((Runnable) EasyMock
+                                .getCurrentArguments()[0]);
+                        delay.setValue((Long) EasyMock
+                                .getCurrentArguments()[1]);
+                        return future;
+                    }
+                });
+    }
+
+    /**
+     * Tries to create an instance with an invalid pool size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidPoolSize()
+    {
+        new ReloadingScheduler(0, JITTER);
+    }
+
+    /**
+     * Tries to create an instance with a negative jitter.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNegativeJitter()
+    {
+        new ReloadingScheduler(executor, -0.1);
+    }
+
+    /**
+     * Tries to create an instance without an executor service.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNoExecutor()
+    {
+        new ReloadingScheduler(null, JITTER);
+    }
+
+    /**
+     * Tests whether the default instance is shared.
+     */
+    @Test
+    public void testGetDefaultInstance()
+    {
+        ReloadingScheduler scheduler = ReloadingScheduler.getDefaultInstance();
+        assertSame("Not shared", scheduler,
+                ReloadingScheduler.getDefaultInstance());
+        assertEquals("Wrong jitter", ReloadingScheduler.DEFAULT_JITTER,
+                scheduler.getJitter(), 0.0);
+        assertFalse("Shut down", scheduler.getExecutorService().isShutdown());
+    }
+
+    /**
+     * Tests whether the default instance is recreated after it was shut down.
+     */
+    @Test
+    public void testGetDefaultInstanceAfterShutdown()
+    {
+        ReloadingScheduler scheduler = ReloadingScheduler.getDefaultInstance();
+        scheduler.shutdown();
+        ReloadingScheduler scheduler2 = ReloadingScheduler.getDefaultInstance();
+        assertNotSame("Same instance", scheduler, scheduler2);
+        assertFalse("Shut down", scheduler2.getExecutorService().isShutdown());
+    }
+
+    /**
+     * Tests whether a trigger created by the scheduler uses its executor
+     * service and whether the initial delay contains a jitter.
+     */
+    @Test
+    public void testStartTrigger()
+    {
+        ScheduledFuture<Void> future = createFutureMock();
+        MutableObject<Runnable> task = new MutableObject<>();
+        MutableObject<Long> delay = new MutableObject<>();
+        expectSchedule(future, task, delay);
+        EasyMock.expect(controller.checkForReloading(CTRL_PARAM)).andReturn(
+                Boolean.FALSE);
+        EasyMock.replay(future, controller, executor);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+        PeriodicReloadingTrigger trigger =
+                scheduler.createTrigger(controller, CTRL_PARAM, PERIOD, UNIT);
+
+        assertSame("Wrong executor", executor, trigger.getExecutorService());
+        trigger.start();
+        assertTrue("Not running", trigger.isRunning());
+        long periodNanos = UNIT.toNanos(PERIOD);
+        assertTrue("Delay too small: " + delay.getValue(),
+                delay.getValue() >= periodNanos);
+        assertTrue("Delay too big: " + delay.getValue(),
+                delay.getValue() <= periodNanos + (long) (JITTER * periodNanos));
+        task.getValue().run();
+        EasyMock.verify(future, controller, executor);
+    }
+
+    /**
+     * Tests that no jitter is added if the jitter is 0.
+     */
+    @Test
+    public void testStartTriggerNoJitter()
+    {
+        ScheduledFuture<Void> future = createFutureMock();
+        MutableObject<Runnable> task = new MutableObject<>();
+        MutableObject<Long> delay = new MutableObject<>();
+        expectSchedule(future, task, delay);
+        EasyMock.replay(future, controller, executor);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, 0);
+
+        scheduler.createTrigger(controller, CTRL_PARAM, PERIOD, UNIT).start();
+        assertEquals("Wrong delay", UNIT.toNanos(PERIOD), delay.getValue()
+                .longValue());
+        EasyMock.verify(future, controller, executor);
+    }
+
+    /**
+     * Tests that shutting down a trigger does not shut down the executor
+     * service of the scheduler.
+     */
+    @Test
+    public void testShutdownTrigger()
+    {
+        ScheduledFuture<Void> future = createFutureMock();
+        expectSchedule(future, new MutableObject<Runnable>(),
+                new MutableObject<Long>());
+        EasyMock.expect(future.cancel(false)).andReturn(Boolean.TRUE);
+        EasyMock.replay(future, controller, executor);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+        PeriodicReloadingTrigger trigger =
+                scheduler.createTrigger(controller, CTRL_PARAM, PERIOD, UNIT);
+
+        trigger.start();
+        trigger.shutdown();
+        assertFalse("Still running", trigger.isRunning());
+        EasyMock.verify(future, controller, executor);
+    }
+
+    /**
+     * Tests whether the scheduler can be shut down.
+     */
+    @Test
+    public void testShutdown()
+    {
+        executor.shutdown();
+        EasyMock.replay(controller, executor);
+        new ReloadingScheduler(executor, JITTER).shutdown();
+        EasyMock.verify(controller, executor);
+    }
+
+    /**
+     * Tests that checks for the same controller are coalesced if they happen
+     * within the minimum interval.
+     */
+    @Test
+    public void testCheckForReloadingCoalesced()
+    {
+        EasyMock.expect(controller.checkForReloading(CTRL_PARAM)).andReturn(
+                Boolean.FALSE);
+        EasyMock.replay(controller, executor);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+
+        assertTrue("No check", scheduler.checkForReloading(controller,
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        assertFalse("Check not coalesced", scheduler.checkForReloading(
+                controller, CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        EasyMock.verify(controller, executor);
+    }
+
+    /**
+     * Tests that checks are performed if the minimum interval has passed.
+     */
+    @Test
+    public void testCheckForReloadingAfterInterval()
+    {
+        EasyMock.expect(controller.checkForReloading(CTRL_PARAM)).andReturn(
+                Boolean.FALSE).times(2);
+        EasyMock.replay(controller, executor);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+
+        assertTrue("No check (1)",
+                scheduler.checkForReloading(controller, CTRL_PARAM, 0));
+        assertTrue("No check (2)",
+                scheduler.checkForReloading(controller, CTRL_PARAM, 0));
+        EasyMock.verify(controller, executor);
+    }
+
+    /**
+     * Tests that checks for different controllers are not coalesced.
+     */
+    @Test
+    public void testCheckForReloadingDifferentControllers()
+    {
+        ReloadingController controller2 = createControllerMock();
+        EasyMock.expect(controller.checkForReloading(CTRL_PARAM)).andReturn(
+                Boolean.FALSE);
+        EasyMock.expect(controller2.checkForReloading(CTRL_PARAM)).andReturn(
+                Boolean.FALSE);
+        EasyMock.replay(controller, controller2, executor);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+
+        assertTrue("No check (1)", scheduler.checkForReloading(controller,
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        assertTrue("No check (2)", scheduler.checkForReloading(controller2,
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        EasyMock.verify(controller, controller2, executor);
+    }
+
+    /**
+     * Tests that a check is skipped while another check for the same
+     * controller is running.
+     */
+    @Test
+    public void testCheckForReloadingWhileRunning()
+    {
+        final ReloadingScheduler scheduler =
+                new ReloadingScheduler(executor, JITTER);
+        final AtomicInteger checkCount = new AtomicInteger();
+        final MutableObject<Boolean> nestedResult = new MutableObject<>();
+        final MutableObject<ReloadingController> ctrlHolder =
+                new MutableObject<>();
+        ReloadingController ctrl =
+                new ReloadingController(new ReloadingDetector()
+                {
+                    @Override
+                    public boolean isReloadingRequired()
+                    {
+                        checkCount.incrementAndGet();
+                        nestedResult.setValue(scheduler.checkForReloading(
+                                ctrlHolder.getValue(), CTRL_PARAM, 0));
+                        return false;
+                    }
+
+                    @Override
+                    public void reloadingPerformed()
+                    {
+                    }
+                });
+        ctrlHolder.setValue(ctrl);
+
+        assertTrue("No check", scheduler.checkForReloading(ctrl, CTRL_PARAM, 0));
+        assertEquals("Wrong number of checks", 1, checkCount.get());
+        assertFalse("Nested check performed", nestedResult.getValue()
+                .booleanValue());
+    }
+
+    /**
+     * Tests that checks for two controllers monitoring the same file are
+     * coalesced.
+     */
+    @Test
+    public void testCheckForReloadingSameFileCoalesced() throws Exception
+    {
+        File file = folder.newFile("reload.properties");
+        ReloadingController ctrl1 = createFileController(file);
+        ReloadingController ctrl2 = createFileController(file);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+
+        assertTrue("No check (1)", scheduler.checkForReloading(ctrl1,
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        assertTrue("First check of controller skipped",
+                scheduler.checkForReloading(ctrl2, CTRL_PARAM,
+                        UNIT.toNanos(PERIOD)));
+        assertFalse("Check not coalesced (1)", scheduler.checkForReloading(
+                ctrl1, CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        assertFalse("Check not coalesced (2)", scheduler.checkForReloading(
+                ctrl2, CTRL_PARAM, UNIT.toNanos(PERIOD)));
+    }
+
+    /**
+     * Tests that a controller whose check was coalesced with the check of
+     * another controller for the same file is checked when a change of the
+     * file is detected.
+     */
+    @Test
+    public void testCheckForReloadingSameFileChangeDetected() throws Exception
+    {
+        File file = folder.newFile("reload.properties");
+        assertTrue("Cannot set modification date",
+                file.setLastModified(file.lastModified() - 10000));
+        ReloadingController ctrl1 = createFileController(file);
+        ReloadingController ctrl2 = createFileController(file);
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+        scheduler.checkForReloading(ctrl1, CTRL_PARAM, UNIT.toNanos(PERIOD));
+        scheduler.checkForReloading(ctrl2, CTRL_PARAM, UNIT.toNanos(PERIOD));
+        assertFalse("Check not coalesced", scheduler.checkForReloading(ctrl2,
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+
+        assertTrue("Cannot set modification date",
+                file.setLastModified(file.lastModified() + 5000));
+        assertTrue("No check", scheduler.checkForReloading(ctrl1, CTRL_PARAM,
+                0));
+        assertTrue("Change not detected (1)", ctrl1.isInReloadingState());
+        assertTrue("Change not detected (2)", ctrl2.isInReloadingState());
+    }
+
+    /**
+     * Tests that checks for controllers monitoring different files are not
+     * coalesced.
+     */
+    @Test
+    public void testCheckForReloadingDifferentFiles() throws Exception
+    {
+        ReloadingController ctrl1 =
+                createFileController(folder.newFile("reload1.properties"));
+        ReloadingController ctrl2 =
+                createFileController(folder.newFile("reload2.properties"));
+        ReloadingScheduler scheduler = new ReloadingScheduler(executor, JITTER);
+        scheduler.checkForReloading(ctrl1, CTRL_PARAM, UNIT.toNanos(PERIOD));
+        scheduler.checkForReloading(ctrl2, CTRL_PARAM, UNIT.toNanos(PERIOD));
+
+        assertFalse("Check not coalesced", scheduler.checkForReloading(ctrl1,
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+        assertTrue("Check coalesced", scheduler.checkForReloading(
+                createFileController(folder.newFile("reload3.properties")),
+                CTRL_PARAM, UNIT.toNanos(PERIOD)));
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.reloading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.commons.configuration2.io.FileHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@code WatchServiceReloadingDetector}.
+ *
+ * @version $Id$
+ */
+public class TestWatchServiceReloadingDetector
+{
+    /** Constant for the maximum time to wait for a change event. */
+    private static final long WAIT_TIMEOUT = 30000;
+
+    /** A helper object for creating temporary files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** The file to be monitored. */
+    private File file;
+
+    /** The detector to be tested. */
+    private WatchServiceReloadingDetector detector;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        file = folder.newFile("watched.properties");
+        writeFile(file, "key = value");
+        detector = new WatchServiceReloadingDetector(new FileHandler());
+        detector.getFileHandler().setFile(file);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        detector.stopWatching();
+    }
+
+    /**
+     * Writes the given content into a file.
+     *
+     * @param f the file
+     * @param content the content
+     * @throws IOException if an error occurs
+     */
+    private static void writeFile(File f, String content) throws IOException
+    {
+        Writer out = new FileWriter(f);
+        try
+        {
+            out.write(content);
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Waits until the given detector reports a change.
+     *
+     * @param det the detector
+     * @throws InterruptedException if waiting is interrupted
+     */
+    private static void waitForReloading(WatchServiceReloadingDetector det)
+            throws InterruptedException
+    {
+        long end = System.currentTimeMillis() + WAIT_TIMEOUT;
+        while (!det.isReloadingRequired())
+        {
+            if (System.currentTimeMillis() > end)
+            {
+                fail("No change detected");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Tests the behavior if no location has been set.
+     */
+    @Test
+    public void testIsReloadingRequiredNoLocation()
+    {
+        WatchServiceReloadingDetector det = new WatchServiceReloadingDetector();
+        assertFalse("Reloading", det.isReloadingRequired());
+        assertFalse("Watching", det.isWatching());
+    }
+
+    /**
+     * Tests that a newly registered file does not cause a reload.
+     */
+    @Test
+    public void testIsReloadingRequiredInitially()
+    {
+        assertFalse("Reloading", detector.isReloadingRequired());
+        assertTrue("Not watching", detector.isWatching());
+    }
+
+    /**
+     * Tests whether a change of the file is detected. Note: A single write
+     * operation may be reported by multiple events which can arrive with a
+     * delay; therefore, it is not checked here that the detector is reset
+     * after the reload. This is tested by testChangeAfterDetection().
+     */
+    @Test
+    public void testChangeDetected() throws Exception
+    {
+        assertFalse("Reloading", detector.isReloadingRequired());
+        writeFile(file, "key = other value");
+        waitForReloading(detector);
+    }
+
+    /**
+     * Tests that changes of other files in the same directory are ignored.
+     */
+    @Test
+    public void testOtherFileIgnored() throws Exception
+    {
+        File otherFile = folder.newFile("other.properties");
+        WatchServiceReloadingDetector otherDetector =
+                new WatchServiceReloadingDetector(new FileHandler());
+        otherDetector.getFileHandler().setFile(otherFile);
+        try
+        {
+            assertFalse("Reloading (1)", detector.isReloadingRequired());
+            assertFalse("Reloading (2)", otherDetector.isReloadingRequired());
+            writeFile(otherFile, "test");
+            waitForReloading(otherDetector);
+            assertFalse("Reloading (3)", detector.isReloadingRequired());
+        }
+        finally
+        {
+            otherDetector.stopWatching();
+        }
+    }
+
+    /**
+     * Tests that a reported change is ignored if the file does not exist.
+     */
+    @Test
+    public void testChangeNonExistingFile()
+    {
+        assertFalse("Reloading", detector.isReloadingRequired());
+        assertTrue("Cannot delete file", file.delete());
+        detector.fileChanged();
+        assertFalse("Reloading for deleted file",
+                detector.isReloadingRequired());
+    }
+
+    /**
+     * Tests that changes reported after a reload was detected cause another
+     * reload.
+     */
+    @Test
+    public void testChangeAfterDetection()
+    {
+        assertFalse("Reloading", detector.isReloadingRequired());
+        detector.fileChanged();
+        assertTrue("No reloading (1)", detector.isReloadingRequired());
+        detector.fileChanged();
+        detector.reloadingPerformed();
+        assertTrue("No reloading (2)", detector.isReloadingRequired());
+        detector.reloadingPerformed();
+        assertFalse("Still reloading", detector.isReloadingRequired());
+    }
+
+    /**
+     * Tests that a directory is registered only once for multiple files.
+     */
+    @Test
+    public void testDirectoryShared() throws Exception
+    {
+        FileWatcher watcher = FileWatcher.getInstance();
+        int count = watcher.getWatchedDirectoryCount();
+        WatchServiceReloadingDetector otherDetector =
+                new WatchServiceReloadingDetector(new FileHandler());
+        otherDetector.getFileHandler().setFile(
+                folder.newFile("other.properties"));
+        detector.isReloadingRequired();
+        otherDetector.isReloadingRequired();
+        assertEquals("Wrong number of directories", count + 1,
+                watcher.getWatchedDirectoryCount());
+
+        otherDetector.stopWatching();
+        assertEquals("Directory removed", count + 1,
+                watcher.getWatchedDirectoryCount());
+        detector.stopWatching();
+        assertEquals("Directory not removed", count,
+                watcher.getWatchedDirectoryCount());
+    }
+
+    /**
+     * Tests that polling is used if the directory of the file does not exist.
+     */
+    @Test
+    public void testFallbackNonExistingDirectory()
+    {
+        File nonExisting = new File(new File(folder.getRoot(), "nonExisting"),
+                "watched.properties");
+        WatchServiceReloadingDetector det =
+                new WatchServiceReloadingDetector(new FileHandler(), 0);
+        det.getFileHandler().setFile(nonExisting);
+        assertFalse("Reloading", det.isReloadingRequired());
+        assertFalse("Watching", det.isWatching());
+    }
+
+    /**
+     * Tests that a file is registered later if its directory is created.
+     */
+    @Test
+    public void testRegistrationAfterDirectoryCreated() throws Exception
+    {
+        File dir = new File(folder.getRoot(), "later");
+        File laterFile = new File(dir, "watched.properties");
+        WatchServiceReloadingDetector det =
+                new WatchServiceReloadingDetector(new FileHandler(), 0);
+        det.getFileHandler().setFile(laterFile);
+        try
+        {
+            assertFalse("Reloading (1)", det.isReloadingRequired());
+            assertTrue("Cannot create directory", dir.mkdir());
+            writeFile(laterFile, "test");
+            assertTrue("No reloading", det.isReloadingRequired());
+            assertTrue("Not watching", det.isWatching());
+            det.reloadingPerformed();
+            assertFalse("Reloading (2)", det.isReloadingRequired());
+        }
+        finally
+        {
+            det.stopWatching();
+        }
+    }
+
+    /**
+     * Tests whether a change of the location of the file handler is taken
+     * into account.
+     */
+    @Test
+    public void testLocationChanged() throws Exception
+    {
+        assertFalse("Reloading (1)", detector.isReloadingRequired());
+        File otherFile = folder.newFile("other.properties");
+        detector.getFileHandler().setFile(otherFile);
+        detector.isReloadingRequired();
+        detector.reloadingPerformed();
+        assertFalse("Reloading (2)", detector.isReloadingRequired());
+
+        writeFile(otherFile, "changed");
+        waitForReloading(detector);
+    }
+}
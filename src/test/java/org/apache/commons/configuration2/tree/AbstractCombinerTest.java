@@ -16,10 +16,13 @@
  */
 package org.apache.commons.configuration2.tree;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.PrintStream;
 
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.ConfigurationAssert;
@@ -70,20 +73,48 @@ public abstract class AbstractCombinerTest
      */
     protected BaseHierarchicalConfiguration createCombinedConfiguration()
             throws ConfigurationException
+    {
+        BaseHierarchicalConfiguration result = new BaseHierarchicalConfiguration();
+        result.getNodeModel().setRootNode(combineTestConfigurations(false));
+
+        return result;
+    }
+
+    /**
+     * Loads the source configurations and combines their root nodes.
+     *
+     * @param parallel a flag whether the combination is done in parallel
+     * @return the combined root node
+     * @throws ConfigurationException if an error occurs
+     */
+    private ImmutableNode combineTestConfigurations(boolean parallel)
+            throws ConfigurationException
     {
         XMLConfiguration conf1 = new XMLConfiguration();
         new FileHandler(conf1).load(CONF1);
         XMLConfiguration conf2 = new XMLConfiguration();
         new FileHandler(conf2).load(CONF2);
-        ImmutableNode cn =
-                combiner.combine(conf1.getNodeModel().getNodeHandler()
-                        .getRootNode(), conf2.getNodeModel().getNodeHandler()
-                        .getRootNode());
-
-        BaseHierarchicalConfiguration result = new BaseHierarchicalConfiguration();
-        result.getNodeModel().setRootNode(cn);
+        ImmutableNode root1 =
+                conf1.getNodeModel().getNodeHandler().getRootNode();
+        ImmutableNode root2 =
+                conf2.getNodeModel().getNodeHandler().getRootNode();
+        return parallel ? combiner.combineInParallel(root1, root2) : combiner
+                .combine(root1, root2);
+    }
 
-        return result;
+    /**
+     * Returns a string representation of the given node structure.
+     *
+     * @param root the root node
+     * @return the string representation
+     */
+    private static String printTree(ImmutableNode root)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(out);
+        TreeUtils.printTree(stream, root);
+        stream.flush();
+        return out.toString();
     }
 
     /**
@@ -95,5 +126,45 @@ public abstract class AbstractCombinerTest
         assertTrue("Combiner has list nodes", combiner.getListNodes().isEmpty());
         assertFalse("Node is list node", combiner
                 .isListNode(NodeStructureHelper.createNode("test", null)));
+        assertEquals("Wrong parallel threshold",
+                NodeCombiner.DEFAULT_PARALLEL_THRESHOLD,
+                combiner.getParallelThreshold());
+    }
+
+    /**
+     * Tests that a parallel combination produces the same result as a
+     * sequential one. The threshold is set to a minimum, so that tasks are
+     * created for all subtrees.
+     */
+    @Test
+    public void testCombineInParallel() throws ConfigurationException
+    {
+        String expected = printTree(combineTestConfigurations(false));
+        combiner.setParallelThreshold(1);
+        assertEquals("Different result", expected,
+                printTree(combineTestConfigurations(true)));
+    }
+
+    /**
+     * Tests a parallel combination with a threshold for which large subtrees
+     * are processed by separate tasks and small ones sequentially.
+     */
+    @Test
+    public void testCombineInParallelSmallSubtreesSequentially()
+            throws ConfigurationException
+    {
+        String expected = printTree(combineTestConfigurations(false));
+        combiner.setParallelThreshold(8);
+        assertEquals("Different result", expected,
+                printTree(combineTestConfigurations(true)));
+    }
+
+    /**
+     * Tests that an invalid parallel threshold is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetParallelThresholdInvalid()
+    {
+        combiner.setParallelThreshold(0);
     }
 }
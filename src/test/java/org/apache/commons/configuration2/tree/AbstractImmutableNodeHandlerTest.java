@@ -409,6 +409,42 @@ public abstract class AbstractImmutableNodeHandlerTest
         result.clear();
     }
 
+    /**
+     * Tests getMatchingChildren() for the name matcher which uses the index
+     * of child nodes. The result must be the same as for a matcher which
+     * compares all child nodes.
+     */
+    @Test
+    public void testNodeHandlerGetMatchingChildrenByName()
+    {
+        NodeHandler<ImmutableNode> handler = createHandler(ROOT_AUTHORS_TREE);
+        ImmutableNode author =
+                NodeStructureHelper.nodeForKey(ROOT_AUTHORS_TREE,
+                        NodeStructureHelper.author(0));
+        String work = NodeStructureHelper.work(0, 0);
+        NodeMatcher<String> matcher = new NodeMatcher<String>()
+        {
+            @Override
+            public <T> boolean matches(T node, NodeHandler<T> paramHandler,
+                    String criterion)
+            {
+                return criterion.equals(paramHandler.nodeName(node));
+            }
+        };
+
+        List<ImmutableNode> result =
+                handler.getMatchingChildren(author, NodeNameMatchers.EQUALS,
+                        work);
+        assertEquals("Wrong result", handler.getMatchingChildren(author,
+                matcher, work), result);
+        assertEquals("Wrong number of matched nodes", 1, result.size());
+        assertTrue("Found non-existing child",
+                handler.getMatchingChildren(author, NodeNameMatchers.EQUALS,
+                        "unknown").isEmpty());
+        assertEquals("Wrong count", 1, handler.getMatchingChildrenCount(
+                author, NodeNameMatchers.EQUALS, work));
+    }
+
     /**
      * Tests whether filtered nodes can be counted.
      */
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@code CompiledKey}.
+ *
+ * @version $Id$
+ */
+public class TestCompiledKey
+{
+    /**
+     * Creates a compiled key using the default expression engine.
+     *
+     * @param key the key to be compiled
+     * @return the compiled key
+     */
+    private static CompiledKey compile(String key)
+    {
+        return CompiledKey.compile(DefaultExpressionEngine.INSTANCE, key);
+    }
+
+    /**
+     * Tests whether a key with properties, indices, and an attribute is
+     * parsed correctly.
+     */
+    @Test
+    public void testCompileComplexKey()
+    {
+        CompiledKey key = compile("tables.table(1).fields.field[@type]");
+        assertEquals("Wrong size", 5, key.size());
+        assertEquals("Wrong name 0", "tables", key.getName(0));
+        assertFalse("Index 0", key.hasIndex(0));
+        assertEquals("Wrong index 0", -1, key.getIndex(0));
+        assertEquals("Wrong name 1", "table", key.getName(1));
+        assertTrue("No index 1", key.hasIndex(1));
+        assertEquals("Wrong index 1", 1, key.getIndex(1));
+        assertTrue("No property 2", key.isPropertyKey(2));
+        assertFalse("Attribute 2", key.isAttribute(2));
+        assertEquals("Wrong attribute name", "type", key.getName(4));
+        assertTrue("No attribute", key.isAttribute(4));
+        assertFalse("Property", key.isPropertyKey(4));
+        assertTrue("Not last", key.isLast(4));
+        assertFalse("Last", key.isLast(3));
+    }
+
+    /**
+     * Tests that escaped delimiters are resolved.
+     */
+    @Test
+    public void testCompileEscapedDelimiter()
+    {
+        CompiledKey key = compile("connection..settings.usr..name");
+        assertEquals("Wrong size", 2, key.size());
+        assertEquals("Wrong name 0", "connection.settings", key.getName(0));
+        assertEquals("Wrong name 1", "usr.name", key.getName(1));
+    }
+
+    /**
+     * Tests whether a null key is handled.
+     */
+    @Test
+    public void testCompileNullKey()
+    {
+        assertEquals("Wrong size", 0, compile(null).size());
+    }
+
+    /**
+     * Tests the attribute flags in attribute emulating mode. Here the last
+     * key part is both an attribute and a property.
+     */
+    @Test
+    public void testCompileAttributeEmulation()
+    {
+        DefaultExpressionEngineSymbols symbols =
+                new DefaultExpressionEngineSymbols.Builder(
+                        DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS)
+                        .setAttributeEnd(null)
+                        .setAttributeStart(
+                                DefaultExpressionEngineSymbols.DEFAULT_PROPERTY_DELIMITER)
+                        .create();
+        CompiledKey key = CompiledKey.compile(
+                new DefaultExpressionEngine(symbols), "tables.table.type");
+        assertEquals("Wrong size", 3, key.size());
+        assertFalse("Attribute 1", key.isAttribute(1));
+        assertTrue("No attribute 2", key.isAttribute(2));
+        assertTrue("No property 2", key.isPropertyKey(2));
+    }
+}
@@ -21,6 +21,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
@@ -229,6 +231,148 @@ public class TestDefaultExpressionEngine
         checkKeyValue("connection.settings/usr.name", "usr.name", "scott");
     }
 
+    /**
+     * Tests whether the default instance caches parsed keys.
+     */
+    @Test
+    public void testDefaultKeyCacheSize()
+    {
+        assertEquals("Wrong cache size",
+                DefaultExpressionEngine.DEFAULT_KEY_CACHE_SIZE,
+                engine.getKeyCacheSize());
+    }
+
+    /**
+     * Tries to create an instance with a negative key cache size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNegativeKeyCacheSize()
+    {
+        new DefaultExpressionEngine(
+                DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS, null, -1);
+    }
+
+    /**
+     * Tests that queries yield the same results if a key is served from the
+     * cache.
+     */
+    @Test
+    public void testQueryCachedKeys()
+    {
+        engine = new DefaultExpressionEngine(
+                DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS, null, 16);
+        for (int i = 0; i < 2; i++)
+        {
+            checkKey("tables.table.fields.field.name", "name", 10);
+            checkKey("tables.table(1).fields.field.name", "name", 5);
+            checkKey("tables.table[@type]", "type", 2);
+            checkKey("tables.table(2).name", null, 0);
+        }
+        assertEquals("Wrong number of cached keys", 4,
+                engine.getCachedKeyCount());
+    }
+
+    /**
+     * Tests that the key cache does not grow beyond its maximum size.
+     */
+    @Test
+    public void testQueryKeyCacheBounded()
+    {
+        final int cacheSize = 4;
+        engine = new DefaultExpressionEngine(
+                DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS, null,
+                cacheSize);
+        for (int i = 0; i < tables.length; i++)
+        {
+            for (int j = 0; j < fields[i].length; j++)
+            {
+                checkKeyValue("tables.table(" + i + ").fields.field(" + j
+                        + ").name", "name", fields[i][j]);
+                assertTrue("Too many cached keys",
+                        engine.getCachedKeyCount() <= cacheSize);
+            }
+        }
+        testQueryKeys();
+    }
+
+    /**
+     * Tests that the key cache is cleared when it is full and another key is
+     * added.
+     */
+    @Test
+    public void testQueryKeyCacheClearedIfFull()
+    {
+        engine = new DefaultExpressionEngine(
+                DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS, null, 2);
+        checkKey("tables.table.name", "name", 2);
+        checkKey("tables.table[@type]", "type", 2);
+        assertEquals("Wrong number of cached keys", 2,
+                engine.getCachedKeyCount());
+        checkKey("tables.table(0).name", "name", 1);
+        assertEquals("Cache not cleared", 1, engine.getCachedKeyCount());
+    }
+
+    /**
+     * Tests queries if the key cache is disabled.
+     */
+    @Test
+    public void testQueryKeyCacheDisabled()
+    {
+        engine = new DefaultExpressionEngine(
+                DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS, null, 0);
+        testQueryKeys();
+        testQueryNonExistingKeys();
+        assertEquals("Keys were cached", 0, engine.getCachedKeyCount());
+    }
+
+    /**
+     * Tests that the findNodesForKey() method evaluates keys correctly.
+     */
+    @Test
+    public void testFindNodesForKey()
+    {
+        List<QueryResult<ImmutableNode>> results = new ArrayList<>();
+        engine.findNodesForKey(new DefaultConfigurationKey(engine,
+                "tables.table.fields.field(1).name").iterator(), root,
+                results, handler);
+        assertEquals("Wrong number of results", 2, results.size());
+        assertEquals("Wrong result", fields[0][1],
+                results.get(0).getNode().getValue());
+        assertEquals("Wrong result", fields[1][1],
+                results.get(1).getNode().getValue());
+        results.clear();
+        engine.findNodesForKey(new DefaultConfigurationKey(engine,
+                "tables.table(0)[@type]").iterator(), root, results, handler);
+        assertEquals("Wrong number of attribute results", 1, results.size());
+        assertEquals("Wrong attribute", tabTypes[0],
+                results.get(0).getAttributeValue(handler));
+    }
+
+    /**
+     * Tests that query() calls findNodesForKey() for subclasses, so that they
+     * can customize the evaluation of keys.
+     */
+    @Test
+    public void testQuerySubclassUsesFindNodesForKey()
+    {
+        final List<String> evaluatedKeys = new ArrayList<>();
+        engine = new DefaultExpressionEngine(
+                DefaultExpressionEngineSymbols.DEFAULT_SYMBOLS)
+        {
+            @Override
+            protected <T> void findNodesForKey(
+                    DefaultConfigurationKey.KeyIterator keyPart, T node,
+                    Collection<QueryResult<T>> results, NodeHandler<T> handler)
+            {
+                evaluatedKeys.add(keyPart.currentKey());
+                super.findNodesForKey(keyPart, node, results, handler);
+            }
+        };
+        checkKeyValue("tables.table(0).name", "name", tables[0]);
+        assertFalse("Overridden method not called", evaluatedKeys.isEmpty());
+        assertEquals("Keys were cached", 0, engine.getCachedKeyCount());
+    }
+
     /**
      * Tests obtaining keys for nodes.
      */
@@ -447,6 +447,191 @@ public class TestImmutableNode
         assertTrue(node2.getChildren("NotFound").isEmpty());
     }
 
+    /**
+     * Creates a node with multiple children, some of them having the same
+     * name.
+     *
+     * @return the test node
+     */
+    private static ImmutableNode createNodeWithNamedChildren()
+    {
+        ImmutableNode.Builder builder = new ImmutableNode.Builder();
+        for (int i = 0; i < 6; i++)
+        {
+            builder.addChild(new ImmutableNode.Builder()
+                    .name("child" + (i % 3)).value(i).create());
+        }
+        return builder.name(NAME).create();
+    }
+
+    /**
+     * Checks whether the children of the given node with the specified name
+     * are as expected. The results of the named lookup are compared with a
+     * manual iteration over all child nodes.
+     *
+     * @param node the node to check
+     * @param name the name of the children
+     */
+    private static void checkNamedChildren(ImmutableNode node, String name)
+    {
+        List<ImmutableNode> expected = new ArrayList<>();
+        for (ImmutableNode c : node.getChildren())
+        {
+            if (name.equals(c.getNodeName()))
+            {
+                expected.add(c);
+            }
+        }
+        assertEquals("Wrong children for " + name, expected,
+                node.getChildren(name));
+    }
+
+    /**
+     * Tests a named lookup if there are multiple children with the same
+     * name.
+     */
+    @Test
+    public void testGetChildrenByNameMultiple()
+    {
+        ImmutableNode node = createNodeWithNamedChildren();
+        List<ImmutableNode> children = node.getChildren("child1");
+        assertEquals("Wrong number of children", 2, children.size());
+        assertEquals("Wrong child 1", 1, children.get(0).getValue());
+        assertEquals("Wrong child 2", 4, children.get(1).getValue());
+        assertSame("Index not reused", node.getChildrenByName("child1"),
+                node.getChildrenByName("child1"));
+    }
+
+    /**
+     * Tests that the internal list with named children cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetChildrenByNameImmutable()
+    {
+        createNodeWithNamedChildren().getChildrenByName("child0").add(
+                createChild());
+    }
+
+    /**
+     * Tests that the list with named children returned by the public method
+     * is a copy which can be modified without affecting the node.
+     */
+    @Test
+    public void testGetChildrenByNameModifiableCopy()
+    {
+        ImmutableNode node = createNodeWithNamedChildren();
+        List<ImmutableNode> children = node.getChildren("child1");
+        children.add(createChild());
+        Collections.reverse(children);
+        assertEquals("Node was changed", 2, node.getChildren("child1").size());
+        checkNamedChildren(node, "child1");
+        node.getChildren(null).add(createChild());
+    }
+
+    /**
+     * Tests that the index of named children is updated when a child is
+     * added to a node.
+     */
+    @Test
+    public void testGetChildrenByNameAfterAddChild()
+    {
+        ImmutableNode node = createNodeWithNamedChildren();
+        node.getChildrenByName("child2");
+        ImmutableNode child = new ImmutableNode.Builder().name("child1")
+                .value("new").create();
+        ImmutableNode node2 = node.addChild(child);
+        checkNamedChildren(node2, "child1");
+        assertSame("Wrong last child", child,
+                node2.getChildren("child1").get(2));
+        assertSame("Other list not shared", node.getChildrenByName("child2"),
+                node2.getChildrenByName("child2"));
+        assertEquals("Original node changed", 2,
+                node.getChildren("child1").size());
+    }
+
+    /**
+     * Tests that the index of named children is updated when a child is
+     * removed from a node.
+     */
+    @Test
+    public void testGetChildrenByNameAfterRemoveChild()
+    {
+        ImmutableNode node = createNodeWithNamedChildren();
+        node.getChildren("child0");
+        ImmutableNode node2 =
+                node.removeChild(node.getChildren("child2").get(0));
+        checkNamedChildren(node2, "child2");
+        assertEquals("Wrong number of children", 1,
+                node2.getChildren("child2").size());
+        node2 = node2.removeChild(node2.getChildren("child2").get(0));
+        assertTrue("Still children", node2.getChildren("child2").isEmpty());
+        checkNamedChildren(node2, "child0");
+    }
+
+    /**
+     * Tests that the index of named children is updated when a child is
+     * replaced by another one with the same or with a different name.
+     */
+    @Test
+    public void testGetChildrenByNameAfterReplaceChild()
+    {
+        ImmutableNode node = createNodeWithNamedChildren();
+        node.getChildren("child0");
+        ImmutableNode oldChild = node.getChildren("child0").get(1);
+        ImmutableNode node2 = node.replaceChild(oldChild,
+                oldChild.setValue("replaced"));
+        checkNamedChildren(node2, "child0");
+        assertEquals("Not replaced", "replaced",
+                node2.getChildren("child0").get(1).getValue());
+
+        ImmutableNode node3 = node2.replaceChild(
+                node2.getChildren("child0").get(0), oldChild.setName("other"));
+        checkNamedChildren(node3, "child0");
+        checkNamedChildren(node3, "other");
+        checkNamedChildren(node3, "child1");
+    }
+
+    /**
+     * Tests that the index of named children is updated correctly for
+     * children without a name.
+     */
+    @Test
+    public void testGetChildrenByNameUpdatedForNullNames()
+    {
+        ImmutableNode unnamed1 = new ImmutableNode.Builder().value(1).create();
+        ImmutableNode unnamed2 = new ImmutableNode.Builder().value(2).create();
+        ImmutableNode node = createNodeWithNamedChildren().addChild(unnamed1);
+        assertEquals("Wrong unnamed children",
+                Collections.singletonList(unnamed1),
+                node.getChildrenByName(null));
+
+        ImmutableNode node2 = node.addChild(unnamed2).removeChild(unnamed1);
+        assertEquals("Wrong unnamed children (2)",
+                Collections.singletonList(unnamed2),
+                node2.getChildrenByName(null));
+        assertTrue("Wrong children with empty name",
+                node2.getChildrenByName("").isEmpty());
+        checkNamedChildren(node2, "child1");
+    }
+
+    /**
+     * Tests that the index of named children is passed to nodes derived by
+     * changing properties not related to children.
+     */
+    @Test
+    public void testGetChildrenByNameSharedWithDerivedNodes()
+    {
+        ImmutableNode node = createNodeWithNamedChildren();
+        List<ImmutableNode> children = node.getChildrenByName("child1");
+        assertSame("Not shared (value)", children,
+                node.setValue("new").getChildrenByName("child1"));
+        assertSame("Not shared (name)", children,
+                node.setName("new").getChildrenByName("child1"));
+        assertSame("Not shared (attribute)", children,
+                node.setAttribute(ATTR, ATTR_VALUE).getChildrenByName(
+                        "child1"));
+    }
+
     /**
      * Tests whether a new null child node is rejected.
      */
@@ -680,4 +865,45 @@ public class TestImmutableNode
         checkUpdatedNode(node, node2);
         checkChildNodes(node2);
     }
+
+    /**
+     * Tests a sequence of single child updates on a node with many children.
+     */
+    @Test
+    public void testUpdateChildrenOfWideNode()
+    {
+        final int childCount = 500;
+        List<ImmutableNode> expected = new ArrayList<>(childCount);
+        ImmutableNode node = createDefaultNode(VALUE);
+        expected.addAll(node.getChildren());
+        for (int i = 0; i < childCount; i++)
+        {
+            ImmutableNode child = createChild();
+            expected.add(child);
+            node = node.addChild(child);
+        }
+        ImmutableNode replacement = createChild();
+        ImmutableNode removed = expected.remove(childCount / 2);
+        ImmutableNode replaced = expected.set(childCount / 3, replacement);
+        assertEquals("Wrong child by name", replaced,
+                node.getChildren(replaced.getNodeName()).get(0));
+
+        ImmutableNode node2 =
+                node.removeChild(removed).replaceChild(replaced, replacement);
+        checkChildNodes(node2, expected);
+        assertEquals("Wrong named child", replacement,
+                node2.getChildren(replacement.getNodeName()).get(0));
+        assertEquals("Original node changed", childCount + 1, node
+                .getChildren().size());
+    }
+
+    /**
+     * Tests that the list of children of an updated node cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAddChildChildrenUnmodifiable()
+    {
+        ImmutableNode node = createDefaultNode(VALUE).addChild(createChild());
+        node.getChildren().add(createChild());
+    }
 }
@@ -18,6 +18,7 @@ package org.apache.commons.configuration2.tree;
 
 import static org.apache.commons.configuration2.tree.NodeStructureHelper.ROOT_AUTHORS_TREE;
 import static org.apache.commons.configuration2.tree.NodeStructureHelper.ROOT_PERSONAE_TREE;
+import static org.apache.commons.configuration2.tree.NodeStructureHelper.author;
 import static org.apache.commons.configuration2.tree.NodeStructureHelper.nodeForKey;
 import static org.apache.commons.configuration2.tree.NodeStructureHelper.nodePathWithEndNode;
 import static org.junit.Assert.assertEquals;
@@ -43,6 +44,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.easymock.EasyMock;
 import org.easymock.IAnswer;
 import org.junit.Test;
@@ -1076,4 +1078,251 @@ public class TestInMemoryNodeModel
                 NodeStructureHelper.ROOT_AUTHORS_TREE,
                 model.getInMemoryRepresentation());
     }
+
+    /**
+     * Creates a resolver which can handle real keys.
+     *
+     * @return the resolver
+     */
+    private static NodeKeyResolver<ImmutableNode> createKeyResolver()
+    {
+        return new BaseHierarchicalConfiguration();
+    }
+
+    /**
+     * Tests whether the operations of a batch are executed sequentially.
+     */
+    @Test
+    public void testExecuteBatch()
+    {
+        InMemoryNodeModel model = new InMemoryNodeModel();
+        ModelBatch batch = new ModelBatch()
+                .addProperty("a.b", Arrays.asList("v1", "v2"))
+                .setProperty("a.b(1)", "v3")
+                .addProperty("c", Collections.singleton("x"))
+                .clearProperty("c")
+                .addNodes("d", Collections.singleton(
+                        new ImmutableNode.Builder().name("e").value(1).create()))
+                .addProperty("f.g", Collections.singleton("y"))
+                .clearTree("f");
+
+        model.executeBatch(batch, createKeyResolver());
+        ImmutableNode root = model.getRootNode();
+        assertEquals("Wrong number of children", 2, root.getChildren().size());
+        ImmutableNode a = root.getChildren().get(0);
+        assertEquals("Wrong node a", "a", a.getNodeName());
+        assertEquals("Wrong value 1", "v1", a.getChildren().get(0).getValue());
+        assertEquals("Wrong value 2", "v3", a.getChildren().get(1).getValue());
+        ImmutableNode d = root.getChildren().get(1);
+        assertEquals("Wrong node d", "d", d.getNodeName());
+        assertEquals("Wrong added node", "e", d.getChildren().get(0)
+                .getNodeName());
+    }
+
+    /**
+     * Tests whether the parent mapping is consistent after a batch with many
+     * operations has been executed.
+     */
+    @Test
+    public void testExecuteBatchParentMapping()
+    {
+        InMemoryNodeModel model =
+                new InMemoryNodeModel(NodeStructureHelper.ROOT_AUTHORS_TREE);
+        ModelBatch batch = new ModelBatch();
+        final int count = 500;
+        for (int i = 0; i < count; i++)
+        {
+            batch.addProperty("batch.key" + (i % 10),
+                    Collections.singleton(i));
+        }
+
+        model.executeBatch(batch, createKeyResolver());
+        NodeHandler<ImmutableNode> handler = model.getNodeHandler();
+        ImmutableNode batchNode = nodeForKey(model, "batch");
+        assertEquals("Wrong number of nodes", count, batchNode.getChildren()
+                .size());
+        assertSame("Wrong parent of batch node", model.getRootNode(),
+                handler.getParent(batchNode));
+        for (ImmutableNode child : batchNode.getChildren())
+        {
+            assertSame("Wrong parent", batchNode, handler.getParent(child));
+        }
+        assertSame("Wrong parent of author", model.getRootNode(),
+                handler.getParent(nodeForKey(model,
+                        NodeStructureHelper.author(0))));
+    }
+
+    /**
+     * Tests that an empty batch does not change the model.
+     */
+    @Test
+    public void testExecuteBatchEmpty()
+    {
+        InMemoryNodeModel model =
+                new InMemoryNodeModel(NodeStructureHelper.ROOT_AUTHORS_TREE);
+        model.executeBatch(new ModelBatch(), createKeyResolver());
+        assertSame("Root node changed", NodeStructureHelper.ROOT_AUTHORS_TREE,
+                model.getRootNode());
+    }
+
+    /**
+     * Tries to execute a null batch.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteBatchNull()
+    {
+        new InMemoryNodeModel().executeBatch(null, createKeyResolver());
+    }
+
+    /**
+     * Tests whether a batch can be executed on a tracked node.
+     */
+    @Test
+    public void testExecuteBatchTrackedNode()
+    {
+        InMemoryNodeModel model =
+                new InMemoryNodeModel(NodeStructureHelper.ROOT_AUTHORS_TREE);
+        NodeKeyResolver<ImmutableNode> resolver = createKeyResolver();
+        NodeSelector selector = new NodeSelector(NodeStructureHelper.author(0));
+        model.trackNode(selector, resolver);
+
+        model.executeBatch(new ModelBatch().addProperty("newWork",
+                Collections.singleton("test")).addProperty("newWork",
+                Collections.singleton("test2")), selector, resolver);
+        ImmutableNode author = model.getTrackedNode(selector);
+        assertSame("Tracked node not updated", author, nodeForKey(model,
+                NodeStructureHelper.author(0)));
+        assertEquals("Wrong number of children",
+                NodeStructureHelper.worksLength(0) + 2, author.getChildren()
+                        .size());
+        assertSame("Wrong parent", author,
+                model.getNodeHandler().getParent(
+                        nodeForKey(model, NodeStructureHelper.author(0)
+                                + "/newWork(1)")));
+    }
+
+    /**
+     * Tests whether a batch can be executed on a tracked node which has been
+     * detached.
+     */
+    @Test
+    public void testExecuteBatchDetachedTrackedNode()
+    {
+        InMemoryNodeModel model =
+                new InMemoryNodeModel(NodeStructureHelper.ROOT_AUTHORS_TREE);
+        NodeKeyResolver<ImmutableNode> resolver = createKeyResolver();
+        NodeSelector selector = new NodeSelector(NodeStructureHelper.author(0));
+        model.trackNode(selector, resolver);
+        model.clearTree(NodeStructureHelper.author(0), resolver);
+
+        model.executeBatch(new ModelBatch().setProperty("newWork", "test"),
+                selector, resolver);
+        assertTrue("Node was detached", model.isTrackedNodeDetached(selector));
+        assertEquals("Property not set", "test", model.getTrackedNode(selector)
+                .getChildren().get(NodeStructureHelper.worksLength(0))
+                .getValue());
+    }
+
+    /**
+     * Checks whether the parent mapping of the given model is consistent
+     * with its node structure.
+     *
+     * @param model the model
+     */
+    private static void checkParentMapping(InMemoryNodeModel model)
+    {
+        final NodeHandler<ImmutableNode> handler = model.getNodeHandler();
+        assertNull("Root has a parent",
+                handler.getParent(model.getRootNode()));
+        NodeTreeWalker.INSTANCE.walkDFS(model.getRootNode(),
+                new ConfigurationNodeVisitorAdapter<ImmutableNode>()
+                {
+                    @Override
+                    public void visitBeforeChildren(ImmutableNode node,
+                            NodeHandler<ImmutableNode> h)
+                    {
+                        for (ImmutableNode child : node.getChildren())
+                        {
+                            assertSame("Wrong parent of " + child, node,
+                                    handler.getParent(child));
+                        }
+                    }
+                }, handler);
+    }
+
+    /**
+     * Tests that the parent mapping is created on demand.
+     */
+    @Test
+    public void testParentMappingCreatedOnDemand()
+    {
+        InMemoryNodeModel model = new InMemoryNodeModel(ROOT_AUTHORS_TREE);
+        assertFalse("Parent mapping created",
+                model.getTreeData().isParentMappingCreated());
+
+        checkParentMapping(model);
+        assertTrue("No parent mapping",
+                model.getTreeData().isParentMappingCreated());
+    }
+
+    /**
+     * Tests that the parent mapping is kept by update operations. It has to be
+     * created by the first update, and the resulting data must contain it.
+     */
+    @Test
+    public void testParentMappingKeptBySetProperty()
+    {
+        InMemoryNodeModel model = new InMemoryNodeModel(ROOT_AUTHORS_TREE);
+        NodeKeyResolver<ImmutableNode> resolver = createKeyResolver();
+        model.setProperty(author(0) + ".newWork", "value1", resolver);
+        assertTrue("No parent mapping after first update",
+                model.getTreeData().isParentMappingCreated());
+
+        model.setProperty(author(1) + ".newWork", "value2", resolver);
+        assertTrue("No parent mapping after second update",
+                model.getTreeData().isParentMappingCreated());
+        checkParentMapping(model);
+    }
+
+    /**
+     * Tests that the data resulting from a batch has a parent mapping.
+     */
+    @Test
+    public void testParentMappingKeptByBatch()
+    {
+        InMemoryNodeModel model = new InMemoryNodeModel(ROOT_AUTHORS_TREE);
+        model.executeBatch(
+                new ModelBatch().setProperty(author(0) + ".newWork", "v1")
+                        .setProperty(author(1) + ".newWork", "v2")
+                        .clearTree(author(2)), createKeyResolver());
+        assertTrue("No parent mapping",
+                model.getTreeData().isParentMappingCreated());
+        checkParentMapping(model);
+    }
+
+    /**
+     * Tests whether the parent mapping stays consistent if many updates are
+     * performed, so that replacements are applied on the mapping.
+     */
+    @Test
+    public void testParentMappingAfterManyUpdates()
+    {
+        InMemoryNodeModel model = new InMemoryNodeModel(ROOT_AUTHORS_TREE);
+        NodeKeyResolver<ImmutableNode> resolver = createKeyResolver();
+        model.getNodeHandler().getParent(nodeForKey(model, author(0)));
+        for (int i = 0; i < 300; i++)
+        {
+            String key = author(i % NodeStructureHelper.authorsLength());
+            model.addProperty(key + ".work" + (i % 7) + ".page",
+                    Collections.singleton(i), resolver);
+            if (i % 5 == 0)
+            {
+                model.clearTree(key + ".work" + (i % 3), resolver);
+            }
+        }
+
+        checkParentMapping(model);
+        assertTrue("Replacement mapping too big",
+                model.getTreeData().copyReplacementMapping().size() <= 200);
+    }
 }
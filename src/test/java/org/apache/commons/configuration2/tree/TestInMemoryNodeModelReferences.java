@@ -195,6 +195,55 @@ public class TestInMemoryNodeModelReferences
         removedRefs.add("another one");
     }
 
+    /**
+     * Tests whether references are updated correctly by the transactions of a
+     * batch.
+     */
+    @Test
+    public void testQueryReferencesAfterBatch()
+    {
+        model.executeBatch(
+                new ModelBatch()
+                        .addProperty("Simmons.Hyperion",
+                                Collections.singleton("Lamia"))
+                        .addProperty("Simmons.Hyperion",
+                                Collections.singleton("Kassad"))
+                        .clearTree("Shakespeare"), resolver);
+        ReferenceNodeHandler handler = model.getReferenceNodeHandler();
+        assertEquals("Wrong reference 1", "Hyperion",
+                handler.getReference(NodeStructureHelper.nodeForKey(model,
+                        "Simmons/Hyperion")));
+        assertEquals("Wrong reference 2", "Simmons",
+                handler.getReference(NodeStructureHelper.nodeForKey(model,
+                        "Simmons")));
+        assertTrue("Removed reference not found", handler.removedReferences()
+                .contains("Shakespeare"));
+    }
+
+    /**
+     * Tests that the references published by a batch are not changed by a
+     * later batch.
+     */
+    @Test
+    public void testBatchDoesNotModifyPublishedReferences()
+    {
+        model.executeBatch(
+                new ModelBatch().addProperty("Simmons.Hyperion",
+                        Collections.singleton("Lamia")), resolver);
+        ReferenceNodeHandler handler = model.getReferenceNodeHandler();
+        ImmutableNode simmons =
+                NodeStructureHelper.nodeForKey(model, "Simmons");
+
+        model.executeBatch(
+                new ModelBatch().addProperty("Simmons.Hyperion",
+                        Collections.singleton("Kassad")).clearTree("Simmons"),
+                resolver);
+        assertEquals("Reference changed", "Simmons",
+                handler.getReference(simmons));
+        assertTrue("Removed references changed", handler.removedReferences()
+                .isEmpty());
+    }
+
     /**
      * Tests whether a value is taken into account when the root node is merged.
      */
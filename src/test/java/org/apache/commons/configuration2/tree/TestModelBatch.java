@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+/**
+ * Test class for {@code ModelBatch}.
+ *
+ * @version $Id$
+ */
+public class TestModelBatch
+{
+    /** Constant for a test key. */
+    private static final String KEY = "aTestKey";
+
+    /**
+     * Tests a newly created batch.
+     */
+    @Test
+    public void testInitEmpty()
+    {
+        ModelBatch batch = new ModelBatch();
+        assertTrue("Not empty", batch.isEmpty());
+        assertEquals("Wrong size", 0, batch.size());
+    }
+
+    /**
+     * Tests whether operations can be added using method chaining.
+     */
+    @Test
+    public void testAddOperations()
+    {
+        ModelBatch batch = new ModelBatch();
+        assertSame("Wrong result", batch, batch
+                .addProperty(KEY, Collections.singleton("v"))
+                .addNodes(KEY, Collections.<ImmutableNode> emptySet())
+                .setProperty(KEY, "v").clearProperty(KEY).clearTree(KEY));
+        assertFalse("Empty", batch.isEmpty());
+        assertEquals("Wrong size", 5, batch.size());
+    }
+
+    /**
+     * Tests that the values of an add property operation are copied.
+     */
+    @Test
+    public void testAddPropertyValuesCopied()
+    {
+        List<Object> values = new ArrayList<Object>();
+        values.add("v1");
+        ModelBatch batch = new ModelBatch().addProperty(KEY, values);
+        values.add("v2");
+        NodeModel<ImmutableNode> model = createModelMock();
+        NodeKeyResolver<ImmutableNode> resolver = createResolverMock();
+        model.addProperty(KEY, Collections.<Object> singletonList("v1"),
+                resolver);
+        EasyMock.replay(model, resolver);
+
+        batch.applyTo(model, resolver);
+        EasyMock.verify(model);
+    }
+
+    /**
+     * Tests that the nodes of an add nodes operation are copied.
+     */
+    @Test
+    public void testAddNodesCopied()
+    {
+        ImmutableNode node = new ImmutableNode.Builder().name(KEY).create();
+        Collection<ImmutableNode> nodes = new ArrayList<ImmutableNode>();
+        nodes.add(node);
+        ModelBatch batch = new ModelBatch().addNodes(KEY, nodes);
+        nodes.clear();
+        NodeModel<ImmutableNode> model = createModelMock();
+        NodeKeyResolver<ImmutableNode> resolver = createResolverMock();
+        model.addNodes(KEY, Collections.singletonList(node), resolver);
+        EasyMock.replay(model, resolver);
+
+        batch.applyTo(model, resolver);
+        EasyMock.verify(model);
+    }
+
+    /**
+     * Tests whether all operations are applied on a generic node model in
+     * the correct order.
+     */
+    @Test
+    public void testApplyToNodeModel()
+    {
+        NodeModel<ImmutableNode> model = createModelMock();
+        NodeKeyResolver<ImmutableNode> resolver = createResolverMock();
+        EasyMock.checkOrder(model, true);
+        model.setProperty(KEY, "v1", resolver);
+        model.clearProperty(KEY + "2", resolver);
+        EasyMock.expect(model.clearTree(KEY + "3", resolver)).andReturn(
+                null);
+        model.setProperty(KEY + "4", "v2", resolver);
+        EasyMock.replay(model, resolver);
+
+        new ModelBatch().setProperty(KEY, "v1").clearProperty(KEY + "2")
+                .clearTree(KEY + "3").setProperty(KEY + "4", "v2")
+                .applyTo(model, resolver);
+        EasyMock.verify(model);
+    }
+
+    /**
+     * Creates a mock for a node model.
+     *
+     * @return the mock
+     */
+    private static NodeModel<ImmutableNode> createModelMock()
+    {
+        @SuppressWarnings("unchecked")
+        NodeModel<ImmutableNode> model = EasyMock.createMock(NodeModel.class);
+        return model;
+    }
+
+    /**
+     * Creates a mock for a resolver.
+     *
+     * @return the mock
+     */
+    private static NodeKeyResolver<ImmutableNode> createResolverMock()
+    {
+        @SuppressWarnings("unchecked")
+        NodeKeyResolver<ImmutableNode> resolver =
+                EasyMock.createMock(NodeKeyResolver.class);
+        return resolver;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@code PersistentHashMap}.
+ *
+ * @version $Id$
+ */
+public class TestPersistentHashMap
+{
+    /** Constant for the number of nodes used by tests. */
+    private static final int COUNT = 5000;
+
+    /**
+     * Returns an empty map for nodes.
+     *
+     * @return the empty map
+     */
+    private static PersistentHashMap<ImmutableNode, ImmutableNode> emptyMap()
+    {
+        return PersistentHashMap.empty();
+    }
+
+    /**
+     * Creates an array with test nodes.
+     *
+     * @param count the number of nodes
+     * @return the array with the nodes
+     */
+    private static ImmutableNode[] createNodes(int count)
+    {
+        ImmutableNode[] nodes = new ImmutableNode[count];
+        for (int i = 0; i < count; i++)
+        {
+            nodes[i] = new ImmutableNode.Builder().name("node" + i).create();
+        }
+        return nodes;
+    }
+
+    /**
+     * Checks whether the given map has the same content as the reference map.
+     *
+     * @param expected the expected content
+     * @param map the map to be checked
+     * @param nodes all nodes which may be contained
+     */
+    private static void checkMap(Map<ImmutableNode, ImmutableNode> expected,
+            PersistentHashMap<ImmutableNode, ImmutableNode> map,
+            ImmutableNode[] nodes)
+    {
+        assertEquals("Wrong size", expected.size(), map.size());
+        for (ImmutableNode node : nodes)
+        {
+            assertSame("Wrong value for " + node.getNodeName(),
+                    expected.get(node), map.get(node));
+        }
+    }
+
+    /**
+     * Tests the empty map.
+     */
+    @Test
+    public void testEmpty()
+    {
+        assertEquals("Wrong size", 0, emptyMap().size());
+        assertNull("Got a value",
+                emptyMap().get(createNodes(1)[0]));
+    }
+
+    /**
+     * Tests whether entries can be added and replaced.
+     */
+    @Test
+    public void testPut()
+    {
+        ImmutableNode[] nodes = createNodes(COUNT);
+        Map<ImmutableNode, ImmutableNode> expected =
+                new IdentityHashMap<ImmutableNode, ImmutableNode>();
+        PersistentHashMap<ImmutableNode, ImmutableNode> map = emptyMap();
+        for (int i = 0; i < COUNT; i++)
+        {
+            map = map.put(nodes[i], nodes[(i + 1) % COUNT]);
+            expected.put(nodes[i], nodes[(i + 1) % COUNT]);
+        }
+        checkMap(expected, map, nodes);
+
+        map = map.put(nodes[0], nodes[2]);
+        expected.put(nodes[0], nodes[2]);
+        checkMap(expected, map, nodes);
+    }
+
+    /**
+     * Tests that an update does not affect the original map.
+     */
+    @Test
+    public void testUpdatesArePersistent()
+    {
+        ImmutableNode[] nodes = createNodes(COUNT);
+        PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                emptyMap().builder();
+        for (ImmutableNode node : nodes)
+        {
+            builder.put(node, nodes[0]);
+        }
+        PersistentHashMap<ImmutableNode, ImmutableNode> map = builder.build();
+
+        PersistentHashMap<ImmutableNode, ImmutableNode> map2 =
+                map.put(nodes[1], nodes[2]).remove(nodes[3]);
+        PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder2 =
+                map.builder();
+        builder2.remove(nodes[4]).put(nodes[5], nodes[6]);
+        PersistentHashMap<ImmutableNode, ImmutableNode> map3 = builder2.build();
+        assertEquals("Wrong size", COUNT, map.size());
+        assertSame("Value changed (1)", nodes[0], map.get(nodes[1]));
+        assertSame("Value removed (1)", nodes[0], map.get(nodes[3]));
+        assertSame("Value removed (2)", nodes[0], map.get(nodes[4]));
+        assertSame("Value changed (2)", nodes[0], map.get(nodes[5]));
+        assertSame("Wrong value (1)", nodes[2], map2.get(nodes[1]));
+        assertNull("Not removed (1)", map2.get(nodes[3]));
+        assertSame("Wrong value (2)", nodes[0], map2.get(nodes[4]));
+        assertNull("Not removed (2)", map3.get(nodes[4]));
+        assertSame("Wrong value (3)", nodes[6], map3.get(nodes[5]));
+        assertEquals("Wrong size (2)", COUNT - 1, map3.size());
+    }
+
+    /**
+     * Tests a random sequence of updates against a reference map.
+     */
+    @Test
+    public void testRandomUpdates()
+    {
+        ImmutableNode[] nodes = createNodes(COUNT);
+        Map<ImmutableNode, ImmutableNode> expected =
+                new IdentityHashMap<ImmutableNode, ImmutableNode>();
+        Random random = new Random(42);
+        PersistentHashMap<ImmutableNode, ImmutableNode> map = emptyMap();
+        for (int round = 0; round < 10; round++)
+        {
+            PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                    map.builder();
+            for (int i = 0; i < COUNT; i++)
+            {
+                ImmutableNode key = nodes[random.nextInt(COUNT)];
+                if (random.nextInt(3) == 0)
+                {
+                    builder.remove(key);
+                    expected.remove(key);
+                }
+                else
+                {
+                    ImmutableNode value = nodes[random.nextInt(COUNT)];
+                    builder.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+            map = builder.build();
+            checkMap(expected, map, nodes);
+        }
+    }
+
+    /**
+     * Tests whether all entries can be removed.
+     */
+    @Test
+    public void testRemoveAll()
+    {
+        ImmutableNode[] nodes = createNodes(COUNT);
+        PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                emptyMap().builder();
+        for (ImmutableNode node : nodes)
+        {
+            builder.put(node, node);
+        }
+        for (ImmutableNode node : nodes)
+        {
+            builder.remove(node);
+        }
+        assertSame("Not empty", emptyMap(), builder.build());
+    }
+
+    /**
+     * Tests that removing a non-existing key does not change the map.
+     */
+    @Test
+    public void testRemoveNonExisting()
+    {
+        ImmutableNode[] nodes = createNodes(2);
+        PersistentHashMap<ImmutableNode, ImmutableNode> map =
+                emptyMap().put(nodes[0], nodes[1]);
+        PersistentHashMap<ImmutableNode, ImmutableNode> map2 =
+                map.remove(nodes[1]);
+        assertEquals("Wrong size", 1, map2.size());
+        assertSame("Wrong value", nodes[1], map2.get(nodes[0]));
+    }
+
+    /**
+     * Tries to use a builder after the map has been created.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderAfterBuild()
+    {
+        PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                emptyMap().builder();
+        builder.build();
+        ImmutableNode node = createNodes(1)[0];
+        builder.put(node, node);
+    }
+
+    /**
+     * Tests that a builder can still be used after a snapshot was created.
+     */
+    @Test
+    public void testBuilderSnapshot()
+    {
+        ImmutableNode[] nodes = createNodes(2);
+        PersistentHashMap.Builder<ImmutableNode, ImmutableNode> builder =
+                emptyMap().builder();
+        builder.put(nodes[0], nodes[1]);
+        PersistentHashMap<ImmutableNode, ImmutableNode> snapshot =
+                builder.snapshot();
+        assertSame("Wrong value in snapshot", nodes[1], snapshot.get(nodes[0]));
+
+        builder.put(nodes[1], nodes[0]);
+        PersistentHashMap<ImmutableNode, ImmutableNode> map = builder.build();
+        assertEquals("Wrong size", 2, map.size());
+        assertSame("Wrong value", nodes[0], map.get(nodes[1]));
+    }
+
+    /**
+     * Tests that keys which are not nodes are compared using equals().
+     */
+    @Test
+    public void testEqualKeys()
+    {
+        PersistentHashMap<String, Integer> map =
+                PersistentHashMap.<String, Integer> empty().put("key", 1);
+        String key = new StringBuilder("k").append("ey").toString();
+        assertEquals("Wrong value", Integer.valueOf(1), map.get(key));
+
+        map = map.put(key, 2);
+        assertEquals("Wrong size", 1, map.size());
+        assertEquals("Value not replaced", Integer.valueOf(2), map.get("key"));
+        assertEquals("Not removed", 0, map.remove(key).size());
+    }
+
+    /**
+     * Tests whether keys with the same hash code are handled correctly.
+     */
+    @Test
+    public void testHashCollisions()
+    {
+        // "Aa" and "BB" have the same hash code
+        PersistentHashMap<String, Integer> map =
+                PersistentHashMap.<String, Integer> empty().put("Aa", 1)
+                        .put("BB", 2);
+        assertEquals("Wrong size", 2, map.size());
+        assertEquals("Wrong value (1)", Integer.valueOf(1), map.get("Aa"));
+        assertEquals("Wrong value (2)", Integer.valueOf(2), map.get("BB"));
+
+        PersistentHashMap<String, Integer> map2 = map.remove("Aa");
+        assertNull("Not removed", map2.get("Aa"));
+        assertEquals("Wrong value (3)", Integer.valueOf(2), map2.get("BB"));
+        assertEquals("Original map changed", Integer.valueOf(1),
+                map.get("Aa"));
+    }
+}
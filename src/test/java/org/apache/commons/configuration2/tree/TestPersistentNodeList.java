@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.configuration2.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@code PersistentNodeList}.
+ *
+ * @version $Id$
+ */
+public class TestPersistentNodeList
+{
+    /** Constant for the number of nodes used by tests for large lists. */
+    private static final int COUNT = 1000;
+
+    /**
+     * Creates a list with test nodes.
+     *
+     * @param count the number of nodes
+     * @return the list with test nodes
+     */
+    private static List<ImmutableNode> createNodes(int count)
+    {
+        List<ImmutableNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            nodes.add(createNode(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Creates a test node with a name derived from the given index.
+     *
+     * @param index the index
+     * @return the test node
+     */
+    private static ImmutableNode createNode(int index)
+    {
+        return new ImmutableNode.Builder().name("node" + index).create();
+    }
+
+    /**
+     * Checks whether a persistent list contains the expected elements. The
+     * elements are accessed both by index and by iteration.
+     *
+     * @param expected the expected elements
+     * @param list the list to be checked
+     */
+    private static void checkList(List<ImmutableNode> expected,
+            PersistentNodeList list)
+    {
+        assertEquals("Wrong size", expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertSame("Wrong element at " + i, expected.get(i), list.get(i));
+        }
+        Iterator<ImmutableNode> it = list.iterator();
+        for (ImmutableNode node : expected)
+        {
+            assertSame("Wrong element in iteration", node, it.next());
+        }
+        assertFalse("Too many elements", it.hasNext());
+    }
+
+    /**
+     * Tests an empty list.
+     */
+    @Test
+    public void testEmpty()
+    {
+        assertTrue("Not empty", PersistentNodeList.EMPTY.isEmpty());
+        assertSame("Wrong empty list", PersistentNodeList.EMPTY,
+                PersistentNodeList.from(Collections.<ImmutableNode> emptyList()));
+        assertFalse("Got elements",
+                PersistentNodeList.EMPTY.iterator().hasNext());
+    }
+
+    /**
+     * Tests whether a list can be created from a collection.
+     */
+    @Test
+    public void testFromCollection()
+    {
+        List<ImmutableNode> nodes = createNodes(COUNT);
+        PersistentNodeList list = PersistentNodeList.from(nodes);
+        checkList(nodes, list);
+        assertEquals("Not equal", nodes, list);
+        assertEquals("Wrong hash code", nodes.hashCode(), list.hashCode());
+    }
+
+    /**
+     * Tests that from() returns a persistent list directly.
+     */
+    @Test
+    public void testFromPersistentList()
+    {
+        PersistentNodeList list = PersistentNodeList.from(createNodes(10));
+        assertSame("Not same list", list, PersistentNodeList.from(list));
+    }
+
+    /**
+     * Tests whether elements can be appended.
+     */
+    @Test
+    public void testAppend()
+    {
+        List<ImmutableNode> nodes = createNodes(COUNT);
+        PersistentNodeList list = PersistentNodeList.EMPTY;
+        for (ImmutableNode node : nodes)
+        {
+            list = list.append(node);
+        }
+        checkList(nodes, list);
+    }
+
+    /**
+     * Tests that updates do not affect the original list.
+     */
+    @Test
+    public void testUpdatesPreserveOriginal()
+    {
+        List<ImmutableNode> nodes = createNodes(COUNT);
+        PersistentNodeList list = PersistentNodeList.from(nodes);
+        list.append(createNode(COUNT));
+        list.insert(COUNT / 2, createNode(COUNT));
+        list.update(1, createNode(COUNT));
+        list.delete(0);
+        checkList(nodes, list);
+    }
+
+    /**
+     * Tests a sequence of random updates against a reference list.
+     */
+    @Test
+    public void testRandomUpdates()
+    {
+        Random random = new Random(20161017L);
+        List<ImmutableNode> expected = new ArrayList<>();
+        PersistentNodeList list = PersistentNodeList.EMPTY;
+        for (int i = 0; i < 5 * COUNT; i++)
+        {
+            int op = random.nextInt(4);
+            ImmutableNode node = createNode(i);
+            if (op == 0 || expected.isEmpty())
+            {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, node);
+                list = list.insert(index, node);
+            }
+            else if (op == 1)
+            {
+                int index = random.nextInt(expected.size());
+                expected.set(index, node);
+                list = list.update(index, node);
+            }
+            else if (op == 2)
+            {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                list = list.delete(index);
+            }
+            else
+            {
+                expected.add(node);
+                list = list.append(node);
+            }
+        }
+        checkList(expected, list);
+    }
+
+    /**
+     * Tests that all elements of a list can be removed.
+     */
+    @Test
+    public void testDeleteAll()
+    {
+        PersistentNodeList list = PersistentNodeList.from(createNodes(COUNT));
+        while (!list.isEmpty())
+        {
+            list = list.delete(list.size() / 2);
+        }
+        assertSame("Not the empty list", PersistentNodeList.EMPTY, list);
+    }
+
+    /**
+     * Tests whether a node can be replaced by identity.
+     */
+    @Test
+    public void testReplaceNode()
+    {
+        List<ImmutableNode> nodes = createNodes(COUNT);
+        ImmutableNode oldNode = nodes.get(COUNT - 1);
+        nodes.set(1, oldNode);
+        PersistentNodeList list = PersistentNodeList.from(nodes);
+        ImmutableNode newNode = createNode(COUNT);
+
+        PersistentNodeList list2 = list.replaceNode(oldNode, newNode);
+        nodes.set(1, newNode);
+        nodes.set(COUNT - 1, newNode);
+        checkList(nodes, list2);
+    }
+
+    /**
+     * Tests replaceNode() if the node is not contained in the list.
+     */
+    @Test
+    public void testReplaceNodeNotFound()
+    {
+        PersistentNodeList list = PersistentNodeList.from(createNodes(10));
+        assertSame("List was changed", list,
+                list.replaceNode(createNode(0), createNode(1)));
+    }
+
+    /**
+     * Tests whether a node can be removed by identity.
+     */
+    @Test
+    public void testRemoveNode()
+    {
+        List<ImmutableNode> nodes = createNodes(COUNT);
+        ImmutableNode node = nodes.get(0);
+        nodes.set(COUNT / 2, node);
+        PersistentNodeList list = PersistentNodeList.from(nodes);
+
+        PersistentNodeList list2 = list.removeNode(node);
+        nodes.remove(COUNT / 2);
+        nodes.remove(0);
+        checkList(nodes, list2);
+    }
+
+    /**
+     * Tests removeNode() if the node is not contained in the list.
+     */
+    @Test
+    public void testRemoveNodeNotFound()
+    {
+        PersistentNodeList list = PersistentNodeList.from(createNodes(10));
+        assertSame("List was changed", list, list.removeNode(createNode(0)));
+    }
+
+    /**
+     * Tests an access with an invalid index.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetInvalidIndex()
+    {
+        PersistentNodeList.from(createNodes(10)).get(10);
+    }
+
+    /**
+     * Tests that the iterator throws an exception if it is exhausted.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testIteratorExhausted()
+    {
+        Iterator<ImmutableNode> it =
+                PersistentNodeList.from(createNodes(1)).iterator();
+        it.next();
+        it.next();
+    }
+
+    /**
+     * Tests that the list cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testModify()
+    {
+        PersistentNodeList.from(createNodes(1)).add(createNode(1));
+    }
+
+    /**
+     * Tests that the list cannot be modified via its iterator.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIteratorRemove()
+    {
+        Iterator<ImmutableNode> it =
+                PersistentNodeList.from(createNodes(1)).iterator();
+        it.next();
+        it.remove();
+    }
+}